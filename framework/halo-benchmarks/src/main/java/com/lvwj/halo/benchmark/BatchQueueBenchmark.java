@@ -0,0 +1,128 @@
+package com.lvwj.halo.benchmark;
+
+import com.lvwh.halo.batchhandler.BatchHandlerConstant;
+import com.lvwh.halo.batchhandler.BatchQueueFullPolicy;
+import com.lvwh.halo.batchhandler.queue.AbstractBatchQueue;
+import com.lvwh.halo.batchhandler.queue.MemoryBatchQueue;
+import com.lvwh.halo.batchhandler.queue.RingBatchQueue;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批处理队列基准：LinkedBlockingDeque(MEMORY) 对比 环形数组(RING)
+ * <p>
+ * 每组N个生产者put，1个消费者按批次take，与BatchHandler的投递/拉取模型一致；drained计数为消费者实际取出的元素数。
+ * RING使用CALLER_RUNS策略：每轮结束时消费者可能先于生产者退出，BLOCK策略下写满的生产者会一直等待
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 14:00
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BatchQueueBenchmark {
+
+    private static final Object ITEM = new Object();
+
+    private static final int BATCH = BatchHandlerConstant.DEFAULT_THRESH_HOLD;
+
+    @State(Scope.Group)
+    public static class QueueState {
+
+        @Param({"MEMORY", "RING"})
+        public String type;
+
+        AbstractBatchQueue<Object> queue;
+
+        /**
+         * 每轮重建队列，避免无界队列积压的元素影响下一轮
+         */
+        @Setup(Level.Iteration)
+        public void setUp() {
+            queue = "RING".equals(type)
+                    ? new RingBatchQueue<>(BatchHandlerConstant.DEFAULT_RING_CAPACITY, BatchQueueFullPolicy.CALLER_RUNS, List::clear)
+                    : new MemoryBatchQueue<>();
+        }
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Drained {
+
+        public long drained;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            drained = 0;
+        }
+    }
+
+    @Benchmark
+    @Group("producers1")
+    @GroupThreads(1)
+    public void put1(QueueState state) {
+        state.queue.put(ITEM);
+    }
+
+    @Benchmark
+    @Group("producers1")
+    @GroupThreads(1)
+    public void take1(QueueState state, Drained drained) {
+        take(state, drained);
+    }
+
+    @Benchmark
+    @Group("producers8")
+    @GroupThreads(8)
+    public void put8(QueueState state) {
+        state.queue.put(ITEM);
+    }
+
+    @Benchmark
+    @Group("producers8")
+    @GroupThreads(1)
+    public void take8(QueueState state, Drained drained) {
+        take(state, drained);
+    }
+
+    @Benchmark
+    @Group("producers32")
+    @GroupThreads(32)
+    public void put32(QueueState state) {
+        state.queue.put(ITEM);
+    }
+
+    @Benchmark
+    @Group("producers32")
+    @GroupThreads(1)
+    public void take32(QueueState state, Drained drained) {
+        take(state, drained);
+    }
+
+    private static void take(QueueState state, Drained drained) {
+        List<Object> list = state.queue.take(BATCH);
+        if (list.isEmpty()) {
+            Thread.onSpinWait();
+            return;
+        }
+        drained.drained += list.size();
+    }
+}
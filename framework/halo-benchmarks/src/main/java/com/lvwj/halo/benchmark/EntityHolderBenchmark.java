@@ -0,0 +1,270 @@
+package com.lvwj.halo.benchmark;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.annotation.Version;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.lvwj.halo.common.models.entity.IEntity;
+import com.lvwj.halo.mybatisplus.annotation.JoinEntity;
+import com.lvwj.halo.mybatisplus.entity.EntityHolder;
+import com.lvwj.halo.mybatisplus.entity.EntityHolder.EntityField;
+import com.lvwj.halo.mybatisplus.mapper.CustomMapper;
+import org.apache.ibatis.mapping.Environment;
+import org.h2.jdbcx.JdbcDataSource;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 数据实体字段访问基准：改造前的线性查找+反射(LINEAR) 对比 字段索引+MethodHandle(INDEX)
+ * <p>
+ * 按TrackServiceImpl保存1000个子实体的聚合时对EntityHolder的调用顺序回放：判断版本号字段、展开关联字段、
+ * 逐个子实体按变更字段名取字段/取值/写入更新实体；不执行SQL，只比较元数据访问开销
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 15:40
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EntityHolderBenchmark {
+
+    private static final int CHILDREN = 1000;
+
+    private static final List<String> CHANGED = List.of("qty", "price", "remark");
+
+    @Param({"LINEAR", "INDEX"})
+    public String access;
+
+    private Accessor accessor;
+
+    private OrderPO order;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:entity_holder_benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setEnvironment(new Environment("benchmark", new SpringManagedTransactionFactory(), dataSource));
+        configuration.addMapper(OrderMapper.class);
+        configuration.addMapper(ItemMapper.class);
+        SqlSessionTemplate template = new SqlSessionTemplate(new MybatisSqlSessionFactoryBuilder().build(configuration));
+
+        EntityHolder holder = new EntityHolder();
+        Field mappers = EntityHolder.class.getDeclaredField("mappers");
+        mappers.setAccessible(true);
+        mappers.set(holder, List.of(template.getMapper(OrderMapper.class), template.getMapper(ItemMapper.class)));
+        holder.init();
+
+        accessor = "LINEAR".equals(access) ? new LinearAccessor() : new IndexAccessor();
+        order = new OrderPO();
+        order.id = 1L;
+        order.orderNo = "SO1";
+        order.version = 1;
+        order.items = new ArrayList<>(CHILDREN);
+        for (int i = 0; i < CHILDREN; i++) {
+            ItemPO item = new ItemPO();
+            item.id = 10_000L + i;
+            item.orderId = order.id;
+            item.sku = "SKU-" + i;
+            item.qty = i;
+            item.price = new BigDecimal("9.99");
+            item.remark = "remark" + i;
+            order.items.add(item);
+        }
+    }
+
+    @Benchmark
+    public List<Object> saveByTrack() {
+        List<Object> updates = new ArrayList<>(CHILDREN + 1);
+        if (accessor.hasVersionField(OrderPO.class)) {
+            updates.add(accessor.getFieldValue(order, EntityHolder.VERSION));
+        }
+        //doGetEntityList：展开关联字段
+        List<IEntity<?>> entities = new ArrayList<>(CHILDREN);
+        for (EntityField joinField : accessor.getEntityJoinFields(OrderPO.class)) {
+            entities.addAll((Collection<IEntity<?>>) accessor.getFieldValue(order, joinField.getFieldName()));
+        }
+        //doUpdate：按变更字段名构造更新实体
+        for (IEntity<?> newEntity : entities) {
+            Object entity = null;
+            for (String propertyName : CHANGED) {
+                EntityField entityField = accessor.getEntityField(ItemPO.class, propertyName);
+                if (null == entityField) {
+                    continue;
+                }
+                Object right = accessor.getFieldValue(newEntity, propertyName);
+                if (entityField.allowUpdate(right)) {
+                    if (entity == null) {
+                        entity = new ItemPO();
+                        accessor.setFieldValue(entity, "id", newEntity.getId());
+                    }
+                    accessor.setFieldValue(entity, propertyName, right);
+                }
+            }
+            if (null != entity) {
+                updates.add(entity);
+            }
+        }
+        return updates;
+    }
+
+    interface Accessor {
+
+        EntityField getEntityField(Class<?> entityClass, String fieldName);
+
+        Object getFieldValue(Object entity, String fieldName);
+
+        void setFieldValue(Object entity, String fieldName, Object value);
+
+        List<EntityField> getEntityJoinFields(Class<?> entityClass);
+
+        boolean hasVersionField(Class<?> entityClass);
+    }
+
+    static final class IndexAccessor implements Accessor {
+
+        @Override
+        public EntityField getEntityField(Class<?> entityClass, String fieldName) {
+            return EntityHolder.getEntityField(entityClass, fieldName);
+        }
+
+        @Override
+        public Object getFieldValue(Object entity, String fieldName) {
+            return EntityHolder.getFieldValue(entity, fieldName);
+        }
+
+        @Override
+        public void setFieldValue(Object entity, String fieldName, Object value) {
+            EntityHolder.setFieldValue(entity, fieldName, value);
+        }
+
+        @Override
+        public List<EntityField> getEntityJoinFields(Class<?> entityClass) {
+            return EntityHolder.getEntityJoinFields(entityClass);
+        }
+
+        @Override
+        public boolean hasVersionField(Class<?> entityClass) {
+            return EntityHolder.hasVersionField(entityClass);
+        }
+    }
+
+    /**
+     * 改造前的实现：字段列表线性查找，每次调用都新建stream，取值/赋值走反射
+     */
+    static final class LinearAccessor implements Accessor {
+
+        private final Map<Class<?>, List<EntityField>> fieldMap = new HashMap<>();
+
+        LinearAccessor() {
+            fieldMap.put(OrderPO.class, EntityHolder.getEntityFields(OrderPO.class));
+            fieldMap.put(ItemPO.class, EntityHolder.getEntityFields(ItemPO.class));
+        }
+
+        @Override
+        public EntityField getEntityField(Class<?> entityClass, String fieldName) {
+            return fieldMap.getOrDefault(entityClass, new ArrayList<>()).stream().filter(s -> s.matchName(fieldName)).findFirst().orElse(null);
+        }
+
+        @Override
+        public Object getFieldValue(Object entity, String fieldName) {
+            EntityField entityField = getEntityField(entity.getClass(), fieldName);
+            if (null == entityField) {
+                return null;
+            }
+            ReflectionUtils.makeAccessible(entityField.getField());
+            return ReflectionUtils.getField(entityField.getField(), entity);
+        }
+
+        @Override
+        public void setFieldValue(Object entity, String fieldName, Object value) {
+            EntityField entityField = getEntityField(entity.getClass(), fieldName);
+            if (null == entityField) {
+                return;
+            }
+            ReflectionUtils.makeAccessible(entityField.getField());
+            ReflectionUtils.setField(entityField.getField(), entity, value);
+        }
+
+        @Override
+        public List<EntityField> getEntityJoinFields(Class<?> entityClass) {
+            return fieldMap.getOrDefault(entityClass, new ArrayList<>()).stream().filter(EntityField::isJoinEntity).collect(Collectors.toList());
+        }
+
+        @Override
+        public boolean hasVersionField(Class<?> entityClass) {
+            return fieldMap.getOrDefault(entityClass, new ArrayList<>()).stream().anyMatch(s -> s.matchName(EntityHolder.VERSION));
+        }
+    }
+
+    @TableName("t_order")
+    public static class OrderPO implements IEntity<Long> {
+        @TableId
+        private Long id;
+        private String orderNo;
+        @Version
+        private Integer version;
+        @TableField(exist = false)
+        @JoinEntity(foreignKey = "orderId")
+        private List<ItemPO> items;
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+
+    @TableName("t_order_item")
+    public static class ItemPO implements IEntity<Long> {
+        @TableId
+        private Long id;
+        private Long orderId;
+        private String sku;
+        private String skuName;
+        private String spec;
+        private String unit;
+        private Integer qty;
+        private BigDecimal price;
+        private BigDecimal amount;
+        private String remark;
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+
+    public interface OrderMapper extends CustomMapper<OrderPO> {
+    }
+
+    public interface ItemMapper extends CustomMapper<ItemPO> {
+    }
+}
@@ -0,0 +1,142 @@
+package com.lvwj.halo.benchmark;
+
+import com.lvwj.halo.join.JoinInMemory;
+import com.lvwj.halo.join.JoinItemExecutor;
+import com.lvwj.halo.join.support.JoinInMemoryBasedJoinItemExecutorFactory;
+import com.lvwj.halo.join.support.JoinItemExecutorAdapter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 内存join基准：解释执行spEl(INTERPRETED) 对比 预编译访问器(COMPILED)，每次对10000行源数据执行一次join
+ * <p>
+ * INTERPRETED按改造前DataGetter/DataSetter的方式用StandardEvaluationContext逐行求值，COMPILED由JoinInMemoryBasedJoinItemExecutorFactory创建
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 16:00
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JoinItemExecutorBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    private static final int USERS = 1_000;
+
+    private static final ExpressionParser PARSER = new SpelExpressionParser();
+
+    /**
+     * 改造前的DataSetter：属性名解释执行写入
+     */
+    private static final Expression SETTER = PARSER.parseExpression("user");
+
+    @Param({"INTERPRETED", "COMPILED"})
+    public String expression;
+
+    private JoinItemExecutor executor;
+
+    private List<Object> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchFieldException {
+        UserLoader userLoader = new UserLoader();
+        BeanResolver beanResolver = (context, beanName) -> userLoader;
+        JoinInMemory ann = OrderVO.class.getField("user").getAnnotation(JoinInMemory.class);
+        executor = "COMPILED".equals(expression)
+                ? new JoinInMemoryBasedJoinItemExecutorFactory(beanResolver).createForType(OrderVO.class).get(0)
+                : new JoinItemExecutorAdapter("user", OrderVO.class, OrderVO.class.getField("user"), 0,
+                interpreted(ann.keyFromSourceData(), beanResolver),
+                interpreted(ann.joinDataLoader(), beanResolver),
+                interpreted(ann.keyFromJoinData(), beanResolver),
+                Function.identity(),
+                (data, result) -> SETTER.setValue(data, result.get(0)),
+                null,
+                null);
+        orders = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            orders.add(new OrderVO(i, (long) (i % USERS)));
+        }
+    }
+
+    @Benchmark
+    public List<Object> execute() {
+        executor.execute(orders);
+        return orders;
+    }
+
+    /**
+     * 改造前的DataGetter：模板表达式解释执行
+     */
+    private static <T, R> Function<T, R> interpreted(String expStr, BeanResolver beanResolver) {
+        Expression expression = PARSER.parseExpression(expStr, new TemplateParserContext());
+        StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+        evaluationContext.setBeanResolver(beanResolver);
+        return data -> null == data ? null : (R) expression.getValue(evaluationContext, data);
+    }
+
+    public static class UserLoader {
+
+        private final Map<Long, User> users = new HashMap<>();
+
+        UserLoader() {
+            for (long i = 0; i < USERS; i++) {
+                users.put(i, new User(i, "user" + i));
+            }
+        }
+
+        public List<User> find(List<Object> keys) {
+            return keys.stream().map(users::get).collect(Collectors.toList());
+        }
+    }
+
+    public static class OrderVO {
+        public Integer id;
+        public Long userId;
+
+        @JoinInMemory(keyFromSourceData = "#{userId}", keyFromJoinData = "#{id}", joinDataLoader = "#{@userLoader.find(#root)}")
+        public User user;
+
+        OrderVO(Integer id, Long userId) {
+            this.id = id;
+            this.userId = userId;
+        }
+    }
+
+    public static class User {
+        public Long id;
+        public String name;
+
+        User(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.lvwj.halo.benchmark;
+
+import com.lvwj.halo.number.constant.NumberConstant;
+import com.lvwj.halo.number.constant.RuleModeEnum;
+import com.lvwj.halo.number.manager.NumberManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * 改造前的号段分配实现，作为基准对照：取号前后加锁，每次取号都重新解析规则的模式/步长并调用LocalDate.now()
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 14:30
+ */
+class LegacyNumberManager implements NumberManager {
+
+    private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private final Map<String, Segment> buffer = new ConcurrentHashMap<>();
+
+    private final Map<String, Object> bufferLocks = new ConcurrentHashMap<>();
+
+    private final ToLongBiFunction<String, Integer> reserve;
+
+    LegacyNumberManager(ToLongBiFunction<String, Integer> reserve) {
+        this.reserve = reserve;
+    }
+
+    @Override
+    public Long nextNum(String ruleId) {
+        Long next;
+        while (true) {
+            next = getFromBuffer(ruleId);
+            if (null != next) {
+                break;
+            }
+            synchronized (LOCKS.computeIfAbsent(ruleId, s -> new Object())) {
+                try {
+                    next = getFromBuffer(ruleId);
+                    if (null != next) {
+                        break;
+                    }
+                    next = load(ruleId, true);
+                    if (null != next) {
+                        break;
+                    }
+                } finally {
+                    LOCKS.remove(ruleId);
+                }
+            }
+        }
+        if (getStep(ruleId) > NumberConstant.STEP_MIN) {
+            asyncLoad(ruleId);
+        }
+        return next;
+    }
+
+    private Long load(String ruleId, boolean sync) {
+        Long firstNum = null;
+        int step = getStep(ruleId);
+        long max = reserve.applyAsLong(cacheKey(ruleId, getMode(ruleId)), step);
+        long current = max - step;
+        if (sync) {
+            firstNum = current + 1;
+            current = firstNum;
+        }
+        if (current < max) {
+            addToBuffer(ruleId, current, max);
+        }
+        return firstNum;
+    }
+
+    private Long getFromBuffer(String ruleId) {
+        Segment segment = buffer.get(ruleId);
+        return null == segment ? null : segment.nextId();
+    }
+
+    private void addToBuffer(String ruleId, long current, long max) {
+        Segment segment = buffer.get(ruleId);
+        if (null == segment) {
+            synchronized (bufferLocks.computeIfAbsent(ruleId, s -> new Object())) {
+                try {
+                    segment = buffer.get(ruleId);
+                    if (null == segment) {
+                        segment = new Segment(ruleId);
+                        segment.initId(current, max);
+                        buffer.put(ruleId, segment);
+                    } else {
+                        segment.loadId(current, max);
+                    }
+                } finally {
+                    bufferLocks.remove(ruleId);
+                }
+            }
+        } else {
+            segment.loadId(current, max);
+        }
+    }
+
+    private void asyncLoad(String ruleId) {
+        Segment segment = buffer.get(ruleId);
+        if (null == segment || !segment.needLoad()) {
+            return;
+        }
+        try {
+            CompletableFuture.runAsync(() -> load(ruleId, false), NumberConstant.LOAD_POOL);
+        } catch (RejectedExecutionException e) {
+            //改造前needLoad期间每次取号都提交预加载，高并发下会打满加载线程池，这里忽略以便基准继续运行
+        }
+    }
+
+    private static int getStep(String ruleId) {
+        String[] split = ruleId.split("#");
+        int step = NumberConstant.DEFAULT_STEP;
+        if (split.length > 2) {
+            step = Integer.parseInt(split[2]);
+        }
+        return Math.max(NumberConstant.STEP_MIN, Math.min(step, NumberConstant.STEP_MAX));
+    }
+
+    private static double getLoadFactor(String ruleId) {
+        String[] split = ruleId.split("#");
+        return split.length > 3 ? Double.parseDouble(split[3]) : NumberConstant.DEFAULT_LOAD_FACTOR;
+    }
+
+    private static RuleModeEnum getMode(String ruleId) {
+        String[] split = ruleId.split("#");
+        if (split.length > 1) {
+            for (RuleModeEnum mode : new RuleModeEnum[]{RuleModeEnum.D, RuleModeEnum.M, RuleModeEnum.Y}) {
+                if (split[1].equalsIgnoreCase(mode.name())) {
+                    return mode;
+                }
+            }
+        }
+        return RuleModeEnum.G;
+    }
+
+    /**
+     * 改造前的双号段：读写锁保护下标切换，判断过期时每次解析模式并比较LocalDate.now()
+     */
+    private static final class Segment {
+
+        private final String ruleId;
+        private final AtomicReferenceArray<Section> sections = new AtomicReferenceArray<>(2);
+        private volatile int currentIndex = 0;
+        private final ReadWriteLock rwl = new ReentrantReadWriteLock();
+        private final AtomicBoolean asyncLoaded = new AtomicBoolean(false);
+
+        private Segment(String ruleId) {
+            this.ruleId = ruleId;
+        }
+
+        private boolean isOver(Section section) {
+            RuleModeEnum mode = getMode(ruleId);
+            return null == section
+                    || section.isOver()
+                    || mode.isDayMode() && !section.isCurrentDay()
+                    || mode.isMonthMode() && !section.isCurrentMonth()
+                    || mode.isYearMode() && !section.isCurrentYear();
+        }
+
+        private boolean isCurrentOver() {
+            return isOver(sections.get(currentIndex));
+        }
+
+        private boolean isAllOver() {
+            return isCurrentOver() && isOver(sections.get(currentIndex == 0 ? 1 : 0));
+        }
+
+        private boolean needLoad() {
+            return sections.get(currentIndex).remain() <= getStep(ruleId) * getLoadFactor(ruleId) && !asyncLoaded.get();
+        }
+
+        private Long nextId() {
+            if (isAllOver()) {
+                return null;
+            }
+            rwl.readLock().lock();
+            try {
+                if (isCurrentOver()) {
+                    rwl.readLock().unlock();
+                    rwl.writeLock().lock();
+                    boolean exhausted = false;
+                    try {
+                        if (isCurrentOver()) {
+                            currentIndex = currentIndex == 0 ? 1 : 0;
+                            asyncLoaded.set(false);
+                            exhausted = isCurrentOver();
+                        }
+                    } finally {
+                        rwl.writeLock().unlock();
+                    }
+                    //改造前在写锁内直接返回null，finally再释放读锁会抛IllegalMonitorStateException，这里先补回读锁
+                    rwl.readLock().lock();
+                    if (exhausted) {
+                        return null;
+                    }
+                }
+                return sections.get(currentIndex).current.incrementAndGet();
+            } finally {
+                rwl.readLock().unlock();
+            }
+        }
+
+        private void initId(long current, long max) {
+            sections.set(0, new Section(max, current));
+        }
+
+        private void loadId(long current, long max) {
+            if (!needLoad()) {
+                return;
+            }
+            if (asyncLoaded.compareAndSet(false, true)) {
+                sections.set(currentIndex == 0 ? 1 : 0, new Section(max, current));
+            }
+        }
+    }
+
+    private static final class Section {
+
+        private final long max;
+        private final AtomicLong current;
+        private final LocalDate createDay;
+
+        private Section(long max, long current) {
+            this.max = max;
+            this.current = new AtomicLong(current);
+            this.createDay = LocalDate.now();
+        }
+
+        private long remain() {
+            return max - current.get();
+        }
+
+        private boolean isOver() {
+            return max <= current.get();
+        }
+
+        private boolean isCurrentDay() {
+            return createDay.equals(LocalDate.now());
+        }
+
+        private boolean isCurrentMonth() {
+            return createDay.getMonthValue() == LocalDate.now().getMonthValue();
+        }
+
+        private boolean isCurrentYear() {
+            return createDay.getYear() == LocalDate.now().getYear();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.lvwj.halo.benchmark;
+
+import com.lvwj.halo.number.NumberGenerator;
+import com.lvwj.halo.number.constant.RuleModeEnum;
+import com.lvwj.halo.number.manager.NumberManager;
+import com.lvwj.halo.number.manager.NumberSegmentManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 业务编号生成基准：改造前的加锁号段(LEGACY) 对比 无锁自适应号段(SEGMENT)
+ * <p>
+ * redis的INCRBY以本地计数器代替，两种实现共用，只比较本地取号开销
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 14:40
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class NumberGeneratorBenchmark {
+
+    private static final String RULE_ID = "order#D#1000#0.3";
+
+    private static final String RULE = "SO{N:10}";
+
+    @Param({"LEGACY", "SEGMENT"})
+    public String manager;
+
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+        NumberManager numberManager = "LEGACY".equals(manager)
+                ? new LegacyNumberManager((key, count) -> counters.computeIfAbsent(key, k -> new AtomicLong()).addAndGet(count))
+                : new NumberSegmentManager() {
+                    @Override
+                    protected long reserve(String ruleId, RuleModeEnum mode, long count) {
+                        return counters.computeIfAbsent(cacheKey(ruleId, mode), k -> new AtomicLong()).addAndGet(count);
+                    }
+                };
+        Field field = NumberGenerator.class.getDeclaredField("numberManager");
+        field.setAccessible(true);
+        field.set(null, numberManager);
+    }
+
+    @Benchmark
+    public String gen() {
+        return NumberGenerator.gen(RULE_ID, RULE);
+    }
+
+    @Benchmark
+    public Long nextNum() {
+        return NumberGenerator.getNumberManager().nextNum(RULE_ID);
+    }
+}
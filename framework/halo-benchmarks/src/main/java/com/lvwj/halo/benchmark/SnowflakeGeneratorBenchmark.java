@@ -0,0 +1,71 @@
+package com.lvwj.halo.benchmark;
+
+import com.lvwj.halo.core.snowflake.SnowflakeGenerator;
+import com.lvwj.halo.core.snowflake.SnowflakeProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 雪花ID生成基准：synchronized(SYNC) 对比 CAS(LOCK_FREE) 以及 允许借用未来毫秒的CAS(BORROW)
+ * <p>
+ * 默认12位序号每毫秒最多4096个ID，序号用尽后SYNC/LOCK_FREE需等待下一毫秒，BORROW可借用最多maxBorrowMills毫秒；
+ * 20位序号(工作节点2位)时每毫秒上限远高于生成速度，对比的是加锁与CAS本身的开销
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 15:00
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class SnowflakeGeneratorBenchmark {
+
+    private static final int BATCH = 100;
+
+    @Param({"SYNC", "LOCK_FREE", "BORROW"})
+    public String mode;
+
+    @Param({"12", "20"})
+    public int sequenceBits;
+
+    private SnowflakeGenerator generator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SnowflakeProperties properties = new SnowflakeProperties();
+        properties.setLockFree(!"SYNC".equals(mode));
+        properties.setMaxBorrowMills("BORROW".equals(mode) ? 5 : 0);
+        properties.setSequenceBits(sequenceBits);
+        properties.setWorkerIdBits(22 - sequenceBits);
+        generator = new SnowflakeGenerator(properties, 1L);
+    }
+
+    @Benchmark
+    public long nextId() {
+        return generator.nextId();
+    }
+
+    /**
+     * 每次批量取BATCH个ID，吞吐量按批次计
+     */
+    @Benchmark
+    public long[] nextIds() {
+        return generator.nextIds(BATCH, 0L);
+    }
+}
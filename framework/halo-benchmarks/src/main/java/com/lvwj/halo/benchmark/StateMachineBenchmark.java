@@ -0,0 +1,203 @@
+package com.lvwj.halo.benchmark;
+
+import com.lvwj.halo.common.models.BusinessScenario;
+import com.lvwj.halo.common.models.IContext;
+import com.lvwj.halo.statemachine.State;
+import com.lvwj.halo.statemachine.StateMachine;
+import com.lvwj.halo.statemachine.Transition;
+import com.lvwj.halo.statemachine.builder.StateMachineBuilder;
+import com.lvwj.halo.statemachine.builder.StateMachineBuilderFactory;
+import com.lvwj.halo.statemachine.impl.StateHelper;
+import com.lvwj.halo.statemachine.impl.TransitionType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 状态机触发基准：改造前的线性路由(LINEAR) 对比 预编译转换路由表(TABLE)
+ * <p>
+ * 每个(状态, 事件)按StateMachineRegistry的方式注册SCENARIOS个业务场景的转换，上下文命中最后注册的场景；
+ * LINEAR按改造前的方式从HashMap取状态，逐个转换执行 场景判断+处理器条件，TABLE由StateMachineBuilder.build生成
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 16:20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@org.openjdk.jmh.annotations.State(Scope.Benchmark)
+public class StateMachineBenchmark {
+
+    private static final int SCENARIOS = 8;
+
+    @Param({"LINEAR", "TABLE"})
+    public String router;
+
+    private Router<OrderState, OrderEvent, Ctx> machine;
+
+    private Ctx ctx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        machine = "LINEAR".equals(router) ? new LinearRouter<>() : new TableRouter();
+        for (int i = 0; i < SCENARIOS; i++) {
+            BusinessScenario scenario = BusinessScenario.of("biz" + i);
+            machine.add(scenario, OrderState.INIT, OrderState.PAID, OrderEvent.PAY);
+            machine.add(scenario, OrderState.PAID, OrderState.SHIPPED, OrderEvent.SHIP);
+            machine.add(scenario, OrderState.SHIPPED, OrderState.DONE, OrderEvent.CONFIRM);
+            machine.add(scenario, OrderState.INIT, OrderState.CANCELED, OrderEvent.CANCEL);
+            machine.add(scenario, OrderState.PAID, OrderState.CANCELED, OrderEvent.CANCEL);
+        }
+        machine.build();
+        ctx = new Ctx(BusinessScenario.of("biz" + (SCENARIOS - 1)), 100);
+    }
+
+    @Benchmark
+    public OrderState fireEvent() {
+        return machine.fireEvent(OrderState.INIT, OrderEvent.PAY, ctx);
+    }
+
+    @Benchmark
+    public OrderState fireEventFailover() {
+        return machine.fireEvent(OrderState.PAID, OrderEvent.SHIP, new Ctx(BusinessScenario.of("biz" + (SCENARIOS - 1), "vip"), 100, true));
+    }
+
+    /**
+     * 与StateMachineRegistry注册的转换一致：处理器条件 + 空的处理动作
+     */
+    private static boolean isSatisfied(Ctx ctx) {
+        return ctx.amount >= 0;
+    }
+
+    interface Router<S, E, C> {
+
+        void add(BusinessScenario scenario, S from, S to, E event);
+
+        void build();
+
+        S fireEvent(S source, E event, C ctx);
+    }
+
+    final class TableRouter implements Router<OrderState, OrderEvent, Ctx> {
+
+        private final StateMachineBuilder<OrderState, OrderEvent, Ctx> builder = StateMachineBuilderFactory.create();
+
+        private StateMachine<OrderState, OrderEvent, Ctx> stateMachine;
+
+        @Override
+        public void add(BusinessScenario scenario, OrderState from, OrderState to, OrderEvent event) {
+            builder.externalTransition().scenario(scenario).from(from).to(to).on(event)
+                    .when(StateMachineBenchmark::isSatisfied)
+                    .perform((s, t, e, c) -> {
+                    });
+        }
+
+        @Override
+        public void build() {
+            stateMachine = builder.build("StateMachineBenchmark-" + router);
+        }
+
+        @Override
+        public OrderState fireEvent(OrderState source, OrderEvent event, Ctx ctx) {
+            return stateMachine.fireEvent(source, event, ctx);
+        }
+    }
+
+    /**
+     * 改造前的路由：HashMap取状态，按注册顺序线性扫描，每个转换的条件都重新判断业务场景
+     */
+    static final class LinearRouter<S, E, C extends IContext> implements Router<S, E, C> {
+
+        private final Map<S, State<S, E, C>> stateMap = new HashMap<>();
+
+        @Override
+        public void add(BusinessScenario scenario, S from, S to, E event) {
+            Transition<S, E, C> transition = StateHelper.getState(stateMap, from)
+                    .addTransition(event, StateHelper.getState(stateMap, to), TransitionType.EXTERNAL, scenario);
+            transition.setCondition(ctx -> isSatisfiedByScenario(scenario, ctx.scenario(), ctx.failover())
+                    && StateMachineBenchmark.isSatisfied((Ctx) ctx));
+            transition.setAction((s, t, e, c) -> {
+            });
+        }
+
+        @Override
+        public void build() {
+        }
+
+        @Override
+        public S fireEvent(S source, E event, C ctx) {
+            List<Transition<S, E, C>> transitions = StateHelper.getState(stateMap, source).getEventTransitions(event);
+            if (transitions == null || transitions.isEmpty()) {
+                return source;
+            }
+            Transition<S, E, C> transit = null;
+            for (Transition<S, E, C> transition : transitions) {
+                if (transition.getCondition() == null) {
+                    transit = transition;
+                } else if (transition.getCondition().isSatisfied(ctx)) {
+                    transit = transition;
+                    break;
+                }
+            }
+            return null == transit ? source : transit.transit(ctx, false).getId();
+        }
+
+        private static boolean isSatisfiedByScenario(BusinessScenario scenario1, BusinessScenario scenario2, boolean failover) {
+            if (scenario1.equals(scenario2)) {
+                return true;
+            }
+            return failover && (scenario1.equals(BusinessScenario.of(scenario2.getBusiness(), scenario2.getUseCase()))
+                    || scenario1.equals(BusinessScenario.of(scenario2.getBusiness()))
+                    || scenario1.equals(BusinessScenario.of()));
+        }
+    }
+
+    public enum OrderState {
+        INIT, PAID, SHIPPED, DONE, CANCELED
+    }
+
+    public enum OrderEvent {
+        PAY, SHIP, CONFIRM, CANCEL
+    }
+
+    public static class Ctx implements IContext {
+        private final BusinessScenario scenario;
+        private final int amount;
+        private final boolean failover;
+
+        Ctx(BusinessScenario scenario, int amount) {
+            this(scenario, amount, false);
+        }
+
+        Ctx(BusinessScenario scenario, int amount, boolean failover) {
+            this.scenario = scenario;
+            this.amount = amount;
+            this.failover = failover;
+        }
+
+        @Override
+        public BusinessScenario scenario() {
+            return scenario;
+        }
+
+        @Override
+        public boolean failover() {
+            return failover;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.lvwj.halo.benchmark;
+
+import com.lvwj.halo.common.models.entity.IEntity;
+import com.lvwj.halo.core.track.TrackDiff;
+import com.lvwj.halo.core.track.TrackDiffManager;
+import com.lvwj.halo.core.track.impl.SnapshotTrackManager;
+import com.lvwj.halo.core.track.impl.ThreadLocalTrackManager;
+import org.javers.core.metamodel.annotation.Id;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 变更追踪基准：Javers对比(JAVERS) 对比 字段快照对比(SNAPSHOT)
+ * <p>
+ * 一次操作为 attach -> 修改根实体和10个子实体 -> trackDiff -> detach，与一次saveByTrack的追踪开销一致
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 15:20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrackManagerBenchmark {
+
+    private static final int CHANGED = 10;
+
+    @Param({"JAVERS", "SNAPSHOT"})
+    public String tracker;
+
+    @Param({"100", "1000"})
+    public int children;
+
+    private TrackDiffManager<OrderPO> manager;
+
+    private OrderPO order;
+
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = "JAVERS".equals(tracker) ? new ThreadLocalTrackManager<>() : new SnapshotTrackManager<>();
+        order = new OrderPO();
+        order.id = 1L;
+        order.name = "order";
+        order.amount = new BigDecimal("100.00");
+        order.items = new ArrayList<>(children);
+        for (int i = 0; i < children; i++) {
+            ItemPO item = new ItemPO();
+            item.id = 10_000L + i;
+            item.orderId = order.id;
+            item.sku = "SKU-" + i;
+            item.qty = 1;
+            item.price = new BigDecimal("9.99");
+            order.items.add(item);
+        }
+    }
+
+    @Benchmark
+    public TrackDiff saveByTrack() {
+        manager.attach(order);
+        round++;
+        order.name = "order" + round;
+        int gap = children / CHANGED;
+        for (int i = 0; i < CHANGED; i++) {
+            order.items.get(i * gap).qty = round;
+        }
+        TrackDiff diff = manager.trackDiff(order);
+        manager.detach(order);
+        return diff;
+    }
+
+    public static class OrderPO implements IEntity<Long> {
+        @Id
+        private Long id;
+        private String name;
+        private BigDecimal amount;
+        private List<ItemPO> items;
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+
+    public static class ItemPO implements IEntity<Long> {
+        @Id
+        private Long id;
+        private Long orderId;
+        private String sku;
+        private Integer qty;
+        private BigDecimal price;
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+}
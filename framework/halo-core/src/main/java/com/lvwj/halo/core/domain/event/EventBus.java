@@ -2,12 +2,14 @@ package com.lvwj.halo.core.domain.event;
 
 import com.lvwj.halo.common.utils.Func;
 import lombok.Data;
+import lombok.Setter;
 import org.springframework.util.Assert;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * 事件总线
@@ -18,19 +20,65 @@ public class EventBus implements IEventBus {
 
   private final Map<String, List<RegisterItem>> registerItemMap = new ConcurrentHashMap<>();
 
+  /**
+   * 事件存储(发件箱)，不为空时isOutbox的集成事件只写入存储，由转发器投递
+   */
+  @Setter
+  private IEventStorage eventStorage;
+
   @Override
   public <E extends IEvent> void publish(E event, String tag) {
     if (null == event) return;
-    publishLocalEvent(event); //1.发布本地事件：领域事件(实现IDomainEvent<?>) or SpringEvent(实现IEvent)
+    IIntegrationEvent integrationEvent = publishLocalAndConvert(event);
+    if (null == integrationEvent) {
+      return;
+    }
+    if (isOutbox(integrationEvent)) {
+      eventStorage.save(integrationEvent, tag);
+      return;
+    }
+    //2.发布集成事件(实现IIntegrationEvent)
+    publishIntegrationEvent(integrationEvent, tag);
+  }
+
+  /**
+   * 批量发布：经发件箱投递的集成事件一次批量写入存储
+   */
+  @Override
+  public <E extends IEvent> void publishAll(List<E> events) {
+    if (Func.isEmpty(events)) return;
+    List<IIntegrationEvent> storeEvents = new ArrayList<>();
+    for (E event : events) {
+      if (null == event) continue;
+      IIntegrationEvent integrationEvent = publishLocalAndConvert(event);
+      if (null == integrationEvent) {
+        continue;
+      }
+      if (isOutbox(integrationEvent)) {
+        storeEvents.add(integrationEvent);
+      } else {
+        publishIntegrationEvent(integrationEvent, null);
+      }
+    }
+    if (!storeEvents.isEmpty()) {
+      eventStorage.saveAll(storeEvents);
+    }
+  }
+
+  /**
+   * 1.发布本地事件：领域事件(实现IDomainEvent<?>) or SpringEvent(实现IEvent)，并转换为集成事件
+   */
+  private <E extends IEvent> IIntegrationEvent publishLocalAndConvert(E event) {
+    publishLocalEvent(event);
     IEvent integrationEvent = event;
     if (event instanceof IDomainEvent<?>) {
       integrationEvent = ((IDomainEvent<?>) event).toIntegrationEvent();
-      if (null == integrationEvent) {
-        return;
-      }
     }
-    //2.发布集成事件(实现IIntegrationEvent)
-    publishIntegrationEvent(integrationEvent, tag);
+    return integrationEvent instanceof IIntegrationEvent ? (IIntegrationEvent) integrationEvent : null;
+  }
+
+  private boolean isOutbox(IIntegrationEvent event) {
+    return null != eventStorage && event.isOutbox();
   }
 
   /**
@@ -48,12 +96,13 @@ public class EventBus implements IEventBus {
   /**
    * 发布集成事件
    */
-  private <E extends IEvent> void publishIntegrationEvent(E event, String tag) {
-    if (!(event instanceof IIntegrationEvent integrationEvent)) {
+  @Override
+  public <E extends IIntegrationEvent> void publishIntegrationEvent(E event, String tag) {
+    if (null == event) {
       return;
     }
-    tag = Func.isNotBlank(tag) ? tag : integrationEvent.tag();
-    List<RegisterItem> items = registerItemMap.get(integrationEvent.getClass().getName() + " | " + tag);
+    tag = Func.isNotBlank(tag) ? tag : event.tag();
+    List<RegisterItem> items = registerItemMap.get(event.getClass().getName() + " | " + tag);
     if (Func.isNotEmpty(items)) {
       for (RegisterItem item : items) {
         item.handEvent(event);
@@ -64,7 +113,7 @@ public class EventBus implements IEventBus {
   @Override
   public <E extends IEvent> void register(String subscriber, IEventExecutor executor, IEventHandler<E> handler) {
     Assert.hasText(subscriber, "[DomainEventBus] register => subscriber shouldn't be null or empty!");
-    List<RegisterItem> items = registerItemMap.computeIfAbsent(subscriber, k -> new ArrayList<>());
+    List<RegisterItem> items = registerItemMap.computeIfAbsent(subscriber, k -> new CopyOnWriteArrayList<>());
     items.add(new RegisterItem(executor, handler));
   }
 
@@ -1,6 +1,7 @@
 package com.lvwj.halo.core.domain.event;
 
 import cn.hutool.extra.spring.SpringUtil;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.context.annotation.Bean;
 
@@ -12,8 +13,9 @@ import org.springframework.context.annotation.Bean;
 public class EventBusConfiguration {
 
     @Bean
-    public IEventBus eventBus() {
+    public IEventBus eventBus(ObjectProvider<IEventStorage> eventStorage) {
         EventBus eventBus = new EventBus();
+        eventBus.setEventStorage(eventStorage.getIfAvailable());
         eventBus.register(EventBus.GLOBAL_SUBSCRIBER, SpringUtil::publishEvent);
         return eventBus;
     }
@@ -22,6 +22,20 @@ public interface IEventHandlerRegistry {
     register(subscriber, new IEventExecutor.AsyncExecutor(), handler);
   }
 
+  /**
+   * 使用订阅者独立的有界队列异步处理
+   */
+  default <E extends IEvent> void registerQueued(Class<E> eventCls, IEventHandler<E> handler) {
+    register(eventCls.getName(), new QueuedEventExecutor(eventCls.getName()), handler);
+  }
+
+  /**
+   * 使用订阅者独立的有界队列异步处理
+   */
+  default <E extends IEvent> void registerQueued(String subscriber, IEventHandler<E> handler) {
+    register(subscriber, new QueuedEventExecutor(subscriber), handler);
+  }
+
   default <E extends IEvent> void register(String subscriber, IEventHandler<E> handler) {
     register(subscriber, new IEventExecutor.SyncExecutor(), handler);
   }
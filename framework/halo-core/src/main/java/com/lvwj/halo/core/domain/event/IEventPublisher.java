@@ -17,4 +17,11 @@ public interface IEventPublisher {
     if (null == events || events.isEmpty()) return;
     events.forEach(this::publish);
   }
+
+  /**
+   * 只投递集成事件，不发布本地事件也不落库，用于转发已落库的事件；未覆盖时按普通事件发布
+   */
+  default <E extends IIntegrationEvent> void publishIntegrationEvent(E event, String tag) {
+    publish(event, tag);
+  }
 }
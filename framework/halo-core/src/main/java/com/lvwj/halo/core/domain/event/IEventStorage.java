@@ -1,5 +1,7 @@
 package com.lvwj.halo.core.domain.event;
 
+import java.util.List;
+
 /**
  * 事件存储接口
  *
@@ -9,4 +11,18 @@ package com.lvwj.halo.core.domain.event;
 public interface IEventStorage {
 
     <E extends IEvent> void save(E event);
+
+    /**
+     * 保存集成事件，tag为空时使用事件默认tag
+     */
+    default <E extends IIntegrationEvent> void save(E event, String tag) {
+        save(event);
+    }
+
+    /**
+     * 批量保存集成事件
+     */
+    default void saveAll(List<? extends IIntegrationEvent> events) {
+        events.forEach(this::save);
+    }
 }
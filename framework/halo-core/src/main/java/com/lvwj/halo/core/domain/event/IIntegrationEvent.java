@@ -36,4 +36,12 @@ public interface IIntegrationEvent extends IEvent {
     default boolean isStore() {
         return true;
     }
+
+    /**
+     * 是否经发件箱投递：为true且存在事件存储(发件箱)时，集成事件与业务数据同一事务落库，由转发器投递；默认直接投递
+     */
+    @Transient
+    default boolean isOutbox() {
+        return false;
+    }
 }
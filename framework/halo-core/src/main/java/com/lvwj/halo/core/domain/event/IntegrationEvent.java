@@ -33,4 +33,15 @@ public abstract class IntegrationEvent implements IIntegrationEvent {
         }
         return this.eventTime;
     }
+
+    /**
+     * 反序列化时还原事件ID(如发件箱转发)，保证消费端按事件ID去重
+     */
+    public void setEventId(Long eventId) {
+        this.eventId = eventId;
+    }
+
+    public void setEventTime(LocalDateTime eventTime) {
+        this.eventTime = eventTime;
+    }
 }
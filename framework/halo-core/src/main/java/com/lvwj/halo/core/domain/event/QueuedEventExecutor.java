@@ -0,0 +1,195 @@
+package com.lvwj.halo.core.domain.event;
+
+import com.lvwj.halo.core.threadpool.ThreadPoolCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按订阅者隔离的异步事件执行者
+ * <p>
+ * 每个执行者持有独立的有界队列，最多concurrency个线程并发消费，慢处理器只会堆积自己的队列，不会占用其它订阅者的线程，正常情况下也不会回退到发布线程执行；
+ * 队列已满时拒绝并计数；共享线程池饱和时由CallerRunsPolicy兜底在提交线程执行并单独计数。存在事务时，同一事务内提交的事件在事务提交后一次性入队。
+ * 可选使用虚拟线程(运行在支持虚拟线程的JDK上时生效，否则退化为平台线程池)
+ * <p>
+ * 指标(tag subscriber)：halo.eventbus.queue.depth 队列深度，halo.eventbus.handler.latency 处理耗时，halo.eventbus.rejected 队列满拒绝次数，
+ * halo.eventbus.caller.runs 线程池饱和回退到提交线程执行的次数。同一订阅者的多个执行者共用指标，队列深度为各执行者队列之和
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 21:10
+ */
+@Slf4j
+public class QueuedEventExecutor implements IEventExecutor {
+
+  private static final int DEFAULT_CAPACITY = 1024;
+  private static final int CORE_THREAD = Runtime.getRuntime().availableProcessors() + 1;
+  private static final Executor VIRTUAL_EXECUTOR = virtualExecutor();
+  /**
+   * 订阅者 - 该订阅者各执行者的队列，执行者被回收后队列随之移除
+   */
+  private static final Map<String, Set<BlockingQueue<?>>> SUBSCRIBER_QUEUES = new ConcurrentHashMap<>();
+
+  private final String subscriber;
+  private final int concurrency;
+  private final BlockingQueue<Task<?>> queue;
+  private final Executor runner;
+  private final AtomicInteger active = new AtomicInteger();
+
+  /**
+   * 事务内待入队事件的资源key
+   */
+  private final Object transactionKey = new Object();
+
+  private final Timer latency;
+  private final Counter rejected;
+  private final Counter callerRuns;
+
+  public QueuedEventExecutor(String subscriber) {
+    this(subscriber, DEFAULT_CAPACITY, 1, false);
+  }
+
+  /**
+   * @param subscriber    订阅者，用作日志和指标tag
+   * @param capacity      队列容量
+   * @param concurrency   最大并发消费数，1表示按入队顺序串行处理
+   * @param virtualThread 是否使用虚拟线程
+   */
+  public QueuedEventExecutor(String subscriber, int capacity, int concurrency, boolean virtualThread) {
+    this.subscriber = subscriber;
+    this.concurrency = Math.max(concurrency, 1);
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    if (virtualThread && null == VIRTUAL_EXECUTOR) {
+      log.warn("QueuedEventExecutor[{}] 当前JDK不支持虚拟线程，使用平台线程池", subscriber);
+    }
+    //消费任务数不超过订阅者数*concurrency，线程池队列足够大，正常不会触发CallerRunsPolicy
+    this.runner = virtualThread && null != VIRTUAL_EXECUTOR ? VIRTUAL_EXECUTOR
+        : ThreadPoolCache.getCustomizeThreadPool("halo-event-bus", CORE_THREAD, CORE_THREAD * 4, 100_000);
+    Tags tags = Tags.of("subscriber", subscriber);
+    Set<BlockingQueue<?>> queues = SUBSCRIBER_QUEUES.computeIfAbsent(subscriber, k -> Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>())));
+    queues.add(queue);
+    Gauge.builder("halo.eventbus.queue.depth", queues, QueuedEventExecutor::depth).tags(tags).register(Metrics.globalRegistry);
+    this.latency = Timer.builder("halo.eventbus.handler.latency").tags(tags).register(Metrics.globalRegistry);
+    this.rejected = Counter.builder("halo.eventbus.rejected").tags(tags).register(Metrics.globalRegistry);
+    this.callerRuns = Counter.builder("halo.eventbus.caller.runs").tags(tags).register(Metrics.globalRegistry);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <E extends IEvent> void submit(Task<E> task) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      enqueue(Collections.singletonList(task));
+      return;
+    }
+    List<Task<?>> batch = (List<Task<?>>) TransactionSynchronizationManager.getResource(transactionKey);
+    if (null == batch) {
+      List<Task<?>> tasks = new ArrayList<>();
+      TransactionSynchronizationManager.bindResource(transactionKey, tasks);
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          enqueue(tasks);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+          TransactionSynchronizationManager.unbindResourceIfPossible(transactionKey);
+        }
+      });
+      batch = tasks;
+    }
+    batch.add(task);
+  }
+
+  /**
+   * 当前队列深度
+   */
+  public int depth() {
+    return queue.size();
+  }
+
+  private static double depth(Set<BlockingQueue<?>> queues) {
+    synchronized (queues) {
+      return queues.stream().mapToInt(BlockingQueue::size).sum();
+    }
+  }
+
+  private void enqueue(List<Task<?>> tasks) {
+    for (Task<?> task : tasks) {
+      if (!queue.offer(task)) {
+        rejected.increment();
+        log.error("QueuedEventExecutor[{}] 队列已满，丢弃事件：{}", subscriber, task.getEvent());
+      }
+    }
+    tryDrain();
+  }
+
+  private void tryDrain() {
+    while (!queue.isEmpty()) {
+      int n = active.get();
+      if (n >= concurrency) {
+        return;
+      }
+      if (!active.compareAndSet(n, n + 1)) {
+        continue;
+      }
+      Thread submitter = Thread.currentThread();
+      runner.execute(() -> {
+        if (Thread.currentThread() == submitter) {
+          //线程池饱和，CallerRunsPolicy在提交线程执行
+          callerRuns.increment();
+        }
+        drain();
+      });
+    }
+  }
+
+  private void drain() {
+    try {
+      Task<?> task;
+      while (null != (task = queue.poll())) {
+        long start = System.nanoTime();
+        try {
+          task.run();
+        } catch (Throwable e) {
+          log.error("QueuedEventExecutor[" + subscriber + "] 事件处理异常：" + task.getEvent(), e);
+        } finally {
+          latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+      }
+    } finally {
+      active.decrementAndGet();
+    }
+    //退出前有新事件入队但未抢到消费名额
+    tryDrain();
+  }
+
+  /**
+   * 反射创建虚拟线程执行器，JDK不支持时返回null
+   */
+  private static Executor virtualExecutor() {
+    try {
+      return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+}
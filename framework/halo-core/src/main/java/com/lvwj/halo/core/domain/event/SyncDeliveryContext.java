@@ -0,0 +1,56 @@
+package com.lvwj.halo.core.domain.event;
+
+/**
+ * 集成事件同步投递上下文
+ * <p>
+ * 发件箱转发器在此上下文内投递集成事件：集成事件处理器(如@RocketMQProducer)需在当前线程同步发送，发送失败时抛出异常，
+ * 发送成功(broker确认)后调用 {@link #ack()}。转发器按确认次数判断是否投递成功，没有任何处理器确认的事件视为投递失败
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 09:10
+ */
+public final class SyncDeliveryContext {
+
+  private static final ThreadLocal<int[]> ACKS = new ThreadLocal<>();
+
+  private SyncDeliveryContext() {
+  }
+
+  /**
+   * 在同步投递上下文内执行投递
+   *
+   * @return 处理器确认次数
+   */
+  public static int deliver(Runnable delivery) {
+    int[] previous = ACKS.get();
+    int[] acks = new int[1];
+    ACKS.set(acks);
+    try {
+      delivery.run();
+      return acks[0];
+    } finally {
+      if (null == previous) {
+        ACKS.remove();
+      } else {
+        ACKS.set(previous);
+      }
+    }
+  }
+
+  /**
+   * 当前线程是否处于同步投递上下文
+   */
+  public static boolean isActive() {
+    return null != ACKS.get();
+  }
+
+  /**
+   * 处理器确认已送达
+   */
+  public static void ack() {
+    int[] acks = ACKS.get();
+    if (null != acks) {
+      acks[0]++;
+    }
+  }
+}
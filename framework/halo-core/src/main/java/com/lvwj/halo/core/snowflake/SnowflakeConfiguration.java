@@ -4,6 +4,7 @@ import cn.hutool.extra.spring.SpringUtil;
 import com.lvwj.halo.common.constants.SystemConstant;
 import com.lvwj.halo.common.utils.Func;
 import com.lvwj.halo.core.snowflake.workid.WorkIdGenerator;
+import com.lvwj.halo.core.snowflake.workid.ZkLeaseWorkIdGenerator;
 import com.lvwj.halo.core.snowflake.workid.ZkWorkIdGenerator;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -24,10 +25,19 @@ public class SnowflakeConfiguration {
 
   @Bean
   @ConditionalOnMissingBean
-  public SnowflakeGenerator snowflakeGenerator(SnowflakeProperties properties) {
+  public WorkIdGenerator workIdGenerator(SnowflakeProperties properties) {
     String nodeName = Func.isNotBlank(properties.getNodeName()) ? properties.getNodeName() : SpringUtil.getProperty("spring.application.name");
-    WorkIdGenerator idGenerator = new ZkWorkIdGenerator(nodeName, properties.getZookeeperUrl(), properties.getWorkerIdBits());
+    if (Boolean.TRUE.equals(properties.getWorkIdLease())) {
+      long aheadMills = Boolean.TRUE.equals(properties.getLockFree()) ? properties.getMaxBorrowMills() : 0;
+      return new ZkLeaseWorkIdGenerator(nodeName, properties.getZookeeperUrl(), properties.getWorkerIdBits(), properties.getWorkIdDir(), aheadMills, properties.getMaxTolerateMills());
+    }
+    return new ZkWorkIdGenerator(nodeName, properties.getZookeeperUrl(), properties.getWorkerIdBits());
+  }
+
+  @Bean
+  @ConditionalOnMissingBean
+  public SnowflakeGenerator snowflakeGenerator(SnowflakeProperties properties, WorkIdGenerator idGenerator) {
     SystemConstant.MACHINE_ID = idGenerator.getWorkId();
-    return new SnowflakeGenerator(properties, SystemConstant.MACHINE_ID);
+    return new SnowflakeGenerator(properties, SystemConstant.MACHINE_ID, idGenerator::isLeaseHealthy);
   }
 }
@@ -10,6 +10,8 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.Calendar;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
 
 /**
  * 雪花算法唯一ID生成，支持分片键位
@@ -42,6 +44,18 @@ public class SnowflakeGenerator {
   private long lastMilliseconds;
   private final long customEpoch;
 
+  /**
+   * 无锁模式：高位为距customEpoch的毫秒数，低sequenceBits位为该毫秒已使用的最大序号
+   */
+  private final boolean lockFree;
+  private final long maxBorrowMilliseconds;
+  private final AtomicLong state = new AtomicLong();
+
+  /**
+   * 机器ID租约检查：租约失效后机器ID可能已被其它进程使用，拒绝发号
+   */
+  private final BooleanSupplier leaseHealthy;
+
   static {
     Calendar calendar = Calendar.getInstance();
     calendar.set(2024, Calendar.MAY, 1);
@@ -53,6 +67,11 @@ public class SnowflakeGenerator {
   }
 
   public SnowflakeGenerator(SnowflakeProperties properties, Long workerId) {
+    this(properties, workerId, () -> true);
+  }
+
+  public SnowflakeGenerator(SnowflakeProperties properties, Long workerId, BooleanSupplier leaseHealthy) {
+    this.leaseHealthy = leaseHealthy;
     String epochDateStr = properties.getEpochDate();
     if (epochDateStr == null) {
       this.customEpoch = EPOCH;
@@ -64,6 +83,8 @@ public class SnowflakeGenerator {
     sequenceBits = properties.getSequenceBits();
     shardingBits = properties.getShardingBits();
     maxTolerateTimeDifferenceMilliseconds = properties.getMaxTolerateMills();
+    lockFree = Boolean.TRUE.equals(properties.getLockFree());
+    maxBorrowMilliseconds = null == properties.getMaxBorrowMills() ? 0 : Math.max(0, properties.getMaxBorrowMills());
 
     Preconditions.checkArgument(workerIdBits >= 1, "Illegal workerId.bits");
     Preconditions.checkArgument(sequenceBits >= 1, "Illegal sequence.bits");
@@ -83,7 +104,7 @@ public class SnowflakeGenerator {
   /**
    * 获取雪花id
    */
-  public synchronized long nextId() {
+  public long nextId() {
     if (shardingBits > 0) {
       //log.warn("[shardingBits:" + shardingBits + "] ==> 分表场景需要有shardValue，建议使用方法:nextId(long shardValue) ");
     }
@@ -93,7 +114,44 @@ public class SnowflakeGenerator {
   /**
    * 获取雪花id, 配置：sharding.bits > 0
    */
-  public synchronized long nextId(long shardValue) {
+  public long nextId(long shardValue) {
+    checkLease();
+    if (lockFree) {
+      long reserved = reserve(1);
+      return compose(reserved >>> sequenceBits, reserved & sequenceMask, shardValue);
+    }
+    return syncNextId(shardValue);
+  }
+
+  /**
+   * 批量获取雪花id：无锁模式下每毫秒的序号区间通过一次CAS整体预留
+   */
+  public long[] nextIds(int n, long shardValue) {
+    checkLease();
+    long[] ids = new long[Math.max(n, 0)];
+    if (!lockFree) {
+      synchronized (this) {
+        for (int i = 0; i < ids.length; i++) {
+          ids[i] = syncNextId(shardValue);
+        }
+      }
+      return ids;
+    }
+    int filled = 0;
+    while (filled < ids.length) {
+      int remain = ids.length - filled;
+      long reserved = reserve(remain);
+      long mill = reserved >>> sequenceBits;
+      long startSequence = reserved & sequenceMask;
+      long reservedCount = Math.min(remain, sequenceMask - startSequence + 1);
+      for (long seq = startSequence; seq < startSequence + reservedCount; seq++) {
+        ids[filled++] = compose(mill, seq, shardValue);
+      }
+    }
+    return ids;
+  }
+
+  private synchronized long syncNextId(long shardValue) {
     long currentMilliseconds = System.currentTimeMillis();
     //解决时钟回拨问题，休眠之后重新获取当前时间戳。
     if (waitTolerateTimeDifferenceIfNeed(currentMilliseconds)) {
@@ -110,10 +168,62 @@ public class SnowflakeGenerator {
       sequence = 0;
     }
     lastMilliseconds = currentMilliseconds;
-    long mill = currentMilliseconds - customEpoch;
+    return compose(currentMilliseconds - customEpoch, sequence, shardValue);
+  }
+
+  private void checkLease() {
+    Preconditions.checkState(leaseHealthy.getAsBoolean(), "WorkId lease is lost, workId: %s", workerId);
+  }
+
+  private long compose(long mill, long seq, long shardValue) {
     long shard = shardValue & shardingMaxValue;
     //时间戳 + work id + 序号 + 分片键
-    return (mill << timestampLeftShiftBits) | (workerId << workerIdLeftShiftBits) | (sequence << shardingBits) | shard;
+    return (mill << timestampLeftShiftBits) | (workerId << workerIdLeftShiftBits) | (seq << shardingBits) | shard;
+  }
+
+  /**
+   * 无锁模式：一次CAS在同一毫秒内预留最多count个连续序号
+   *
+   * @return 打包的 毫秒数<<sequenceBits | 本次预留的起始序号，本次预留数量 = min(count, sequenceMask + 1 - 起始序号)
+   */
+  private long reserve(int count) {
+    while (true) {
+      long current = state.get();
+      long lastMill = current >>> sequenceBits;
+      long lastSequence = current & sequenceMask;
+      long now = System.currentTimeMillis() - customEpoch;
+      long mill;
+      long startSequence;
+      if (now > lastMill) {
+        mill = now;
+        startSequence = 0;
+      } else if (lastMill - now > maxBorrowMilliseconds) {
+        //时钟回拨超出预借范围：只让当前线程等待，不阻塞其它线程
+        sleepTolerateTimeDifference(lastMill - now);
+        continue;
+      } else if (lastSequence < sequenceMask) {
+        mill = lastMill;
+        startSequence = lastSequence + 1;
+      } else if (lastMill + 1 - now <= maxBorrowMilliseconds) {
+        //当前毫秒序号用完，预借下一毫秒
+        mill = lastMill + 1;
+        startSequence = 0;
+      } else {
+        Thread.onSpinWait();
+        continue;
+      }
+      long endSequence = startSequence + Math.min(count, sequenceMask - startSequence + 1) - 1;
+      if (state.compareAndSet(current, (mill << sequenceBits) | endSequence)) {
+        return (mill << sequenceBits) | startSequence;
+      }
+    }
+  }
+
+  @SneakyThrows
+  private void sleepTolerateTimeDifference(long timeDifferenceMilliseconds) {
+    Preconditions.checkState(timeDifferenceMilliseconds < maxTolerateTimeDifferenceMilliseconds + maxBorrowMilliseconds,
+            "Clock is moving backwards, time difference is %d milliseconds", timeDifferenceMilliseconds);
+    Thread.sleep(timeDifferenceMilliseconds - maxBorrowMilliseconds);
   }
 
   @SneakyThrows
@@ -70,4 +70,24 @@ public class SnowflakeProperties {
    * 时钟回拨最大极限等待时间
    */
   private Integer maxTolerateMills = 1000;
+
+  /**
+   * 是否使用无锁模式：时间戳和序号打包在一个AtomicLong中通过CAS生成，默认false使用synchronized
+   */
+  private Boolean lockFree = false;
+
+  /**
+   * 无锁模式下当前毫秒序号用完时，最多可预借的未来毫秒数；0表示不预借，自旋等待下一毫秒
+   */
+  private Integer maxBorrowMills = 0;
+
+  /**
+   * 是否使用基于临时节点租约的机器ID分配，机器ID和已发号时间上界保存在本地文件，重启时优先复用
+   */
+  private Boolean workIdLease = false;
+
+  /**
+   * 租约模式下本地机器ID文件目录
+   */
+  private String workIdDir = System.getProperty("user.home") + "/.halo/snowflake";
 }
@@ -47,6 +47,19 @@ public class SnowflakeUtil {
     return getSnowflakeGenerator().nextId(shardValue);
   }
 
+  /**
+   * 批量获取雪花ID
+   *
+   * @param n          数量
+   * @param shardValue 分片键
+   * @return long[] 雪花ID
+   * @author lvweijie
+   * @date 2026/10/18 20:10
+   */
+  public static long[] nextIds(int n, Long shardValue) {
+    return getSnowflakeGenerator().nextIds(n, null == shardValue ? 0L : shardValue);
+  }
+
   /**
    * 获取雪花ID的时间
    *
@@ -9,4 +9,11 @@ package com.lvwj.halo.core.snowflake.workid;
 public interface WorkIdGenerator {
 
   long getWorkId();
+
+  /**
+   * 机器ID租约是否有效，无效时不能继续发号
+   */
+  default boolean isLeaseHealthy() {
+    return true;
+  }
 }
@@ -0,0 +1,389 @@
+package com.lvwj.halo.core.snowflake.workid;
+
+import com.lvwj.halo.common.utils.Func;
+import com.lvwj.halo.common.utils.StringPool;
+import com.lvwj.halo.core.threadpool.ThreadPoolCache;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.WatchedEvent;
+import org.apache.zookeeper.Watcher;
+import org.apache.zookeeper.ZooDefs;
+import org.apache.zookeeper.ZooKeeper;
+import org.apache.zookeeper.data.Stat;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于zookeeper临时节点租约的机器ID生成器
+ * <p>
+ * 每个机器ID对应一个临时节点：{appPath}/{workId}，节点内容为持有者标识，创建成功即获得租约，会话失效后自动释放；
+ * 上次使用的机器ID和已发号时间上界保存在本地文件，重启时直接创建该ID的节点(一次往返)，
+ * 若节点仍被上一个进程的会话占用(持有者标识相同)则删除后重新创建；
+ * 启动时当前时间未超过文件中的时间上界(时钟回拨或刚刚重启)，差值在容忍范围内则等待后复用，否则改用其它空闲ID；
+ * 后台定时续写本地文件、检查并重建节点，租约状态通过指标 halo.snowflake.workid.lease 暴露(1正常 0异常)，
+ * 租约异常期间 {@link #isLeaseHealthy()} 为false，发号方据此拒绝发号，避免ID被其它进程接管后重复；
+ * 连接短暂断开(Disconnected)时会话仍可能有效，断开后 会话超时/3 内仍视为租约正常：
+ * 客户端在 会话超时*2/3 未收到服务端响应时判定断开，服务端最早在 会话超时 后才使会话过期并删除临时节点
+ *
+ * @author lvweijie
+ * @date 2026/10/18 8:40 PM
+ */
+@Slf4j
+public class ZkLeaseWorkIdGenerator implements Watcher, WorkIdGenerator {
+
+  private static final int SESSION_TIMEOUT = 15000;
+  private static final int INVALID_NODE_ID = -1;
+  private static final long HEARTBEAT_MILLIS = 3000;
+  //续约写入的时间上界比当前时间多出的部分，覆盖两次续约之间可能发出的号
+  private static final long HEARTBEAT_PADDING_MILLIS = HEARTBEAT_MILLIS * 2;
+  private static final int MAX_LOCAL_SLOT = 64;
+  private static final String ROOT_PATH = "/snowflake-lease";
+
+  private final String url;
+  private final String appPath;
+  private final int maxWorkId;
+  private final long aheadMillis;
+  private final long maxTolerateMillis;
+
+  private final Path stateFile;
+  private final String owner;
+  //持有本地文件锁，防止同一台机器上的多个进程使用同一个状态文件
+  private final FileChannel lockChannel;
+  private final FileLock fileLock;
+  private final CountDownLatch connected = new CountDownLatch(1);
+
+  private volatile ZooKeeper zooKeeper;
+  private volatile int nodeId = INVALID_NODE_ID;
+  private volatile boolean leaseHealthy;
+  //连接断开的时间，0表示已连接
+  private volatile long disconnectedAt;
+  private ScheduledFuture<?> heartbeatFuture;
+
+  /**
+   * @param zkNode            zk节点名称，一般为服务名
+   * @param url               zk 地址
+   * @param workIdBits        工作节点位数
+   * @param dir               本地状态文件目录
+   * @param aheadMillis       发号时间可能超前当前时间的毫秒数(如无锁模式预借的毫秒数)
+   * @param maxTolerateMillis 时钟回拨最大等待时间
+   */
+  public ZkLeaseWorkIdGenerator(String zkNode, String url, Integer workIdBits, String dir, long aheadMillis, long maxTolerateMillis) {
+    this.url = url;
+    this.appPath = ROOT_PATH + "/" + zkNode;
+    this.maxWorkId = (1 << workIdBits) - 1;
+    this.aheadMillis = aheadMillis;
+    this.maxTolerateMillis = maxTolerateMillis;
+    try {
+      Path directory = Paths.get(dir);
+      Files.createDirectories(directory);
+      FileChannel channel = null;
+      FileLock lock = null;
+      int slot = 0;
+      for (; slot < MAX_LOCAL_SLOT; slot++) {
+        channel = FileChannel.open(directory.resolve(zkNode + StringPool.DOT + slot + ".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+          lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+          lock = null;
+        }
+        if (null != lock) {
+          break;
+        }
+        channel.close();
+      }
+      if (null == lock) {
+        throw new IllegalStateException("本机已有" + MAX_LOCAL_SLOT + "个进程持有机器ID文件锁, dir:" + dir);
+      }
+      this.lockChannel = channel;
+      this.fileLock = lock;
+      this.stateFile = directory.resolve(zkNode + StringPool.DOT + slot + ".workid");
+      this.owner = Func.getLocalIP() + StringPool.COLON + directory.toAbsolutePath() + StringPool.COLON + slot;
+      this.zooKeeper = new ZooKeeper(url, SESSION_TIMEOUT, this);
+    } catch (IOException e) {
+      throw new IllegalStateException("初始化机器ID生成器失败", e);
+    }
+    Gauge.builder("halo.snowflake.workid.lease", this, g -> g.isLeaseHealthy() ? 1 : 0)
+        .tag("node", zkNode)
+        .description("snowflake workId lease health, 1 healthy 0 lost")
+        .register(Metrics.globalRegistry);
+  }
+
+  @Override
+  public void process(WatchedEvent event) {
+    if (event.getState() == Event.KeeperState.SyncConnected) {
+      disconnectedAt = 0;
+      connected.countDown();
+    }
+    if (event.getState() == Event.KeeperState.Disconnected) {
+      if (disconnectedAt == 0) {
+        disconnectedAt = System.currentTimeMillis();
+      }
+      log.warn("ZkLeaseWorkIdGenerator会话状态：{}", event.getState());
+    }
+    if (event.getState() == Event.KeeperState.Expired) {
+      leaseHealthy = false;
+      log.warn("ZkLeaseWorkIdGenerator会话状态：{}", event.getState());
+    }
+    if (event.getType() == Event.EventType.NodeDeleted && nodeId != INVALID_NODE_ID && event.getPath().equals(idPath(nodeId))) {
+      leaseHealthy = false;
+      log.warn("ZkLeaseWorkIdGenerator机器节点被删除：{}", event.getPath());
+    }
+  }
+
+  /**
+   * 获取机器id
+   *
+   * @return 机器ID
+   */
+  @Override
+  public synchronized long getWorkId() {
+    if (nodeId != INVALID_NODE_ID) {
+      return nodeId;
+    }
+    try {
+      awaitConnected();
+      long[] state = readState();
+      int cached = null == state ? INVALID_NODE_ID : (int) state[0];
+      if (cached >= 0 && cached <= maxWorkId && clockSafe(state[1]) && claim(cached)) {
+        nodeId = cached;
+      } else {
+        nodeId = claimFree(cached);
+      }
+    } catch (KeeperException e) {
+      throw new IllegalStateException("从zookeeper获取workId异常", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("从zookeeper获取workId被中断", e);
+    }
+    leaseHealthy = true;
+    writeState();
+    heartbeatFuture = ThreadPoolCache.getScheduledThreadPool("halo-snowflake-lease").getScheduledExecutor()
+        .scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_MILLIS, HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+    log.info("ZkLeaseWorkIdGenerator获取机器ID：{}", nodeId);
+    return nodeId;
+  }
+
+  /**
+   * 租约是否正常：会话过期、节点被删除或连接断开超过宽限期时为false
+   */
+  @Override
+  public boolean isLeaseHealthy() {
+    if (!leaseHealthy) {
+      return false;
+    }
+    long since = disconnectedAt;
+    return since == 0 || System.currentTimeMillis() - since < zooKeeper.getSessionTimeout() / 3;
+  }
+
+  /**
+   * 抢占指定机器ID：创建临时节点，节点已存在且持有者是自己(上一个进程的会话尚未过期)则删除后重建
+   */
+  private boolean claim(int workId) throws KeeperException, InterruptedException {
+    String path = idPath(workId);
+    byte[] data = owner.getBytes(StandardCharsets.UTF_8);
+    try {
+      create(path, data);
+      return true;
+    } catch (KeeperException.NodeExistsException e) {
+      Stat stat = new Stat();
+      byte[] current;
+      try {
+        current = zooKeeper.getData(path, false, stat);
+      } catch (KeeperException.NoNodeException ne) {
+        return claim(workId);
+      }
+      if (stat.getEphemeralOwner() == zooKeeper.getSessionId()) {
+        return true;
+      }
+      if (!owner.equals(new String(current, StandardCharsets.UTF_8))) {
+        return false;
+      }
+      try {
+        zooKeeper.delete(path, stat.getVersion());
+        create(path, data);
+        return true;
+      } catch (KeeperException.NodeExistsException | KeeperException.NoNodeException | KeeperException.BadVersionException ce) {
+        return false;
+      }
+    }
+  }
+
+  private void awaitConnected() throws InterruptedException {
+    if (!zooKeeper.getState().isConnected() && !connected.await(SESSION_TIMEOUT, TimeUnit.MILLISECONDS)) {
+      throw new IllegalStateException("连接Zookeeper超时, url:" + url);
+    }
+  }
+
+  /**
+   * 一次获取已占用的机器ID，从小到大抢占空闲ID
+   */
+  private int claimFree(int exclude) throws KeeperException, InterruptedException {
+    Set<Integer> used = new HashSet<>();
+    try {
+      List<String> children = zooKeeper.getChildren(appPath, false);
+      children.forEach(c -> used.add(Integer.valueOf(c)));
+    } catch (KeeperException.NoNodeException e) {
+      //首次使用，节点在create时创建
+    }
+    for (int i = 0; i <= maxWorkId; i++) {
+      if (i == exclude || used.contains(i)) {
+        continue;
+      }
+      if (claim(i)) {
+        return i;
+      }
+    }
+    throw new IllegalStateException("生成机器id失败, 机器ID已全部被占用, maxWorkId:" + maxWorkId);
+  }
+
+  /**
+   * 创建临时节点：正常情况下只有一次create往返，父节点仅在首次使用时创建；删除监听异步注册，不阻塞启动
+   */
+  private void create(String path, byte[] data) throws KeeperException, InterruptedException {
+    try {
+      zooKeeper.create(path, data, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL);
+    } catch (KeeperException.NoNodeException e) {
+      createParent(ROOT_PATH);
+      createParent(appPath);
+      zooKeeper.create(path, data, ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.EPHEMERAL);
+    }
+    zooKeeper.exists(path, this, (rc, p, ctx, stat) -> {
+    }, null);
+  }
+
+  private void createParent(String path) throws KeeperException, InterruptedException {
+    try {
+      zooKeeper.create(path, new byte[0], ZooDefs.Ids.OPEN_ACL_UNSAFE, CreateMode.PERSISTENT);
+    } catch (KeeperException.NodeExistsException e) {
+      //已存在
+    }
+  }
+
+  /**
+   * 续约：续写本地文件中的时间上界，会话过期时重连，节点丢失时重建
+   */
+  private synchronized void heartbeat() {
+    if (null == heartbeatFuture || heartbeatFuture.isCancelled()) {
+      return;
+    }
+    writeState();
+    try {
+      if (!zooKeeper.getState().isAlive()) {
+        zooKeeper.close();
+        zooKeeper = new ZooKeeper(url, SESSION_TIMEOUT, this);
+      }
+      Stat stat = zooKeeper.exists(idPath(nodeId), this);
+      if (null != stat && stat.getEphemeralOwner() == zooKeeper.getSessionId()) {
+        leaseHealthy = true;
+        return;
+      }
+      leaseHealthy = claim(nodeId);
+      if (!leaseHealthy) {
+        log.error("ZkLeaseWorkIdGenerator机器ID：{}已被其它节点占用", nodeId);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (KeeperException.ConnectionLossException e) {
+      //连接断开期间由宽限期判断租约是否正常，重连后再检查节点
+      log.warn("ZkLeaseWorkIdGenerator续约时连接断开：" + e.getMessage());
+    } catch (Exception e) {
+      leaseHealthy = false;
+      log.warn("ZkLeaseWorkIdGenerator续约失败：" + e.getMessage());
+    }
+  }
+
+  /**
+   * 启动时当前时间不超过上次保存的时间上界，说明时钟回拨或刚刚重启：
+   * 上界中续约间隔和预借的部分不算回拨，扣除后的回拨差值在容忍范围内则等待到上界之后复用，否则放弃复用该机器ID
+   */
+  private boolean clockSafe(long lastTimestamp) throws InterruptedException {
+    long diff = lastTimestamp - System.currentTimeMillis();
+    if (diff < 0) {
+      return true;
+    }
+    if (diff - HEARTBEAT_PADDING_MILLIS - aheadMillis > maxTolerateMillis) {
+      log.warn("机器ID文件中的时间上界超前当前时间{}ms, 不复用上次的机器ID, 文件:{}", diff, stateFile);
+      return false;
+    }
+    TimeUnit.MILLISECONDS.sleep(diff + 1);
+    return true;
+  }
+
+  /**
+   * 本地文件内容：机器ID,时间上界；读取失败时视为无缓存
+   */
+  private long[] readState() {
+    try {
+      if (!Files.exists(stateFile)) {
+        return null;
+      }
+      String[] parts = Files.readString(stateFile, StandardCharsets.UTF_8).trim().split(StringPool.COMMA);
+      return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+    } catch (Exception e) {
+      log.warn("读取机器ID文件失败：" + stateFile, e);
+      return null;
+    }
+  }
+
+  /**
+   * 释放租约：保存当前时间上界，删除节点并关闭会话，本地文件锁随进程退出释放
+   */
+  public synchronized void close() {
+    if (nodeId == INVALID_NODE_ID) {
+      return;
+    }
+    heartbeatFuture.cancel(false);
+    writeState(System.currentTimeMillis() + aheadMillis);
+    leaseHealthy = false;
+    try {
+      zooKeeper.close();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    try {
+      fileLock.release();
+      lockChannel.close();
+    } catch (IOException e) {
+      log.warn("释放机器ID文件锁失败：" + stateFile, e);
+    }
+  }
+
+  private void writeState() {
+    writeState(System.currentTimeMillis() + HEARTBEAT_PADDING_MILLIS + aheadMillis);
+  }
+
+  /**
+   * 保存机器ID和已发号时间上界，先写临时文件再原子替换
+   */
+  private void writeState(long upper) {
+    try {
+      Path tmp = stateFile.resolveSibling(stateFile.getFileName() + ".tmp");
+      Files.writeString(tmp, nodeId + StringPool.COMMA + upper, StandardCharsets.UTF_8);
+      Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      log.warn("保存机器ID文件失败：" + stateFile, e);
+    }
+  }
+
+  private String idPath(int workId) {
+    return appPath + "/" + workId;
+  }
+}
@@ -0,0 +1,202 @@
+package com.lvwj.halo.core.spel;
+
+import com.lvwj.halo.common.utils.Exceptions;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ClassUtils;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelMessage;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的 spEl：对同一表达式按不同对象反复求值的场景
+ * <p>
+ * 简单属性路径(如 id、#{user.id})直接通过 public getter/setter 或 public 字段的 MethodHandle 读写，解析不到或中间值为空时交给 spEl 解释执行；
+ * 其它表达式使用 {@link SpelCompilerMode#IMMEDIATE} 编译执行，编译后执行失败则回退为解释执行
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 23:55
+ */
+@Slf4j
+public final class CompiledExpression {
+
+  private static final Pattern PROPERTY_PATH = Pattern.compile("^\\s*([A-Za-z_$][\\w$]*(?:\\.[A-Za-z_$][\\w$]*)*)\\s*$");
+  private static final Pattern TEMPLATE_PROPERTY_PATH = Pattern.compile("^\\s*#\\{\\s*([A-Za-z_$][\\w$]*(?:\\.[A-Za-z_$][\\w$]*)*)\\s*}\\s*$");
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  /**
+   * class - 属性名 - 读写句柄，解析不到的属性缓存为NONE
+   */
+  private static final Map<Class<?>, Map<String, Accessor>> ACCESSORS = new ConcurrentHashMap<>(64);
+  private static final Accessor NONE = new Accessor(null, null, null);
+
+  private final String expressionString;
+  private final StandardEvaluationContext evaluationContext;
+  private final Expression interpreted;
+  private final Expression compiled;
+  private final String[] path;
+  private volatile boolean compiledFailed;
+
+  private CompiledExpression(String expressionString, @Nullable ParserContext parserContext, @Nullable BeanResolver beanResolver) {
+    this.expressionString = expressionString;
+    this.evaluationContext = new StandardEvaluationContext();
+    if (null != beanResolver) {
+      this.evaluationContext.setBeanResolver(beanResolver);
+    }
+    this.interpreted = new SpelExpressionParser().parseExpression(expressionString, parserContext);
+    Matcher matcher = (null != parserContext && parserContext.isTemplate() ? TEMPLATE_PROPERTY_PATH : PROPERTY_PATH).matcher(expressionString);
+    if (matcher.matches()) {
+      this.path = StringUtils.tokenizeToStringArray(matcher.group(1), ".");
+      this.compiled = null;
+    } else {
+      this.path = null;
+      SpelParserConfiguration configuration = new SpelParserConfiguration(SpelCompilerMode.IMMEDIATE, CompiledExpression.class.getClassLoader());
+      this.compiled = new SpelExpressionParser(configuration).parseExpression(expressionString, parserContext);
+    }
+  }
+
+  /**
+   * @param expressionString 表达式
+   * @param parserContext    解析上下文，如 TemplateParserContext，可为空
+   * @param beanResolver     bean解析器，可为空
+   */
+  public static CompiledExpression parse(String expressionString, @Nullable ParserContext parserContext, @Nullable BeanResolver beanResolver) {
+    return new CompiledExpression(expressionString, parserContext, beanResolver);
+  }
+
+  public String getExpressionString() {
+    return expressionString;
+  }
+
+  /**
+   * 以root为根对象求值
+   */
+  public Object getValue(Object root) {
+    if (null != path && null != root) {
+      Object value = root;
+      for (String name : path) {
+        Accessor accessor = null == value ? NONE : accessor(value.getClass(), name);
+        if (null == accessor.getter) {
+          return interpretedValue(root);
+        }
+        value = invokeGetter(accessor.getter, value);
+      }
+      return value;
+    }
+    if (null != compiled && !compiledFailed) {
+      try {
+        return compiled.getValue(evaluationContext, root);
+      } catch (SpelEvaluationException e) {
+        if (e.getMessageCode() != SpelMessage.EXCEPTION_RUNNING_COMPILED_EXPRESSION) {
+          throw e;
+        }
+        compiledFailed = true;
+        log.warn("spEl[{}] compiled execution failed, fallback to interpreted: {}", expressionString, e.getMessage());
+      }
+    }
+    return interpretedValue(root);
+  }
+
+  /**
+   * 给root对象的属性路径赋值，值类型与setter参数类型不一致时交给spEl转换
+   */
+  public void setValue(Object root, Object value) {
+    if (null != path && null != root) {
+      Object owner = root;
+      for (int i = 0; i < path.length - 1 && null != owner; i++) {
+        Accessor accessor = accessor(owner.getClass(), path[i]);
+        owner = null == accessor.getter ? null : invokeGetter(accessor.getter, owner);
+      }
+      Accessor accessor = null == owner ? NONE : accessor(owner.getClass(), path[path.length - 1]);
+      if (null != accessor.setter && (null == value ? !accessor.setterType.isPrimitive() : ClassUtils.primitiveToWrapper(accessor.setterType).isInstance(value))) {
+        try {
+          accessor.setter.invokeExact(owner, value);
+        } catch (Throwable e) {
+          throw Exceptions.unchecked(e);
+        }
+        return;
+      }
+    }
+    interpreted.setValue(evaluationContext, root, value);
+  }
+
+  private Object interpretedValue(Object root) {
+    return interpreted.getValue(evaluationContext, root);
+  }
+
+  private static Object invokeGetter(MethodHandle getter, Object target) {
+    try {
+      return getter.invokeExact(target);
+    } catch (Throwable e) {
+      throw Exceptions.unchecked(e);
+    }
+  }
+
+  private static Accessor accessor(Class<?> clazz, String name) {
+    return ACCESSORS.computeIfAbsent(clazz, k -> new ConcurrentHashMap<>(8)).computeIfAbsent(name, k -> resolve(clazz, name));
+  }
+
+  /**
+   * 与spEl反射属性访问一致：优先public getter/setter，其次public字段
+   */
+  private static Accessor resolve(Class<?> clazz, String name) {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    String suffix = StringUtils.capitalize(name);
+    MethodHandle getter = null;
+    MethodHandle setter = null;
+    Class<?> setterType = null;
+    try {
+      for (Method method : clazz.getMethods()) {
+        if (Modifier.isStatic(method.getModifiers())) {
+          continue;
+        }
+        int count = method.getParameterCount();
+        String methodName = method.getName();
+        if (null == getter && count == 0 && method.getReturnType() != void.class
+            && (methodName.equals("get" + suffix) || methodName.equals("is" + suffix) && (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class))) {
+          getter = lookup.unreflect(method).asType(GETTER_TYPE);
+        } else if (null == setter && count == 1 && methodName.equals("set" + suffix)) {
+          setter = lookup.unreflect(method).asType(SETTER_TYPE);
+          setterType = method.getParameterTypes()[0];
+        }
+      }
+      if (null == getter || null == setter) {
+        Field field = clazz.getField(name);
+        if (!Modifier.isStatic(field.getModifiers())) {
+          if (null == getter) {
+            getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+          }
+          if (null == setter && !Modifier.isFinal(field.getModifiers())) {
+            setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            setterType = field.getType();
+          }
+        }
+      }
+    } catch (NoSuchFieldException | IllegalAccessException | SecurityException e) {
+      //非public类等无法直接访问的情况交给spEl
+    }
+    return null == getter && null == setter ? NONE : new Accessor(getter, setter, setterType);
+  }
+
+  private record Accessor(MethodHandle getter, MethodHandle setter, Class<?> setterType) {
+  }
+}
@@ -0,0 +1,57 @@
+package com.lvwj.halo.core.spel;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * 切面方法元数据缓存：按 (方法, 目标类) 缓存切面解析好的注解、占位符、spEl 等元数据，每次调用只需一次 map 查找
+ * <p>
+ * 元数据中含有 ${} 占位符解析结果时，配置变更后需调用 {@link #clearAll()} 重新解析
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 02:50
+ */
+public final class MethodMetadataCache<T> {
+
+  private static final Set<MethodMetadataCache<?>> CACHES = ConcurrentHashMap.newKeySet();
+
+  /**
+   * 方法 - 目标类 - 元数据
+   */
+  private final Map<Method, Map<Class<?>, T>> cache = new ConcurrentHashMap<>(64);
+
+  private final BiFunction<Method, Class<?>, T> loader;
+
+  /**
+   * @param loader 根据 (方法, 目标类) 解析元数据，不能返回 null
+   */
+  public MethodMetadataCache(BiFunction<Method, Class<?>, T> loader) {
+    this.loader = loader;
+    CACHES.add(this);
+  }
+
+  public T get(Method method, Class<?> targetClass) {
+    Map<Class<?>, T> map = cache.get(method);
+    if (null != map) {
+      T metadata = map.get(targetClass);
+      if (null != metadata) {
+        return metadata;
+      }
+    }
+    return cache.computeIfAbsent(method, k -> new ConcurrentHashMap<>(4)).computeIfAbsent(targetClass, k -> loader.apply(method, targetClass));
+  }
+
+  public void clear() {
+    cache.clear();
+  }
+
+  /**
+   * 清空所有切面的元数据缓存，如配置中心配置变更后
+   */
+  public static void clearAll() {
+    CACHES.forEach(MethodMetadataCache::clear);
+  }
+}
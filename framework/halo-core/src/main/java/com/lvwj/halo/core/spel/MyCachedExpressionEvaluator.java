@@ -47,6 +47,25 @@ public class MyCachedExpressionEvaluator extends CachedExpressionEvaluator {
     return evaluationContext;
   }
 
+  /**
+   * Create an {@link EvaluationContext} with a resolved target method, skipping the method cache lookup.
+   *
+   * @param method       the method
+   * @param targetMethod the most specific method of the target class
+   * @param args         the method arguments
+   * @param target       the target object
+   * @param targetClass  the target class
+   * @return the evaluation context
+   */
+  public EvaluationContext createContext(Method method, Method targetMethod, Object[] args, Object target, Class<?> targetClass, @Nullable BeanFactory beanFactory) {
+    ExpressionRootObject rootObject = new ExpressionRootObject(method, args, target, targetClass, targetMethod);
+    MethodBasedEvaluationContext evaluationContext = new MethodBasedEvaluationContext(rootObject, targetMethod, args, getParameterNameDiscoverer());
+    if (beanFactory != null) {
+      evaluationContext.setBeanResolver(new BeanFactoryResolver(beanFactory));
+    }
+    return evaluationContext;
+  }
+
   /**
    * Create an {@link EvaluationContext}.
    *
@@ -87,6 +106,13 @@ public class MyCachedExpressionEvaluator extends CachedExpressionEvaluator {
     return Boolean.TRUE.equals(eval(expression, methodKey, evalContext, Boolean.class));
   }
 
+  /**
+   * 预先解析表达式，由调用方自行缓存
+   */
+  public Expression parseExpression(String expression) {
+    return getParser().parseExpression(expression);
+  }
+
   private Method getTargetMethod(Class<?> targetClass, Method method) {
     AnnotatedElementKey methodKey = new AnnotatedElementKey(method, targetClass);
     return methodCache.computeIfAbsent(methodKey, (key) -> AopUtils.getMostSpecificMethod(method, targetClass));
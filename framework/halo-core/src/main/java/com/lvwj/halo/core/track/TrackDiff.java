@@ -0,0 +1,92 @@
+package com.lvwj.halo.core.track;
+
+import com.lvwj.halo.common.utils.Func;
+import com.lvwj.halo.common.utils.StringPool;
+import lombok.Getter;
+import org.javers.core.ChangesByObject;
+import org.javers.core.diff.changetype.PropertyChange;
+import org.javers.core.metamodel.object.InstanceId;
+import org.javers.core.metamodel.object.ValueObjectId;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 变更差异：按数据实体类名分组的新增实体、更新字段、删除主键
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 22:10
+ */
+@Getter
+public class TrackDiff {
+
+    /**
+     * key:PO类名, value:新增的PO实体
+     */
+    private final Map<String, List<Object>> createMap = new HashMap<>();
+
+    /**
+     * key:PO类名, value:(key:主键, value:更新的字段名集合)
+     */
+    private final Map<String, Map<Object, Set<String>>> updateMap = new HashMap<>();
+
+    /**
+     * key:PO类名, value:删除的主键
+     */
+    private final Map<String, List<Object>> deleteMap = new HashMap<>();
+
+    public void addCreate(String typeName, Object entity) {
+        createMap.computeIfAbsent(typeName, k -> new ArrayList<>()).add(entity);
+    }
+
+    public void addUpdate(String typeName, Object id, String propertyName) {
+        updateMap.computeIfAbsent(typeName, k -> new HashMap<>()).computeIfAbsent(id, k -> new HashSet<>()).add(propertyName);
+    }
+
+    public void addDelete(String typeName, Object id) {
+        List<Object> ids = deleteMap.computeIfAbsent(typeName, k -> new ArrayList<>());
+        if (!ids.contains(id)) {
+            ids.add(id);
+        }
+    }
+
+    public boolean isEmpty() {
+        return createMap.isEmpty() && updateMap.isEmpty() && deleteMap.isEmpty();
+    }
+
+    /**
+     * 由Javers差异转换
+     */
+    public static TrackDiff of(List<ChangesByObject> changes) {
+        TrackDiff diff = new TrackDiff();
+        if (Func.isEmpty(changes)) {
+            return diff;
+        }
+        for (ChangesByObject change : changes) {
+            if (!(change.getGlobalId() instanceof InstanceId instanceId))
+                continue;
+            String typeName = instanceId.getTypeName();
+            Object id = instanceId.getCdoId();
+            if (Func.isNotEmpty(change.getNewObjects())) {
+                change.getNewObjects().get(0).getAffectedObject().ifPresent(e -> diff.addCreate(typeName, e));
+            } else if (Func.isNotEmpty(change.getObjectsRemoved())) {
+                diff.addDelete(typeName, id);
+            } else if (Func.isNotEmpty(change.getPropertyChanges())) {
+                for (PropertyChange propertyChange : change.getPropertyChanges()) {
+                    String propertyName = propertyChange.getPropertyName();
+                    if (propertyChange.getAffectedGlobalId() instanceof ValueObjectId valueObjectId) {
+                        String fragment = valueObjectId.getFragment();
+                        int index = fragment.indexOf(StringPool.SLASH);
+                        propertyName = index > -1 ? fragment.substring(0, index) : fragment;
+                    }
+                    diff.addUpdate(typeName, id, propertyName);
+                }
+            }
+        }
+        return diff;
+    }
+}
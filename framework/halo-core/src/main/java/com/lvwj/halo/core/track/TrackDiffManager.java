@@ -0,0 +1,86 @@
+package com.lvwj.halo.core.track;
+
+import com.lvwj.halo.common.models.entity.IEntity;
+import org.springframework.util.CollectionUtils;
+
+import java.util.List;
+
+/**
+ * 变更追踪：保存数据实体快照，对比得到新增实体、更新字段、删除主键
+ * <p>
+ * 追踪保存(saveByTrack/removeByTrack)只依赖本接口；需要Javers差异明细时使用 {@link TrackManager}
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 13:10
+ */
+public interface TrackDiffManager<E extends IEntity<?>> {
+
+    /**
+     * 开启变更追踪
+     *
+     * @param e 聚合根对应的数据实体
+     * @author lvweijie
+     * @date 2023/11/3 15:39
+     */
+    void attach(E e);
+
+    default void attach(List<E> list) {
+        if (CollectionUtils.isEmpty(list)) {
+            return;
+        }
+        list.forEach(this::attach);
+    }
+
+    /**
+     * 合并修改过的数据实体到本地变量
+     *
+     * @param e 聚合根对应的数据实体
+     * @author lvweijie
+     * @date 2023/11/6 20:03
+     */
+    default void merge(E e) {
+        this.attach(e);
+    }
+
+    default void merge(List<E> list) {
+        attach(list);
+    }
+
+    /**
+     * 解除变更追踪
+     *
+     * @param e 聚合根对应的数据实体
+     * @author lvweijie
+     * @date 2023/11/3 15:39
+     */
+    void detach(E e);
+
+    default void detach(List<E> list) {
+        if (CollectionUtils.isEmpty(list)) {
+            return;
+        }
+        list.forEach(this::detach);
+    }
+
+    /**
+     * 获取变更差异：新增实体、更新字段、删除主键
+     *
+     * @param e 聚合根对应的数据实体
+     * @author lvweijie
+     * @date 2026/10/18 22:10
+     */
+    TrackDiff trackDiff(E e);
+
+    TrackDiff trackDiff(List<E> list, Class<E> clazz);
+
+    /**
+     * 获取删除差异：追踪到的所有数据实体的主键
+     *
+     * @param e 聚合根对应的数据实体
+     * @author lvweijie
+     * @date 2026/10/18 22:10
+     */
+    TrackDiff trackDeleteDiff(E e);
+
+    TrackDiff trackDeleteDiff(List<E> list, Class<E> clazz);
+}
@@ -3,58 +3,13 @@ package com.lvwj.halo.core.track;
 import com.lvwj.halo.common.models.entity.IEntity;
 import org.javers.core.Changes;
 import org.javers.core.ChangesByObject;
-import org.springframework.util.CollectionUtils;
 
 import java.util.List;
 
-public interface TrackManager<E extends IEntity<?>> {
-
-    /**
-     * 开启变更追踪
-     *
-     * @param e 聚合根对应的数据实体
-     * @author lvweijie
-     * @date 2023/11/3 15:39
-     */
-    void attach(E e);
-
-    default void attach(List<E> list) {
-        if (CollectionUtils.isEmpty(list)) {
-            return;
-        }
-        list.forEach(this::attach);
-    }
-
-    /**
-     * 合并修改过的数据实体到本地变量
-     *
-     * @param e 聚合根对应的数据实体
-     * @author lvweijie
-     * @date 2023/11/6 20:03
-     */
-    default void merge(E e) {
-        this.attach(e);
-    }
-
-    default void merge(List<E> list) {
-        attach(list);
-    }
-
-    /**
-     * 解除变更追踪
-     *
-     * @param e 聚合根对应的数据实体
-     * @author lvweijie
-     * @date 2023/11/3 15:39
-     */
-    void detach(E e);
-
-    default void detach(List<E> list) {
-        if (CollectionUtils.isEmpty(list)) {
-            return;
-        }
-        list.forEach(this::detach);
-    }
+/**
+ * 基于Javers的变更追踪，除字段级差异外还可获取Javers差异明细
+ */
+public interface TrackManager<E extends IEntity<?>> extends TrackDiffManager<E> {
 
     /**
      * 获取变更差异数据
@@ -87,4 +42,27 @@ public interface TrackManager<E extends IEntity<?>> {
     List<ChangesByObject> deleteDiffByObject(E e);
 
     List<ChangesByObject> deleteDiffByObject(List<E> list, Class<E> clazz);
+
+    /**
+     * 由Javers差异转换为字段级差异
+     */
+    @Override
+    default TrackDiff trackDiff(E e) {
+        return TrackDiff.of(changeDiffByObject(e));
+    }
+
+    @Override
+    default TrackDiff trackDiff(List<E> list, Class<E> clazz) {
+        return TrackDiff.of(changeDiffByObject(list, clazz));
+    }
+
+    @Override
+    default TrackDiff trackDeleteDiff(E e) {
+        return TrackDiff.of(deleteDiffByObject(e));
+    }
+
+    @Override
+    default TrackDiff trackDeleteDiff(List<E> list, Class<E> clazz) {
+        return TrackDiff.of(deleteDiffByObject(list, clazz));
+    }
 }
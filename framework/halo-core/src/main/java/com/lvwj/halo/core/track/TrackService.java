@@ -69,5 +69,5 @@ public interface TrackService<T extends IEntity<?>> {
      * @author lvweijie
      * @date 2023/11/8 17:04
      */
-    TrackManager<T> getTrackManager();
+    TrackDiffManager<T> getTrackManager();
 }
@@ -0,0 +1,226 @@
+package com.lvwj.halo.core.track.impl;
+
+import com.lvwj.halo.common.models.entity.IEntity;
+import com.lvwj.halo.common.utils.Exceptions;
+import org.apache.commons.lang3.SerializationUtils;
+import org.javers.core.metamodel.annotation.DiffIgnore;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 变更追踪用的数据实体元数据：按类缓存字段的MethodHandle读取器，字段分为值字段、关联实体字段、关联实体集合字段
+ * <p>
+ * 与Javers一致：忽略static、transient、@DiffIgnore字段；实现IEntity的字段按实体处理，其它按值处理。
+ * 字段读取器按字段全局缓存，数据实体容器(EntityHolder)也复用同一份
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 22:15
+ */
+public final class EntityMeta {
+
+    private static final Map<Class<?>, EntityMeta> CACHE = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, MethodHandle[]> VALUE_FIELDS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Boolean> HAS_EQUALS = new ConcurrentHashMap<>();
+    private static final Map<Field, MethodHandle> GETTERS = new ConcurrentHashMap<>();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final String typeName;
+    private final String[] valueNames;
+    private final MethodHandle[] valueGetters;
+    private final MethodHandle[] entityGetters;
+    private final MethodHandle[] collectionGetters;
+
+    private EntityMeta(Class<?> type) {
+        this.typeName = type.getName();
+        List<String> names = new ArrayList<>();
+        List<MethodHandle> values = new ArrayList<>();
+        List<MethodHandle> entities = new ArrayList<>();
+        List<MethodHandle> collections = new ArrayList<>();
+        for (Field field : fields(type)) {
+            if (field.isAnnotationPresent(DiffIgnore.class)) {
+                continue;
+            }
+            if (IEntity.class.isAssignableFrom(field.getType())) {
+                entities.add(getter(field));
+            } else if (isEntityCollection(field)) {
+                collections.add(getter(field));
+            } else {
+                names.add(field.getName());
+                values.add(getter(field));
+            }
+        }
+        this.valueNames = names.toArray(new String[0]);
+        this.valueGetters = values.toArray(new MethodHandle[0]);
+        this.entityGetters = entities.toArray(new MethodHandle[0]);
+        this.collectionGetters = collections.toArray(new MethodHandle[0]);
+    }
+
+    static EntityMeta of(Class<?> type) {
+        return CACHE.computeIfAbsent(type, EntityMeta::new);
+    }
+
+    String getTypeName() {
+        return typeName;
+    }
+
+    String[] getValueNames() {
+        return valueNames;
+    }
+
+    /**
+     * 读取值字段，可变的值对象复制一份作为快照
+     */
+    Object[] snapshotValues(Object entity) {
+        Object[] values = new Object[valueGetters.length];
+        for (int i = 0; i < valueGetters.length; i++) {
+            values[i] = copy(get(valueGetters[i], entity));
+        }
+        return values;
+    }
+
+    Object getValue(Object entity, int index) {
+        return get(valueGetters[index], entity);
+    }
+
+    /**
+     * 遍历直接关联的实体(单个和集合)
+     */
+    void forEachChild(Object entity, Consumer<IEntity<?>> consumer) {
+        for (MethodHandle getter : entityGetters) {
+            Object child = get(getter, entity);
+            if (null != child) {
+                consumer.accept((IEntity<?>) child);
+            }
+        }
+        for (MethodHandle getter : collectionGetters) {
+            Object children = get(getter, entity);
+            if (null != children) {
+                for (Object child : (Collection<?>) children) {
+                    if (null != child) {
+                        consumer.accept((IEntity<?>) child);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 值比较：重写了equals的类型用equals，数组逐个比较，其它值对象逐个字段比较
+     */
+    static boolean valueEquals(Object o, Object n) {
+        if (o == n) {
+            return true;
+        }
+        if (null == o || null == n || o.getClass() != n.getClass()) {
+            return false;
+        }
+        Class<?> type = o.getClass();
+        if (type.isArray()) {
+            return Objects.deepEquals(o, n);
+        }
+        if (hasEquals(type) || type.getName().startsWith("java.")) {
+            return o.equals(n);
+        }
+        for (MethodHandle getter : VALUE_FIELDS.computeIfAbsent(type, EntityMeta::valueFields)) {
+            if (!valueEquals(get(getter, o), get(getter, n))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Object copy(Object value) {
+        if (null == value || isImmutable(value.getClass()) || !(value instanceof Serializable serializable)) {
+            return value;
+        }
+        return SerializationUtils.clone(serializable);
+    }
+
+    private static boolean isImmutable(Class<?> type) {
+        return type == String.class || type.isPrimitive() || type.isEnum()
+                || Number.class.isAssignableFrom(type) && (type.getName().startsWith("java.lang.") || type == BigDecimal.class || type == BigInteger.class)
+                || type == Boolean.class || type == Character.class || type == UUID.class
+                || Temporal.class.isAssignableFrom(type) && type.getName().startsWith("java.time.");
+    }
+
+    private static boolean hasEquals(Class<?> type) {
+        return HAS_EQUALS.computeIfAbsent(type, t -> {
+            try {
+                return t.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        });
+    }
+
+    private static MethodHandle[] valueFields(Class<?> type) {
+        return fields(type).stream().map(EntityMeta::getter).toArray(MethodHandle[]::new);
+    }
+
+    private static boolean isEntityCollection(Field field) {
+        if (!Collection.class.isAssignableFrom(field.getType())) {
+            return false;
+        }
+        Type genericType = field.getGenericType();
+        if (genericType instanceof ParameterizedType parameterizedType
+                && parameterizedType.getActualTypeArguments()[0] instanceof Class<?> elementType) {
+            return IEntity.class.isAssignableFrom(elementType);
+        }
+        return false;
+    }
+
+    private static List<Field> fields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; null != c && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers) && !field.isSynthetic()) {
+                    fields.add(field);
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * 字段读取器，签名统一为(Object)Object，按字段缓存
+     */
+    public static MethodHandle getter(Field field) {
+        return GETTERS.computeIfAbsent(field, EntityMeta::unreflectGetter);
+    }
+
+    private static MethodHandle unreflectGetter(Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+        } catch (Exception e) {
+            throw Exceptions.unchecked(e);
+        }
+    }
+
+    private static Object get(MethodHandle getter, Object target) {
+        try {
+            return getter.invokeExact(target);
+        } catch (Throwable e) {
+            throw Exceptions.unchecked(e);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.lvwj.halo.core.track.impl;
+
+import com.alibaba.ttl.TransmittableThreadLocal;
+import com.lvwj.halo.common.models.entity.IEntity;
+import com.lvwj.halo.core.track.TrackDiff;
+import com.lvwj.halo.core.track.TrackDiffManager;
+import org.springframework.util.CollectionUtils;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于字段快照的变更追踪管理器
+ * <p>
+ * attach时按实体类元数据只保存每个实体(含关联实体)值字段的快照，按 类名+主键 展开为一层Map；
+ * 对比时逐字段比较，关联实体集合按主键匹配，复杂度O(n)，不做编辑距离计算。
+ * 产生的新增/更新/删除差异与Javers实现一致；只提供字段级差异，需要Javers差异明细时使用ThreadLocalTrackManager
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 22:20
+ */
+public class SnapshotTrackManager<E extends IEntity<?>> implements TrackDiffManager<E> {
+
+    private final TransmittableThreadLocal<Map<Serializable, Map<NodeKey, Node>>> context;
+
+    public SnapshotTrackManager() {
+        this.context = TransmittableThreadLocal.withInitial(HashMap::new);
+    }
+
+    @Override
+    public void attach(E e) {
+        if (null == e || null == e.getId()) {
+            return;
+        }
+        this.context.get().put(e.getId(), snapshot(e));
+    }
+
+    @Override
+    public void detach(E e) {
+        if (null == e || null == e.getId()) {
+            return;
+        }
+        this.context.get().remove(e.getId());
+    }
+
+    @Override
+    public TrackDiff trackDiff(E e) {
+        TrackDiff diff = new TrackDiff();
+        if (null == e) {
+            return diff;
+        }
+        Map<NodeKey, Node> old = null == e.getId() ? null : this.context.get().get(e.getId());
+        diff(null == old ? Collections.emptyMap() : old, Collections.singletonList(e), diff);
+        return diff;
+    }
+
+    @Override
+    public TrackDiff trackDiff(List<E> list, Class<E> clazz) {
+        TrackDiff diff = new TrackDiff();
+        if (CollectionUtils.isEmpty(list)) {
+            return diff;
+        }
+        Map<NodeKey, Node> old = new HashMap<>();
+        for (E e : list) {
+            Map<NodeKey, Node> nodes = null == e.getId() ? null : this.context.get().get(e.getId());
+            if (null != nodes) {
+                old.putAll(nodes);
+            }
+        }
+        diff(old, list, diff);
+        return diff;
+    }
+
+    @Override
+    public TrackDiff trackDeleteDiff(E e) {
+        TrackDiff diff = new TrackDiff();
+        if (null == e) {
+            return diff;
+        }
+        Map<NodeKey, Node> old = null == e.getId() ? null : this.context.get().get(e.getId());
+        (null == old ? snapshot(e) : old).keySet().forEach(key -> diff.addDelete(key.typeName(), key.id()));
+        return diff;
+    }
+
+    @Override
+    public TrackDiff trackDeleteDiff(List<E> list, Class<E> clazz) {
+        TrackDiff diff = new TrackDiff();
+        if (CollectionUtils.isEmpty(list)) {
+            return diff;
+        }
+        Map<Serializable, Map<NodeKey, Node>> snapshots = this.context.get();
+        //有未追踪的实体时，与Javers实现一致以当前数据为准
+        boolean allTracked = list.stream().allMatch(e -> null != e.getId() && snapshots.containsKey(e.getId()));
+        for (E e : list) {
+            Map<NodeKey, Node> nodes = allTracked ? snapshots.get(e.getId()) : snapshot(e);
+            nodes.keySet().forEach(key -> diff.addDelete(key.typeName(), key.id()));
+        }
+        return diff;
+    }
+
+    private void diff(Map<NodeKey, Node> old, List<E> roots, TrackDiff diff) {
+        Map<NodeKey, Object> current = new LinkedHashMap<>();
+        walk(roots, (meta, entity) -> {
+            Object id = ((IEntity<?>) entity).getId();
+            if (null == id) {
+                diff.addCreate(meta.getTypeName(), entity);
+            } else {
+                current.putIfAbsent(new NodeKey(meta.getTypeName(), id), entity);
+            }
+        });
+        for (Map.Entry<NodeKey, Object> entry : current.entrySet()) {
+            NodeKey key = entry.getKey();
+            Node node = old.get(key);
+            if (null == node) {
+                diff.addCreate(key.typeName(), entry.getValue());
+                continue;
+            }
+            String[] names = node.meta().getValueNames();
+            for (int i = 0; i < names.length; i++) {
+                if (!EntityMeta.valueEquals(node.values()[i], node.meta().getValue(entry.getValue(), i))) {
+                    diff.addUpdate(key.typeName(), key.id(), names[i]);
+                }
+            }
+        }
+        for (NodeKey key : old.keySet()) {
+            if (!current.containsKey(key)) {
+                diff.addDelete(key.typeName(), key.id());
+            }
+        }
+    }
+
+    private Map<NodeKey, Node> snapshot(E e) {
+        Map<NodeKey, Node> nodes = new LinkedHashMap<>();
+        walk(Collections.singletonList(e), (meta, entity) -> {
+            Object id = ((IEntity<?>) entity).getId();
+            if (null != id) {
+                nodes.putIfAbsent(new NodeKey(meta.getTypeName(), id), new Node(meta, meta.snapshotValues(entity)));
+            }
+        });
+        return nodes;
+    }
+
+    /**
+     * 遍历实体及其关联实体，同一对象只访问一次
+     */
+    private static void walk(List<? extends IEntity<?>> roots, NodeVisitor visitor) {
+        Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<IEntity<?>> stack = new ArrayDeque<>();
+        for (int i = roots.size() - 1; i >= 0; i--) {
+            if (null != roots.get(i)) {
+                stack.push(roots.get(i));
+            }
+        }
+        while (!stack.isEmpty()) {
+            IEntity<?> entity = stack.pop();
+            if (!visited.add(entity)) {
+                continue;
+            }
+            EntityMeta meta = EntityMeta.of(entity.getClass());
+            visitor.visit(meta, entity);
+            //逆序入栈，保持关联实体集合的原有顺序
+            List<IEntity<?>> children = new ArrayList<>();
+            meta.forEachChild(entity, children::add);
+            for (int i = children.size() - 1; i >= 0; i--) {
+                stack.push(children.get(i));
+            }
+        }
+    }
+
+    private interface NodeVisitor {
+        void visit(EntityMeta meta, Object entity);
+    }
+
+    private record NodeKey(String typeName, Object id) {
+    }
+
+    private record Node(EntityMeta meta, Object[] values) {
+    }
+}
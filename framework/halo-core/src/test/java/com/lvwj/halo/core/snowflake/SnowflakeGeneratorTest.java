@@ -0,0 +1,152 @@
+package com.lvwj.halo.core.snowflake;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 雪花ID生成测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 11:00
+ */
+class SnowflakeGeneratorTest {
+
+  @Test
+  void syncModeIdsAreIncreasing() {
+    assertIncreasing(new SnowflakeGenerator(properties(false, 0), 1L));
+  }
+
+  @Test
+  void lockFreeModeIdsAreIncreasing() {
+    assertIncreasing(new SnowflakeGenerator(properties(true, 0), 1L));
+    assertIncreasing(new SnowflakeGenerator(properties(true, 5), 1L));
+  }
+
+  @Test
+  void nextIdsAreUniqueAndIncreasing() {
+    for (boolean lockFree : new boolean[]{false, true}) {
+      SnowflakeGenerator generator = new SnowflakeGenerator(properties(lockFree, 2), 3L);
+      //超过单毫秒序号数，跨毫秒预留
+      long[] ids = generator.nextIds(10_000, 0L);
+      assertEquals(10_000, ids.length);
+      for (int i = 1; i < ids.length; i++) {
+        assertTrue(ids[i] > ids[i - 1], "lockFree:" + lockFree + ", index:" + i);
+      }
+      assertTrue(generator.nextId() > ids[ids.length - 1]);
+    }
+  }
+
+  @Test
+  void shardValueRoundTrip() {
+    SnowflakeProperties properties = properties(true, 0);
+    properties.setWorkerIdBits(8);
+    properties.setSequenceBits(7);
+    properties.setShardingBits(8);
+    SnowflakeGenerator generator = new SnowflakeGenerator(properties, 255L);
+
+    for (long shard : new long[]{0L, 1L, 128L, 255L}) {
+      assertEquals(shard, generator.getShardValue(generator.nextId(shard)));
+      for (long id : generator.nextIds(300, shard)) {
+        assertEquals(shard, generator.getShardValue(id));
+      }
+    }
+    //超出分片位数的部分被截断
+    assertEquals(1L, generator.getShardValue(generator.nextId(257L)));
+  }
+
+  @Test
+  void dateTimeFollowsGenerationTime() throws InterruptedException {
+    SnowflakeGenerator generator = new SnowflakeGenerator(properties(true, 0), 1L);
+    LocalDateTime first = generator.getDateTime(generator.nextId());
+    Thread.sleep(50);
+    LocalDateTime second = generator.getDateTime(generator.nextId());
+
+    Duration elapsed = Duration.between(first, second);
+    assertFalse(elapsed.toMillis() < 50, "elapsed:" + elapsed);
+    assertTrue(elapsed.toSeconds() < 5, "elapsed:" + elapsed);
+  }
+
+  @Test
+  void lostLeaseRejectsIds() {
+    AtomicBoolean healthy = new AtomicBoolean(true);
+    for (boolean lockFree : new boolean[]{false, true}) {
+      healthy.set(true);
+      SnowflakeGenerator generator = new SnowflakeGenerator(properties(lockFree, 0), 1L, healthy::get);
+      generator.nextId();
+
+      healthy.set(false);
+      assertThrows(IllegalStateException.class, generator::nextId);
+      assertThrows(IllegalStateException.class, () -> generator.nextIds(10, 0L));
+    }
+  }
+
+  @Test
+  void illegalWorkerIdIsRejected() {
+    assertThrows(IllegalArgumentException.class, () -> new SnowflakeGenerator(properties(false, 0), 1024L));
+  }
+
+  @Test
+  void concurrentIdsAreUnique() throws Exception {
+    for (boolean lockFree : new boolean[]{false, true}) {
+      SnowflakeGenerator generator = new SnowflakeGenerator(properties(lockFree, 2), 1L);
+      int threads = 8;
+      int perThread = 20_000;
+      Set<Long> ids = ConcurrentHashMap.newKeySet();
+      ExecutorService executor = Executors.newFixedThreadPool(threads);
+      List<Callable<Boolean>> tasks = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        int index = t;
+        tasks.add(() -> {
+          boolean unique = true;
+          for (int i = 0; i < perThread; i++) {
+            if (index % 2 == 0) {
+              unique &= ids.add(generator.nextId());
+            } else if (i % 100 == 0) {
+              for (long id : generator.nextIds(100, 0L)) {
+                unique &= ids.add(id);
+              }
+            }
+          }
+          return unique;
+        });
+      }
+      for (Future<Boolean> future : executor.invokeAll(tasks)) {
+        assertTrue(future.get(), "lockFree:" + lockFree);
+      }
+      executor.shutdown();
+      assertEquals(threads * perThread, ids.size());
+    }
+  }
+
+  private static void assertIncreasing(SnowflakeGenerator generator) {
+    long last = generator.nextId();
+    for (int i = 0; i < 50_000; i++) {
+      long id = generator.nextId();
+      assertTrue(id > last, "id:" + id + ", last:" + last);
+      last = id;
+    }
+  }
+
+  private static SnowflakeProperties properties(boolean lockFree, int maxBorrowMills) {
+    SnowflakeProperties properties = new SnowflakeProperties();
+    properties.setLockFree(lockFree);
+    properties.setMaxBorrowMills(maxBorrowMills);
+    return properties;
+  }
+}
@@ -0,0 +1,152 @@
+package com.lvwj.halo.core.spel;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.BeanResolver;
+import org.springframework.expression.common.TemplateParserContext;
+import org.springframework.expression.spel.SpelEvaluationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 预编译spEl测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 12:00
+ */
+class CompiledExpressionTest {
+
+  private static final TemplateParserContext TEMPLATE = new TemplateParserContext();
+
+  @Test
+  void readsPropertyPaths() {
+    Order order = new Order(1L, new User(7L, "tom"));
+
+    assertEquals(1L, CompiledExpression.parse("id", null, null).getValue(order));
+    assertEquals(7L, CompiledExpression.parse(" user.id ", null, null).getValue(order));
+    assertEquals("tom", CompiledExpression.parse("#{user.name}", TEMPLATE, null).getValue(order));
+    assertEquals(true, CompiledExpression.parse("vip", null, null).getValue(order.user));
+    assertEquals("A", CompiledExpression.parse("level", null, null).getValue(order.user));
+  }
+
+  @Test
+  void sameExpressionAcrossTypes() {
+    CompiledExpression expression = CompiledExpression.parse("id", null, null);
+
+    assertEquals(1L, expression.getValue(new Order(1L, null)));
+    assertEquals(7L, expression.getValue(new User(7L, "tom")));
+    //非public类无法直接访问，交给spEl
+    assertEquals(9L, expression.getValue(new Hidden(9L)));
+  }
+
+  @Test
+  void nullIntermediateFallsBackToSpEl() {
+    Order order = new Order(1L, null);
+
+    assertThrows(SpelEvaluationException.class, () -> CompiledExpression.parse("user.id", null, null).getValue(order));
+    assertNull(CompiledExpression.parse("user?.id", null, null).getValue(order));
+  }
+
+  @Test
+  void compiledExpressionFallsBackWhenRootTypeChanges() {
+    CompiledExpression expression = CompiledExpression.parse("id * 2 + 1", null, null);
+
+    for (int i = 0; i < 3; i++) {
+      assertEquals(3L, expression.getValue(new Order(1L, null)));
+    }
+    //编译后的字节码按第一次的根对象类型转换，换类型后回退为解释执行
+    assertEquals(15L, expression.getValue(new User(7L, "tom")));
+    assertEquals(5L, expression.getValue(new Order(2L, null)));
+  }
+
+  @Test
+  void resolvesBeansInTemplate() {
+    BeanResolver beanResolver = (context, beanName) -> new Greeter();
+    CompiledExpression expression = CompiledExpression.parse("#{@greeter.hello(user.name)}", TEMPLATE, beanResolver);
+
+    assertEquals("hello tom", expression.getValue(new Order(1L, new User(7L, "tom"))));
+    assertEquals("hello jerry", expression.getValue(new Order(2L, new User(8L, "jerry"))));
+  }
+
+  @Test
+  void writesPropertyPaths() {
+    Order order = new Order(1L, new User(7L, "tom"));
+
+    CompiledExpression.parse("user.name", null, null).setValue(order, "jerry");
+    CompiledExpression.parse("level", null, null).setValue(order.user, "B");
+    assertEquals("jerry", order.user.getName());
+    assertEquals("B", order.user.level);
+
+    //值类型与setter参数不一致时由spEl转换
+    CompiledExpression.parse("id", null, null).setValue(order, "5");
+    assertEquals(5L, order.getId());
+  }
+
+  public static class Order {
+    private Long id;
+    private final User user;
+
+    public Order(Long id, User user) {
+      this.id = id;
+      this.user = user;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public void setId(Long id) {
+      this.id = id;
+    }
+
+    public User getUser() {
+      return user;
+    }
+  }
+
+  public static class User {
+    private final Long id;
+    private String name;
+    public String level = "A";
+
+    public User(Long id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+
+    public Long getId() {
+      return id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public boolean isVip() {
+      return true;
+    }
+  }
+
+  public static class Greeter {
+    public String hello(String name) {
+      return "hello " + name;
+    }
+  }
+
+  private static class Hidden {
+    private final Long id;
+
+    private Hidden(Long id) {
+      this.id = id;
+    }
+
+    public Long getId() {
+      return id;
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.lvwj.halo.core.track.impl;
+
+import com.lvwj.halo.common.models.entity.IEntity;
+import com.lvwj.halo.core.track.TrackDiff;
+import org.javers.core.metamodel.annotation.DiffIgnore;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 基于字段快照的变更追踪测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 11:20
+ */
+class SnapshotTrackManagerTest {
+
+    private static final String ORDER = OrderPO.class.getName();
+    private static final String ITEM = ItemPO.class.getName();
+
+    private final SnapshotTrackManager<OrderPO> manager = new SnapshotTrackManager<>();
+
+    @Test
+    void unchangedEntityHasNoDiff() {
+        OrderPO order = order(1L);
+        manager.attach(order);
+
+        assertTrue(manager.trackDiff(order).isEmpty());
+    }
+
+    @Test
+    void detectsUpdatedFieldsOfRootAndChildren() {
+        OrderPO order = order(1L);
+        manager.attach(order);
+
+        order.name = "changed";
+        order.items.get(1).qty = 9;
+        order.remark = "ignored";
+        order.cache = "ignored";
+        TrackDiff diff = manager.trackDiff(order);
+
+        assertEquals(Map.of(1L, Set.of("name")), diff.getUpdateMap().get(ORDER));
+        assertEquals(Map.of(12L, Set.of("qty")), diff.getUpdateMap().get(ITEM));
+        assertTrue(diff.getCreateMap().isEmpty());
+        assertTrue(diff.getDeleteMap().isEmpty());
+    }
+
+    @Test
+    void detectsInPlaceChangeOfMutableValue() {
+        OrderPO order = order(1L);
+        manager.attach(order);
+
+        //快照保存的是值对象的副本，原地修改也能对比出来
+        order.address.city = "Shanghai";
+
+        assertEquals(Map.of(1L, Set.of("address")), manager.trackDiff(order).getUpdateMap().get(ORDER));
+    }
+
+    @Test
+    void detectsCreatedAndDeletedChildren() {
+        OrderPO order = order(1L);
+        manager.attach(order);
+
+        ItemPO created = new ItemPO(null, 3);
+        order.items.remove(0);
+        order.items.add(created);
+        order.items.add(new ItemPO(13L, 4));
+        TrackDiff diff = manager.trackDiff(order);
+
+        assertEquals(List.of(created, order.items.get(2)), diff.getCreateMap().get(ITEM));
+        assertEquals(List.of(11L), diff.getDeleteMap().get(ITEM));
+        assertNull(diff.getUpdateMap().get(ITEM));
+    }
+
+    @Test
+    void untrackedOrDetachedEntityIsCreated() {
+        OrderPO order = order(1L);
+        TrackDiff diff = manager.trackDiff(order);
+        assertEquals(List.of(order), diff.getCreateMap().get(ORDER));
+        assertEquals(2, diff.getCreateMap().get(ITEM).size());
+
+        manager.attach(order);
+        manager.detach(order);
+        assertEquals(List.of(order), manager.trackDiff(order).getCreateMap().get(ORDER));
+    }
+
+    @Test
+    void listDiffMatchesEachRootWithItsSnapshot() {
+        OrderPO first = order(1L);
+        OrderPO second = order(2L);
+        second.items.forEach(item -> item.id += 10);
+        manager.attach(List.of(first, second));
+
+        second.name = "changed";
+        TrackDiff diff = manager.trackDiff(List.of(first, second), OrderPO.class);
+
+        assertEquals(Map.of(2L, Set.of("name")), diff.getUpdateMap().get(ORDER));
+        assertTrue(diff.getCreateMap().isEmpty());
+        assertTrue(diff.getDeleteMap().isEmpty());
+    }
+
+    @Test
+    void deleteDiffCoversTrackedGraph() {
+        OrderPO order = order(1L);
+        manager.attach(order);
+
+        //删除时以追踪的快照为准，追踪后新加的子实体不在其中
+        order.items.add(new ItemPO(13L, 1));
+        TrackDiff diff = manager.trackDeleteDiff(order);
+
+        assertEquals(List.of(1L), diff.getDeleteMap().get(ORDER));
+        assertEquals(List.of(11L, 12L), diff.getDeleteMap().get(ITEM));
+    }
+
+    @Test
+    void sharedChildIsVisitedOnce() {
+        OrderPO order = order(1L);
+        order.items.add(order.items.get(0));
+        manager.attach(order);
+
+        order.items.get(0).qty = 5;
+        TrackDiff diff = manager.trackDiff(order);
+
+        assertEquals(Map.of(11L, Set.of("qty")), diff.getUpdateMap().get(ITEM));
+        assertTrue(diff.getCreateMap().isEmpty());
+    }
+
+    private static OrderPO order(Long id) {
+        OrderPO order = new OrderPO();
+        order.id = id;
+        order.name = "order" + id;
+        order.amount = new BigDecimal("10.0");
+        order.address = new Address();
+        order.address.city = "Beijing";
+        order.remark = "remark";
+        order.items = new ArrayList<>(List.of(new ItemPO(11L, 1), new ItemPO(12L, 2)));
+        return order;
+    }
+
+    static class OrderPO implements IEntity<Long> {
+        private Long id;
+        private String name;
+        private BigDecimal amount;
+        private Address address;
+        @DiffIgnore
+        private String remark;
+        private transient String cache;
+        private List<ItemPO> items;
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+
+    static class ItemPO implements IEntity<Long> {
+        private Long id;
+        private Integer qty;
+
+        ItemPO(Long id, Integer qty) {
+            this.id = id;
+            this.qty = qty;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+
+    static class Address implements Serializable {
+        private String city;
+    }
+}
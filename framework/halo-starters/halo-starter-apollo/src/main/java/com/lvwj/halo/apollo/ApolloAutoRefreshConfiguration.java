@@ -6,6 +6,7 @@ import com.ctrip.framework.apollo.spring.boot.ApolloAutoConfiguration;
 import com.ctrip.framework.apollo.spring.config.ConfigPropertySource;
 import com.ctrip.framework.apollo.spring.config.ConfigPropertySourceFactory;
 import com.ctrip.framework.apollo.spring.util.SpringInjector;
+import com.lvwj.halo.core.spel.MethodMetadataCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
@@ -54,6 +55,8 @@ public class ApolloAutoRefreshConfiguration {
       if (namespaces.isEmpty()) {
         return;
       }
+      //切面方法元数据中缓存了${}占位符解析结果，配置变更后重新解析
+      namespaces.forEach(s -> ConfigService.getConfig(s).addChangeListener(event -> MethodMetadataCache.clearAll()));
       Map<String, Object> beanMap = applicationContext.getBeansWithAnnotation(ConfigurationProperties.class);
       if (beanMap.isEmpty()) {
         return;
@@ -3,6 +3,8 @@ package com.lvwh.halo.batchhandler;
 import com.lvwh.halo.batchhandler.queue.AbstractBatchQueue;
 import com.lvwh.halo.batchhandler.queue.MemoryBatchQueue;
 import com.lvwh.halo.batchhandler.queue.RedisBatchQueue;
+import com.lvwh.halo.batchhandler.queue.ReliableRedisBatchQueue;
+import com.lvwh.halo.batchhandler.queue.RingBatchQueue;
 import com.lvwj.halo.common.utils.Func;
 import com.lvwj.halo.common.utils.StringPool;
 import com.lvwj.halo.core.threadpool.ThreadPoolCache;
@@ -13,6 +15,7 @@ import org.springframework.util.CollectionUtils;
 import java.io.Serializable;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ScheduledFuture;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -36,22 +39,41 @@ public class BatchHandler<T extends Serializable> {
 
     private final Object lock = new Object();
 
+    private final BatchHandlerType type;
+
     private final int threshHold;
     private final int threadSize;
     private final int queueSize;
 
 
     public BatchHandler(String key, BatchHandlerType type, int threshHold, long interval, int queueSize, int threadSize, Consumer<List<T>> consumer) {
+        this(key, type, threshHold, interval, queueSize, threadSize, BatchHandlerConstant.DEFAULT_RING_CAPACITY, BatchQueueFullPolicy.BLOCK, consumer);
+    }
+
+    /**
+     * @param ringCapacity 仅RING类型有效：每个队列的槽位数(向上取2的幂)
+     * @param fullPolicy   仅RING类型有效：队列写满时的处理策略
+     */
+    public BatchHandler(String key, BatchHandlerType type, int threshHold, long interval, int queueSize, int threadSize, int ringCapacity, BatchQueueFullPolicy fullPolicy, Consumer<List<T>> consumer) {
         threshHold = threshHold <= 1 ? BatchHandlerConstant.DEFAULT_THRESH_HOLD : threshHold;
         interval = interval <= 1 ? BatchHandlerConstant.DEFAULT_INTERVAL : interval;
         this.queueSize = queueSize < 0 ? 1 : queueSize;
         this.threadSize = threadSize < 0 ? 1 : threadSize;
         this.threadQueueMap = threadQueueMap();
-        this.queueList = IntStream.range(0, this.queueSize).mapToObj(i -> BatchHandlerType.REDIS.equals(type) ? new RedisBatchQueue<T>(key + StringPool.COLON + i) : new MemoryBatchQueue<T>()).collect(Collectors.toList());
+        this.type = type;
+        this.queueList = IntStream.range(0, this.queueSize).mapToObj(i -> switch (type) {
+            case REDIS -> new RedisBatchQueue<T>(key + StringPool.COLON + i);
+            case REDIS_ACK -> new ReliableRedisBatchQueue<T>(key, i);
+            case RING -> new RingBatchQueue<T>(ringCapacity, fullPolicy, consumer);
+            default -> new MemoryBatchQueue<T>();
+        }).collect(Collectors.toList());
         this.threshHold = threshHold;
         this.consumer = consumer;
         this.scheduledThreadPool = ThreadPoolCache.getScheduledThreadPool(key, this.threadSize);
         this.scheduledThreadPool.scheduleWithFixedDelay(this::batchHandle, Duration.ofMillis(interval));
+        if (BatchHandlerType.REDIS_ACK.equals(type)) {
+            this.scheduledThreadPool.scheduleWithFixedDelay(() -> ReliableRedisBatchQueue.recover(key), Duration.ofMillis(BatchHandlerConstant.RELIABLE_RECOVER_INTERVAL));
+        }
     }
 
     private Map<Integer, List<Integer>> threadQueueMap() {
@@ -96,8 +118,12 @@ public class BatchHandler<T extends Serializable> {
 
     private void batchHandle() {
         try {
-            List<T> ts = new ArrayList<>();
             List<AbstractBatchQueue<T>> queues = getQueueByThreadId();
+            if (BatchHandlerType.REDIS_ACK.equals(this.type)) {
+                reliableBatchHandle(queues);
+                return;
+            }
+            List<T> ts = new ArrayList<>();
             queues.forEach(q -> ts.addAll(q.take(this.threshHold)));
             if (CollectionUtils.isEmpty(ts)) {
                 return;
@@ -109,6 +135,23 @@ public class BatchHandler<T extends Serializable> {
         }
     }
 
+    /**
+     * 一次调用领取当前线程负责的所有分片，消费成功后再确认；消费异常的数据留在处理中列表，下次优先重投
+     */
+    private void reliableBatchHandle(List<AbstractBatchQueue<T>> queues) {
+        List<T> ts = ReliableRedisBatchQueue.claim(queues, this.threshHold);
+        if (CollectionUtils.isEmpty(ts)) {
+            return;
+        }
+        ScheduledFuture<?> heartbeat = ReliableRedisBatchQueue.keepAlive(queues);
+        try {
+            consumer.accept(ts);
+        } finally {
+            heartbeat.cancel(false);
+        }
+        ReliableRedisBatchQueue.ack(queues);
+    }
+
     public void handle(T t, int shardingKey) {
         if (null == t) return;
         int queueIndex = shardingKey % this.queueSize;
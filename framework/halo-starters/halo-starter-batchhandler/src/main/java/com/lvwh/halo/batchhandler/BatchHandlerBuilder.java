@@ -6,6 +6,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 /**
  * @author lvweijie
@@ -18,6 +19,7 @@ public class BatchHandlerBuilder {
 
     private static final Map<String, BatchHandlerT<?>> batchHandlerTMap = new ConcurrentHashMap<>();
     private static final Map<String, BatchHandlerTR<?, ?>> batchHandlerTRMap = new ConcurrentHashMap<>();
+    private static final Map<String, LingerBatchHandler<?>> lingerBatchHandlerMap = new ConcurrentHashMap<>();
 
     public static <T extends Serializable> BatchHandlerT<T> buildMemory(String key, Consumer<List<T>> consumer) {
         return buildMemory(key, 1, 1, consumer);
@@ -31,6 +33,10 @@ public class BatchHandlerBuilder {
         return buildRedis(key, 1, 1, consumer);
     }
 
+    public static <T extends Serializable> BatchHandlerT<T> buildRing(String key, Consumer<List<T>> consumer) {
+        return buildRing(key, 1, 1, BatchHandlerConstant.DEFAULT_RING_CAPACITY, BatchQueueFullPolicy.BLOCK, consumer);
+    }
+
 
     public static <T extends Serializable> BatchHandlerT<T> buildMemory(String key, int threshHold, long interval, Consumer<List<T>> consumer) {
         return (BatchHandlerT<T>) batchHandlerTMap.computeIfAbsent(key, k -> new BatchHandlerT<>(key, BatchHandlerType.MEMORY, threshHold, interval, consumer));
@@ -44,9 +50,24 @@ public class BatchHandlerBuilder {
         return (BatchHandlerT<T>) batchHandlerTMap.computeIfAbsent(key, k -> new BatchHandlerT<>(key, BatchHandlerType.REDIS, threshHold, interval, consumer));
     }
 
+    public static <T extends Serializable> BatchHandlerT<T> buildRing(String key, int threshHold, long interval, int capacity, BatchQueueFullPolicy fullPolicy, Consumer<List<T>> consumer) {
+        return (BatchHandlerT<T>) batchHandlerTMap.computeIfAbsent(key, k -> new BatchHandlerT<>(key, BatchHandlerType.RING, threshHold, interval, capacity, fullPolicy, consumer));
+    }
+
+    public static <T extends Serializable> LingerBatchHandler<T> buildLinger(String key, BatchHandlerType type, int queueSize, int maxItems, long lingerMillis, Consumer<List<T>> consumer) {
+        return buildLinger(key, type, queueSize, maxItems, 0, lingerMillis, null, consumer);
+    }
+
+    public static <T extends Serializable> LingerBatchHandler<T> buildLinger(String key, BatchHandlerType type, int queueSize, int maxItems, long maxBytes, long lingerMillis, ToIntFunction<T> weigher, Consumer<List<T>> consumer) {
+        return (LingerBatchHandler<T>) lingerBatchHandlerMap.computeIfAbsent(key, k -> new LingerBatchHandler<>(key, type, queueSize, maxItems, maxBytes, lingerMillis, weigher, consumer));
+    }
+
     public static void remove(String key) {
-        if (null == batchHandlerTMap.remove(key)) {
-            batchHandlerTRMap.remove(key);
+        if (null == batchHandlerTMap.remove(key) && null == batchHandlerTRMap.remove(key)) {
+            LingerBatchHandler<?> handler = lingerBatchHandlerMap.remove(key);
+            if (null != handler) {
+                handler.close();
+            }
         }
     }
 }
@@ -13,5 +13,24 @@ public class BatchHandlerConstant {
 
     public static final int DEFAULT_INITIAL_DELAY = 10;
 
+    public static final int DEFAULT_RING_CAPACITY = 1 << 14;
+
+    /**
+     * REDIS_ACK消费者心跳租约，须大于单批最长处理时间，否则处理中数据会被回收重投
+     */
+    public static final long RELIABLE_LEASE_MILLIS = 60_000;
+
+    public static final long RELIABLE_RECOVER_INTERVAL = 30_000;
+
+    /**
+     * REDIS_ACK处理中心跳续期间隔
+     */
+    public static final long RELIABLE_HEARTBEAT_INTERVAL = RELIABLE_LEASE_MILLIS / 3;
+
+    /**
+     * REDIS_ACK单条数据最大投递次数，超过后移入死信队列不再投递
+     */
+    public static final int RELIABLE_MAX_DELIVERIES = 16;
+
     public static final String CachePrefix = "BatchQueue:";
 }
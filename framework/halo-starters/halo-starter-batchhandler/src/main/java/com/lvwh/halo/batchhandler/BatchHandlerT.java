@@ -3,6 +3,7 @@ package com.lvwh.halo.batchhandler;
 import com.lvwh.halo.batchhandler.queue.AbstractBatchQueue;
 import com.lvwh.halo.batchhandler.queue.MemoryBatchQueue;
 import com.lvwh.halo.batchhandler.queue.RedisBatchQueue;
+import com.lvwh.halo.batchhandler.queue.RingBatchQueue;
 import com.lvwj.halo.common.utils.Func;
 import com.lvwj.halo.core.threadpool.ThreadPoolCache;
 import lombok.extern.slf4j.Slf4j;
@@ -31,9 +32,18 @@ public class BatchHandlerT<T extends Serializable> {
 
 
     public BatchHandlerT(String key, BatchHandlerType type, int threshHold, long interval, Consumer<List<T>> consumer) {
+        this(key, type, threshHold, interval, BatchHandlerConstant.DEFAULT_RING_CAPACITY, BatchQueueFullPolicy.BLOCK, consumer);
+    }
+
+    public BatchHandlerT(String key, BatchHandlerType type, int threshHold, long interval, int ringCapacity, BatchQueueFullPolicy fullPolicy, Consumer<List<T>> consumer) {
         threshHold = threshHold <= 1 ? BatchHandlerConstant.DEFAULT_THRESH_HOLD : threshHold;
         interval = interval <= 1 ? BatchHandlerConstant.DEFAULT_INTERVAL : interval;
-        this.queue = BatchHandlerType.REDIS.equals(type) ? new RedisBatchQueue<>(key) : new MemoryBatchQueue<>();
+        this.queue = switch (type) {
+            case REDIS -> new RedisBatchQueue<>(key);
+            case REDIS_ACK -> throw new IllegalArgumentException("REDIS_ACK only supported by BatchHandler");
+            case RING -> new RingBatchQueue<>(ringCapacity, fullPolicy, consumer);
+            default -> new MemoryBatchQueue<>();
+        };
         this.threshHold = threshHold;
         this.consumer = consumer;
         this.scheduledThreadPool = ThreadPoolCache.getScheduledThreadPool(key);
@@ -5,5 +5,5 @@ package com.lvwh.halo.batchhandler;
  * @date 2023年12月21日 15:55
  */
 public enum BatchHandlerType {
-    MEMORY,REDIS
+    MEMORY,REDIS,RING,REDIS_ACK
 }
@@ -0,0 +1,22 @@
+package com.lvwh.halo.batchhandler;
+
+/**
+ * 有界队列写满时的处理策略
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 10:20
+ */
+public enum BatchQueueFullPolicy {
+    /**
+     * 生产者自旋等待，直到有空闲槽位
+     */
+    BLOCK,
+    /**
+     * 丢弃队首最旧的元素，为新元素腾出槽位
+     */
+    DROP_OLDEST,
+    /**
+     * 由生产者线程取出一批元素直接交给消费者处理
+     */
+    CALLER_RUNS
+}
@@ -0,0 +1,282 @@
+package com.lvwh.halo.batchhandler;
+
+import com.lvwh.halo.batchhandler.queue.AbstractBatchQueue;
+import com.lvwh.halo.batchhandler.queue.MemoryBatchQueue;
+import com.lvwh.halo.batchhandler.queue.RedisBatchQueue;
+import com.lvwh.halo.batchhandler.queue.RingBatchQueue;
+import com.lvwj.halo.common.utils.Func;
+import com.lvwj.halo.common.utils.StringPool;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * 按"条数/字节数/最大等待时长"三者先到先刷的批处理器
+ * <p>
+ * 每个分片队列由唯一一个专属drainer线程消费，生产者只在越过阈值时唤醒drainer，不再向线程池提交任务；
+ * 同一分片的批次严格有序且互不重叠。RING类型固定使用BLOCK策略，避免调用方线程越过drainer消费破坏顺序
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 14:10
+ */
+@Slf4j
+public class LingerBatchHandler<T extends Serializable> {
+
+    private final String key;
+
+    private final int maxItems;
+
+    private final long maxBytes;
+
+    private final long lingerNanos;
+
+    private final ToIntFunction<T> weigher;
+
+    private final Consumer<List<T>> consumer;
+
+    private final List<Shard> shards;
+
+    private volatile boolean running = true;
+
+    /**
+     * @param maxItems     单批最大条数
+     * @param maxBytes     单批最大字节数，<=0 表示不按字节数刷新
+     * @param lingerMillis 首条数据入队后最长等待时长
+     * @param weigher      估算单条数据字节数，maxBytes>0 时必须提供
+     */
+    public LingerBatchHandler(String key, BatchHandlerType type, int queueSize, int maxItems, long maxBytes, long lingerMillis, ToIntFunction<T> weigher, Consumer<List<T>> consumer) {
+        this.key = key;
+        this.maxItems = maxItems <= 1 ? BatchHandlerConstant.DEFAULT_THRESH_HOLD : maxItems;
+        this.maxBytes = null == weigher ? 0 : maxBytes;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis <= 1 ? BatchHandlerConstant.DEFAULT_INTERVAL : lingerMillis);
+        this.weigher = weigher;
+        this.consumer = consumer;
+        int size = queueSize <= 0 ? 1 : queueSize;
+        this.shards = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            AbstractBatchQueue<T> queue = switch (type) {
+                case REDIS -> new RedisBatchQueue<>(key + StringPool.COLON + i);
+                case REDIS_ACK -> throw new IllegalArgumentException("REDIS_ACK only supported by BatchHandler");
+                case RING -> new RingBatchQueue<>(BatchHandlerConstant.DEFAULT_RING_CAPACITY, BatchQueueFullPolicy.BLOCK, null);
+                default -> new MemoryBatchQueue<>();
+            };
+            this.shards.add(new Shard(i, queue));
+        }
+        this.shards.forEach(Shard::start);
+    }
+
+    public void handle(T t, int shardingKey) {
+        if (null == t) return;
+        Shard shard = shard(shardingKey);
+        shard.queue.put(t);
+        shard.signal(1, weigh(t));
+    }
+
+    public void handle(List<T> ts, int shardingKey) {
+        if (Func.isEmpty(ts)) return;
+        Shard shard = shard(shardingKey);
+        shard.queue.put(ts);
+        long bytes = 0;
+        if (maxBytes > 0) {
+            for (T t : ts) {
+                bytes += weigh(t);
+            }
+        }
+        shard.signal(ts.size(), bytes);
+    }
+
+    public void suspend(List<T> ts, int shardingKey) {
+        if (Func.isEmpty(ts)) return;
+        Shard shard = shard(shardingKey);
+        shard.queue.putFirst(ts);
+        shard.pendingItems.addAndGet(ts.size());
+    }
+
+    /**
+     * 停止接收唤醒，drainer刷完剩余数据后退出
+     */
+    public void close() {
+        running = false;
+        shards.forEach(Shard::close);
+    }
+
+    private Shard shard(int shardingKey) {
+        return shards.get(Math.floorMod(shardingKey, shards.size()));
+    }
+
+    private long weigh(T t) {
+        return maxBytes > 0 ? weigher.applyAsInt(t) : 0;
+    }
+
+    private class Shard implements Runnable {
+
+        private final AbstractBatchQueue<T> queue;
+
+        private final Thread drainer;
+
+        private final AtomicLong pendingItems = new AtomicLong();
+
+        private final AtomicLong pendingBytes = new AtomicLong();
+
+        /**
+         * 当前批次首条数据入队时间，0表示无积压
+         */
+        private final AtomicLong firstArrival = new AtomicLong();
+
+        private final DistributionSummary batchSize;
+
+        private final Timer linger;
+
+        private final Gauge depth;
+
+        private Shard(int index, AbstractBatchQueue<T> queue) {
+            this.queue = queue;
+            this.drainer = new Thread(this, key + "-drainer-" + index);
+            this.drainer.setDaemon(true);
+            Tags tags = Tags.of("key", key, "shard", Integer.toString(index));
+            this.batchSize = DistributionSummary.builder("halo.batch.handler.batch.size")
+                    .description("单批次条数")
+                    .tags(tags)
+                    .register(Metrics.globalRegistry);
+            this.linger = Timer.builder("halo.batch.handler.linger")
+                    .description("批次首条数据的等待时长")
+                    .tags(tags)
+                    .register(Metrics.globalRegistry);
+            this.depth = Gauge.builder("halo.batch.handler.queue.depth", pendingItems, AtomicLong::get)
+                    .description("分片队列积压条数")
+                    .tags(tags)
+                    .register(Metrics.globalRegistry);
+        }
+
+        private void start() {
+            drainer.start();
+        }
+
+        /**
+         * 唤醒drainer刷完剩余数据，并注销指标：同key重建时不残留旧分片的指标及其引用
+         */
+        private void close() {
+            drainer.interrupt();
+            Metrics.globalRegistry.remove(batchSize);
+            Metrics.globalRegistry.remove(linger);
+            Metrics.globalRegistry.remove(depth);
+        }
+
+        private void signal(int items, long bytes) {
+            firstArrival.compareAndSet(0, System.nanoTime());
+            long n = pendingItems.addAndGet(items);
+            boolean crossed = n >= maxItems && n - items < maxItems;
+            if (maxBytes > 0 && bytes > 0) {
+                long b = pendingBytes.addAndGet(bytes);
+                crossed |= b >= maxBytes && b - bytes < maxBytes;
+            }
+            if (crossed) {
+                LockSupport.unpark(drainer);
+            }
+        }
+
+        @Override
+        public void run() {
+            long idleSince = System.nanoTime();
+            while (running || pendingItems.get() > 0) {
+                //close()通过中断唤醒drainer，清除中断标记，否则parkNanos会立即返回导致空转
+                Thread.interrupted();
+                long now = System.nanoTime();
+                long first = firstArrival.get();
+                boolean full = pendingItems.get() >= maxItems || (maxBytes > 0 && pendingBytes.get() >= maxBytes);
+                if (full || !running) {
+                    flush(first, now);
+                    idleSince = now;
+                } else if (0 != first) {
+                    //有本地积压：从首条数据入队开始计时
+                    if (now - first >= lingerNanos) {
+                        flush(first, now);
+                        idleSince = now;
+                    } else {
+                        LockSupport.parkNanos(this, lingerNanos - (now - first));
+                    }
+                } else if (pendingItems.get() > 0) {
+                    //有积压但未记录首条入队时间(如suspend回退的数据)，从现在开始计时
+                    firstArrival.compareAndSet(0, now);
+                } else if (now - idleSince >= lingerNanos) {
+                    //无本地积压：按linger周期兜底拉取其它节点写入的数据
+                    flush(0, now);
+                    idleSince = now;
+                } else {
+                    LockSupport.parkNanos(this, lingerNanos - (now - idleSince));
+                }
+            }
+        }
+
+        /**
+         * 取出一批数据并按字节上限切分后依次交给消费者；本地计数之外(如其它节点写入Redis)的数据由等待超时兜底拉取
+         */
+        private int flush(long first, long now) {
+            List<T> ts;
+            try {
+                ts = queue.take(maxItems);
+            } catch (Exception e) {
+                log.error("LingerBatchHandler take failed! key:" + key, e);
+                if (running) {
+                    LockSupport.parkNanos(this, lingerNanos);
+                } else {
+                    pendingItems.set(0);
+                }
+                return 0;
+            }
+            if (Func.isEmpty(ts)) {
+                pendingItems.set(0);
+                pendingBytes.set(0);
+                firstArrival.set(0);
+                return 0;
+            }
+            if (0 != first) {
+                linger.record(now - first, TimeUnit.NANOSECONDS);
+            }
+            long bytes = 0;
+            long takenBytes = 0;
+            int from = 0;
+            for (int i = 0; i < ts.size(); i++) {
+                long w = weigh(ts.get(i));
+                if (maxBytes > 0 && i > from && bytes + w > maxBytes) {
+                    accept(ts.subList(from, i));
+                    from = i;
+                    bytes = 0;
+                }
+                bytes += w;
+                takenBytes += w;
+            }
+            accept(ts.subList(from, ts.size()));
+
+            int taken = ts.size();
+            long remain = pendingItems.updateAndGet(v -> Math.max(0, v - taken));
+            if (maxBytes > 0) {
+                long finalTakenBytes = takenBytes;
+                pendingBytes.updateAndGet(v -> Math.max(0, v - finalTakenBytes));
+            }
+            firstArrival.set(remain > 0 ? System.nanoTime() : 0);
+            return taken;
+        }
+
+        private void accept(List<T> batch) {
+            try {
+                batchSize.record(batch.size());
+                consumer.accept(batch);
+            } catch (Exception e) {
+                log.error("LingerBatchHandler batchHandle failed! key:" + key, e);
+            }
+        }
+    }
+}
@@ -77,7 +77,7 @@ public class RedisBatchQueue<T> extends AbstractBatchQueue<T> {
 
     private static volatile RedisTemplatePlus redisPlus;
 
-    private static RedisTemplatePlus redisPlus() {
+    protected static RedisTemplatePlus redisPlus() {
         if (null == redisPlus) {
             synchronized (RedisBatchQueue.class) {
                 if (null == redisPlus) {
@@ -88,7 +88,7 @@ public class RedisBatchQueue<T> extends AbstractBatchQueue<T> {
         return redisPlus;
     }
 
-    private String cacheKey() {
+    protected String cacheKey() {
         return BatchHandlerConstant.CachePrefix + key;
     }
 
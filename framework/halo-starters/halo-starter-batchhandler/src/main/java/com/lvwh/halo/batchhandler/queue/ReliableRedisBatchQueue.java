@@ -0,0 +1,178 @@
+package com.lvwh.halo.batchhandler.queue;
+
+import com.lvwh.halo.batchhandler.BatchHandlerConstant;
+import com.lvwj.halo.common.utils.StringPool;
+import com.lvwj.halo.core.threadpool.ThreadPoolCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.util.CollectionUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带处理中确认的Redis分片队列(至少一次)
+ * <p>
+ * take时通过一次EVALSHA从多个分片批量领取数据并移入当前消费者的处理中列表，消费成功后ack删除；
+ * 消费失败的数据留在处理中列表，下次take优先重新投递；消费者进程退出后心跳过期，由recover放回分片队列队首；
+ * 处理期间通过 {@link #keepAlive(List)} 续期心跳。单条数据投递超过 {@link BatchHandlerConstant#RELIABLE_MAX_DELIVERIES} 次后移入死信队列
+ * <p>
+ * 同一批处理器的所有key带相同 hash tag：{key}，集群模式下位于同一slot
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 15:40
+ */
+@Slf4j
+public class ReliableRedisBatchQueue<T> extends RedisBatchQueue<T> {
+
+    /**
+     * 进程实例标识，与线程id组合为消费者标识
+     */
+    private static final String INSTANCE_ID = UUID.randomUUID().toString().replace(StringPool.DASH, StringPool.EMPTY);
+
+    private static final DefaultRedisScript<List> CLAIM_SCRIPT = script("batch_queue_claim.lua", List.class);
+    private static final DefaultRedisScript<Long> ACK_SCRIPT = script("batch_queue_ack.lua", Long.class);
+    private static final DefaultRedisScript<Long> RECOVER_SCRIPT = script("batch_queue_recover.lua", Long.class);
+
+    private static final ThreadPoolTaskScheduler HEARTBEAT_SCHEDULER = ThreadPoolCache.getScheduledThreadPool("ReliableRedisBatchQueue-heartbeat", 1);
+
+    private final String group;
+
+    public ReliableRedisBatchQueue(String key, int index) {
+        super(hashTag(key) + StringPool.COLON + index);
+        this.group = key;
+    }
+
+    /**
+     * 领取数据后需调用 {@link #ack()} 确认
+     */
+    @Override
+    public List<T> take(int len) {
+        return claim(Collections.singletonList(this), len);
+    }
+
+    @Override
+    public List<T> takeAll() {
+        return take(size());
+    }
+
+    public void ack() {
+        ack(Collections.singletonList(this));
+    }
+
+    /**
+     * 一次调用从多个分片(须属于同一批处理器)各领取最多len条数据
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> List<T> claim(List<? extends AbstractBatchQueue<T>> queues, int len) {
+        if (CollectionUtils.isEmpty(queues) || len <= 0) {
+            return Collections.emptyList();
+        }
+        String consumerId = consumerId();
+        ReliableRedisBatchQueue<T> first = (ReliableRedisBatchQueue<T>) queues.get(0);
+        List<String> keys = new ArrayList<>(2 + queues.size() * 2);
+        keys.add(inflightKey(first.group));
+        keys.add(heartbeatKey(first.group, consumerId));
+        keys.add(attemptsKey(first.group));
+        keys.add(deadLetterKey(first.group));
+        for (AbstractBatchQueue<T> queue : queues) {
+            ReliableRedisBatchQueue<T> q = (ReliableRedisBatchQueue<T>) queue;
+            keys.add(q.cacheKey());
+            keys.add(q.processingKey(consumerId));
+        }
+        List<T> ts = redisPlus().execute(CLAIM_SCRIPT, keys, len, BatchHandlerConstant.RELIABLE_LEASE_MILLIS, BatchHandlerConstant.RELIABLE_MAX_DELIVERIES);
+        return null == ts ? Collections.emptyList() : ts;
+    }
+
+    /**
+     * 确认当前线程在这些分片上领取的数据已处理完成
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> void ack(List<? extends AbstractBatchQueue<T>> queues) {
+        if (CollectionUtils.isEmpty(queues)) {
+            return;
+        }
+        String consumerId = consumerId();
+        String group = ((ReliableRedisBatchQueue<T>) queues.get(0)).group;
+        List<String> keys = new ArrayList<>(2 + queues.size());
+        keys.add(inflightKey(group));
+        keys.add(attemptsKey(group));
+        for (AbstractBatchQueue<T> queue : queues) {
+            keys.add(((ReliableRedisBatchQueue<T>) queue).processingKey(consumerId));
+        }
+        redisPlus().execute(ACK_SCRIPT, keys);
+    }
+
+    /**
+     * 处理期间定时续期当前线程的消费者心跳，避免慢处理的数据被其它消费者回收重投
+     *
+     * @return 处理完成后 cancel 停止续期
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ScheduledFuture<?> keepAlive(List<? extends AbstractBatchQueue<T>> queues) {
+        String heartbeatKey = heartbeatKey(((ReliableRedisBatchQueue<T>) queues.get(0)).group, consumerId());
+        return HEARTBEAT_SCHEDULER.scheduleAtFixedRate(() -> {
+            try {
+                redisPlus().set(heartbeatKey, 1, BatchHandlerConstant.RELIABLE_LEASE_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                log.warn("ReliableRedisBatchQueue keepAlive failed! key:{}", heartbeatKey, e);
+            }
+        }, Duration.ofMillis(BatchHandlerConstant.RELIABLE_HEARTBEAT_INTERVAL));
+    }
+
+    /**
+     * 死信队列key：投递次数超限的数据
+     */
+    public static String deadLetterKey(String key) {
+        return BatchHandlerConstant.CachePrefix + hashTag(key) + StringPool.COLON + "dlq";
+    }
+
+    /**
+     * 将心跳已过期消费者的处理中数据放回分片队列
+     *
+     * @return 回收的条数
+     */
+    public static long recover(String key) {
+        Long moved = redisPlus().execute(RECOVER_SCRIPT, Collections.singletonList(inflightKey(key)));
+        return null == moved ? 0 : moved;
+    }
+
+    private String processingKey(String consumerId) {
+        return cacheKey() + StringPool.COLON + "processing" + StringPool.COLON + consumerId;
+    }
+
+    private static String consumerId() {
+        return INSTANCE_ID + StringPool.DASH + Thread.currentThread().getId();
+    }
+
+    private static String hashTag(String key) {
+        return StringPool.LEFT_BRACE + key + StringPool.RIGHT_BRACE;
+    }
+
+    private static String inflightKey(String key) {
+        return BatchHandlerConstant.CachePrefix + hashTag(key) + StringPool.COLON + "inflight";
+    }
+
+    private static String attemptsKey(String key) {
+        return BatchHandlerConstant.CachePrefix + hashTag(key) + StringPool.COLON + "attempts";
+    }
+
+    private static String heartbeatKey(String key, String consumerId) {
+        return BatchHandlerConstant.CachePrefix + hashTag(key) + StringPool.COLON + "owner" + StringPool.COLON + consumerId;
+    }
+
+    private static <R> DefaultRedisScript<R> script(String name, Class<R> resultType) {
+        DefaultRedisScript<R> script = new DefaultRedisScript<>();
+        script.setScriptSource(new ResourceScriptSource(new ClassPathResource("META-INF/scripts/" + name)));
+        script.setResultType(resultType);
+        return script;
+    }
+}
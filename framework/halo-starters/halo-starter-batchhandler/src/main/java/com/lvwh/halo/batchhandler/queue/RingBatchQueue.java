@@ -0,0 +1,228 @@
+package com.lvwh.halo.batchhandler.queue;
+
+import com.lvwh.halo.batchhandler.BatchHandlerConstant;
+import com.lvwh.halo.batchhandler.BatchQueueFullPolicy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 基于环形数组的有界无锁队列：槽位预分配，生产者通过CAS抢占写入位置，消费者按批次一次性领取连续槽位
+ * <p>
+ * 每个槽位维护一个序号：序号==写入位置 表示可写，序号==写入位置+1 表示已发布可读，读取后序号推进一圈释放给生产者
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 10:30
+ */
+public class RingBatchQueue<T> extends AbstractBatchQueue<T> {
+
+    private static final long PARK_NANOS = 1000L;
+
+    private final int capacity;
+
+    private final int mask;
+
+    private final AtomicReferenceArray<T> buffer;
+
+    private final AtomicLongArray sequences;
+
+    /**
+     * 生产者游标
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 消费者游标
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * putFirst回退的元素，优先于环形数组被取出
+     */
+    private final ConcurrentLinkedDeque<T> requeued = new ConcurrentLinkedDeque<>();
+
+    private final BatchQueueFullPolicy fullPolicy;
+
+    private final Consumer<List<T>> callerRunsConsumer;
+
+    private final LongAdder dropped = new LongAdder();
+
+    public RingBatchQueue() {
+        this(BatchHandlerConstant.DEFAULT_RING_CAPACITY, BatchQueueFullPolicy.BLOCK, null);
+    }
+
+    public RingBatchQueue(int capacity, BatchQueueFullPolicy fullPolicy, Consumer<List<T>> callerRunsConsumer) {
+        this.capacity = capacity <= 1 ? BatchHandlerConstant.DEFAULT_RING_CAPACITY : tableSizeFor(capacity);
+        this.mask = this.capacity - 1;
+        this.buffer = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            this.sequences.set(i, i);
+        }
+        this.fullPolicy = null == fullPolicy ? BatchQueueFullPolicy.BLOCK : fullPolicy;
+        this.callerRunsConsumer = callerRunsConsumer;
+    }
+
+    @Override
+    public void put(T t) {
+        if (null == t) {
+            return;
+        }
+        while (!offer(t)) {
+            onFull();
+        }
+    }
+
+    @Override
+    public void put(List<T> ts) {
+        if (null == ts || ts.isEmpty()) {
+            return;
+        }
+        ts.forEach(this::put);
+    }
+
+    @Override
+    public void putFirst(List<T> ts) {
+        if (null == ts || ts.isEmpty()) {
+            return;
+        }
+        ListIterator<T> iterator = ts.listIterator(ts.size());
+        while (iterator.hasPrevious()) {
+            T t = iterator.previous();
+            if (null != t) {
+                requeued.addFirst(t);
+            }
+        }
+    }
+
+    @Override
+    public T take() {
+        T t = requeued.pollFirst();
+        if (null != t) {
+            return t;
+        }
+        List<T> list = new ArrayList<>(1);
+        drainTo(list, 1);
+        return list.isEmpty() ? null : list.get(0);
+    }
+
+    @Override
+    public List<T> take(int len) {
+        if (len <= 0) {
+            return Collections.emptyList();
+        }
+        List<T> list = new ArrayList<>(Math.min(len, capacity));
+        T t;
+        while (list.size() < len && null != (t = requeued.pollFirst())) {
+            list.add(t);
+        }
+        if (list.size() < len) {
+            drainTo(list, len - list.size());
+        }
+        return list;
+    }
+
+    @Override
+    public List<T> takeAll() {
+        return take(size());
+    }
+
+    @Override
+    public int size() {
+        long h = head.get();
+        long t = tail.get();
+        return (int) Math.min(t - h, capacity) + requeued.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * DROP_OLDEST策略下累计丢弃的元素数
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private boolean offer(T t) {
+        long pos = tail.get();
+        for (; ; ) {
+            int index = (int) (pos & mask);
+            long dif = sequences.get(index) - pos;
+            if (dif == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    buffer.lazySet(index, t);
+                    sequences.lazySet(index, pos + 1);
+                    return true;
+                }
+            } else if (dif < 0) {
+                return false;
+            }
+            pos = tail.get();
+        }
+    }
+
+    /**
+     * 一次CAS领取连续已发布的槽位，避免逐个出队
+     */
+    private int drainTo(List<T> list, int max) {
+        for (; ; ) {
+            long pos = head.get();
+            int n = 0;
+            while (n < max && sequences.get((int) ((pos + n) & mask)) == pos + n + 1) {
+                n++;
+            }
+            if (n == 0) {
+                return 0;
+            }
+            if (head.compareAndSet(pos, pos + n)) {
+                for (int i = 0; i < n; i++) {
+                    long p = pos + i;
+                    int index = (int) (p & mask);
+                    list.add(buffer.get(index));
+                    buffer.lazySet(index, null);
+                    sequences.lazySet(index, p + capacity);
+                }
+                return n;
+            }
+        }
+    }
+
+    private void onFull() {
+        switch (fullPolicy) {
+            case DROP_OLDEST -> {
+                List<T> oldest = new ArrayList<>(1);
+                if (drainTo(oldest, 1) > 0) {
+                    dropped.increment();
+                }
+            }
+            case CALLER_RUNS -> {
+                if (null == callerRunsConsumer) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                    return;
+                }
+                List<T> ts = new ArrayList<>();
+                drainTo(ts, Math.max(capacity >>> 2, 1));
+                if (!ts.isEmpty()) {
+                    callerRunsConsumer.accept(ts);
+                }
+            }
+            default -> LockSupport.parkNanos(PARK_NANOS);
+        }
+    }
+
+    private static int tableSizeFor(int cap) {
+        int n = -1 >>> Integer.numberOfLeadingZeros(cap - 1);
+        return n >= (1 << 30) ? (1 << 30) : n + 1;
+    }
+}
@@ -0,0 +1,16 @@
+-- lua 下标从 1 开始
+-- 确认处理完成：清除投递次数，删除当前消费者的处理中列表并注销登记
+-- KEYS[1]: 处理中列表登记表
+-- KEYS[2]: 投递次数表
+-- KEYS[3..]: 处理中列表
+-- unpack 单次参数个数上限
+local chunk = 1000
+for i = 3, #KEYS do
+    local items = redis.call('lrange', KEYS[i], 0, -1)
+    for j = 1, #items, chunk do
+        redis.call('hdel', KEYS[2], unpack(items, j, math.min(j + chunk - 1, #items)))
+    end
+    redis.call('del', KEYS[i])
+    redis.call('hdel', KEYS[1], KEYS[i])
+end
+return #KEYS - 2
@@ -0,0 +1,46 @@
+-- lua 下标从 1 开始
+-- 一次调用从多个分片队列批量领取数据，并移入当前消费者的处理中列表，确认(ack)后才真正删除
+-- KEYS[1]: 处理中列表登记表(hash: 处理中列表 -> 分片队列 \n 心跳key)
+-- KEYS[2]: 当前消费者心跳key
+-- KEYS[3]: 投递次数表(hash: 数据 -> 次数)
+-- KEYS[4]: 死信队列
+-- KEYS[5..]: 分片队列, 处理中列表 成对出现
+-- 每个分片最多领取条数
+local count = tonumber(ARGV[1])
+-- 心跳租约(毫秒)
+local lease = tonumber(ARGV[2])
+-- 最大投递次数，超过后移入死信队列
+local max = tonumber(ARGV[3])
+-- unpack 单次参数个数上限
+local chunk = 1000
+
+redis.call('set', KEYS[2], 1, 'PX', lease)
+
+local result = {}
+for i = 5, #KEYS, 2 do
+    local src = KEYS[i]
+    local proc = KEYS[i + 1]
+    -- 上次领取后未确认的数据优先重新投递
+    local items = redis.call('lrange', proc, 0, -1)
+    if #items == 0 then
+        items = redis.call('lrange', src, 0, count - 1)
+        if #items > 0 then
+            redis.call('ltrim', src, #items, -1)
+            for j = 1, #items, chunk do
+                redis.call('rpush', proc, unpack(items, j, math.min(j + chunk - 1, #items)))
+            end
+            redis.call('hset', KEYS[1], proc, src .. '\n' .. KEYS[2])
+        end
+    end
+    for j = 1, #items do
+        local item = items[j]
+        if redis.call('hincrby', KEYS[3], item, 1) > max then
+            redis.call('lrem', proc, 1, item)
+            redis.call('rpush', KEYS[4], item)
+            redis.call('hdel', KEYS[3], item)
+        else
+            result[#result + 1] = item
+        end
+    end
+end
+return result
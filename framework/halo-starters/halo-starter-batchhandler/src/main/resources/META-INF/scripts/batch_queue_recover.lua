@@ -0,0 +1,20 @@
+-- lua 下标从 1 开始
+-- 回收心跳已过期消费者的处理中数据：按原顺序放回对应分片队列的队首
+-- 分片队列/处理中列表/心跳key均带有相同的 hash tag，集群模式下位于同一slot
+-- KEYS[1]: 处理中列表登记表
+local entries = redis.call('hgetall', KEYS[1])
+local moved = 0
+for i = 1, #entries, 2 do
+    local proc = entries[i]
+    local sep = string.find(entries[i + 1], '\n', 1, true)
+    local src = string.sub(entries[i + 1], 1, sep - 1)
+    local heartbeat = string.sub(entries[i + 1], sep + 1)
+    if redis.call('exists', heartbeat) == 0 then
+        -- 从处理中列表尾部逐个弹出压入分片队列头部，恢复后顺序不变
+        while redis.call('rpoplpush', proc, src) do
+            moved = moved + 1
+        end
+        redis.call('hdel', KEYS[1], proc)
+    end
+end
+return moved
@@ -0,0 +1,116 @@
+package com.lvwh.halo.batchhandler.queue;
+
+import com.lvwh.halo.batchhandler.BatchQueueFullPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 环形数组队列测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 10:20
+ */
+class RingBatchQueueTest {
+
+    @Test
+    void capacityRoundsUpToPowerOfTwo() {
+        assertEquals(8, new RingBatchQueue<Integer>(5, BatchQueueFullPolicy.BLOCK, null).getCapacity());
+        assertEquals(16, new RingBatchQueue<Integer>(16, BatchQueueFullPolicy.BLOCK, null).getCapacity());
+    }
+
+    @Test
+    void takesInInsertionOrderAcrossWrapAround() {
+        RingBatchQueue<Integer> queue = new RingBatchQueue<>(4, BatchQueueFullPolicy.BLOCK, null);
+        List<Integer> taken = new ArrayList<>();
+        for (int round = 0; round < 5; round++) {
+            queue.put(List.of(round * 3, round * 3 + 1, round * 3 + 2));
+            taken.addAll(queue.take(2));
+            taken.addAll(queue.takeAll());
+        }
+        assertEquals(IntStream.range(0, 15).boxed().toList(), taken);
+        assertEquals(0, queue.size());
+        assertNull(queue.take());
+    }
+
+    @Test
+    void putFirstIsTakenBeforeRing() {
+        RingBatchQueue<Integer> queue = new RingBatchQueue<>(8, BatchQueueFullPolicy.BLOCK, null);
+        queue.put(List.of(3, 4));
+        queue.putFirst(List.of(1, 2));
+
+        assertEquals(4, queue.size());
+        assertEquals(List.of(1, 2, 3), queue.take(3));
+        assertEquals(4, queue.take());
+    }
+
+    @Test
+    void dropOldestKeepsNewest() {
+        RingBatchQueue<Integer> queue = new RingBatchQueue<>(4, BatchQueueFullPolicy.DROP_OLDEST, null);
+        queue.put(List.of(1, 2, 3, 4, 5, 6));
+
+        assertEquals(2, queue.getDropped());
+        assertEquals(List.of(3, 4, 5, 6), queue.takeAll());
+    }
+
+    @Test
+    void callerRunsHandsBatchToCaller() {
+        List<Integer> ran = new CopyOnWriteArrayList<>();
+        RingBatchQueue<Integer> queue = new RingBatchQueue<>(4, BatchQueueFullPolicy.CALLER_RUNS, ran::addAll);
+        queue.put(List.of(1, 2, 3, 4, 5));
+
+        //写满时由生产者取出capacity/4条交给消费者
+        assertEquals(List.of(1), ran);
+        assertEquals(List.of(2, 3, 4, 5), queue.takeAll());
+    }
+
+    @Test
+    void concurrentProducersAndConsumerLoseNothing() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        RingBatchQueue<Integer> queue = new RingBatchQueue<>(256, BatchQueueFullPolicy.BLOCK, null);
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int base = p * perProducer;
+            executor.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    queue.put(base + i);
+                }
+                done.countDown();
+            });
+        }
+        Set<Integer> taken = new HashSet<>();
+        int[] lastByProducer = new int[producers];
+        Arrays.fill(lastByProducer, -1);
+        boolean ordered = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (taken.size() < producers * perProducer && System.nanoTime() < deadline) {
+            for (Integer i : queue.take(64)) {
+                assertTrue(taken.add(i), "duplicate " + i);
+                //同一生产者写入的元素按顺序取出
+                int producer = i / perProducer;
+                ordered &= i > lastByProducer[producer];
+                lastByProducer[producer] = i;
+            }
+        }
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertEquals(producers * perProducer, taken.size());
+        assertTrue(ordered);
+    }
+}
@@ -3,6 +3,7 @@ package com.lvwj.halo.cache.config;
 import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.CaffeineSpec;
+import com.lvwj.halo.cache.core.batch.BatchCacheableAspect;
 import com.lvwj.halo.cache.core.constant.HaloCacheType;
 import com.lvwj.halo.cache.core.manager.local.HaloCaffeineCacheManager;
 import com.lvwj.halo.cache.core.manager.multi.HaloMultiLevelCacheManager;
@@ -89,6 +90,11 @@ public class HaloCacheConfiguration {
         return new CacheManagerCustomizers(customizers.orderedStream().toList());
     }
 
+    @Bean
+    public BatchCacheableAspect batchCacheableAspect() {
+        return new BatchCacheableAspect();
+    }
+
     @Bean
     @Primary
     public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
@@ -104,7 +110,7 @@ public class HaloCacheConfiguration {
     }
 
     private CacheManager mutillevelCacheManager(RedisConnectionFactory redisConnectionFactory) {
-        return this.cacheManagerCustomizers.customize(new HaloMultiLevelCacheManager(localCacheManager(), remoteCacheManager(redisConnectionFactory), redisTemplatePlus));
+        return this.cacheManagerCustomizers.customize(new HaloMultiLevelCacheManager(localCacheManager(), remoteCacheManager(redisConnectionFactory), redisTemplatePlus, haloCacheProperties.getLoader(), haloCacheProperties.getInvalidation()));
     }
 
     private CacheManager localCacheManager() {
@@ -5,6 +5,7 @@ import lombok.Setter;
 import org.springframework.boot.autoconfigure.cache.CacheProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -44,4 +45,59 @@ public class HaloCacheProperties {
     private Map<String, CacheProperties.Caffeine> caffeine = new HashMap<>();
 
     private Map<String, CacheProperties.Redis> redis = new HashMap<>();
+
+    /**
+     * 多级缓存回源配置
+     */
+    private Loader loader = new Loader();
+
+    /**
+     * 多级缓存一级缓存失效通知配置
+     */
+    private Invalidation invalidation = new Invalidation();
+
+    @Getter
+    @Setter
+    public static class Loader {
+
+        /**
+         * 是否集群内单节点回源：通过redis短租约保证同一时刻只有一个节点调用valueLoader，其它节点等待L2写回
+         */
+        private Boolean clusterLease = false;
+
+        /**
+         * 集群回源租约时长，超过租约未写回则本节点自行回源
+         */
+        private Duration leaseTime = Duration.ofSeconds(3);
+
+        /**
+         * 未抢到租约时在调用方线程等待L2写回的最长时长(不超过租约时长)，超时则本节点自行回源
+         */
+        private Duration leaseWaitTime = Duration.ofMillis(500);
+
+        /**
+         * 按缓存名配置提前异步刷新时长：本节点回源写入超过该时长后再次命中时，后台异步刷新
+         */
+        private Map<String, Duration> refreshAfterWrite = new HashMap<>();
+    }
+
+    @Getter
+    @Setter
+    public static class Invalidation {
+
+        /**
+         * 合并窗口：窗口内的key失效合并为一条消息发送
+         */
+        private Duration coalesceWindow = Duration.ofMillis(5);
+
+        /**
+         * 是否使用redis stream代替pub/sub：断线重连后从上次读到的位置重放，避免一级缓存读到旧数据
+         */
+        private Boolean stream = false;
+
+        /**
+         * stream保留的最大消息数(近似裁剪)，重连时需要重放的消息已被裁剪则清空本节点一级缓存
+         */
+        private Long streamMaxLen = 100_000L;
+    }
 }
@@ -0,0 +1,36 @@
+package com.lvwj.halo.cache.core.batch;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 批量缓存注解，用于入参为key集合的方法(如 listByIds(Collection ids))
+ * <p>
+ * 命中的key直接返回，未命中的key作为集合入参只调用一次原方法，结果批量写回缓存；仅多级缓存生效，其它缓存类型直接调用原方法
+ * <p>
+ * 方法返回值支持：Map(key->value)；List/Set，此时需通过 resultKey 指定元素的key
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 17:30
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BatchCacheable {
+
+  /**
+   * 缓存名称
+   */
+  String cacheName();
+
+  /**
+   * key集合参数的下标
+   */
+  int keysIndex() default 0;
+
+  /**
+   * 返回值为集合时，从元素中取key的spEl，以元素为根对象，如："id"
+   */
+  String resultKey() default "";
+}
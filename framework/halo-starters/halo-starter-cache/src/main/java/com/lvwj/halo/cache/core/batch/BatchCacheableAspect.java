@@ -0,0 +1,104 @@
+package com.lvwj.halo.cache.core.batch;
+
+import com.lvwj.halo.cache.core.manager.multi.HaloMultiLevelCache;
+import com.lvwj.halo.common.utils.Exceptions;
+import com.lvwj.halo.common.utils.Func;
+import com.lvwj.halo.core.spel.MyCachedExpressionEvaluator;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.BeansException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationContextAware;
+import org.springframework.context.expression.AnnotatedElementKey;
+import org.springframework.expression.EvaluationContext;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 拦截声明了 {@link BatchCacheable} 注解的方法，按key集合批量读写多级缓存
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 17:30
+ */
+@Aspect
+@Slf4j
+public class BatchCacheableAspect implements ApplicationContextAware {
+
+  @Resource
+  private CacheManager cacheManager;
+
+  private ApplicationContext applicationContext;
+
+  @Around("@annotation(batchCacheable)")
+  public Object aroundBatchCacheable(ProceedingJoinPoint joinPoint, BatchCacheable batchCacheable) throws Throwable {
+    Object[] args = joinPoint.getArgs();
+    int index = batchCacheable.keysIndex();
+    if (index < 0 || index >= args.length || !(args[index] instanceof Collection<?> keys) || keys.isEmpty()) {
+      return joinPoint.proceed();
+    }
+    Cache cache = cacheManager.getCache(batchCacheable.cacheName());
+    if (!(cache instanceof HaloMultiLevelCache multiLevelCache)) {
+      return joinPoint.proceed();
+    }
+    Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    Class<?> returnType = method.getReturnType();
+    Map<Object, Object> values = multiLevelCache.getAll((Collection<Object>) keys, misses -> {
+      Object[] missArgs = args.clone();
+      missArgs[index] = keys instanceof Set ? new LinkedHashSet<>(misses) : new ArrayList<>(misses);
+      try {
+        return toMap(joinPoint, method, batchCacheable, joinPoint.proceed(missArgs));
+      } catch (Throwable e) {
+        throw Exceptions.unchecked(e);
+      }
+    });
+    if (Map.class.isAssignableFrom(returnType)) {
+      return values;
+    }
+    Collection<Object> result = Set.class.isAssignableFrom(returnType) ? new LinkedHashSet<>() : new ArrayList<>(values.size());
+    result.addAll(values.values());
+    return result;
+  }
+
+  private Map<Object, Object> toMap(ProceedingJoinPoint joinPoint, Method method, BatchCacheable batchCacheable, Object result) {
+    if (null == result) {
+      return null;
+    }
+    if (result instanceof Map<?, ?> map) {
+      return (Map<Object, Object>) map;
+    }
+    if (!(result instanceof Collection<?> collection)) {
+      throw new IllegalArgumentException("BatchCacheable method must return Map or Collection! method:" + method);
+    }
+    if (Func.isBlank(batchCacheable.resultKey())) {
+      throw new IllegalArgumentException("BatchCacheable resultKey is required for Collection result! method:" + method);
+    }
+    Class<?> targetClass = joinPoint.getTarget().getClass();
+    AnnotatedElementKey elementKey = new AnnotatedElementKey(method, targetClass);
+    Map<Object, Object> map = new LinkedHashMap<>(collection.size());
+    for (Object element : collection) {
+      if (null == element) {
+        continue;
+      }
+      EvaluationContext context = MyCachedExpressionEvaluator.INSTANCE.createContext(method, joinPoint.getArgs(), targetClass, element, applicationContext);
+      map.put(MyCachedExpressionEvaluator.INSTANCE.eval(batchCacheable.resultKey(), elementKey, context), element);
+    }
+    return map;
+  }
+
+  @Override
+  public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
+    this.applicationContext = applicationContext;
+  }
+}
@@ -8,4 +8,6 @@ public class CacheConstant {
 
   public static final String CLEAR_LOCAL_TOPIC = "multi:cache:clear:local:topic";
 
+  public static final String CLEAR_LOCAL_STREAM = "multi:cache:clear:local:stream";
+
 }
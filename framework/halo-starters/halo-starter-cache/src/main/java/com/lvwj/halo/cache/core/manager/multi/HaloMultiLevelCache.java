@@ -1,21 +1,40 @@
 package com.lvwj.halo.cache.core.manager.multi;
 
-import com.lvwj.halo.cache.core.constant.CacheConstant;
-import com.lvwj.halo.cache.core.message.CacheMessage;
-import com.lvwj.halo.cache.core.message.CacheMessageType;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lvwj.halo.cache.config.HaloCacheProperties;
+import com.lvwj.halo.cache.core.manager.remote.RedisCacheBulkSupport;
+import com.lvwj.halo.cache.core.message.CacheInvalidationBus;
 import com.lvwj.halo.common.enums.BaseErrorEnum;
 import com.lvwj.halo.common.utils.Assert;
 import com.lvwj.halo.common.utils.Func;
+import com.lvwj.halo.common.utils.StringPool;
+import com.lvwj.halo.core.threadpool.ThreadPoolCache;
 import com.lvwj.halo.redis.RedisTemplatePlus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.Cache;
 import org.springframework.cache.support.AbstractValueAdaptingCache;
 
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 /**
  * 多级缓存
@@ -33,38 +52,315 @@ public class HaloMultiLevelCache extends AbstractValueAdaptingCache {
 
   private final RedisTemplatePlus redisTemplatePlus;
 
-  private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+  private final HaloCacheProperties.Loader loaderProperties;
 
-  public HaloMultiLevelCache(String cacheName, Cache local, Cache remote, RedisTemplatePlus redisTemplatePlus, boolean allowNullValues) {
+  private final CacheInvalidationBus invalidationBus;
+
+  /**
+   * key最近一次失效时的序号：从L2读到值后，若期间该key已失效则不写入L1，避免旧值覆盖
+   */
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Long> invalidations;
+  private final AtomicLong invalidationSeq = new AtomicLong();
+  private volatile long clearedSeq;
+
+  /**
+   * 回源中的key：同一个key的并发未命中共享同一个future，只有一个线程调用valueLoader
+   */
+  private final ConcurrentMap<Object, Loading> inFlight = new ConcurrentHashMap<>();
+
+  /**
+   * 本节点回源写入时间，仅在配置了refreshAfterWrite时启用
+   */
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Long> loadTimes;
+
+  private final long refreshAfterNanos;
+
+  private final Counter loaderInvocations;
+  private final Counter loaderJoins;
+  private final Counter loaderRefreshes;
+
+  private static final String LOAD_LEASE_PREFIX = "CACHE_LOAD_LEASE:";
+  private static final long LEASE_POLL_MIN_MILLIS = 5;
+  private static final long LEASE_POLL_MAX_MILLIS = 50;
+  private static final long LOAD_TIMES_MAX_SIZE = 100_000;
+  private static final long INVALIDATIONS_MAX_SIZE = 100_000;
+  private static final Duration INVALIDATIONS_EXPIRE = Duration.ofSeconds(10);
+
+  public HaloMultiLevelCache(String cacheName, Cache local, Cache remote, RedisTemplatePlus redisTemplatePlus, boolean allowNullValues, HaloCacheProperties.Loader loaderProperties, CacheInvalidationBus invalidationBus) {
     super(allowNullValues);
     this.cacheName = cacheName;
     this.local = local;
     this.remote = remote;
     this.redisTemplatePlus = redisTemplatePlus;
+    this.loaderProperties = loaderProperties;
+    this.invalidationBus = invalidationBus;
+    this.invalidations = Caffeine.newBuilder().maximumSize(INVALIDATIONS_MAX_SIZE).expireAfterWrite(INVALIDATIONS_EXPIRE).build();
+    Duration refreshAfterWrite = loaderProperties.getRefreshAfterWrite().get(cacheName);
+    if (null != refreshAfterWrite && !refreshAfterWrite.isZero() && !refreshAfterWrite.isNegative()) {
+      this.refreshAfterNanos = refreshAfterWrite.toNanos();
+      this.loadTimes = Caffeine.newBuilder().maximumSize(LOAD_TIMES_MAX_SIZE).expireAfterWrite(refreshAfterWrite.multipliedBy(2)).build();
+    } else {
+      this.refreshAfterNanos = 0;
+      this.loadTimes = null;
+    }
+    this.loaderInvocations = Counter.builder("halo.cache.loader.invocations").description("valueLoader调用次数").tag("cache", cacheName).register(Metrics.globalRegistry);
+    this.loaderJoins = Counter.builder("halo.cache.loader.joins").description("复用进行中回源的次数").tag("cache", cacheName).register(Metrics.globalRegistry);
+    this.loaderRefreshes = Counter.builder("halo.cache.loader.refreshes").description("提前异步刷新次数").tag("cache", cacheName).register(Metrics.globalRegistry);
   }
 
   @Override
   public <T> T get(Object key, Callable<T> valueLoader) {
     Assert.notNullOrEmpty(key, BaseErrorEnum.PARAM_EMPTY_ERROR, "key");
     Assert.notNullOrEmpty(valueLoader, BaseErrorEnum.PARAM_EMPTY_ERROR, "valueLoader");
-    synchronized (LOCKS.computeIfAbsent(key.toString(), s -> new Object())) {
-      try {
-        Object obj = lookup(key);
-        if (Objects.nonNull(obj)) {
-          return (T) obj;
-        }
-        //没找到,则调valueLoader.call
-        obj = valueLoader.call();
-        //放入缓存
-        put(key, obj);
+    try {
+      Object obj = lookup(key);
+      if (Objects.nonNull(obj)) {
+        refreshAheadIfNecessary(key, valueLoader);
         return (T) obj;
-      } catch (Exception e) {
-        log.error("MultiLevelCache.get:" + e.getMessage(), e);
-        return null;
+      }
+      //没找到,则由首个未命中的线程调valueLoader.call，其余线程等待同一结果
+      return (T) load(key, valueLoader, false, false).join();
+    } catch (Exception e) {
+      Throwable cause = e instanceof CompletionException && null != e.getCause() ? e.getCause() : e;
+      log.error("MultiLevelCache.get:" + cause.getMessage(), cause);
+      return null;
+    }
+  }
+
+  /**
+   * 异步获取：L1命中直接返回，否则在后台线程查L2/回源，调用方线程不阻塞
+   */
+  public <T> CompletableFuture<T> getAsync(Object key, Callable<T> valueLoader) {
+    Assert.notNullOrEmpty(key, BaseErrorEnum.PARAM_EMPTY_ERROR, "key");
+    Assert.notNullOrEmpty(valueLoader, BaseErrorEnum.PARAM_EMPTY_ERROR, "valueLoader");
+    ValueWrapper wrapper = local.get(key);
+    if (Objects.nonNull(wrapper) && Objects.nonNull(wrapper.get())) {
+      refreshAheadIfNecessary(key, valueLoader);
+      return CompletableFuture.completedFuture((T) wrapper.get());
+    }
+    return (CompletableFuture<T>) load(key, () -> {
+      Object obj = lookup(key);
+      return Objects.nonNull(obj) ? obj : valueLoader.call();
+    }, true, false);
+  }
+
+  private CompletableFuture<Object> load(Object key, Callable<?> valueLoader, boolean async, boolean refresh) {
+    Loading loading = new Loading();
+    Loading existing = inFlight.putIfAbsent(key, loading);
+    if (null != existing) {
+      if (existing.owner == Thread.currentThread()) {
+        //valueLoader内部重入同一个key，等待自己的future会死锁，直接调用
+        return refresh ? CompletableFuture.completedFuture(null) : callDirectly(valueLoader);
+      }
+      loaderJoins.increment();
+      return existing.future;
+    }
+    CompletableFuture<Object> future = loading.future;
+    Runnable task = () -> {
+      loading.owner = Thread.currentThread();
+      try {
+        future.complete(doLoad(key, valueLoader, refresh));
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
       } finally {
-        LOCKS.remove(key.toString());
+        loading.owner = null;
+        inFlight.remove(key, loading);
       }
+    };
+    if (async) {
+      loaderExecutor().execute(task);
+    } else {
+      task.run();
     }
+    return future;
+  }
+
+  private static CompletableFuture<Object> callDirectly(Callable<?> valueLoader) {
+    try {
+      return CompletableFuture.completedFuture(valueLoader.call());
+    } catch (Throwable e) {
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private Object doLoad(Object key, Callable<?> valueLoader, boolean refresh) throws Exception {
+    if (!refresh) {
+      //排队期间上一个回源已写回L1，则不再重复回源
+      ValueWrapper wrapper = local.get(key);
+      if (Objects.nonNull(wrapper) && Objects.nonNull(wrapper.get())) {
+        return wrapper.get();
+      }
+    }
+    if (!Boolean.TRUE.equals(loaderProperties.getClusterLease())) {
+      return invokeLoader(key, valueLoader);
+    }
+    long leaseMillis = loaderProperties.getLeaseTime().toMillis();
+    String leaseKey = LOAD_LEASE_PREFIX + cacheName + StringPool.COLON + key;
+    //租约值为本次回源的token，释放时比对token，避免租约过期后误删其它节点的租约
+    String token = UUID.randomUUID().toString();
+    if (redisTemplatePlus.setNx(leaseKey, token, leaseMillis, TimeUnit.MILLISECONDS)) {
+      try {
+        return invokeLoader(key, valueLoader);
+      } finally {
+        redisTemplatePlus.compareAndDel(leaseKey, token);
+      }
+    }
+    if (refresh) {
+      //其它节点正在刷新
+      return null;
+    }
+    long waitMillis = Math.min(leaseMillis, loaderProperties.getLeaseWaitTime().toMillis());
+    Object obj = awaitRemote(key, waitMillis);
+    //租约持有节点未在等待时长内写回，降级为本节点回源
+    return Objects.nonNull(obj) ? obj : invokeLoader(key, valueLoader);
+  }
+
+  private Object invokeLoader(Object key, Callable<?> valueLoader) throws Exception {
+    loaderInvocations.increment();
+    Object obj = valueLoader.call();
+    //放入缓存
+    put(key, obj);
+    if (null != loadTimes) {
+      loadTimes.put(key, System.nanoTime());
+    }
+    return obj;
+  }
+
+  /**
+   * 等待租约持有节点写回L2，轮询间隔从LEASE_POLL_MIN_MILLIS指数退避到LEASE_POLL_MAX_MILLIS，最多等待waitMillis
+   */
+  private Object awaitRemote(Object key, long waitMillis) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+    long pollMillis = LEASE_POLL_MIN_MILLIS;
+    long remaining;
+    while ((remaining = deadline - System.nanoTime()) > 0) {
+      TimeUnit.NANOSECONDS.sleep(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(pollMillis)));
+      pollMillis = Math.min(pollMillis << 1, LEASE_POLL_MAX_MILLIS);
+      long seq = invalidationSeq.get();
+      ValueWrapper wrapper = remote.get(key);
+      if (Objects.nonNull(wrapper) && Objects.nonNull(wrapper.get())) {
+        fillL1(key, wrapper.get(), seq);
+        return wrapper.get();
+      }
+    }
+    return null;
+  }
+
+  private void refreshAheadIfNecessary(Object key, Callable<?> valueLoader) {
+    if (null == loadTimes) {
+      return;
+    }
+    Long loadedAt = loadTimes.getIfPresent(key);
+    if (null == loadedAt || System.nanoTime() - loadedAt < refreshAfterNanos || inFlight.containsKey(key)) {
+      return;
+    }
+    //先更新时间，避免并发命中重复触发
+    loadTimes.put(key, System.nanoTime());
+    loaderRefreshes.increment();
+    load(key, valueLoader, true, true);
+  }
+
+  /**
+   * 批量获取：先查L1，L1未命中的一次MGET查L2，仍未命中的交给bulkLoader一次回源，回源结果批量写回
+   *
+   * @param bulkLoader 入参为未命中的key，返回值中缺失的key视为null
+   * @return 按keys顺序返回，不含值为null的key
+   */
+  public <K, V> Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> bulkLoader) {
+    Assert.notNullOrEmpty(bulkLoader, BaseErrorEnum.PARAM_EMPTY_ERROR, "bulkLoader");
+    Map<K, V> result = new LinkedHashMap<>();
+    if (Func.isEmpty(keys)) {
+      return result;
+    }
+    Set<K> l1Misses = new LinkedHashSet<>();
+    for (K key : keys) {
+      ValueWrapper wrapper = local.get(key);
+      if (Objects.isNull(wrapper)) {
+        l1Misses.add(key);
+      } else if (Objects.nonNull(wrapper.get())) {
+        result.put(key, (V) wrapper.get());
+      }
+    }
+    Set<K> misses = new LinkedHashSet<>();
+    if (!l1Misses.isEmpty()) {
+      long seq = invalidationSeq.get();
+      Map<Object, Object> remoteHits = RedisCacheBulkSupport.getAll(redisTemplatePlus.getRedisTemplate(), remote, l1Misses);
+      for (K key : l1Misses) {
+        Object value = remoteHits.get(key);
+        if (Objects.nonNull(value)) {
+          fillL1(key, value, seq);
+          result.put(key, (V) value);
+        } else {
+          misses.add(key);
+        }
+      }
+    }
+    if (!misses.isEmpty()) {
+      loaderInvocations.increment();
+      Map<K, V> loaded = bulkLoader.apply(misses);
+      Map<Object, Object> toCache = new LinkedHashMap<>();
+      for (K key : misses) {
+        V value = null == loaded ? null : loaded.get(key);
+        if (Objects.nonNull(value)) {
+          result.put(key, value);
+          toCache.put(key, value);
+        } else if (this.isAllowNullValues()) {
+          toCache.put(key, null);
+        }
+      }
+      putAll(toCache);
+    }
+    if (l1Misses.isEmpty()) {
+      return result;
+    }
+    //L2命中和回源的结果追加在后面，按入参顺序重排
+    Map<K, V> ordered = new LinkedHashMap<>();
+    for (K key : keys) {
+      V value = result.get(key);
+      if (Objects.nonNull(value)) {
+        ordered.put(key, value);
+      }
+    }
+    return ordered;
+  }
+
+  /**
+   * 批量放入：L1逐个写入，L2一次pipeline写入，其它实例的本地缓存失效合并通知
+   */
+  public void putAll(Map<?, ?> entries) {
+    if (Func.isEmpty(entries)) {
+      return;
+    }
+    Map<Object, Object> remoteEntries = new LinkedHashMap<>();
+    entries.forEach((key, value) -> {
+      Assert.isFalse(!isAllowNullValues() && Objects.isNull(value), BaseErrorEnum.CACHE_NULL_ERROR);
+      markInvalidated(key);
+      local.put(key, value);
+      //null对象只存在caffeine中
+      if (Objects.nonNull(value)) {
+        remoteEntries.put(key, value);
+      }
+    });
+    if (remoteEntries.isEmpty()) {
+      return;
+    }
+    RedisCacheBulkSupport.putAll(redisTemplatePlus.getRedisTemplate(), remote, remoteEntries);
+    // 其它实例删除本地缓存，下次读取时从redis加载
+    invalidationBus.publish(this.cacheName, remoteEntries.keySet());
+  }
+
+  /**
+   * 进行中的回源：owner为正在执行valueLoader的线程，用于识别重入
+   */
+  private static final class Loading {
+
+    private final CompletableFuture<Object> future = new CompletableFuture<>();
+
+    private volatile Thread owner;
+  }
+
+  private static Executor loaderExecutor() {
+    return ThreadPoolCache.getCustomizeThreadPool("halo-cache-loader", 1, Runtime.getRuntime().availableProcessors(), 1000);
   }
 
   @Override
@@ -75,10 +371,11 @@ public class HaloMultiLevelCache extends AbstractValueAdaptingCache {
       return obj.get(); //不用fromStoreValue，否则返回的是null，会再查数据库
     }
     //再从redis中查找
+    long seq = invalidationSeq.get();
     obj = remote.get(key);
     Object result = Optional.ofNullable(obj).map(ValueWrapper::get).orElse(null);
     if (Objects.nonNull(result) || this.isAllowNullValues()) {
-      local.put(key, result);
+      fillL1(key, result, seq);
     }
     return result;
   }
@@ -87,23 +384,25 @@ public class HaloMultiLevelCache extends AbstractValueAdaptingCache {
   public void put(Object key, Object value) {
     Assert.isFalse(!isAllowNullValues() && Objects.isNull(value), BaseErrorEnum.CACHE_NULL_ERROR);
     //使用toStoreValue(value)包装，解决caffeine不能存null的问题
+    markInvalidated(key);
     local.put(key, value);
     if (Objects.isNull(value)) {
       //null对象只存在caffeine中一份就够了，不用存redis了
       return;
     }
     remote.put(key, value);
-    // 发布消息通知其他服务实例更新本地缓存
-    publishMessage(key, value, CacheMessageType.UPDATE);
+    // 通知其他服务实例删除本地缓存，下次读取时从redis加载
+    invalidationBus.publish(this.cacheName, Collections.singletonList(key));
   }
 
 
   @Override
   public void evict(Object key) {
+    markInvalidated(key);
     local.evict(key);
     remote.evict(key);
-    // 发布消息通知其他服务实例删除本地缓存
-    publishMessage(key, null, CacheMessageType.DELETE);
+    // 通知其他服务实例删除本地缓存
+    invalidationBus.publish(this.cacheName, Collections.singletonList(key));
   }
 
   @Override
@@ -129,11 +428,33 @@ public class HaloMultiLevelCache extends AbstractValueAdaptingCache {
 
   // 删除一级缓存
   public void evictL1Cache(Object key) {
+    markInvalidated(key);
     local.evict(key);
   }
 
-  private void publishMessage(Object key, Object value, CacheMessageType messageType) {
-    CacheMessage cacheMassage = new CacheMessage(this.cacheName, key, value, messageType, Func.getLocalIP());
-    redisTemplatePlus.convertAndSend(CacheConstant.CLEAR_LOCAL_TOPIC, cacheMassage);
+  // 批量删除一级缓存
+  public void evictL1Cache(Collection<?> keys) {
+    keys.forEach(this::evictL1Cache);
+  }
+
+  // 清空一级缓存
+  public void clearL1Cache() {
+    clearedSeq = invalidationSeq.incrementAndGet();
+    local.clear();
+  }
+
+  private void markInvalidated(Object key) {
+    invalidations.put(key, invalidationSeq.incrementAndGet());
+  }
+
+  /**
+   * 从L2读到的值写入L1，读取期间(seq之后)该key已失效则放弃写入
+   */
+  private void fillL1(Object key, Object value, long seq) {
+    Long invalidatedSeq = invalidations.getIfPresent(key);
+    if (seq < clearedSeq || (null != invalidatedSeq && invalidatedSeq > seq)) {
+      return;
+    }
+    local.put(key, value);
   }
 }
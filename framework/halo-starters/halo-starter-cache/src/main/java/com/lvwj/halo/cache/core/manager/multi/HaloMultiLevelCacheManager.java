@@ -1,6 +1,9 @@
 package com.lvwj.halo.cache.core.manager.multi;
 
+import com.lvwj.halo.cache.config.HaloCacheProperties;
+import com.lvwj.halo.cache.core.message.CacheInvalidationBus;
 import com.lvwj.halo.redis.RedisTemplatePlus;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
@@ -11,18 +14,41 @@ import java.util.HashSet;
 import java.util.Set;
 
 
-public class HaloMultiLevelCacheManager extends AbstractTransactionSupportingCacheManager {
+public class HaloMultiLevelCacheManager extends AbstractTransactionSupportingCacheManager implements DisposableBean {
 
   private final CacheManager local;
   private final CacheManager remote;
 
   private final RedisTemplatePlus redisTemplatePlus;
+  private final HaloCacheProperties.Loader loaderProperties;
+  private final CacheInvalidationBus invalidationBus;
   private boolean allowNullValues = true;
 
   public HaloMultiLevelCacheManager(CacheManager local, CacheManager remote, RedisTemplatePlus redisTemplatePlus) {
+    this(local, remote, redisTemplatePlus, new HaloCacheProperties.Loader());
+  }
+
+  public HaloMultiLevelCacheManager(CacheManager local, CacheManager remote, RedisTemplatePlus redisTemplatePlus, HaloCacheProperties.Loader loaderProperties) {
+    this(local, remote, redisTemplatePlus, loaderProperties, new HaloCacheProperties.Invalidation());
+  }
+
+  public HaloMultiLevelCacheManager(CacheManager local, CacheManager remote, RedisTemplatePlus redisTemplatePlus, HaloCacheProperties.Loader loaderProperties, HaloCacheProperties.Invalidation invalidationProperties) {
     this.local = local;
     this.remote = remote;
     this.redisTemplatePlus = redisTemplatePlus;
+    this.loaderProperties = loaderProperties;
+    this.invalidationBus = new CacheInvalidationBus(redisTemplatePlus, invalidationProperties, this);
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    super.afterPropertiesSet();
+    invalidationBus.start();
+  }
+
+  @Override
+  public void destroy() {
+    invalidationBus.close();
   }
 
   @Override
@@ -46,7 +72,11 @@ public class HaloMultiLevelCacheManager extends AbstractTransactionSupportingCac
     if(l1 == null && l2 == null) {
       return null;
     }
-    return new HaloMultiLevelCache(name, l1,l2, redisTemplatePlus, allowNullValues);
+    return new HaloMultiLevelCache(name, l1,l2, redisTemplatePlus, allowNullValues, loaderProperties, invalidationBus);
+  }
+
+  public CacheInvalidationBus getInvalidationBus() {
+    return invalidationBus;
   }
 
   public void setAllowNullValues(boolean allowNullValues) {
@@ -0,0 +1,128 @@
+package com.lvwj.halo.cache.core.manager.remote;
+
+import com.lvwj.halo.common.utils.Func;
+import com.lvwj.halo.common.utils.TransactionUtil;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于RedisCache配置(key前缀/序列化/ttl)的批量读写：一次MGET批量读取，一次pipeline批量写入
+ * <p>
+ * 非RedisCache实现时退化为逐个get/put
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 17:05
+ */
+public class RedisCacheBulkSupport {
+
+	private RedisCacheBulkSupport() {
+	}
+
+	/**
+	 * 批量读取，只返回命中的key；缓存的null值以null返回
+	 */
+	public static Map<Object, Object> getAll(RedisTemplate<String, Object> redisTemplate, Cache cache, Collection<?> keys) {
+		Map<Object, Object> result = new LinkedHashMap<>();
+		if (Func.isEmpty(keys)) {
+			return result;
+		}
+		RedisCache redisCache = unwrap(cache);
+		if (null == redisCache) {
+			keys.forEach(key -> {
+				Cache.ValueWrapper wrapper = cache.get(key);
+				if (null != wrapper) {
+					result.put(key, wrapper.get());
+				}
+			});
+			return result;
+		}
+		List<Object> keyList = new ArrayList<>(keys);
+		byte[][] rawKeys = keyList.stream().map(key -> rawKey(redisCache, key)).toArray(byte[][]::new);
+		List<byte[]> rawValues = redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(rawKeys));
+		if (null == rawValues) {
+			return result;
+		}
+		RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+		for (int i = 0; i < rawValues.size(); i++) {
+			byte[] rawValue = rawValues.get(i);
+			if (null == rawValue) {
+				continue;
+			}
+			Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(rawValue));
+			result.put(keyList.get(i), value instanceof NullValue ? null : value);
+		}
+		return result;
+	}
+
+	/**
+	 * 批量写入(不含null值)，事务感知的缓存在事务提交后写入
+	 */
+	public static void putAll(RedisTemplate<String, Object> redisTemplate, Cache cache, Map<?, ?> entries) {
+		if (Func.isEmpty(entries)) {
+			return;
+		}
+		RedisCache redisCache = unwrap(cache);
+		if (null == redisCache) {
+			entries.forEach(cache::put);
+			return;
+		}
+		Runnable pipeSet = () -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+			RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+			entries.forEach((key, value) -> {
+				Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+				Expiration expiration = null == ttl || ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
+				byte[] rawValue = ByteUtils.getBytes(config.getValueSerializationPair().write(value));
+				connection.stringCommands().set(rawKey(redisCache, key), rawValue, expiration, RedisStringCommands.SetOption.upsert());
+			});
+			return null;
+		});
+		if (cache instanceof TransactionAwareCacheDecorator) {
+			TransactionUtil.afterCommit(pipeSet);
+		} else {
+			pipeSet.run();
+		}
+	}
+
+	private static RedisCache unwrap(Cache cache) {
+		Cache target = cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+		return target instanceof RedisCache redisCache ? redisCache : null;
+	}
+
+	/**
+	 * 与RedisCache#createCacheKey保持一致
+	 */
+	private static byte[] rawKey(RedisCache cache, Object key) {
+		RedisCacheConfiguration config = cache.getCacheConfiguration();
+		String convertedKey = convertKey(config, key);
+		String cacheKey = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + convertedKey : convertedKey;
+		return ByteUtils.getBytes(config.getKeySerializationPair().write(cacheKey));
+	}
+
+	private static String convertKey(RedisCacheConfiguration config, Object key) {
+		if (key instanceof String s) {
+			return s;
+		}
+		TypeDescriptor source = TypeDescriptor.forObject(key);
+		if (config.getConversionService().canConvert(source, TypeDescriptor.valueOf(String.class))) {
+			return config.getConversionService().convert(key, String.class);
+		}
+		return key.toString();
+	}
+}
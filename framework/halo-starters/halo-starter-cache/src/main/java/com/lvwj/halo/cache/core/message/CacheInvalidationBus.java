@@ -0,0 +1,268 @@
+package com.lvwj.halo.cache.core.message;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lvwj.halo.cache.config.HaloCacheProperties;
+import com.lvwj.halo.cache.core.constant.CacheConstant;
+import com.lvwj.halo.cache.core.manager.multi.HaloMultiLevelCache;
+import com.lvwj.halo.cache.core.manager.multi.HaloMultiLevelCacheManager;
+import com.lvwj.halo.common.utils.Func;
+import com.lvwj.halo.common.utils.StringPool;
+import com.lvwj.halo.common.utils.TransactionUtil;
+import com.lvwj.halo.redis.RedisKeyGenerator;
+import com.lvwj.halo.redis.RedisTemplatePlus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多级缓存一级缓存失效通知
+ * <p>
+ * 合并窗口内的失效key按缓存名合并为一条消息，只发送key和本实例单调递增的版本号，不发送value；
+ * 接收方按实例标识过滤自身消息。失效是幂等的，乱序到达的消息照常处理，仅按(实例标识, 版本号)丢弃重放的同一条消息。
+ * 开启stream后通过redis stream发送，断线重连后从上次读到的位置重放
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 18:10
+ */
+@Slf4j
+public class CacheInvalidationBus {
+
+  private static final byte[] STREAM_FIELD = "m".getBytes(StandardCharsets.UTF_8);
+  private static final int STREAM_READ_COUNT = 500;
+  private static final Duration STREAM_BLOCK = Duration.ofSeconds(2);
+  private static final long STREAM_RETRY_MILLIS = 1000;
+  private static final long RECEIVED_MAX_SIZE = 100_000;
+
+  private final RedisTemplatePlus redisTemplatePlus;
+  private final HaloCacheProperties.Invalidation properties;
+  private final HaloMultiLevelCacheManager cacheManager;
+  private final String streamKey;
+
+  /**
+   * 实例标识，与版本号一起标识一条消息；同一台机器部署多个实例时代替ip过滤自身消息
+   */
+  private final String instanceId = UUID.randomUUID().toString().replace(StringPool.DASH, StringPool.EMPTY);
+
+  /**
+   * 待发送的失效key：缓存名 -> key
+   */
+  private final ConcurrentMap<String, Set<Object>> pending = new ConcurrentHashMap<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+  private final AtomicLong version = new AtomicLong();
+  private final ThreadPoolTaskScheduler scheduler;
+
+  /**
+   * 已处理的消息：实例标识:版本号，用于丢弃stream重放的同一条消息
+   */
+  private final Set<String> received = Collections.newSetFromMap(Caffeine.newBuilder()
+      .maximumSize(RECEIVED_MAX_SIZE).expireAfterWrite(Duration.ofHours(1)).<String, Boolean>build().asMap());
+
+  private volatile boolean running;
+  private volatile boolean closed;
+  private Thread streamReader;
+
+  public CacheInvalidationBus(RedisTemplatePlus redisTemplatePlus, HaloCacheProperties.Invalidation properties, HaloMultiLevelCacheManager cacheManager) {
+    this.redisTemplatePlus = redisTemplatePlus;
+    this.properties = properties;
+    this.cacheManager = cacheManager;
+    this.streamKey = RedisKeyGenerator.gen(CacheConstant.CLEAR_LOCAL_STREAM);
+    this.scheduler = new ThreadPoolTaskScheduler();
+    this.scheduler.setPoolSize(1);
+    this.scheduler.setThreadNamePrefix("halo-cache-invalidation-");
+    this.scheduler.setDaemon(true);
+    this.scheduler.initialize();
+  }
+
+  public synchronized void start() {
+    if (running || !Boolean.TRUE.equals(properties.getStream())) {
+      return;
+    }
+    running = true;
+    streamReader = new Thread(this::readStream, "halo-cache-invalidation-reader");
+    streamReader.setDaemon(true);
+    streamReader.start();
+  }
+
+  public synchronized void close() {
+    running = false;
+    closed = true;
+    if (null != streamReader) {
+      streamReader.interrupt();
+    }
+    //先停掉合并窗口的定时任务，再由当前线程发出剩余的失效key，避免与定时flush并发
+    scheduler.shutdown();
+    flush();
+  }
+
+  public String getInstanceId() {
+    return instanceId;
+  }
+
+  /**
+   * 通知其它实例删除一级缓存；存在事务时在事务提交后发送
+   */
+  public void publish(String cacheName, Collection<?> keys) {
+    if (Func.isEmpty(keys)) {
+      return;
+    }
+    TransactionUtil.afterCommit(() -> {
+      pending.computeIfAbsent(cacheName, k -> ConcurrentHashMap.newKeySet()).addAll(keys);
+      if (closed) {
+        flush();
+      } else if (scheduled.compareAndSet(false, true)) {
+        long delay = properties.getCoalesceWindow().toMillis();
+        scheduler.getScheduledExecutor().schedule(this::flush, delay, TimeUnit.MILLISECONDS);
+      }
+    });
+  }
+
+  private synchronized void flush() {
+    //先复位，flush期间新加入的key会触发下一次发送
+    scheduled.set(false);
+    pending.forEach((cacheName, keySet) -> {
+      List<Object> keys = new ArrayList<>(keySet.size());
+      Iterator<Object> iterator = keySet.iterator();
+      while (iterator.hasNext()) {
+        keys.add(iterator.next());
+        iterator.remove();
+      }
+      if (keys.isEmpty()) {
+        return;
+      }
+      CacheMessage message = new CacheMessage()
+          .setName(cacheName)
+          .setKeys(keys)
+          .setType(CacheMessageType.BATCH_DELETE)
+          .setInstanceId(instanceId)
+          .setVersion(version.incrementAndGet());
+      try {
+        send(message);
+      } catch (Exception e) {
+        log.error("CacheInvalidationBus send failed! cacheName:" + cacheName, e);
+      }
+    });
+  }
+
+  private void send(CacheMessage message) {
+    if (!Boolean.TRUE.equals(properties.getStream())) {
+      redisTemplatePlus.convertAndSend(CacheConstant.CLEAR_LOCAL_TOPIC, message);
+      return;
+    }
+    RedisTemplate<String, Object> redisTemplate = redisTemplatePlus.getRedisTemplate();
+    byte[] rawKey = ((RedisSerializer<Object>) redisTemplate.getKeySerializer()).serialize(streamKey);
+    byte[] rawMessage = ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(message);
+    RedisStreamCommands.XAddOptions options = RedisStreamCommands.XAddOptions.maxlen(properties.getStreamMaxLen()).approximateTrimming(true);
+    redisTemplate.execute((RedisCallback<RecordId>) connection ->
+        connection.streamCommands().xAdd(MapRecord.create(rawKey, Collections.singletonMap(STREAM_FIELD, rawMessage)), options));
+  }
+
+  /**
+   * 处理收到的失效消息
+   */
+  public void receive(CacheMessage message) {
+    if (null == message || instanceId.equals(message.getInstanceId()) || Func.isEmpty(message.getKeys())) {
+      return;
+    }
+    //每条消息的key不同，不能按版本号大小丢弃；失效是幂等的，只丢弃同一条消息的重放
+    if (null != message.getInstanceId() && null != message.getVersion()
+        && !received.add(message.getInstanceId() + StringPool.COLON + message.getVersion())) {
+      log.debug("丢弃重复的缓存失效消息, instanceId:{}, version:{}", message.getInstanceId(), message.getVersion());
+      return;
+    }
+    HaloMultiLevelCache cache = (HaloMultiLevelCache) cacheManager.getCache(message.getName());
+    if (null == cache) {
+      return;
+    }
+    cache.evictL1Cache(message.getKeys());
+    log.debug("删除本地缓存, name:{}, size:{}", message.getName(), message.getKeys().size());
+  }
+
+  private void readStream() {
+    RedisTemplate<String, Object> redisTemplate = redisTemplatePlus.getRedisTemplate();
+    RecordId lastId = null;
+    while (running) {
+      try {
+        if (null == lastId) {
+          List<MapRecord<String, Object, Object>> latest = redisTemplate.opsForStream().reverseRange(streamKey, Range.unbounded(), Limit.limit().count(1));
+          lastId = Func.isEmpty(latest) ? RecordId.of(0, 0) : latest.get(0).getId();
+        } else {
+          //不只是断线重连：读取慢于写入时，未读的消息也可能被裁剪
+          checkTrimmed(redisTemplate, lastId);
+        }
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().read(
+            StreamReadOptions.empty().count(STREAM_READ_COUNT).block(STREAM_BLOCK),
+            StreamOffset.create(streamKey, ReadOffset.from(lastId)));
+        if (Func.isEmpty(records)) {
+          continue;
+        }
+        for (MapRecord<String, Object, Object> record : records) {
+          lastId = record.getId();
+          for (Object value : record.getValue().values()) {
+            if (value instanceof CacheMessage message) {
+              receive(message);
+            }
+          }
+        }
+      } catch (Exception e) {
+        if (!running) {
+          return;
+        }
+        log.error("CacheInvalidationBus read stream failed! key:" + streamKey, e);
+        try {
+          TimeUnit.MILLISECONDS.sleep(STREAM_RETRY_MILLIS);
+        } catch (InterruptedException ie) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * 上次读到之后的消息已被裁剪，无法重放，清空本节点所有一级缓存
+   */
+  private void checkTrimmed(RedisTemplate<String, Object> redisTemplate, RecordId lastId) {
+    List<MapRecord<String, Object, Object>> first = redisTemplate.opsForStream().range(streamKey, Range.unbounded(), Limit.limit().count(1));
+    if (Func.isEmpty(first)) {
+      return;
+    }
+    RecordId firstId = first.get(0).getId();
+    //上次读到的消息已不在stream中，其后的消息可能也已被裁剪
+    boolean trimmed = firstId.getTimestamp() > lastId.getTimestamp()
+        || (firstId.getTimestamp().equals(lastId.getTimestamp()) && firstId.getSequence() > lastId.getSequence());
+    if (trimmed && lastId.getTimestamp() > 0) {
+      log.warn("缓存失效消息已被裁剪，清空本地缓存, lastId:{}, firstId:{}", lastId, firstId);
+      cacheManager.getCacheNames().forEach(name -> {
+        HaloMultiLevelCache cache = (HaloMultiLevelCache) cacheManager.getCache(name);
+        if (null != cache) {
+          cache.clearL1Cache();
+        }
+      });
+    }
+  }
+}
@@ -6,6 +6,7 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.Accessors;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * 缓存消息实体
@@ -24,4 +25,7 @@ public class CacheMessage implements Serializable {
   private Object value;
   private CacheMessageType type;  //标识更新或删除操作
   private String ip;   //源主机ip，用来避免重复操作
+  private List<Object> keys;  //批量操作的key
+  private String instanceId;  //源实例标识，用来避免重复操作
+  private Long version;  //源实例内单调递增的版本号，用来丢弃重复或乱序的消息
 }
@@ -32,9 +32,14 @@ public class CacheMessageListener implements MessageListener {
     if (null == msg) {
       return;
     }
+    //合并后的失效消息按实例标识过滤、按版本号去重
+    if (msg.getType() == CacheMessageType.BATCH_DELETE) {
+      multiLevelCacheManager.getInvalidationBus().receive(msg);
+      return;
+    }
     String localIP = Func.getLocalIP();
     if (Func.isNotBlank(msg.getIp()) && msg.getIp().equals(localIP)) {
-      log.info(String.format("收到本机IP[%s]发出的消息，不做处理", localIP));
+      log.debug(String.format("收到本机IP[%s]发出的消息，不做处理", localIP));
       return;
     }
 
@@ -44,12 +49,12 @@ public class CacheMessageListener implements MessageListener {
     }
     if (msg.getType() == CacheMessageType.UPDATE) {
       cache.updateL1Cache(msg.getKey(), msg.getValue());
-      log.info(String.format("更新IP[%s]的本地缓存",localIP));
+      log.debug(String.format("更新IP[%s]的本地缓存",localIP));
     }
 
     if (msg.getType() == CacheMessageType.DELETE) {
       cache.evictL1Cache(msg.getKey());
-      log.info(String.format("删除IP[%s]的本地缓存",localIP));
+      log.debug(String.format("删除IP[%s]的本地缓存",localIP));
     }
   }
 }
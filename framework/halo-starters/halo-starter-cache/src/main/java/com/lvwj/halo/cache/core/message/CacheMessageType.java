@@ -11,5 +11,6 @@ import lombok.Getter;
 @Getter
 public enum CacheMessageType {
     UPDATE,
-    DELETE;
+    DELETE,
+    BATCH_DELETE;
 }
@@ -1,5 +1,6 @@
 package com.lvwj.halo.distributedlock;
 
+import com.lvwj.halo.core.spel.MethodMetadataCache;
 import com.lvwj.halo.core.spel.MyCachedExpressionEvaluator;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -7,12 +8,14 @@ import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
-import org.springframework.context.expression.AnnotatedElementKey;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 
@@ -42,24 +45,27 @@ public class DistributedLockAspect implements ApplicationContextAware {
 
   private ApplicationContext applicationContext;
 
+  /**
+   * 方法 - 锁名及预先解析的参数表达式
+   */
+  private final MethodMetadataCache<LockMetadata> lockCache = new MethodMetadataCache<>(this::resolveLock);
+
   @Around("@annotation(dLock)")
   public Object around(ProceedingJoinPoint joinPoint, DistributedLock dLock) throws Throwable {
-    if (!(joinPoint.getSignature() instanceof MethodSignature)) {
+    if (!(joinPoint.getSignature() instanceof MethodSignature ms)) {
       return joinPoint.proceed();
     }
-    Object lockKey = getLockKey(joinPoint, dLock);
+    LockMetadata lock = lockCache.get(ms.getMethod(), joinPoint.getTarget().getClass());
+    Object lockKey = getLockKey(joinPoint, lock);
     IDistributedLock distributedLock = distributedLockFactory.newLock(lockKey, dLock.type());
     return distributedLock.tryLock(dLock.waitTime(), dLock.leaseTime(), dLock.timeUnit(), dLock.msg(), joinPoint::proceed);
   }
 
-  private Object getLockKey(ProceedingJoinPoint joinPoint, DistributedLock dLock) {
-    String lockName = dLock.value();
-    Assert.hasText(lockName, "@DistributedLock value must not be null or empty");
-
-    lockName = applicationName + ":" + LOCK_PREFIX + lockName;
+  private Object getLockKey(ProceedingJoinPoint joinPoint, LockMetadata lock) {
+    String lockName = lock.lockName();
     Object lockKey;
-    if (StringUtils.isNotBlank(dLock.param())) {
-      Object evalResult = evalLockParam(joinPoint, dLock.param());
+    if (null != lock.param()) {
+      Object evalResult = evalLockParam(joinPoint, lock);
       Assert.isTrue(!ObjectUtils.isEmpty(evalResult), "@DistributedLock param eval failed or invalid");
       if (evalResult instanceof Collection) { //表达式解析反回集合
         List<String> list = new ArrayList<>();
@@ -83,23 +89,32 @@ public class DistributedLockAspect implements ApplicationContextAware {
   /**
    * 计算参数表达式
    *
-   * @param point     ProceedingJoinPoint
-   * @param lockParam lockParam
+   * @param point ProceedingJoinPoint
+   * @param lock  锁元数据
    * @return 结果
    */
-  private Object evalLockParam(ProceedingJoinPoint point, String lockParam) {
+  private Object evalLockParam(ProceedingJoinPoint point, LockMetadata lock) {
     MethodSignature ms = (MethodSignature) point.getSignature();
-    Method method = ms.getMethod();
-    Object[] args = point.getArgs();
     Object target = point.getTarget();
-    Class<?> targetClass = target.getClass();
-    EvaluationContext context = MyCachedExpressionEvaluator.INSTANCE.createContext(method, args, target, targetClass, applicationContext);
-    AnnotatedElementKey elementKey = new AnnotatedElementKey(method, targetClass);
-    return MyCachedExpressionEvaluator.INSTANCE.eval(lockParam, elementKey, context);
+    EvaluationContext context = MyCachedExpressionEvaluator.INSTANCE.createContext(ms.getMethod(), lock.targetMethod(), point.getArgs(), target, target.getClass(), applicationContext);
+    return lock.param().getValue(context);
+  }
+
+  private LockMetadata resolveLock(Method method, Class<?> targetClass) {
+    Method targetMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+    DistributedLock dLock = AnnotationUtils.findAnnotation(targetMethod, DistributedLock.class);
+    Assert.notNull(dLock, "@DistributedLock not found");
+    Assert.hasText(dLock.value(), "@DistributedLock value must not be null or empty");
+    String lockName = applicationName + ":" + LOCK_PREFIX + dLock.value();
+    Expression param = StringUtils.isNotBlank(dLock.param()) ? MyCachedExpressionEvaluator.INSTANCE.parseExpression(dLock.param()) : null;
+    return new LockMetadata(lockName, param, targetMethod);
   }
 
   @Override
   public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
     this.applicationContext = applicationContext;
   }
+
+  private record LockMetadata(String lockName, Expression param, Method targetMethod) {
+  }
 }
@@ -2,5 +2,6 @@ package com.lvwj.halo.join;
 
 public enum JoinInMemoryExecutorType {
     PARALLEL, // 并行执行
-    SERIAL // 串行执行
+    SERIAL, // 串行执行
+    ASYNC // 异步执行，同一 level 的 join 并行，不占用线程等待
 }
@@ -5,6 +5,7 @@ import com.lvwj.halo.core.node.BaseNode;
 import com.lvwj.halo.join.JoinItemExecutor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -57,9 +58,30 @@ abstract class AbstractJoinItemExecutor extends BaseNode<JoinItemExecutor> imple
      */
     protected abstract void onNotFound(Object data, Object joinKey);
 
+    /**
+     * joinDataLoader 及 keyFromJoinData 的标识，相同标识的加载可合并为一次调用，null 表示不合并
+     * @return
+     */
+    protected String getLoaderKey() {
+        return null;
+    }
+
     @Override
     public void execute(List<Object> sourceDatas) {
-        if(CollectionUtil.isEmpty(sourceDatas)) return;
+        List<Object> joinKeys = joinKeys(sourceDatas);
+        if(CollectionUtil.isEmpty(joinKeys)) return;
+
+        // 根据 JoinKey 获取 JoinData
+        List<Object> allJoinDatas = loadJoinData(joinKeys);
+        log.debug("get join data {} by join key {}", allJoinDatas, joinKeys);
+        writeBack(sourceDatas, allJoinDatas);
+    }
+
+    /**
+     * 从源数据中提取去重后的 JoinKey
+     */
+    List<Object> joinKeys(List<Object> sourceDatas) {
+        if(CollectionUtil.isEmpty(sourceDatas)) return Collections.emptyList();
 
         // 从源数据中提取 JoinKey
         List<Object> joinKeys = sourceDatas.stream()
@@ -69,11 +91,20 @@ abstract class AbstractJoinItemExecutor extends BaseNode<JoinItemExecutor> imple
                 .distinct()
                 .collect(toList());
         log.debug("get join key {} from source data {}", joinKeys, sourceDatas);
-        if(CollectionUtil.isEmpty(joinKeys)) return;
+        return joinKeys;
+    }
 
-        // 根据 JoinKey 获取 JoinData
-        List<Object> allJoinDatas = getJoinDataByJoinKeys(joinKeys);
-        log.debug("get join data {} by join key {}", allJoinDatas, joinKeys);
+    /**
+     * 批量加载 JoinData，处于 JoinRequestScope 中时复用作用域内已加载的数据
+     */
+    List<Object> loadJoinData(List<Object> joinKeys) {
+        return JoinRequestScope.load(getLoaderKey(), joinKeys, this::getJoinDataByJoinKeys, this::createJoinKeyFromJoinData);
+    }
+
+    /**
+     * 将 JoinData 写回至 SourceData
+     */
+    void writeBack(List<Object> sourceDatas, List<Object> allJoinDatas) {
         if(CollectionUtil.isEmpty(allJoinDatas)) return;
 
         // 将 JoinData 以 Map 形式进行组织
@@ -63,6 +63,7 @@ abstract class AbstractJoinItemExecutorFactory<A extends Annotation> implements
                 .joinDataConverter(createJoinDataConverter(cls, field, ann))
                 .foundCallback(createFoundFunction(cls, field, ann))
                 .lostCallback(createLostFunction(cls, field, ann))
+                .loaderKey(createLoaderKey(cls, field, ann))
                 .build();
         adapter.setParentId(cls.getSimpleName());
         return adapter;
@@ -95,6 +96,14 @@ abstract class AbstractJoinItemExecutorFactory<A extends Annotation> implements
         return null;
     }
 
+    /**
+     * 加载器标识，同一级别标识相同的加载合并为一次调用，返回 null 不合并；
+     * 合并及作用域记忆的结果按 keyFromJoinData 索引，标识相同的 join 须使用相同的 keyFromJoinData
+     */
+    protected String createLoaderKey(Class<?> cls, Field field, A ann) {
+        return null;
+    }
+
 
     protected abstract int createRunLevel(Class<?> cls, Field field, A ann);
 
@@ -0,0 +1,71 @@
+package com.lvwj.halo.join.support;
+
+import com.alibaba.ttl.threadpool.TtlExecutors;
+import com.lvwj.halo.common.utils.CollectionUtil;
+import com.lvwj.halo.common.utils.Exceptions;
+import com.lvwj.halo.join.JoinItemExecutor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * 异步执行器，基于 CompletableFuture 编排
+ * <p>
+ * 同一 level 的 join 并行执行，下一 level 及子级 join 在上一步完成后回调触发，线程池中没有线程阻塞等待其它任务；
+ * execute 只在调用线程等待最终结果，需要完全异步时使用 executeAsync
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 23:40
+ */
+@Slf4j
+public class AsyncJoinItemsExecutor extends AbstractJoinItemsExecutor {
+    private final Executor executor;
+
+    public AsyncJoinItemsExecutor(Class<?> dataCls,
+                                  List<JoinItemExecutor> joinItemExecutors,
+                                  Executor executor) {
+        super(dataCls, joinItemExecutors);
+        this.executor = TtlExecutors.getTtlExecutor(executor);
+    }
+
+    @Override
+    public void execute(List<Object> datas) {
+        try {
+            executeAsync(datas).join();
+        } catch (CompletionException e) {
+            throw Exceptions.unchecked(e.getCause());
+        }
+    }
+
+    public CompletableFuture<Void> executeAsync(List<Object> datas) {
+        return doExecute(getJoinItemExecutors(), datas);
+    }
+
+    private CompletableFuture<Void> doExecute(List<JoinItemExecutor> executors, List<Object> datas) {
+        CompletableFuture<Void> future = CompletableFuture.completedFuture(null);
+        if (CollectionUtil.isEmpty(executors) || CollectionUtil.isEmpty(datas)) return future;
+        for (List<JoinItemExecutor> level : JoinBatch.byLevel(executors)) {
+            future = future.thenCompose(v -> executeLevel(level, datas));
+        }
+        return future;
+    }
+
+    private CompletableFuture<Void> executeLevel(List<JoinItemExecutor> level, List<Object> datas) {
+        CompletableFuture<?>[] tasks = JoinBatch.tasks(level, datas).stream()
+                .map(task -> CompletableFuture.runAsync(task, executor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(tasks).thenCompose(v -> {
+            List<CompletableFuture<Void>> children = new ArrayList<>();
+            for (JoinItemExecutor joinItemExecutor : level) {
+                if (JoinBatch.hasChildren(joinItemExecutor)) {
+                    children.add(doExecute(joinItemExecutor.getChildren(), JoinBatch.childDatas(joinItemExecutor, datas)));
+                }
+            }
+            return CompletableFuture.allOf(children.toArray(new CompletableFuture[0]));
+        });
+    }
+}
@@ -64,6 +64,14 @@ public class DefaultJoinItemsExecutorFactory implements JoinItemsExecutorFactory
             Preconditions.checkArgument(executor != null);
             return new ParallelJoinItemsExecutor(cls, merge, executor);
         }
+
+        // 使用 异步执行器
+        if (joinInMemoryConfig.executorType() == JoinInMemoryExecutorType.ASYNC) {
+            log.info("JoinInMemory for {} use async executor, pool is {}", cls, joinInMemoryConfig.executorName());
+            ExecutorService executor = executorServiceMap.get(joinInMemoryConfig.executorName());
+            Preconditions.checkArgument(executor != null);
+            return new AsyncJoinItemsExecutor(cls, merge, executor);
+        }
         throw new IllegalArgumentException();
     }
 }
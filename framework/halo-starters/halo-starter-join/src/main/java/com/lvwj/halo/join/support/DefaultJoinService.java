@@ -23,7 +23,8 @@ public class DefaultJoinService implements JoinService {
     public void joinInMemory(Class<?> tCls, List<Object> t) {
         JoinItemsExecutor executor = this.cache.computeIfAbsent(tCls, this::createJoinExecutorGroup);
         if (null != executor) {
-            executor.execute(t);
+            // 请求作用域内相同加载器已加载的数据不再重复加载
+            JoinRequestScope.run(() -> executor.execute(t));
         }
     }
 
@@ -0,0 +1,94 @@
+package com.lvwj.halo.join.support;
+
+import com.lvwj.halo.common.utils.CollectionUtil;
+import com.lvwj.halo.join.JoinItemExecutor;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.*;
+
+/**
+ * 同一级别 join 的合并执行：joinDataLoader 及 keyFromJoinData 相同的 join 合并 key 后只调用一次加载器
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 23:35
+ */
+final class JoinBatch {
+
+    private JoinBatch() {
+    }
+
+    /**
+     * 按 level 分组，level 从小到大
+     */
+    static Collection<List<JoinItemExecutor>> byLevel(List<JoinItemExecutor> executors) {
+        Map<Integer, List<JoinItemExecutor>> levels = new TreeMap<>();
+        for (JoinItemExecutor executor : executors) {
+            levels.computeIfAbsent(executor.runOnLevel(), k -> new ArrayList<>()).add(executor);
+        }
+        return levels.values();
+    }
+
+    /**
+     * 构建同一级别的执行任务，加载器相同的 join 合并为一个任务
+     */
+    static List<Runnable> tasks(List<JoinItemExecutor> executors, List<Object> datas) {
+        List<Runnable> tasks = new ArrayList<>();
+        Map<String, List<AbstractJoinItemExecutor>> groups = new LinkedHashMap<>();
+        for (JoinItemExecutor executor : executors) {
+            String loaderKey = executor instanceof AbstractJoinItemExecutor item ? item.getLoaderKey() : null;
+            if (null == loaderKey) {
+                tasks.add(() -> executor.execute(datas));
+            } else {
+                groups.computeIfAbsent(loaderKey, k -> new ArrayList<>()).add((AbstractJoinItemExecutor) executor);
+            }
+        }
+        for (List<AbstractJoinItemExecutor> group : groups.values()) {
+            if (group.size() == 1) {
+                tasks.add(() -> group.get(0).execute(datas));
+            } else {
+                tasks.add(() -> executeGroup(group, datas));
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * 加载器相同的 join：合并 key 调用一次加载器，再各自写回
+     */
+    private static void executeGroup(List<AbstractJoinItemExecutor> group, List<Object> datas) {
+        Set<Object> joinKeys = new LinkedHashSet<>();
+        for (AbstractJoinItemExecutor executor : group) {
+            joinKeys.addAll(executor.joinKeys(datas));
+        }
+        if (joinKeys.isEmpty()) {
+            return;
+        }
+        List<Object> joinDatas = group.get(0).loadJoinData(new ArrayList<>(joinKeys));
+        for (AbstractJoinItemExecutor executor : group) {
+            executor.writeBack(datas, joinDatas);
+        }
+    }
+
+    /**
+     * 获取子级 join 的源数据，集合字段展开
+     */
+    static List<Object> childDatas(JoinItemExecutor executor, List<Object> datas) {
+        Field field = executor.getField();
+        ReflectionUtils.makeAccessible(field);
+        List<Object> list = new ArrayList<>();
+        for (Object data : datas) {
+            Object value = null == data ? null : ReflectionUtils.getField(field, data);
+            if (value instanceof Collection<?> collection) {
+                collection.stream().filter(Objects::nonNull).forEach(list::add);
+            } else if (null != value) {
+                list.add(value);
+            }
+        }
+        return list;
+    }
+
+    static boolean hasChildren(JoinItemExecutor executor) {
+        return Boolean.TRUE.equals(executor.getHasChildren()) && CollectionUtil.isNotEmpty(executor.getChildren());
+    }
+}
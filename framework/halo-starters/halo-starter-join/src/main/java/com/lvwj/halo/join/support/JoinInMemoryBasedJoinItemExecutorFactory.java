@@ -1,15 +1,11 @@
 package com.lvwj.halo.join.support;
 
+import com.lvwj.halo.core.spel.CompiledExpression;
 import com.lvwj.halo.join.JoinInMemory;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.expression.BeanResolver;
-import org.springframework.expression.EvaluationContext;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.common.TemplateParserContext;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.lang.reflect.Field;
 import java.util.Collection;
@@ -22,7 +18,6 @@ import java.util.function.Function;
  */
 @Slf4j
 public class JoinInMemoryBasedJoinItemExecutorFactory extends AbstractJoinItemExecutorFactory<JoinInMemory> {
-    private final ExpressionParser parser = new SpelExpressionParser();
     private final TemplateParserContext templateParserContext = new TemplateParserContext();
     private final BeanResolver beanResolver;
 
@@ -64,6 +59,14 @@ public class JoinInMemoryBasedJoinItemExecutorFactory extends AbstractJoinItemEx
         return new DataGetter(ann.joinDataLoader());
     }
 
+    /**
+     * 加载结果按 keyFromJoinData 索引，加载器相同但 keyFromJoinData 不同的 join 不能共享加载结果
+     */
+    @Override
+    protected String createLoaderKey(Class<?> cls, Field field, JoinInMemory ann) {
+        return ann.joinDataLoader() + "|" + ann.keyFromJoinData();
+    }
+
     @Override
     protected Function<Object, Object> createKeyFromSourceData(Class<?> cls, Field field, JoinInMemory ann) {
         log.info("Key from source data is {} for class {}, field {}",
@@ -81,11 +84,11 @@ public class JoinInMemoryBasedJoinItemExecutorFactory extends AbstractJoinItemEx
     private class DataSetter implements BiConsumer<Object, List<Object>> {
         private final String fieldName;
         private final boolean isCollection;
-        private final Expression expression;
+        private final CompiledExpression expression;
 
         private DataSetter(String fieldName, boolean isCollection) {
             this.fieldName = fieldName;
-            this.expression = parser.parseExpression(fieldName);
+            this.expression = CompiledExpression.parse(fieldName, null, beanResolver);
             this.isCollection = isCollection;
         }
 
@@ -106,15 +109,12 @@ public class JoinInMemoryBasedJoinItemExecutorFactory extends AbstractJoinItemEx
 
     private class DataGetter<T, R> implements Function<T, R> {
         private final String expStr;
-        private final Expression expression;
-        private final EvaluationContext evaluationContext;
+        private final CompiledExpression expression;
 
         private DataGetter(String expStr) {
             this.expStr = expStr;
-            this.expression = parser.parseExpression(expStr, templateParserContext);
-            StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
-            evaluationContext.setBeanResolver(beanResolver);
-            this.evaluationContext = evaluationContext;
+            // 属性路径直接读取，其它表达式编译执行
+            this.expression = CompiledExpression.parse(expStr, templateParserContext, beanResolver);
         }
 
         @Override
@@ -123,7 +123,7 @@ public class JoinInMemoryBasedJoinItemExecutorFactory extends AbstractJoinItemEx
                 return null;
             }
 
-            return expression.getValue(evaluationContext, data);
+            return expression.getValue(data);
         }
     }
 }
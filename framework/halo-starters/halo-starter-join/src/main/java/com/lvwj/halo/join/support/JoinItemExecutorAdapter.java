@@ -28,6 +28,7 @@ public class JoinItemExecutorAdapter extends AbstractJoinItemExecutor {
     private final Function<Object, Object> joinDataConverter;
     private final BiConsumer<Object, List<Object>> foundCallback;
     private final BiConsumer<Object, Object> lostCallback;
+    private final String loaderKey;
 
 
     public JoinItemExecutorAdapter(String name,
@@ -39,7 +40,8 @@ public class JoinItemExecutorAdapter extends AbstractJoinItemExecutor {
                                    Function<Object, Object> keyFromJoinData,
                                    Function<Object, Object> joinDataConverter,
                                    BiConsumer<Object, List<Object>> foundCallback,
-                                   BiConsumer<Object, Object> lostCallback) {
+                                   BiConsumer<Object, Object> lostCallback,
+                                   String loaderKey) {
         Preconditions.checkArgument(field != null);
         Preconditions.checkArgument(clazz != null);
         Preconditions.checkArgument(keyFromSourceData != null);
@@ -56,6 +58,7 @@ public class JoinItemExecutorAdapter extends AbstractJoinItemExecutor {
         this.keyFromJoinData = keyFromJoinData;
         this.joinDataConverter = joinDataConverter;
         this.foundCallback = foundCallback;
+        this.loaderKey = loaderKey;
 
         if (lostCallback != null) {
             this.lostCallback = getDefaultLostFunction().andThen(lostCallback);
@@ -70,6 +73,11 @@ public class JoinItemExecutorAdapter extends AbstractJoinItemExecutor {
         }
     }
 
+    @Override
+    protected String getLoaderKey() {
+        return this.loaderKey;
+    }
+
     @Override
     protected Object createJoinKeyFromSourceData(Object data) {
         return this.keyFromSourceData.apply(data);
@@ -0,0 +1,102 @@
+package com.lvwj.halo.join.support;
+
+import com.alibaba.ttl.TransmittableThreadLocal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 内存 Join 的请求作用域(DataLoader)
+ * <p>
+ * 作用域内相同 joinDataLoader 及 keyFromJoinData 的加载结果会被记住，再次加载时只加载未加载过的 key；
+ * DefaultJoinService 每次 join 自动开启作用域，需要在一次请求的多次 join(如嵌套的多个 DTO 列表)间共享时，在外层调用 run
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 23:30
+ */
+public final class JoinRequestScope {
+
+    private static final TransmittableThreadLocal<JoinRequestScope> CURRENT = new TransmittableThreadLocal<>();
+
+    private final Map<String, Memo> memos = new ConcurrentHashMap<>();
+
+    private JoinRequestScope() {
+    }
+
+    /**
+     * 在作用域中执行，已处于作用域中时直接执行
+     */
+    public static void run(Runnable action) {
+        run(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public static <T> T run(Supplier<T> action) {
+        if (null != CURRENT.get()) {
+            return action.get();
+        }
+        CURRENT.set(new JoinRequestScope());
+        try {
+            return action.get();
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 加载 joinData：不在作用域中或加载器无标识时直接加载，否则只加载作用域内未加载过的 key，只返回本次请求的 key 对应的数据
+     *
+     * @param keyOf 从 joinData 中获取 joinKey，用于按 key 记住加载结果
+     */
+    static List<Object> load(String loaderKey, List<Object> joinKeys, Function<List<Object>, List<Object>> loader, Function<Object, Object> keyOf) {
+        JoinRequestScope scope = CURRENT.get();
+        if (null == scope || null == loaderKey) {
+            return loader.apply(joinKeys);
+        }
+        return scope.memos.computeIfAbsent(loaderKey, k -> new Memo()).load(joinKeys, loader, keyOf);
+    }
+
+    private static final class Memo {
+        /**
+         * 已加载的 key -> joinData，未查到数据的 key 对应空列表
+         */
+        private final Map<Object, List<Object>> joinDatas = new HashMap<>();
+
+        private synchronized List<Object> load(List<Object> joinKeys, Function<List<Object>, List<Object>> loader, Function<Object, Object> keyOf) {
+            List<Object> missing = new ArrayList<>();
+            for (Object joinKey : joinKeys) {
+                if (!joinDatas.containsKey(joinKey)) {
+                    missing.add(joinKey);
+                }
+            }
+            if (!missing.isEmpty()) {
+                List<Object> loaded = loader.apply(missing);
+                for (Object joinKey : missing) {
+                    joinDatas.put(joinKey, new ArrayList<>(1));
+                }
+                if (null != loaded) {
+                    for (Object joinData : loaded) {
+                        if (null != joinData) {
+                            joinDatas.computeIfAbsent(keyOf.apply(joinData), k -> new ArrayList<>(1)).add(joinData);
+                        }
+                    }
+                }
+            }
+            List<Object> result = new ArrayList<>(joinKeys.size());
+            for (Object joinKey : joinKeys) {
+                List<Object> datas = joinDatas.get(joinKey);
+                if (null != datas) {
+                    result.addAll(datas);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.lvwj.halo.join.support;
 
+import com.alibaba.ttl.threadpool.TtlExecutors;
 import com.lvwj.halo.join.JoinItemExecutor;
 import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
@@ -26,7 +27,7 @@ public class ParallelJoinItemsExecutor extends AbstractJoinItemsExecutor {
                                      List<JoinItemExecutor> joinItemExecutors,
                                      ExecutorService executor) {
         super(dataCls, joinItemExecutors);
-        this.executor = executor;
+        this.executor = TtlExecutors.getTtlExecutorService(executor);
         this.joinExecutorWithLevel = buildJoinExecutorWithLevel();
     }
 
@@ -66,20 +67,20 @@ public class ParallelJoinItemsExecutor extends AbstractJoinItemsExecutor {
         });
     }
 
-    private List<Task> buildTasks(JoinExecutorWithLevel joinExecutorWithLevel, List datas) {
-        return joinExecutorWithLevel.getJoinItemExecutors().stream()
-                .map(joinExecutor -> new Task(joinExecutor, datas))
+    private List<Task> buildTasks(JoinExecutorWithLevel joinExecutorWithLevel, List<Object> datas) {
+        // 加载器相同的 join 合并为一个任务
+        return JoinBatch.tasks(joinExecutorWithLevel.getJoinItemExecutors(), datas).stream()
+                .map(Task::new)
                 .collect(Collectors.toList());
     }
 
     @Value
     class Task implements Callable<Void> {
-        private final JoinItemExecutor joinItemExecutor;
-        private final List datas;
+        private final Runnable runnable;
 
         @Override
         public Void call() throws Exception {
-            this.joinItemExecutor.execute(this.datas);
+            this.runnable.run();
             return null;
         }
     }
@@ -3,12 +3,8 @@ package com.lvwj.halo.join.support;
 import com.lvwj.halo.common.utils.CollectionUtil;
 import com.lvwj.halo.join.JoinItemExecutor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.util.ReflectionUtils;
 
-import java.lang.reflect.Field;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Slf4j
 public class SerialJoinItemsExecutor extends AbstractJoinItemsExecutor {
@@ -23,20 +19,14 @@ public class SerialJoinItemsExecutor extends AbstractJoinItemsExecutor {
 
     private void doExecute(List<JoinItemExecutor> executors, List<Object> datas) {
         if (CollectionUtil.isEmpty(executors) || CollectionUtil.isEmpty(datas)) return;
-        for (JoinItemExecutor executor : executors) {
-            executor.execute(datas);
-            if (executor.getHasChildren()) {
-                List<Object> list = datas.stream().map(s -> getFieldValue(executor.getField(), s))
-                        .filter(Objects::nonNull).collect(Collectors.toList());
-                doExecute(executor.getChildren(), list);
+        // 同一级别加载器相同的 join 合并执行
+        for (List<JoinItemExecutor> level : JoinBatch.byLevel(executors)) {
+            JoinBatch.tasks(level, datas).forEach(Runnable::run);
+            for (JoinItemExecutor executor : level) {
+                if (JoinBatch.hasChildren(executor)) {
+                    doExecute(executor.getChildren(), JoinBatch.childDatas(executor, datas));
+                }
             }
         }
     }
-
-    private Object getFieldValue(Field field, Object obj) {
-        if (!field.isAccessible()) {
-            field.setAccessible(true);
-        }
-        return ReflectionUtils.getField(field, obj);
-    }
 }
@@ -0,0 +1,105 @@
+package com.lvwj.halo.join.support;
+
+import com.lvwj.halo.join.JoinInMemory;
+import org.junit.jupiter.api.Test;
+import org.springframework.expression.BeanResolver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 基于注解的内存 join 测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 13:40
+ */
+class JoinInMemoryBasedJoinItemExecutorFactoryTest {
+
+    private final UserLoader userLoader = new UserLoader();
+    private final BeanResolver beanResolver = (context, beanName) -> userLoader;
+    private final JoinInMemoryBasedJoinItemExecutorFactory factory = new JoinInMemoryBasedJoinItemExecutorFactory(beanResolver);
+
+    @Test
+    void loaderKeyIncludesKeyFromJoinData() {
+        List<AbstractJoinItemExecutor> executors = executors();
+
+        assertNotEquals(executors.get(0).getLoaderKey(), executors.get(1).getLoaderKey());
+    }
+
+    @Test
+    void sameLoaderWithDifferentJoinKeysWritesBackEachField() {
+        List<Object> orders = List.of(new OrderVO(1L, "bob"), new OrderVO(2L, "tom"));
+
+        JoinRequestScope.run(() -> {
+            new SerialJoinItemsExecutor(OrderVO.class, new ArrayList<>(factory.createForType(OrderVO.class))).execute(orders);
+            //作用域内再次 join 复用已加载的数据，两个字段仍各自按自己的 key 匹配
+            new SerialJoinItemsExecutor(OrderVO.class, new ArrayList<>(factory.createForType(OrderVO.class))).execute(orders);
+        });
+
+        OrderVO first = (OrderVO) orders.get(0);
+        OrderVO second = (OrderVO) orders.get(1);
+        assertEquals("jerry", first.buyer.name);
+        assertEquals("bob", first.seller.name);
+        assertEquals(2L, second.buyer.id);
+        assertEquals("tom", second.seller.name);
+        assertEquals(2, userLoader.calls);
+    }
+
+    @Test
+    void missingJoinDataLeavesFieldEmpty() {
+        OrderVO order = new OrderVO(9L, "nobody");
+
+        JoinRequestScope.run(() -> new SerialJoinItemsExecutor(OrderVO.class, new ArrayList<>(factory.createForType(OrderVO.class))).execute(List.of(order)));
+
+        assertNull(order.buyer);
+        assertNull(order.seller);
+    }
+
+    private List<AbstractJoinItemExecutor> executors() {
+        return factory.createForType(OrderVO.class).stream().map(AbstractJoinItemExecutor.class::cast).toList();
+    }
+
+    public static class UserLoader {
+        private static final List<User> USERS = List.of(new User(1L, "jerry"), new User(2L, "tom"), new User(3L, "bob"));
+
+        private int calls;
+
+        /**
+         * 按 id 或 name 查询用户
+         */
+        public List<User> find(List<Object> keys) {
+            calls++;
+            return USERS.stream().filter(user -> keys.contains(user.id) || keys.contains(user.name)).toList();
+        }
+    }
+
+    public static class OrderVO {
+        public Long buyerId;
+        public String sellerName;
+
+        @JoinInMemory(keyFromSourceData = "#{buyerId}", keyFromJoinData = "#{id}", joinDataLoader = "#{@userLoader.find(#root)}")
+        public User buyer;
+
+        @JoinInMemory(keyFromSourceData = "#{sellerName}", keyFromJoinData = "#{name}", joinDataLoader = "#{@userLoader.find(#root)}")
+        public User seller;
+
+        OrderVO(Long buyerId, String sellerName) {
+            this.buyerId = buyerId;
+            this.sellerName = sellerName;
+        }
+    }
+
+    public static class User {
+        public Long id;
+        public String name;
+
+        User(Long id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+    }
+}
@@ -14,5 +14,24 @@ import java.lang.annotation.Target;
 @Target({ElementType.METHOD, ElementType.FIELD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface LazyLoad {
+    /**
+     * 加载单个对象属性的表达式，根对象为当前对象
+     */
     String value();
+
+    /**
+     * 批量加载表达式，根对象为同一批对象的 key 集合，例如：#{@customerService.listByIds(#root)}
+     * 配置后，一起创建的代理对象首次访问该属性时一次加载整批对象的属性
+     */
+    String batchLoader() default "";
+
+    /**
+     * 从当前对象中提取 key，例如：customerId
+     */
+    String keyFromSource() default "";
+
+    /**
+     * 从加载的数据中提取 key
+     */
+    String keyFromData() default "id";
 }
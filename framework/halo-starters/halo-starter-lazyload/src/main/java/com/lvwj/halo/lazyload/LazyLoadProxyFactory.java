@@ -1,5 +1,8 @@
 package com.lvwj.halo.lazyload;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 /**
  * 懒加载代理工厂
  *
@@ -8,4 +11,14 @@ package com.lvwj.halo.lazyload;
  */
 public interface LazyLoadProxyFactory {
     <T> T createProxyFor(T t);
+
+    /**
+     * 批量创建代理，同一批代理共享批量加载上下文，首次访问属性时整批一次加载
+     */
+    default <T> List<T> createProxyFor(List<T> list) {
+        if (null == list) {
+            return null;
+        }
+        return list.stream().map(this::createProxyFor).collect(Collectors.toList());
+    }
 }
@@ -4,6 +4,10 @@ import com.lvwj.halo.lazyload.LazyLoadProxyFactory;
 import org.apache.commons.lang3.ClassUtils;
 
 import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 懒加载代理工厂
@@ -14,20 +18,50 @@ import java.lang.reflect.Modifier;
 public abstract class AbstractLazyLoadProxyFactory implements LazyLoadProxyFactory {
     @Override
     public <T> T createProxyFor(T t) {
-        if (t == null){
+        if (!isProxyable(t)){
+            return t;
+        }
+        return createProxyFor(t.getClass(), t);
+    }
+
+    @Override
+    public <T> List<T> createProxyFor(List<T> list) {
+        if (list == null){
             return null;
         }
+        // 同一类型的对象共享一个批量加载上下文
+        Map<Class<?>, LazyLoadBatch> batches = new HashMap<>();
+        for (T t : list) {
+            if (isProxyable(t)) {
+                batches.computeIfAbsent(t.getClass(), k -> new LazyLoadBatch()).add(t);
+            }
+        }
+        List<T> result = new ArrayList<>(list.size());
+        for (T t : list) {
+            result.add(isProxyable(t) ? createProxyFor(t.getClass(), t, batches.get(t.getClass())) : t);
+        }
+        return result;
+    }
+
+    private boolean isProxyable(Object t) {
+        if (t == null){
+            return false;
+        }
         // 基础类型直接返回
         Class<?> cls = t.getClass();
         if (ClassUtils.isPrimitiveOrWrapper(cls)){
-            return t;
+            return false;
         }
         // 跳过 final 类
-        if (Modifier.isFinal(cls.getModifiers())){
-            return t;
-        }
-        return createProxyFor(cls, t);
+        return !Modifier.isFinal(cls.getModifiers());
     }
 
     protected abstract <T> T createProxyFor(Class<?> cls, T t);
+
+    /**
+     * 创建共享批量加载上下文的代理，默认不支持批量加载
+     */
+    protected <T> T createProxyFor(Class<?> cls, T t, LazyLoadBatch batch) {
+        return createProxyFor(cls, t);
+    }
 }
@@ -3,6 +3,9 @@ package com.lvwj.halo.lazyload.core;
 import com.lvwj.halo.lazyload.LazyLoadProxyFactory;
 import org.springframework.context.ApplicationContext;
 
+import java.util.List;
+import java.util.Objects;
+
 /**
  * 懒加载代理工厂
  *
@@ -25,4 +28,12 @@ public class AutowireLazyLoadProxyFactoryWrapper implements LazyLoadProxyFactory
         }
         return lazyLoadProxyFactory.createProxyFor(t);
     }
+
+    @Override
+    public <T> List<T> createProxyFor(List<T> list) {
+        if (list != null){
+            list.stream().filter(Objects::nonNull).forEach(t -> applicationContext.getAutowireCapableBeanFactory().autowireBean(t));
+        }
+        return lazyLoadProxyFactory.createProxyFor(list);
+    }
 }
\ No newline at end of file
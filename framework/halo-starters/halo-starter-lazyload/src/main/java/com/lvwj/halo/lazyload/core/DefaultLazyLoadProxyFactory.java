@@ -1,10 +1,35 @@
 package com.lvwj.halo.lazyload.core;
 
+import com.lvwj.halo.common.utils.BeanUtil;
 import com.lvwj.halo.lazyload.LazyLoadProxyFactory;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.Dispatcher;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.Factory;
+import org.springframework.cglib.proxy.MethodInterceptor;
+import org.springframework.objenesis.SpringObjenesis;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 懒加载代理工厂
+ * <p>
+ * 按类生成一次子类代理：懒加载属性的 getter 走 LazyLoadMethodInterceptor，其它方法直接分派到目标对象；
+ * 无法生成子类代理时退回 Spring AOP 代理
+ */
+@Slf4j
 public class DefaultLazyLoadProxyFactory extends AbstractLazyLoadProxyFactory implements LazyLoadProxyFactory {
+    private static final int DISPATCH = 0;
+    private static final int INTERCEPT = 1;
+
     private final LazyLoadInterceptorFactory lazyLoadInterceptorFactory;
+    private final SpringObjenesis objenesis = new SpringObjenesis();
+    private final Map<Class<?>, Class<?>> proxyClassCache = new ConcurrentHashMap<>();
 
     public DefaultLazyLoadProxyFactory(LazyLoadInterceptorFactory lazyLoadInterceptorFactory) {
         this.lazyLoadInterceptorFactory = lazyLoadInterceptorFactory;
@@ -12,9 +37,45 @@ public class DefaultLazyLoadProxyFactory extends AbstractLazyLoadProxyFactory im
 
     @Override
     protected <T> T createProxyFor(Class<?> cls, T t) {
-        ProxyFactory proxyFactory = new ProxyFactory();
-        proxyFactory.setTarget(t);
-        proxyFactory.addAdvice(this.lazyLoadInterceptorFactory.createFor(cls, t));
-        return (T)proxyFactory.getProxy();
+        return createProxyFor(cls, t, null);
+    }
+
+    @Override
+    protected <T> T createProxyFor(Class<?> cls, T t, LazyLoadBatch batch) {
+        Map<String, PropertyLazyLoader> loaders = this.lazyLoadInterceptorFactory.getLoaders(cls);
+        // 没有懒加载属性无需代理
+        if (loaders.isEmpty()) {
+            return t;
+        }
+        try {
+            Class<?> proxyClass = this.proxyClassCache.computeIfAbsent(cls, k -> createProxyClass(k, loaders));
+            Object proxy = this.objenesis.newInstance(proxyClass, false);
+            ((Factory) proxy).setCallbacks(new Callback[]{
+                    (Dispatcher) () -> t,
+                    new LazyLoadMethodInterceptor(loaders, t, batch)
+            });
+            return (T) proxy;
+        } catch (Exception e) {
+            log.warn("create subclass lazy load proxy for {} failed, fallback to aop proxy", cls, e);
+            ProxyFactory proxyFactory = new ProxyFactory();
+            proxyFactory.setTarget(t);
+            proxyFactory.addAdvice(this.lazyLoadInterceptorFactory.createFor(cls, t));
+            return (T) proxyFactory.getProxy();
+        }
+    }
+
+    private Class<?> createProxyClass(Class<?> cls, Map<String, PropertyLazyLoader> loaders) {
+        Enhancer enhancer = new Enhancer();
+        enhancer.setSuperclass(cls);
+        enhancer.setClassLoader(cls.getClassLoader());
+        enhancer.setNamingPolicy(SpringNamingPolicy.INSTANCE);
+        enhancer.setUseCache(false);
+        enhancer.setCallbackFilter(method -> isLazyGetter(method, loaders) ? INTERCEPT : DISPATCH);
+        enhancer.setCallbackTypes(new Class[]{Dispatcher.class, MethodInterceptor.class});
+        return enhancer.createClass();
+    }
+
+    private boolean isLazyGetter(Method method, Map<String, PropertyLazyLoader> loaders) {
+        return BeanUtil.isGetter(method) && loaders.containsKey(BeanUtil.getPropertyName(method));
     }
-}
\ No newline at end of file
+}
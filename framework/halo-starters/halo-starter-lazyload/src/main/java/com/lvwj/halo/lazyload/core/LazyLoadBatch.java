@@ -0,0 +1,37 @@
+package com.lvwj.halo.lazyload.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 批量懒加载上下文：一起创建的同类型代理共享，同一属性整批只加载一次
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 00:20
+ */
+public class LazyLoadBatch {
+    private final List<Object> targets = new ArrayList<>();
+    private final Map<String, Object> loaded = new ConcurrentHashMap<>();
+
+    void add(Object target) {
+        targets.add(target);
+    }
+
+    /**
+     * 整批加载属性，已加载过的属性直接返回
+     */
+    void load(PropertyLazyLoader loader) {
+        String property = loader.getField().getName();
+        if (loaded.containsKey(property)) {
+            return;
+        }
+        synchronized (loaded) {
+            if (!loaded.containsKey(property)) {
+                loader.loadBatch(targets);
+                loaded.put(property, Boolean.TRUE);
+            }
+        }
+    }
+}
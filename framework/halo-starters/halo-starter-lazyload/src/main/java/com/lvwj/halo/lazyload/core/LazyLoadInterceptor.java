@@ -3,7 +3,6 @@ package com.lvwj.halo.lazyload.core;
 import com.lvwj.halo.common.utils.BeanUtil;
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
-import org.apache.commons.lang3.reflect.FieldUtils;
 import org.springframework.aop.ProxyMethodInvocation;
 import org.springframework.cglib.proxy.InvocationHandler;
 
@@ -45,7 +44,7 @@ public class LazyLoadInterceptor implements InvocationHandler, MethodInterceptor
             if (propertyLazyLoader != null) {
                 data = propertyLazyLoader.loadData(o);
                 if (data != null) {
-                    FieldUtils.writeField(target, propertyName, data, true);
+                    propertyLazyLoader.writeData(target, data);
                 }
             }
         }
@@ -18,7 +18,7 @@ import static java.util.stream.Collectors.toMap;
  * @date 2023年11月04日 14:56
  */
 public class LazyLoadInterceptorFactory {
-    private final Map<Class<?>, Map<String, PropertyLazyLoader>> loaderCache = Maps.newHashMap();
+    private final Map<Class<?>, Map<String, PropertyLazyLoader>> loaderCache = Maps.newConcurrentMap();
     private final PropertyLazyLoaderFactory propertyLazyLoaderFactory;
 
     public LazyLoadInterceptorFactory(PropertyLazyLoaderFactory propertyLazyLoaderFactory) {
@@ -27,8 +27,14 @@ public class LazyLoadInterceptorFactory {
 
 
     public LazyLoadInterceptor createFor(Class<?> cls, Object target){
-        Map<String, PropertyLazyLoader>  loaders = this.loaderCache.computeIfAbsent(cls, this::createForClass);
-        return new LazyLoadInterceptor(loaders, target);
+        return new LazyLoadInterceptor(getLoaders(cls), target);
+    }
+
+    /**
+     * 类的懒加载属性，key 为属性名
+     */
+    public Map<String, PropertyLazyLoader> getLoaders(Class<?> cls) {
+        return this.loaderCache.computeIfAbsent(cls, this::createForClass);
     }
 
     private Map<String, PropertyLazyLoader> createForClass(Class<?> targetCls) {
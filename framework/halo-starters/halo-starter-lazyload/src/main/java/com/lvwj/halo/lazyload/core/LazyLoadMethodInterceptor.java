@@ -0,0 +1,49 @@
+package com.lvwj.halo.lazyload.core;
+
+import com.lvwj.halo.common.utils.BeanUtil;
+import org.springframework.cglib.proxy.MethodInterceptor;
+import org.springframework.cglib.proxy.MethodProxy;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+/**
+ * 子类代理的懒加载拦截器，只拦截懒加载属性的 getter
+ * <p>
+ * 通过 MethodProxy 直接调用目标对象；属性为空时，有批量加载上下文则整批加载，否则单个加载
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 00:25
+ */
+public class LazyLoadMethodInterceptor implements MethodInterceptor {
+    private final Map<String, PropertyLazyLoader> lazyLoaderCache;
+    private final Object target;
+    private final LazyLoadBatch batch;
+
+    public LazyLoadMethodInterceptor(Map<String, PropertyLazyLoader> lazyLoaderCache, Object target, LazyLoadBatch batch) {
+        this.lazyLoaderCache = lazyLoaderCache;
+        this.target = target;
+        this.batch = batch;
+    }
+
+    @Override
+    public Object intercept(Object proxy, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
+        Object data = methodProxy.invoke(target, args);
+        if (null != data) {
+            return data;
+        }
+        PropertyLazyLoader propertyLazyLoader = this.lazyLoaderCache.get(BeanUtil.getPropertyName(method));
+        if (propertyLazyLoader == null) {
+            return null;
+        }
+        if (null != batch && propertyLazyLoader.isBatch()) {
+            batch.load(propertyLazyLoader);
+            return methodProxy.invoke(target, args);
+        }
+        data = propertyLazyLoader.loadData(proxy);
+        if (data != null) {
+            propertyLazyLoader.writeData(target, data);
+        }
+        return data;
+    }
+}
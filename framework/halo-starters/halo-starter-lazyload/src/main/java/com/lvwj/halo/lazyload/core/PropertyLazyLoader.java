@@ -1,14 +1,19 @@
 package com.lvwj.halo.lazyload.core;
 
+import com.lvwj.halo.common.utils.Exceptions;
+import com.lvwj.halo.core.spel.CompiledExpression;
 import lombok.Getter;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.expression.BeanResolver;
-import org.springframework.expression.Expression;
-import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.common.TemplateParserContext;
-import org.springframework.expression.spel.standard.SpelExpressionParser;
-import org.springframework.expression.spel.support.StandardEvaluationContext;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.util.*;
+
+import static java.util.stream.Collectors.groupingBy;
 
 
 /**
@@ -20,18 +25,103 @@ import java.lang.reflect.Field;
 public class PropertyLazyLoader {
     @Getter
     private final Field field;
-    private final StandardEvaluationContext evaluationContext;
-    private final Expression expression;
+    private final CompiledExpression expression;
+    private final CompiledExpression batchExpression;
+    private final CompiledExpression keyFromSource;
+    private final CompiledExpression keyFromData;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
 
     public PropertyLazyLoader(Field field, BeanResolver beanResolver, String loadEl){
+        this(field, beanResolver, loadEl, null, null, null);
+    }
+
+    public PropertyLazyLoader(Field field, BeanResolver beanResolver, String loadEl, String batchLoadEl, String keyFromSource, String keyFromData){
         this.field = field;
-        ExpressionParser parser = new SpelExpressionParser();
         TemplateParserContext templateParserContext = new TemplateParserContext();
-        this.expression = parser.parseExpression(loadEl, templateParserContext);
-        this.evaluationContext = new StandardEvaluationContext();
-        this.evaluationContext.setBeanResolver(beanResolver);
+        this.expression = CompiledExpression.parse(loadEl, templateParserContext, beanResolver);
+        boolean batch = StringUtils.isNotBlank(batchLoadEl) && StringUtils.isNotBlank(keyFromSource) && StringUtils.isNotBlank(keyFromData);
+        this.batchExpression = batch ? CompiledExpression.parse(batchLoadEl, templateParserContext, beanResolver) : null;
+        this.keyFromSource = batch ? CompiledExpression.parse(keyFromSource, null, beanResolver) : null;
+        this.keyFromData = batch ? CompiledExpression.parse(keyFromData, null, beanResolver) : null;
+        try {
+            field.setAccessible(true);
+            this.getter = MethodHandles.lookup().unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+            this.setter = MethodHandles.lookup().unreflectSetter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw Exceptions.unchecked(e);
+        }
     }
+
     public Object loadData(Object o) {
-        return expression.getValue(evaluationContext, o);
+        return expression.getValue(o);
+    }
+
+    /**
+     * 是否配置了批量加载
+     */
+    public boolean isBatch() {
+        return null != batchExpression;
+    }
+
+    /**
+     * 批量加载：对属性为空的对象提取 key，一次加载后按 key 写回
+     */
+    public void loadBatch(List<Object> targets) {
+        Map<Object, List<Object>> keyTargets = new LinkedHashMap<>();
+        for (Object target : targets) {
+            if (null == readData(target)) {
+                Object key = keyFromSource.getValue(target);
+                if (null != key) {
+                    keyTargets.computeIfAbsent(key, k -> new ArrayList<>()).add(target);
+                }
+            }
+        }
+        if (keyTargets.isEmpty()) {
+            return;
+        }
+        Object loaded = batchExpression.getValue(new ArrayList<>(keyTargets.keySet()));
+        if (!(loaded instanceof Collection<?> datas) || datas.isEmpty()) {
+            return;
+        }
+        Map<Object, List<Object>> dataMap = datas.stream().filter(Objects::nonNull).collect(groupingBy(keyFromData::getValue));
+        for (Map.Entry<Object, List<Object>> entry : keyTargets.entrySet()) {
+            Object data = convert(dataMap.get(entry.getKey()));
+            if (null != data) {
+                for (Object target : entry.getValue()) {
+                    writeData(target, data);
+                }
+            }
+        }
+    }
+
+    public Object readData(Object target) {
+        try {
+            return getter.invokeExact(target);
+        } catch (Throwable e) {
+            throw Exceptions.unchecked(e);
+        }
+    }
+
+    public void writeData(Object target, Object data) {
+        try {
+            setter.invokeExact(target, data);
+        } catch (Throwable e) {
+            throw Exceptions.unchecked(e);
+        }
+    }
+
+    private Object convert(List<Object> datas) {
+        if (null == datas || datas.isEmpty()) {
+            return null;
+        }
+        Class<?> type = field.getType();
+        if (type.isAssignableFrom(ArrayList.class)) {
+            return new ArrayList<>(datas);
+        }
+        if (type.isAssignableFrom(LinkedHashSet.class)) {
+            return new LinkedHashSet<>(datas);
+        }
+        return datas.get(0);
     }
 }
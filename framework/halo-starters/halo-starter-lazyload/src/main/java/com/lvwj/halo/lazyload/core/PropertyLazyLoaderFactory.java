@@ -51,6 +51,7 @@ public class PropertyLazyLoaderFactory {
             }
         }
 
-        return new PropertyLazyLoader(field, new BeanFactoryResolver(this.applicationContext), targetEl);
+        return new PropertyLazyLoader(field, new BeanFactoryResolver(this.applicationContext), targetEl,
+                lazyLoad.batchLoader(), lazyLoad.keyFromSource(), lazyLoad.keyFromData());
     }
 }
@@ -0,0 +1,44 @@
+package com.lvwj.halo.mybatisplus.config;
+
+import com.lvwj.halo.core.domain.event.IEventBus;
+import com.lvwj.halo.core.domain.event.IEventStorage;
+import com.lvwj.halo.mybatisplus.config.prop.MybatisPlusExtProperties;
+import com.lvwj.halo.mybatisplus.outbox.EventOutboxMapper;
+import com.lvwj.halo.mybatisplus.outbox.EventOutboxRelay;
+import com.lvwj.halo.mybatisplus.outbox.MybatisPlusEventStorage;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.mapper.MapperFactoryBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * 集成事件发件箱配置，建表语句见 META-INF/sql/halo_event_outbox.sql；只有isOutbox()返回true的集成事件经发件箱投递
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 21:55
+ */
+@AutoConfiguration(after = MybatisPlusExtConfiguration.class)
+@ConditionalOnProperty(prefix = MybatisPlusExtProperties.PREFIX + ".outbox", name = "enabled", havingValue = "true")
+public class EventOutboxConfiguration {
+
+    @Bean
+    public MapperFactoryBean<EventOutboxMapper> eventOutboxMapper(SqlSessionFactory sqlSessionFactory) {
+        MapperFactoryBean<EventOutboxMapper> factoryBean = new MapperFactoryBean<>(EventOutboxMapper.class);
+        factoryBean.setSqlSessionFactory(sqlSessionFactory);
+        return factoryBean;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public EventOutboxRelay eventOutboxRelay(EventOutboxMapper eventOutboxMapper, MybatisPlusExtProperties properties, ObjectProvider<IEventBus> eventBus) {
+        return new EventOutboxRelay(eventOutboxMapper, properties.getOutbox(), eventBus::getObject);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public IEventStorage eventStorage(EventOutboxMapper eventOutboxMapper, EventOutboxRelay eventOutboxRelay) {
+        return new MybatisPlusEventStorage(eventOutboxMapper, eventOutboxRelay);
+    }
+}
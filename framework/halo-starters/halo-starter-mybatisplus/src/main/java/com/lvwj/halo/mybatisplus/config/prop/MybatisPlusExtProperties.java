@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -37,6 +38,16 @@ public class MybatisPlusExtProperties {
    */
   private BlockAttack blockAttack = new BlockAttack();
 
+  /**
+   * 集成事件发件箱
+   */
+  private Outbox outbox = new Outbox();
+
+  /**
+   * 关联实体(@JoinEntity)加载
+   */
+  private Join join = new Join();
+
 
   @Setter
   @Getter
@@ -49,4 +60,79 @@ public class MybatisPlusExtProperties {
      */
     private List<String> ignoreTables = new ArrayList<>();
   }
+
+  @Setter
+  @Getter
+  public static class Outbox {
+
+    /**
+     * 是否启用发件箱：集成事件与聚合同一事务落库，由转发器投递
+     */
+    private boolean enabled = false;
+
+    /**
+     * 每批领取的事件数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 轮询间隔
+     */
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    /**
+     * 领取租约时间，超时未确认的事件可被重新领取
+     */
+    private Duration leaseTime = Duration.ofSeconds(30);
+
+    /**
+     * 最大重试次数
+     */
+    private int maxRetry = 16;
+
+    /**
+     * 已发送事件保留时间
+     */
+    private Duration retention = Duration.ofDays(7);
+  }
+
+  @Setter
+  @Getter
+  public static class Join {
+
+    /**
+     * 同一层的关联字段是否并行加载(存在事务时始终串行)
+     */
+    private boolean parallel = true;
+
+    /**
+     * 并行加载线程数
+     */
+    private int threads = Runtime.getRuntime().availableProcessors() * 2;
+
+    /**
+     * 并行加载线程池队列容量
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * IN查询每批的主键数
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * 走本地缓存的热点引用表实体类名(仅primaryKey关联且无额外条件时生效)，缓存的实体为共享对象，只适用于只读数据
+     */
+    private List<String> cacheTypes = new ArrayList<>();
+
+    /**
+     * 本地缓存最大条数
+     */
+    private long cacheMaxSize = 10000;
+
+    /**
+     * 本地缓存过期时间
+     */
+    private Duration cacheTtl = Duration.ofMinutes(10);
+  }
 }
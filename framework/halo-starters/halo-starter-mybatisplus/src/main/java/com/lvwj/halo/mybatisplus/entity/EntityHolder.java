@@ -1,19 +1,20 @@
 package com.lvwj.halo.mybatisplus.entity;
 
 import com.baomidou.mybatisplus.annotation.FieldStrategy;
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
 import com.baomidou.mybatisplus.core.metadata.TableInfo;
 import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
 import com.baomidou.mybatisplus.core.toolkit.ReflectionKit;
-import com.baomidou.mybatisplus.core.toolkit.Wrappers;
 import com.baomidou.mybatisplus.core.toolkit.sql.StringEscape;
 import com.lvwj.halo.common.models.entity.IEntity;
 import com.lvwj.halo.common.utils.*;
+import com.lvwj.halo.core.track.impl.EntityMeta;
 import com.lvwj.halo.mybatisplus.annotation.JoinEntity;
+import com.lvwj.halo.mybatisplus.config.prop.MybatisPlusExtProperties;
 import com.lvwj.halo.mybatisplus.mapper.CustomMapper;
 import jakarta.annotation.PostConstruct;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ClassUtils;
@@ -23,6 +24,9 @@ import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
@@ -30,8 +34,6 @@ import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
-import static java.util.stream.Collectors.groupingBy;
-
 /**
  * 数据实体容器
  *
@@ -46,15 +48,26 @@ public class EntityHolder {
    */
   private static final Map<Class<?>, CustomMapper<? extends IEntity<?>>> MapperMap = new HashMap<>();
   /**
-   * entity class - fields
+   * entity class - fields meta
+   */
+  private static final Map<Class<?>, TableMeta> MetaMap = new HashMap<>();
+
+  /**
+   * 关联实体加载器
    */
-  private static final Map<Class<?>, List<EntityField>> FieldMap = new HashMap<>();
+  private static EntityJoinLoader JoinLoader = new EntityJoinLoader(new MybatisPlusExtProperties.Join());
 
   @Autowired(required = false)
   private List<CustomMapper<? extends IEntity<?>>> mappers;
 
+  @Autowired(required = false)
+  private MybatisPlusExtProperties properties;
+
   @PostConstruct
   public void init() {
+    if (null != properties) {
+      JoinLoader = new EntityJoinLoader(properties.getJoin());
+    }
     if (CollectionUtils.isEmpty(mappers)) {
       return;
     }
@@ -68,7 +81,7 @@ public class EntityHolder {
       MapperMap.put(cls, mapper);
 
       Map<Field, TableFieldInfo> fieldInfoMap = tableInfo.getFieldList().stream().collect(Collectors.toMap(TableFieldInfo::getField, Function.identity()));
-      FieldMap.put(cls, ReflectionKit.getFieldList(cls).stream().map(s -> new EntityField(cls, s, fieldInfoMap.get(s))).collect(Collectors.toList()));
+      MetaMap.put(cls, new TableMeta(ReflectionKit.getFieldList(cls).stream().map(s -> new EntityField(cls, s, fieldInfoMap.get(s))).collect(Collectors.toList())));
     }
   }
 
@@ -147,15 +160,39 @@ public class EntityHolder {
     if (!StringUtils.hasLength(fieldName)) {
       return null;
     }
-    return getEntityFields(entityClass).stream().filter(s -> s.matchName(fieldName)).findFirst().orElse(null);
+    TableMeta meta = MetaMap.get(entityClass);
+    return null == meta ? null : meta.fieldIndex.get(fieldName);
   }
 
+  /**
+   * 获取数据实体所有字段，返回副本，调用方可修改
+   */
   public static List<EntityField> getEntityFields(Class<?> entityClass) {
-    return FieldMap.getOrDefault(entityClass, new ArrayList<>());
+    TableMeta meta = MetaMap.get(entityClass);
+    return null == meta ? new ArrayList<>() : new ArrayList<>(meta.fields);
   }
 
+  /**
+   * 获取数据实体的关联字段，返回副本，调用方可修改
+   */
   public static List<EntityField> getEntityJoinFields(Class<?> entityClass) {
-    return getEntityFields(entityClass).stream().filter(EntityField::isJoinEntity).collect(Collectors.toList());
+    return new ArrayList<>(joinFields(entityClass));
+  }
+
+  /**
+   * 关联字段的只读视图，供内部按实体遍历时使用，避免每次复制
+   */
+  static List<EntityField> joinFields(Class<?> entityClass) {
+    TableMeta meta = MetaMap.get(entityClass);
+    return null == meta ? Collections.emptyList() : meta.joinFields;
+  }
+
+  /**
+   * 获取数据实体的版本号字段，不存在时返回null
+   */
+  public static EntityField getVersionField(Class<?> entityClass) {
+    TableMeta meta = MetaMap.get(entityClass);
+    return null == meta ? null : meta.versionField;
   }
 
   /**
@@ -165,7 +202,7 @@ public class EntityHolder {
    * @date 2022-12-25 19:56
    */
   public static boolean hasVersionField(Class<?> entityClass) {
-    return getEntityFields(entityClass).stream().anyMatch(s -> s.matchName(VERSION));
+    return null != getVersionField(entityClass);
   }
 
   /**
@@ -175,71 +212,10 @@ public class EntityHolder {
    * @date 2022-12-25 19:56
    */
   public static void joinEntity(Class<?> clazz, List<IEntity<?>> entities) {
-    //获取数据实体下有加@JoinEntity的字段
-    List<EntityField> fieldList = getEntityJoinFields(clazz);
-    if (CollectionUtils.isEmpty(fieldList)) {
+    if (joinFields(clazz).isEmpty()) {
       return;
     }
-
-    //循环处理加@JoinEntity的字段
-    for (EntityField entityField : fieldList) {
-      Class<?> fieldActualType = entityField.getFieldActualType();//字段实际类型
-      String primaryKey = entityField.getJoinEntity().primaryKey().trim();
-      String foreignKey = entityField.getJoinEntity().foreignKey().trim();
-      String extraCondition = parseExtraCondition(fieldActualType, entityField.getJoinEntity().extraCondition().trim(), entities);
-
-      //获取primaryKey集合
-      Set<Object> pks = entities.stream().map(entityField::getPrimaryKeyValue).filter(Func::isNotEmpty).collect(Collectors.toSet());
-      if (Func.isEmpty(pks)) continue;
-      QueryWrapper<IEntity<?>> query = Wrappers.query();
-      if (pks.size() > 1) {
-        query.in(StringUtils.hasLength(primaryKey), "id", pks);
-        query.in(StringUtils.hasLength(foreignKey), getColumnName(fieldActualType, foreignKey), pks);
-      } else {
-        query.eq(StringUtils.hasLength(primaryKey), "id", pks.iterator().next());
-        query.eq(StringUtils.hasLength(foreignKey), getColumnName(fieldActualType, foreignKey), pks.iterator().next());
-      }
-      if (Func.isNotEmpty(extraCondition)) {
-        query.last(extraCondition);
-      }
-      //根据fieldActualType定位到对应mapper接口，获取关联数据集合
-      List<IEntity<?>> list = getMapper(fieldActualType).selectList(query);
-      if (CollectionUtils.isEmpty(list)) {
-        continue;
-      }
-
-      //注解@JoinEntity的primaryKey有值，说明当前实体和关联实体是一对一关系 或 多对一关系
-      if (StringUtils.hasLength(primaryKey)) {
-        Map<Object, IEntity<?>> subMap = list.stream().collect(Collectors.toMap(IEntity::getId, Function.identity(), (o, n) -> n));
-        for (IEntity<?> entity : entities) {
-          Object primaryKeyValue = entityField.getPrimaryKeyValue(entity);
-          if (null != primaryKeyValue) {
-            entityField.setFieldValue(entity, subMap.get(primaryKeyValue));
-          }
-        }
-      }
-
-      //注解@JoinEntity的foreignKey有值，说明当前实体和关联实体是一对一关系 或 一对多关系
-      if (StringUtils.hasLength(foreignKey)) {
-        Map<Object, List<IEntity<?>>> subMap = list.stream().collect(groupingBy(s -> getFieldValue(s, foreignKey)));
-        for (IEntity<?> entity : entities) {
-          Object fieldValue = getFieldValue(entity, foreignKey);
-          Object fk = foreignKey.equals("id") || null == fieldValue ? entity.getId() : fieldValue;
-          if (entityField.isListType()) {
-            entityField.setFieldValue(entity, subMap.get(fk));
-          } else if (entityField.isSetType()) {
-            Set<Object> set = new HashSet<>(subMap.get(fk));
-            entityField.setFieldValue(entity, set);
-          } else {
-            List<IEntity<?>> subList = subMap.get(fk);
-            entityField.setFieldValue(entity, subList.isEmpty() ? null : subList.get(0));
-          }
-        }
-      }
-
-      //递归加载关联数据
-      joinEntity(fieldActualType, list);
-    }
+    JoinLoader.load(clazz, entities);
   }
 
   private static String getFieldValue(String fieldName, List<IEntity<?>> entities) {
@@ -268,7 +244,7 @@ public class EntityHolder {
   private static final List<Character> ignoreChar = Arrays.asList(CharPool.EQUAL_TO, CharPool.LEFT_BRACKET, CharPool.RIGHT_BRACKET, CharPool.SPACE, CharPool.QUOTE, CharPool.SINGLE_QUOTE, CharPool.NEWLINE, CharPool.COMMA, CharPool.AMPERSAND);
   private static final List<String> ignoreStr = Arrays.asList(StringPool.AND, StringPool.OR, StringPool.NULL, StringPool.FALSE, StringPool.TRUE, "where", "order", "by", "group", "having", "limit", "offset");
 
-  private static String parseExtraCondition(Class<?> fieldActualType, String extraCondition, List<IEntity<?>> entities) {
+  static String parseExtraCondition(Class<?> fieldActualType, String extraCondition, List<IEntity<?>> entities) {
     if (Func.isEmpty(extraCondition)) {
       return null;
     }
@@ -323,6 +299,29 @@ public class EntityHolder {
     return ReflectionKit.getSuperClassGenericType(mapper.getClass(), BaseMapper.class, 0);
   }
 
+  /**
+   * 数据表实体元数据：启动时构建一次，字段名索引、关联字段、版本号字段；字段读取器与变更追踪共用EntityMeta的缓存
+   *
+   * @author lvweijie
+   * @date 2026年10月18日 22:40
+   */
+  private static final class TableMeta {
+    private final List<EntityField> fields;
+    private final Map<String, EntityField> fieldIndex;
+    private final List<EntityField> joinFields;
+    private final EntityField versionField;
+
+    private TableMeta(List<EntityField> fields) {
+      this.fields = Collections.unmodifiableList(fields);
+      Map<String, EntityField> index = new HashMap<>(fields.size() * 2);
+      //与原先按顺序查找一致，同名字段取第一个
+      fields.forEach(s -> index.putIfAbsent(s.getFieldName(), s));
+      this.fieldIndex = index;
+      this.joinFields = fields.stream().filter(EntityField::isJoinEntity).toList();
+      this.versionField = index.get(VERSION);
+    }
+  }
+
   /**
    * 数据实体字段
    *
@@ -331,12 +330,18 @@ public class EntityHolder {
    */
   @Getter
   public static class EntityField {
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
     private final Class<?> entityType;
     private final Field field;
     private final Class<?> fieldType;
     private final Class<?> fieldActualType;
     private final JoinEntity joinEntity;
     private final TableFieldInfo fieldInfo;
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle getter;
+    @Getter(AccessLevel.NONE)
+    private final MethodHandle setter;
 
     public EntityField(Class<?> entityType, Field field, TableFieldInfo fieldInfo) {
       this.entityType = entityType;
@@ -346,6 +351,20 @@ public class EntityHolder {
       this.fieldInfo = fieldInfo;
       this.joinEntity = field.getAnnotation(JoinEntity.class);
       checkJoinEntity();
+      ReflectionUtils.makeAccessible(field);
+      this.getter = EntityMeta.getter(field);
+      this.setter = unreflectSetter(field);
+    }
+
+    /**
+     * 字段写句柄，无法创建(如final字段)时返回null，写入退回反射
+     */
+    private static MethodHandle unreflectSetter(Field field) {
+      try {
+        return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+      } catch (IllegalAccessException e) {
+        return null;
+      }
     }
 
     public boolean isJoinEntity() {
@@ -416,13 +435,26 @@ public class EntityHolder {
     }
 
     public void setFieldValue(Object entity, Object value) {
-      ReflectionUtils.makeAccessible(this.field);
-      ReflectionUtils.setField(this.field, entity, value);
+      if (null == setter) {
+        ReflectionUtils.setField(this.field, entity, value);
+        return;
+      }
+      try {
+        setter.invokeExact(entity, value);
+      } catch (Throwable e) {
+        throw Exceptions.unchecked(e);
+      }
     }
 
     public Object getFieldValue(Object entity) {
-      ReflectionUtils.makeAccessible(this.field);
-      return ReflectionUtils.getField(this.field, entity);
+      if (null == getter) {
+        return ReflectionUtils.getField(this.field, entity);
+      }
+      try {
+        return getter.invokeExact(entity);
+      } catch (Throwable e) {
+        throw Exceptions.unchecked(e);
+      }
     }
 
     public String getFieldName() {
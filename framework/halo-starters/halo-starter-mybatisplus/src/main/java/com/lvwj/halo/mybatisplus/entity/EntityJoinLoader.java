@@ -0,0 +1,251 @@
+package com.lvwj.halo.mybatisplus.entity;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lvwj.halo.common.models.entity.IEntity;
+import com.lvwj.halo.common.utils.Exceptions;
+import com.lvwj.halo.common.utils.Func;
+import com.lvwj.halo.core.threadpool.ThreadPoolCache;
+import com.lvwj.halo.mybatisplus.config.prop.MybatisPlusExtProperties;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.stream.Collectors.groupingBy;
+
+/**
+ * 关联实体(@JoinEntity)加载器
+ * <p>
+ * 按层加载：同一层所有实体类型的关联字段先规划为加载任务，同层任务互不依赖，可并行执行；
+ * 同一层同类型的父实体合并后主键去重，IN查询按chunkSize分批；
+ * 配置的热点引用表(primaryKey关联且无额外条件)可走本地缓存。
+ * 存在事务时串行加载，保证使用事务内的连接
+ * <p>
+ * 指标：halo.join.level 每层耗时(tag entity 根实体，level 层级)
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 23:05
+ */
+@Slf4j
+public class EntityJoinLoader {
+
+  /**
+   * 最大加载层级，防止循环关联无限加载
+   */
+  private static final int MAX_DEPTH = 32;
+
+  private final MybatisPlusExtProperties.Join config;
+  private final Set<String> cacheTypes;
+  private final Cache<CacheKey, IEntity<?>> cache;
+  private volatile Executor executor;
+
+  public EntityJoinLoader(MybatisPlusExtProperties.Join config) {
+    this.config = config;
+    this.cacheTypes = new HashSet<>(config.getCacheTypes());
+    this.cache = cacheTypes.isEmpty() ? null : Caffeine.newBuilder()
+        .maximumSize(config.getCacheMaxSize())
+        .expireAfterWrite(config.getCacheTtl())
+        .build();
+  }
+
+  /**
+   * 加载实体列表的所有关联实体(含关联实体的关联实体)
+   *
+   * @param clazz    实体类型
+   * @param entities 实体列表
+   */
+  public void load(Class<?> clazz, List<IEntity<?>> entities) {
+    boolean parallel = config.isParallel() && !TransactionSynchronizationManager.isActualTransactionActive();
+    String root = clazz.getSimpleName();
+    Map<Class<?>, List<IEntity<?>>> level = new LinkedHashMap<>();
+    level.put(clazz, entities);
+    List<JoinResult> cacheable = new ArrayList<>();
+    for (int depth = 0; !level.isEmpty(); depth++) {
+      if (depth >= MAX_DEPTH) {
+        log.warn("Entity[{}] @JoinEntity depth exceeds {}, stop joining", clazz.getName(), MAX_DEPTH);
+        break;
+      }
+      long start = System.nanoTime();
+      List<JoinTask> tasks = plan(level);
+      if (tasks.isEmpty()) {
+        break;
+      }
+      List<JoinResult> results = execute(tasks, parallel);
+      Timer.builder("halo.join.level").tag("entity", root).tag("level", String.valueOf(depth))
+          .register(Metrics.globalRegistry).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      //新加载的关联实体作为下一层继续加载，缓存命中的实体已完整加载过
+      level = new LinkedHashMap<>();
+      for (JoinResult result : results) {
+        if (!result.loaded().isEmpty()) {
+          level.computeIfAbsent(result.type(), k -> new ArrayList<>()).addAll(result.loaded());
+          if (result.cacheable()) {
+            cacheable.add(result);
+          }
+        }
+      }
+    }
+    //整棵关联树加载完成后再放入缓存，避免其它线程拿到未加载完成的实体
+    for (JoinResult result : cacheable) {
+      result.loaded().forEach(s -> cache.put(new CacheKey(result.type(), s.getId()), s));
+    }
+  }
+
+  /**
+   * 规划一层的加载任务：每个实体类型的每个@JoinEntity字段一个任务，额外条件在调用线程解析(可能依赖线程上下文)
+   */
+  private List<JoinTask> plan(Map<Class<?>, List<IEntity<?>>> level) {
+    List<JoinTask> tasks = new ArrayList<>();
+    for (Map.Entry<Class<?>, List<IEntity<?>>> entry : level.entrySet()) {
+      for (EntityHolder.EntityField entityField : EntityHolder.joinFields(entry.getKey())) {
+        String extraCondition = EntityHolder.parseExtraCondition(entityField.getFieldActualType(), entityField.getJoinEntity().extraCondition().trim(), entry.getValue());
+        tasks.add(new JoinTask(entityField, entry.getValue(), extraCondition));
+      }
+    }
+    return tasks;
+  }
+
+  private List<JoinResult> execute(List<JoinTask> tasks, boolean parallel) {
+    if (!parallel || tasks.size() == 1) {
+      return tasks.stream().map(this::join).collect(Collectors.toList());
+    }
+    Executor pool = getExecutor();
+    List<CompletableFuture<JoinResult>> futures = tasks.stream().map(s -> CompletableFuture.supplyAsync(() -> join(s), pool)).toList();
+    try {
+      return futures.stream().map(CompletableFuture::join).collect(Collectors.toList());
+    } catch (CompletionException e) {
+      throw Exceptions.unchecked(e.getCause());
+    }
+  }
+
+  private JoinResult join(JoinTask task) {
+    EntityHolder.EntityField entityField = task.field();
+    Class<?> fieldActualType = entityField.getFieldActualType();
+    String primaryKey = entityField.getJoinEntity().primaryKey().trim();
+    String foreignKey = entityField.getJoinEntity().foreignKey().trim();
+    List<IEntity<?>> entities = task.entities();
+
+    //获取primaryKey集合(父实体间去重)
+    Set<Object> pks = entities.stream().map(entityField::getPrimaryKeyValue).filter(Func::isNotEmpty).collect(Collectors.toCollection(LinkedHashSet::new));
+    if (pks.isEmpty()) {
+      return JoinResult.empty(fieldActualType);
+    }
+
+    //热点引用表先查本地缓存
+    boolean cacheable = null != cache && StringUtils.hasLength(primaryKey) && Func.isEmpty(task.extraCondition())
+        && cacheTypes.contains(fieldActualType.getName());
+    List<IEntity<?>> list = new ArrayList<>();
+    if (cacheable) {
+      Set<Object> missing = new LinkedHashSet<>();
+      for (Object pk : pks) {
+        IEntity<?> hit = cache.getIfPresent(new CacheKey(fieldActualType, pk));
+        if (null != hit) {
+          list.add(hit);
+        } else {
+          missing.add(pk);
+        }
+      }
+      pks = missing;
+    }
+
+    String column = StringUtils.hasLength(primaryKey) ? "id" : EntityHolder.getColumnName(fieldActualType, foreignKey);
+    List<IEntity<?>> loaded = pks.isEmpty() ? Collections.emptyList() : select(fieldActualType, column, pks, task.extraCondition());
+    list.addAll(loaded);
+    if (list.isEmpty()) {
+      return JoinResult.empty(fieldActualType);
+    }
+
+    //注解@JoinEntity的primaryKey有值，说明当前实体和关联实体是一对一关系 或 多对一关系
+    if (StringUtils.hasLength(primaryKey)) {
+      Map<Object, IEntity<?>> subMap = list.stream().collect(Collectors.toMap(IEntity::getId, Function.identity(), (o, n) -> n));
+      for (IEntity<?> entity : entities) {
+        Object primaryKeyValue = entityField.getPrimaryKeyValue(entity);
+        if (null != primaryKeyValue) {
+          entityField.setFieldValue(entity, subMap.get(primaryKeyValue));
+        }
+      }
+    }
+
+    //注解@JoinEntity的foreignKey有值，说明当前实体和关联实体是一对一关系 或 一对多关系
+    if (StringUtils.hasLength(foreignKey)) {
+      Map<Object, List<IEntity<?>>> subMap = list.stream().collect(groupingBy(s -> EntityHolder.getFieldValue(s, foreignKey)));
+      for (IEntity<?> entity : entities) {
+        Object fieldValue = EntityHolder.getFieldValue(entity, foreignKey);
+        Object fk = foreignKey.equals("id") || null == fieldValue ? entity.getId() : fieldValue;
+        List<IEntity<?>> subList = subMap.get(fk);
+        if (entityField.isListType()) {
+          entityField.setFieldValue(entity, subList);
+        } else if (entityField.isSetType()) {
+          entityField.setFieldValue(entity, null == subList ? null : new HashSet<>(subList));
+        } else {
+          entityField.setFieldValue(entity, CollectionUtils.isEmpty(subList) ? null : subList.get(0));
+        }
+      }
+    }
+    return new JoinResult(fieldActualType, loaded, cacheable);
+  }
+
+  /**
+   * 按chunkSize分批IN查询；额外条件带limit时分批会改变结果，不分批
+   */
+  private List<IEntity<?>> select(Class<?> type, String column, Set<Object> keys, String extraCondition) {
+    List<Object> keyList = new ArrayList<>(keys);
+    boolean hasLimit = Func.isNotEmpty(extraCondition) && extraCondition.toLowerCase().contains("limit");
+    int chunkSize = hasLimit ? keyList.size() : Math.max(config.getChunkSize(), 1);
+    List<IEntity<?>> result = new ArrayList<>();
+    for (int i = 0; i < keyList.size(); i += chunkSize) {
+      List<Object> chunk = keyList.subList(i, Math.min(i + chunkSize, keyList.size()));
+      QueryWrapper<IEntity<?>> query = Wrappers.query();
+      if (chunk.size() > 1) {
+        query.in(column, chunk);
+      } else {
+        query.eq(column, chunk.get(0));
+      }
+      if (Func.isNotEmpty(extraCondition)) {
+        query.last(extraCondition);
+      }
+      //根据fieldActualType定位到对应mapper接口，获取关联数据集合
+      List<IEntity<?>> list = EntityHolder.getMapper(type).selectList(query);
+      if (!CollectionUtils.isEmpty(list)) {
+        result.addAll(list);
+      }
+    }
+    return result;
+  }
+
+  private Executor getExecutor() {
+    if (null == executor) {
+      synchronized (this) {
+        if (null == executor) {
+          executor = ThreadPoolCache.getCustomizeThreadPool("halo-join-entity", config.getThreads(), config.getThreads(), config.getQueueCapacity());
+        }
+      }
+    }
+    return executor;
+  }
+
+  private record JoinTask(EntityHolder.EntityField field, List<IEntity<?>> entities, String extraCondition) {
+  }
+
+  private record JoinResult(Class<?> type, List<IEntity<?>> loaded, boolean cacheable) {
+
+    private static JoinResult empty(Class<?> type) {
+      return new JoinResult(type, Collections.emptyList(), false);
+    }
+  }
+
+  private record CacheKey(Class<?> type, Object id) {
+  }
+}
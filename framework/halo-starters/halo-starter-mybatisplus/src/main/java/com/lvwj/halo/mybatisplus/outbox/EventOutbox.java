@@ -0,0 +1,68 @@
+package com.lvwj.halo.mybatisplus.outbox;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.lvwj.halo.mybatisplus.entity.BaseEntity;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+/**
+ * 集成事件发件箱，主键为集成事件ID
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 21:40
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@ToString(callSuper = true, exclude = "payload")
+@TableName("halo_event_outbox")
+public class EventOutbox extends BaseEntity {
+
+    public static final int STATUS_PENDING = 0;
+    public static final int STATUS_SENT = 1;
+    public static final int STATUS_FAILED = 2;
+
+    /**
+     * 集成事件类名
+     */
+    private String eventClass;
+
+    /**
+     * 集成事件tag
+     */
+    private String tag;
+
+    /**
+     * 集成事件JSON
+     */
+    private String payload;
+
+    /**
+     * 状态：0待发送 1已发送 2超过最大重试次数
+     */
+    private Integer status;
+
+    /**
+     * 已重试次数
+     */
+    private Integer retryCount;
+
+    /**
+     * 下次可发送时间
+     */
+    private LocalDateTime nextRetryTime;
+
+    /**
+     * 领取者标识
+     */
+    private String owner;
+
+    /**
+     * 领取租约到期时间，到期未确认的事件可被其它实例重新领取
+     */
+    private LocalDateTime leaseUntil;
+}
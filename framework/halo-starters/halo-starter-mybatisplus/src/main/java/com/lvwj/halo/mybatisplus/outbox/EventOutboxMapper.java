@@ -0,0 +1,12 @@
+package com.lvwj.halo.mybatisplus.outbox;
+
+import com.lvwj.halo.mybatisplus.mapper.CustomMapper;
+
+/**
+ * 集成事件发件箱Mapper
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 21:40
+ */
+public interface EventOutboxMapper extends CustomMapper<EventOutbox> {
+}
@@ -0,0 +1,264 @@
+package com.lvwj.halo.mybatisplus.outbox;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.lvwj.halo.common.utils.DateTimeUtil;
+import com.lvwj.halo.common.utils.Func;
+import com.lvwj.halo.common.utils.JsonUtil;
+import com.lvwj.halo.common.utils.StringPool;
+import com.lvwj.halo.core.domain.event.IEventBus;
+import com.lvwj.halo.core.domain.event.IIntegrationEvent;
+import com.lvwj.halo.core.domain.event.SyncDeliveryContext;
+import com.lvwj.halo.core.threadpool.ThreadPoolCache;
+import com.lvwj.halo.mybatisplus.config.prop.MybatisPlusExtProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 发件箱转发器
+ * <p>
+ * 定时(及事务提交后)批量领取待发送事件：先查出一批候选ID，再用一条带状态和租约条件的update领取，
+ * 已被其它实例领取的行自动跳过，效果等同 SELECT ... FOR UPDATE SKIP LOCKED，但不持有行锁，H2/MySQL通用；
+ * 领取后在同步投递上下文({@link SyncDeliveryContext})内通过事件总线投递给集成事件处理器(@RocketMQProducer)，处理器在当前线程同步发送，
+ * 收到broker确认才算成功，成功的一条update批量标记为已发送；发送异常或没有处理器确认的按指数退避重试
+ * <p>
+ * 指标：halo.outbox.relay.sent 发送数，halo.outbox.relay.retries 重试数，halo.outbox.relay.failed 超过最大重试次数数，
+ * halo.outbox.relay.lag 最早待发送事件的等待毫秒数
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 21:50
+ */
+@Slf4j
+public class EventOutboxRelay {
+
+    private static final int MAX_ROUNDS = 50;
+    private static final long MAX_BACKOFF_SECONDS = 600;
+
+    private final EventOutboxMapper mapper;
+    private final MybatisPlusExtProperties.Outbox properties;
+    private final Supplier<IEventBus> eventBus;
+
+    /**
+     * 实例标识，与领取序号一起作为领取者标识
+     */
+    private final String instanceId = UUID.randomUUID().toString().replace(StringPool.DASH, StringPool.EMPTY);
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong claimSeq = new AtomicLong();
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Map<String, Class<?>> eventClasses = new ConcurrentHashMap<>();
+
+    private final Counter sent;
+    private final Counter retries;
+    private final Counter failed;
+
+    private ScheduledFuture<?> relayFuture;
+    private ScheduledFuture<?> cleanFuture;
+
+    /**
+     * @param eventBus 事件总线依赖事件存储，延迟获取避免循环依赖
+     */
+    public EventOutboxRelay(EventOutboxMapper mapper, MybatisPlusExtProperties.Outbox properties, Supplier<IEventBus> eventBus) {
+        this.mapper = mapper;
+        this.properties = properties;
+        this.eventBus = eventBus;
+        this.sent = Counter.builder("halo.outbox.relay.sent").register(Metrics.globalRegistry);
+        this.retries = Counter.builder("halo.outbox.relay.retries").register(Metrics.globalRegistry);
+        this.failed = Counter.builder("halo.outbox.relay.failed").register(Metrics.globalRegistry);
+        Gauge.builder("halo.outbox.relay.lag", lagMillis, AtomicLong::get).register(Metrics.globalRegistry);
+    }
+
+    public synchronized void start() {
+        if (null != relayFuture) {
+            return;
+        }
+        long interval = properties.getPollInterval().toMillis();
+        relayFuture = scheduler().scheduleWithFixedDelay(this::relay, interval, interval, TimeUnit.MILLISECONDS);
+        cleanFuture = scheduler().scheduleWithFixedDelay(this::clean, 1, 60, TimeUnit.MINUTES);
+    }
+
+    public synchronized void stop() {
+        if (null != relayFuture) {
+            relayFuture.cancel(false);
+            cleanFuture.cancel(false);
+            relayFuture = null;
+        }
+    }
+
+    /**
+     * 有新事件写入，立即转发一次(正在转发时忽略)
+     */
+    public void wakeup() {
+        if (!running.get() && null != relayFuture) {
+            scheduler().execute(this::relay);
+        }
+    }
+
+    /**
+     * 转发待发送事件，一批满额时继续领取下一批
+     */
+    public void relay() {
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int rounds = 0;
+            int claimed;
+            do {
+                claimed = relayBatch();
+            } while (claimed >= properties.getBatchSize() && ++rounds < MAX_ROUNDS);
+            updateLag();
+        } catch (Exception e) {
+            log.error("EventOutboxRelay relay failed!", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * @return 本批领取的候选数量
+     */
+    private int relayBatch() {
+        LocalDateTime now = DateTimeUtil.now();
+        List<Long> ids = mapper.selectObjs(Wrappers.<EventOutbox>lambdaQuery()
+                .select(EventOutbox::getId)
+                .eq(EventOutbox::getStatus, EventOutbox.STATUS_PENDING)
+                .le(EventOutbox::getNextRetryTime, now)
+                .and(w -> w.isNull(EventOutbox::getLeaseUntil).or().lt(EventOutbox::getLeaseUntil, now))
+                .orderByAsc(EventOutbox::getId)
+                .last("limit " + properties.getBatchSize()));
+        if (Func.isEmpty(ids)) {
+            return 0;
+        }
+        String owner = instanceId + StringPool.DASH + claimSeq.incrementAndGet();
+        int claimed = mapper.update(null, Wrappers.<EventOutbox>lambdaUpdate()
+                .set(EventOutbox::getOwner, owner)
+                .set(EventOutbox::getLeaseUntil, now.plus(properties.getLeaseTime()))
+                .set(EventOutbox::getUpdateTime, now)
+                .in(EventOutbox::getId, ids)
+                .eq(EventOutbox::getStatus, EventOutbox.STATUS_PENDING)
+                .and(w -> w.isNull(EventOutbox::getLeaseUntil).or().lt(EventOutbox::getLeaseUntil, now)));
+        if (claimed <= 0) {
+            return 0;
+        }
+        List<EventOutbox> rows = mapper.selectList(Wrappers.<EventOutbox>lambdaQuery()
+                .in(EventOutbox::getId, ids)
+                .eq(EventOutbox::getOwner, owner)
+                .orderByAsc(EventOutbox::getId));
+        List<Long> sentIds = new ArrayList<>(rows.size());
+        IEventBus bus = eventBus.get();
+        for (EventOutbox row : rows) {
+            try {
+                IIntegrationEvent event = toEvent(row);
+                int acks = SyncDeliveryContext.deliver(() -> bus.publishIntegrationEvent(event, row.getTag()));
+                if (acks <= 0) {
+                    throw new IllegalStateException("没有集成事件处理器确认送达, eventClass:" + row.getEventClass());
+                }
+                sentIds.add(row.getId());
+            } catch (Exception e) {
+                log.error("EventOutboxRelay publish failed! id:" + row.getId() + ", tag:" + row.getTag(), e);
+                retry(row);
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            mapper.update(null, Wrappers.<EventOutbox>lambdaUpdate()
+                    .set(EventOutbox::getStatus, EventOutbox.STATUS_SENT)
+                    .set(EventOutbox::getUpdateTime, DateTimeUtil.now())
+                    .in(EventOutbox::getId, sentIds)
+                    .eq(EventOutbox::getOwner, owner));
+            sent.increment(sentIds.size());
+        }
+        return ids.size();
+    }
+
+    private IIntegrationEvent toEvent(EventOutbox row) {
+        Class<?> cls = eventClasses.computeIfAbsent(row.getEventClass(), name -> {
+            try {
+                return ClassUtils.forName(name, ClassUtils.getDefaultClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("集成事件类不存在：" + name, e);
+            }
+        });
+        return (IIntegrationEvent) JsonUtil.parse(row.getPayload(), cls);
+    }
+
+    /**
+     * 失败重试：按2的重试次数次方秒退避，超过最大重试次数后不再发送
+     */
+    private void retry(EventOutbox row) {
+        int retryCount = row.getRetryCount() + 1;
+        boolean exhausted = retryCount >= properties.getMaxRetry();
+        long backoff = Math.min(1L << Math.min(retryCount, 20), MAX_BACKOFF_SECONDS);
+        LocalDateTime now = DateTimeUtil.now();
+        mapper.update(null, Wrappers.<EventOutbox>lambdaUpdate()
+                .set(EventOutbox::getRetryCount, retryCount)
+                .set(EventOutbox::getStatus, exhausted ? EventOutbox.STATUS_FAILED : EventOutbox.STATUS_PENDING)
+                .set(EventOutbox::getNextRetryTime, now.plusSeconds(backoff))
+                .set(EventOutbox::getOwner, null)
+                .set(EventOutbox::getLeaseUntil, null)
+                .set(EventOutbox::getUpdateTime, now)
+                .eq(EventOutbox::getId, row.getId())
+                .eq(EventOutbox::getOwner, row.getOwner()));
+        if (exhausted) {
+            failed.increment();
+            log.error("EventOutboxRelay超过最大重试次数, id:{}, tag:{}", row.getId(), row.getTag());
+        } else {
+            retries.increment();
+        }
+    }
+
+    private void updateLag() {
+        List<EventOutbox> oldest = mapper.selectList(Wrappers.<EventOutbox>lambdaQuery()
+                .select(EventOutbox::getId, EventOutbox::getCreateTime)
+                .eq(EventOutbox::getStatus, EventOutbox.STATUS_PENDING)
+                .orderByAsc(EventOutbox::getId)
+                .last("limit 1"));
+        if (Func.isEmpty(oldest) || null == oldest.get(0).getCreateTime()) {
+            lagMillis.set(0);
+            return;
+        }
+        lagMillis.set(Math.max(Duration.between(oldest.get(0).getCreateTime(), DateTimeUtil.now()).toMillis(), 0));
+    }
+
+    /**
+     * 清理超过保留时间的已发送事件
+     */
+    private void clean() {
+        try {
+            LocalDateTime before = DateTimeUtil.now().minus(properties.getRetention());
+            List<Long> ids;
+            do {
+                ids = mapper.selectObjs(Wrappers.<EventOutbox>lambdaQuery()
+                        .select(EventOutbox::getId)
+                        .eq(EventOutbox::getStatus, EventOutbox.STATUS_SENT)
+                        .lt(EventOutbox::getUpdateTime, before)
+                        .last("limit 1000"));
+                if (Func.isNotEmpty(ids)) {
+                    mapper.deleteByIds(ids);
+                }
+            } while (Func.isNotEmpty(ids) && ids.size() >= 1000);
+        } catch (Exception e) {
+            log.error("EventOutboxRelay clean failed!", e);
+        }
+    }
+
+    private static ScheduledExecutorService scheduler() {
+        return ThreadPoolCache.getScheduledThreadPool("halo-event-outbox-relay").getScheduledExecutor();
+    }
+}
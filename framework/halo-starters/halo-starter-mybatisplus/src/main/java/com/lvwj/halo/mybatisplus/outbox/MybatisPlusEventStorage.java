@@ -0,0 +1,79 @@
+package com.lvwj.halo.mybatisplus.outbox;
+
+import com.lvwj.halo.common.utils.DateTimeUtil;
+import com.lvwj.halo.common.utils.Func;
+import com.lvwj.halo.common.utils.JsonUtil;
+import com.lvwj.halo.common.utils.TransactionUtil;
+import com.lvwj.halo.core.domain.event.IEvent;
+import com.lvwj.halo.core.domain.event.IEventStorage;
+import com.lvwj.halo.core.domain.event.IIntegrationEvent;
+import lombok.AllArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基于MybatisPlus的事件存储(事务发件箱)
+ * <p>
+ * 集成事件与聚合在同一事务内通过一条多行insert写入发件箱，事务提交后唤醒转发器投递
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 21:45
+ */
+@AllArgsConstructor
+public class MybatisPlusEventStorage implements IEventStorage {
+
+    private final EventOutboxMapper mapper;
+
+    private final EventOutboxRelay relay;
+
+    @Override
+    public <E extends IEvent> void save(E event) {
+        if (event instanceof IIntegrationEvent integrationEvent) {
+            save(integrationEvent, null);
+        }
+    }
+
+    @Override
+    public <E extends IIntegrationEvent> void save(E event, String tag) {
+        insert(Collections.singletonList(toOutbox(event, tag, DateTimeUtil.now())));
+    }
+
+    @Override
+    public void saveAll(List<? extends IIntegrationEvent> events) {
+        if (Func.isEmpty(events)) {
+            return;
+        }
+        LocalDateTime now = DateTimeUtil.now();
+        List<EventOutbox> list = new ArrayList<>(events.size());
+        for (IIntegrationEvent event : events) {
+            list.add(toOutbox(event, null, now));
+        }
+        insert(list);
+    }
+
+    private void insert(List<EventOutbox> list) {
+        if (list.size() == 1) {
+            mapper.insert(list.get(0));
+        } else {
+            mapper.insertBatchSomeColumn(list);
+        }
+        TransactionUtil.afterCommit(relay::wakeup);
+    }
+
+    private EventOutbox toOutbox(IIntegrationEvent event, String tag, LocalDateTime now) {
+        EventOutbox outbox = new EventOutbox();
+        outbox.setId(event.getEventId());
+        outbox.setEventClass(event.getClass().getName());
+        outbox.setTag(Func.isNotBlank(tag) ? tag : event.tag());
+        outbox.setPayload(JsonUtil.toJson(event));
+        outbox.setStatus(EventOutbox.STATUS_PENDING);
+        outbox.setRetryCount(0);
+        //DATETIME列会四舍五入毫秒，截断到秒避免写入后下次可发送时间晚于当前时间，导致提交后的立即转发领取不到
+        outbox.setNextRetryTime(now.truncatedTo(ChronoUnit.SECONDS));
+        return outbox;
+    }
+}
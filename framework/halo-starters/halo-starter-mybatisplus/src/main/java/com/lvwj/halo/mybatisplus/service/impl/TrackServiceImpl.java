@@ -1,32 +1,22 @@
 package com.lvwj.halo.mybatisplus.service.impl;
 
-import cn.hutool.core.bean.BeanUtil;
 import com.lvwj.halo.common.models.entity.IEntity;
 import com.lvwj.halo.common.utils.*;
-import com.lvwj.halo.core.track.TrackManager;
-import com.lvwj.halo.core.track.impl.ThreadLocalTrackManager;
+import com.lvwj.halo.core.track.TrackDiff;
+import com.lvwj.halo.core.track.TrackDiffManager;
+import com.lvwj.halo.core.track.impl.SnapshotTrackManager;
 import com.lvwj.halo.mybatisplus.entity.EntityHolder;
 import com.lvwj.halo.mybatisplus.mapper.CustomMapper;
 import lombok.extern.slf4j.Slf4j;
-import org.javers.core.ChangesByObject;
-import org.javers.core.diff.Change;
-import org.javers.core.diff.changetype.NewObject;
-import org.javers.core.diff.changetype.ObjectRemoved;
-import org.javers.core.diff.changetype.PropertyChange;
-import org.javers.core.metamodel.object.InstanceId;
-import org.javers.core.metamodel.object.ValueObjectId;
 import org.springframework.beans.BeanUtils;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.CollectionUtils;
 
 import java.util.*;
-import java.util.stream.Collectors;
-
-import static java.util.stream.Collectors.groupingBy;
 
 /**
  * 追踪服务实现
- * 原理：基于ThreadLocal存储快照，基于Javers对比差异数据
+ * 原理：基于ThreadLocal存储快照，按字段对比差异数据；默认使用字段快照(SnapshotTrackManager)，可重写createTrackManager切换为Javers实现
  *
  * @author lvweijie
  * @date 2023年11月03日 16:40
@@ -34,10 +24,18 @@ import static java.util.stream.Collectors.groupingBy;
 @Slf4j
 public abstract class TrackServiceImpl<M extends CustomMapper<T>, T extends IEntity<?>> extends JoinServiceImpl<M,T> {
 
-    protected final TrackManager<T> trackManager;
+    protected final TrackDiffManager<T> trackManager;
 
     public TrackServiceImpl() {
-        this.trackManager = new ThreadLocalTrackManager<>();
+        this.trackManager = createTrackManager();
+    }
+
+    /**
+     * 变更追踪管理器，默认按字段快照对比(SnapshotTrackManager)；
+     * 需要Javers差异明细(changeDiff等)时重写返回ThreadLocalTrackManager，通过getTrackManager()强转为TrackManager使用
+     */
+    protected TrackDiffManager<T> createTrackManager() {
+        return new SnapshotTrackManager<>();
     }
 
 
@@ -48,18 +46,16 @@ public abstract class TrackServiceImpl<M extends CustomMapper<T>, T extends IEnt
             return;
         }
         //版本号字段处理
-        boolean hasVersionField = EntityHolder.hasVersionField(getEntityClass());
-        if (hasVersionField) {
-            Object verObj = EntityHolder.getFieldValue(t, EntityHolder.VERSION);
-            Long version = verObj != null ? Long.parseLong(verObj.toString()) + 1 : 0;
-            EntityHolder.setFieldValue(t, EntityHolder.VERSION, version);
+        EntityHolder.EntityField versionField = EntityHolder.getVersionField(getEntityClass());
+        if (null != versionField) {
+            incrVersion(versionField, t);
         }
         //获取差异
-        List<ChangesByObject> changes = this.trackManager.changeDiffByObject(t);
+        TrackDiff diff = this.trackManager.trackDiff(t);
         //获取所有PO实体 key:PO类名, value:(key:主键, value:PO实体)
         Map<String, Map<Object, IEntity<?>>> entityMap = getEntityMap(Collections.singletonList(t));
         //保存
-        doSave(changes, entityMap);
+        doSave(diff, entityMap);
         //this.trackManager.merge(t); 更新快照数据，为了可以多次saveByTrack
         //事务完成后，解除变更追踪
         TransactionUtil.afterCompletion(() -> this.trackManager.detach(t));
@@ -72,20 +68,18 @@ public abstract class TrackServiceImpl<M extends CustomMapper<T>, T extends IEnt
             return;
         }
         //版本号字段处理
-        boolean hasVersionField = EntityHolder.hasVersionField(getEntityClass());
-        if (hasVersionField) {
+        EntityHolder.EntityField versionField = EntityHolder.getVersionField(getEntityClass());
+        if (null != versionField) {
             for (T t : list) {
-                Object verObj = EntityHolder.getFieldValue(t, EntityHolder.VERSION);
-                Long version = verObj != null ? Long.parseLong(verObj.toString()) + 1 : 0;
-                EntityHolder.setFieldValue(t, EntityHolder.VERSION, version);
+                incrVersion(versionField, t);
             }
         }
         //获取差异
-        List<ChangesByObject> changes = this.trackManager.changeDiffByObject(list, getEntityClass());
+        TrackDiff diff = this.trackManager.trackDiff(list, getEntityClass());
         //获取所有PO实体 key:PO类名, value:(key:主键, value:PO实体)
         Map<String, Map<Object, IEntity<?>>> entityMap = getEntityMap((List<IEntity<?>>) list);
         //保存
-        doSave(changes, entityMap);
+        doSave(diff, entityMap);
         //this.trackManager.merge(list); 更新快照数据，为了可以多次saveByTrack
         //事务完成后，解除变更追踪
         TransactionUtil.afterCompletion(() -> this.trackManager.detach(list));
@@ -98,8 +92,7 @@ public abstract class TrackServiceImpl<M extends CustomMapper<T>, T extends IEnt
             return;
         }
         if (entityClassIsJoin()) {
-            List<ChangesByObject> changes = this.trackManager.deleteDiffByObject(t);
-            doDelete(getDeleteMap(changes));
+            doDelete(this.trackManager.trackDeleteDiff(t).getDeleteMap());
         } else {
             super.removeById(t);
         }
@@ -113,8 +106,7 @@ public abstract class TrackServiceImpl<M extends CustomMapper<T>, T extends IEnt
             return;
         }
         if (entityClassIsJoin()) {
-            List<ChangesByObject> changes = this.trackManager.deleteDiffByObject(list, getEntityClass());
-            doDelete(getDeleteMap(changes));
+            doDelete(this.trackManager.trackDeleteDiff(list, getEntityClass()).getDeleteMap());
         } else {
             super.removeBatchByIds(list);
         }
@@ -123,68 +115,38 @@ public abstract class TrackServiceImpl<M extends CustomMapper<T>, T extends IEnt
     }
 
     @Override
-    public TrackManager<T> getTrackManager() {
+    public TrackDiffManager<T> getTrackManager() {
         return this.trackManager;
     }
 
-    private void doSave(List<ChangesByObject> changes, Map<String, Map<Object, IEntity<?>>> newEntityMap) {
-        if (Func.isEmpty(changes)) {
-            return;
-        }
-        Map<String, List<Change>> createMap = new HashMap<>();
-        Map<String, List<Object>> deleteMap = new HashMap<>();
-        Map<String, Map<Object, Set<String>>> updateMap = new HashMap<>();
+    private void incrVersion(EntityHolder.EntityField versionField, T t) {
+        Object verObj = versionField.getFieldValue(t);
+        Long version = verObj != null ? Long.parseLong(verObj.toString()) + 1 : 0;
+        versionField.setFieldValue(t, version);
+    }
 
-        for (ChangesByObject change : changes) {
-            if (!(change.getGlobalId() instanceof InstanceId instanceId))
-                continue;
-            String typeName = instanceId.getTypeName();
-            Object id = instanceId.getCdoId();
-            if (Func.isNotEmpty(change.getNewObjects())) {
-                List<Change> list = createMap.computeIfAbsent(typeName, k -> new ArrayList<>());
-                list.add(change.getNewObjects().get(0));
-            } else if (Func.isNotEmpty(change.getObjectsRemoved())) {
-                List<Object> ids = deleteMap.computeIfAbsent(typeName, k -> new ArrayList<>());
-                if (!ids.contains(id)) {
-                    ids.add(id);
-                }
-            } else if (Func.isNotEmpty(change.getPropertyChanges())) {
-                for (PropertyChange propertyChange : change.getPropertyChanges()) {
-                    String propertyName = propertyChange.getPropertyName();
-                    if (propertyChange.getAffectedGlobalId() instanceof ValueObjectId valueObjectId) {
-                        String fragment = valueObjectId.getFragment();
-                        int index = fragment.indexOf(StringPool.SLASH);
-                        propertyName = index > -1 ? fragment.substring(0, index) : fragment;
-                    }
-                    Map<Object, Set<String>> map = updateMap.computeIfAbsent(typeName, k -> new HashMap<>());
-                    Set<String> set = map.computeIfAbsent(id, k -> new HashSet<>());
-                    set.add(propertyName);
-                }
-            }
+    private void doSave(TrackDiff diff, Map<String, Map<Object, IEntity<?>>> newEntityMap) {
+        if (null == diff || diff.isEmpty()) {
+            return;
         }
-
-        doCreate(createMap);
-        doUpdate(updateMap, newEntityMap);
-        doDelete(deleteMap);
+        doCreate(diff.getCreateMap());
+        doUpdate(diff.getUpdateMap(), newEntityMap);
+        doDelete(diff.getDeleteMap());
     }
 
 
-    private void doCreate(Map<String, List<Change>> map) {
+    private void doCreate(Map<String, List<Object>> map) {
         if (Func.isEmpty(map)) {
             return;
         }
-        List<Object> entities = new ArrayList<>();
-        for (Map.Entry<String, List<Change>> entry : map.entrySet()) {
-            for (Change change : entry.getValue()) {
-                change.getAffectedObject().ifPresent(entities::add);
-            }
+        for (Map.Entry<String, List<Object>> entry : map.entrySet()) {
+            List<Object> entities = entry.getValue();
             if (!CollectionUtils.isEmpty(entities)) {
                 if (entities.size() == 1) {
                     EntityHolder.getMapper(entry.getKey()).insert(entities.get(0));
                 } else {
                     EntityHolder.getMapper(entry.getKey()).insertBatchSomeColumn(entities);
                 }
-                entities.clear();
             }
         }
     }
@@ -214,8 +176,11 @@ public abstract class TrackServiceImpl<M extends CustomMapper<T>, T extends IEnt
                 }
                 Object entity = null;
                 for (String propertyName : itemEntry.getValue()) {
-                    Object right = BeanUtil.getFieldValue(newEntity, propertyName);
                     EntityHolder.EntityField entityField = EntityHolder.getEntityField(entityClass, propertyName);
+                    if (null == entityField) {
+                        continue;
+                    }
+                    Object right = entityField.getFieldValue(newEntity);
                     if (entityField.allowUpdate(right)) {
                         if (entity == null) {
                             entity = BeanUtils.instantiateClass(entityClass);
@@ -236,36 +201,6 @@ public abstract class TrackServiceImpl<M extends CustomMapper<T>, T extends IEnt
     }
 
 
-    private boolean isCreate(Change change) {
-        return change instanceof NewObject;
-    }
-
-    private boolean isDelete(Change change) {
-        return change instanceof ObjectRemoved;
-    }
-
-    /**
-     * 获取唯一标识id
-     *
-     * @author lvwj
-     * @date 2022-12-08 18:06
-     */
-    private Object getEntityId(Change change) {
-        if (change.getAffectedGlobalId() instanceof InstanceId instanceId) {
-            //带@id的对象属性变动
-            return instanceId.getCdoId();
-        } else {
-            //其他全部当做ValueObject对象处理
-            return ((InstanceId) ((ValueObjectId) change.getAffectedGlobalId()).getOwnerId()).getCdoId();
-        }
-    }
-
-    private Map<String, List<Object>> getDeleteMap(List<ChangesByObject> changes) {
-        if (Func.isEmpty(changes)) return Collections.emptyMap();
-        return changes.stream().filter(s -> Func.isNotEmpty(s.getObjectsRemoved()) && s.getGlobalId() instanceof InstanceId)
-                .collect(groupingBy(s -> s.getGlobalId().getTypeName(), Collectors.mapping(a -> ((InstanceId) a.getGlobalId()).getCdoId(), Collectors.toList())));
-    }
-
     private Map<String, Map<Object, IEntity<?>>> getEntityMap(List<IEntity<?>> inputs) {
         Map<String, Map<Object, IEntity<?>>> result = new HashMap<>();
         List<IEntity<?>> entities = getEntityList(inputs);
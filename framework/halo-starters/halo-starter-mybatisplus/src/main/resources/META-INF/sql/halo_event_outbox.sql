@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS halo_event_outbox
+(
+    id              BIGINT       NOT NULL COMMENT '集成事件ID',
+    event_class     VARCHAR(255) NOT NULL COMMENT '集成事件类名',
+    tag             VARCHAR(128) NOT NULL COMMENT '集成事件tag',
+    payload         TEXT         NOT NULL COMMENT '集成事件JSON',
+    status          TINYINT      NOT NULL DEFAULT 0 COMMENT '状态：0待发送 1已发送 2超过最大重试次数',
+    retry_count     INT          NOT NULL DEFAULT 0 COMMENT '已重试次数',
+    next_retry_time DATETIME     NOT NULL COMMENT '下次可发送时间',
+    owner           VARCHAR(64)  NULL COMMENT '领取者标识',
+    lease_until     DATETIME     NULL COMMENT '领取租约到期时间',
+    create_time     DATETIME     NOT NULL COMMENT '创建时间',
+    update_time     DATETIME     NOT NULL COMMENT '更新时间',
+    PRIMARY KEY (id)
+);
+CREATE INDEX idx_halo_event_outbox_status ON halo_event_outbox (status, next_retry_time);
@@ -0,0 +1,146 @@
+package com.lvwj.halo.mybatisplus.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.annotation.Version;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.lvwj.halo.common.models.entity.IEntity;
+import com.lvwj.halo.mybatisplus.annotation.JoinEntity;
+import com.lvwj.halo.mybatisplus.mapper.CustomMapper;
+import org.apache.ibatis.mapping.Environment;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 数据实体容器元数据测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 11:40
+ */
+class EntityHolderTest {
+
+    @BeforeAll
+    static void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:entity_holder;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setEnvironment(new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        configuration.addMapper(OrderMapper.class);
+        configuration.addMapper(ItemMapper.class);
+        SqlSessionTemplate template = new SqlSessionTemplate(new MybatisSqlSessionFactoryBuilder().build(configuration));
+
+        EntityHolder holder = new EntityHolder();
+        ReflectionTestUtils.setField(holder, "mappers", List.of(template.getMapper(OrderMapper.class), template.getMapper(ItemMapper.class)));
+        holder.init();
+    }
+
+    @Test
+    void indexesFieldsByName() {
+        assertEquals("orderNo", EntityHolder.getEntityField(OrderPO.class, "orderNo").getFieldName());
+        assertNull(EntityHolder.getEntityField(OrderPO.class, "missing"));
+        assertNull(EntityHolder.getEntityField(OrderPO.class, ""));
+        assertNull(EntityHolder.getEntityField(String.class, "orderNo"));
+    }
+
+    @Test
+    void readsAndWritesFieldValues() {
+        OrderPO order = new OrderPO();
+        EntityHolder.setFieldValue(order, "orderNo", "NO1");
+        EntityHolder.setFieldValue(order, "version", 3);
+        EntityHolder.setFieldValue(order, "missing", "ignored");
+
+        assertEquals("NO1", order.orderNo);
+        assertEquals("NO1", EntityHolder.getFieldValue(order, "orderNo"));
+        assertEquals(3, EntityHolder.getFieldValue(order, "version"));
+        assertNull(EntityHolder.getFieldValue(order, "missing"));
+
+        //基本类型字段通过句柄自动装箱拆箱
+        ItemPO item = new ItemPO();
+        EntityHolder.setFieldValue(item, "qty", 5);
+        assertEquals(5, item.qty);
+        assertEquals(5, EntityHolder.getFieldValue(item, "qty"));
+    }
+
+    @Test
+    void resolvesColumnNames() {
+        assertEquals("order_no", EntityHolder.getColumnName(OrderPO.class, "orderNo"));
+        assertNull(EntityHolder.getColumnName(OrderPO.class, "missing"));
+        assertThrows(RuntimeException.class, () -> EntityHolder.getColumnName(OrderPO.class, "items"));
+    }
+
+    @Test
+    void returnsJoinAndVersionFields() {
+        List<EntityHolder.EntityField> joinFields = EntityHolder.getEntityJoinFields(OrderPO.class);
+        assertEquals(1, joinFields.size());
+        assertEquals("items", joinFields.get(0).getFieldName());
+        assertTrue(EntityHolder.getEntityJoinFields(ItemPO.class).isEmpty());
+
+        assertEquals("version", EntityHolder.getVersionField(OrderPO.class).getFieldName());
+        assertTrue(EntityHolder.hasVersionField(OrderPO.class));
+        assertFalse(EntityHolder.hasVersionField(ItemPO.class));
+    }
+
+    @Test
+    void returnedListsAreMutableCopies() {
+        List<EntityHolder.EntityField> fields = EntityHolder.getEntityFields(OrderPO.class);
+        int size = fields.size();
+        fields.removeIf(s -> !s.isJoinEntity());
+        List<EntityHolder.EntityField> joinFields = EntityHolder.getEntityJoinFields(OrderPO.class);
+        joinFields.clear();
+
+        assertEquals(size, EntityHolder.getEntityFields(OrderPO.class).size());
+        assertEquals(1, EntityHolder.getEntityJoinFields(OrderPO.class).size());
+        EntityHolder.getEntityFields(String.class).add(fields.get(0));
+        assertTrue(EntityHolder.getEntityFields(String.class).isEmpty());
+    }
+
+    @TableName("t_order")
+    public static class OrderPO implements IEntity<Long> {
+        @TableId
+        private Long id;
+        private String orderNo;
+        @Version
+        private Integer version;
+        @TableField(exist = false)
+        @JoinEntity(foreignKey = "orderId")
+        private List<ItemPO> items;
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+
+    @TableName("t_order_item")
+    public static class ItemPO implements IEntity<Long> {
+        @TableId
+        private Long id;
+        private Long orderId;
+        private int qty;
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+    }
+
+    public interface OrderMapper extends CustomMapper<OrderPO> {
+    }
+
+    public interface ItemMapper extends CustomMapper<ItemPO> {
+    }
+}
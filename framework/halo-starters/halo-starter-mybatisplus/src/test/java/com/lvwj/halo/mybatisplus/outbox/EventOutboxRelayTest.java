@@ -0,0 +1,231 @@
+package com.lvwj.halo.mybatisplus.outbox;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.config.GlobalConfig;
+import com.baomidou.mybatisplus.core.toolkit.GlobalConfigUtils;
+import com.lvwj.halo.common.utils.DateTimeUtil;
+import com.lvwj.halo.core.domain.event.EventBus;
+import com.lvwj.halo.core.domain.event.IEventBus;
+import com.lvwj.halo.core.domain.event.IntegrationEvent;
+import com.lvwj.halo.core.domain.event.SyncDeliveryContext;
+import com.lvwj.halo.mybatisplus.config.prop.MybatisPlusExtProperties;
+import com.lvwj.halo.mybatisplus.handler.MyMetaObjectHandler;
+import com.lvwj.halo.mybatisplus.injector.CustomSqlInjector;
+import org.apache.ibatis.mapping.Environment;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 发件箱转发器测试(H2，MySQL兼容模式)
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 09:40
+ */
+class EventOutboxRelayTest {
+
+    private static final String TAG = "OrderCreated";
+    private static final String SUBSCRIBER = OrderCreatedEvent.class.getName() + " | " + TAG;
+
+    private EventOutboxMapper mapper;
+    private EventBus eventBus;
+    private MybatisPlusExtProperties.Outbox properties;
+    private EventOutboxRelay relay;
+    private MybatisPlusEventStorage storage;
+    private final List<Long> delivered = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:outbox_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (InputStream in = getClass().getClassLoader().getResourceAsStream("META-INF/sql/halo_event_outbox.sql");
+             Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (String sql : new String(in.readAllBytes(), StandardCharsets.UTF_8).split(";")) {
+                if (!sql.isBlank()) {
+                    statement.execute(sql);
+                }
+            }
+        }
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setEnvironment(new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        GlobalConfig globalConfig = GlobalConfigUtils.defaults();
+        globalConfig.setSqlInjector(new CustomSqlInjector());
+        globalConfig.setMetaObjectHandler(new MyMetaObjectHandler());
+        GlobalConfigUtils.setGlobalConfig(configuration, globalConfig);
+        configuration.addMapper(EventOutboxMapper.class);
+        mapper = new SqlSessionTemplate(new MybatisSqlSessionFactoryBuilder().build(configuration)).getMapper(EventOutboxMapper.class);
+
+        eventBus = new EventBus();
+        properties = new MybatisPlusExtProperties.Outbox();
+        relay = newRelay(eventBus);
+        storage = new MybatisPlusEventStorage(mapper, relay);
+        eventBus.setEventStorage(storage);
+    }
+
+    @Test
+    void marksSentOnlyAfterHandlerAck() {
+        registerHandler(() -> SyncDeliveryContext.ack());
+        List<OrderCreatedEvent> events = List.of(new OrderCreatedEvent("A"), new OrderCreatedEvent("B"), new OrderCreatedEvent("C"));
+        storage.saveAll(events);
+
+        relay.relay();
+
+        assertEquals(events.stream().map(IntegrationEvent::getEventId).toList(), delivered);
+        for (OrderCreatedEvent event : events) {
+            EventOutbox row = mapper.selectById(event.getEventId());
+            assertEquals(EventOutbox.STATUS_SENT, row.getStatus());
+        }
+    }
+
+    @Test
+    void failedSendBacksOffAndKeepsPending() {
+        registerHandler(() -> {
+            throw new IllegalStateException("broker unavailable");
+        });
+        OrderCreatedEvent event = new OrderCreatedEvent("A");
+        storage.save(event, null);
+
+        relay.relay();
+        relay.relay();
+
+        //第二次转发时还未到下次重试时间，不会重复投递
+        assertEquals(1, delivered.size());
+        EventOutbox row = mapper.selectById(event.getEventId());
+        assertEquals(EventOutbox.STATUS_PENDING, row.getStatus());
+        assertEquals(1, row.getRetryCount());
+        assertTrue(row.getNextRetryTime().isAfter(DateTimeUtil.now()));
+        assertNull(row.getOwner());
+    }
+
+    @Test
+    void withoutAckIsNotSent() {
+        //处理器返回但未确认送达(如异步发送)，不能标记为已发送
+        registerHandler(() -> {
+        });
+        OrderCreatedEvent event = new OrderCreatedEvent("A");
+        storage.save(event, null);
+
+        relay.relay();
+
+        EventOutbox row = mapper.selectById(event.getEventId());
+        assertEquals(EventOutbox.STATUS_PENDING, row.getStatus());
+        assertEquals(1, row.getRetryCount());
+    }
+
+    @Test
+    void exceedingMaxRetryMarksFailed() {
+        properties.setMaxRetry(1);
+        registerHandler(() -> {
+            throw new IllegalStateException("broker unavailable");
+        });
+        OrderCreatedEvent event = new OrderCreatedEvent("A");
+        storage.save(event, null);
+
+        relay.relay();
+
+        assertEquals(EventOutbox.STATUS_FAILED, mapper.selectById(event.getEventId()).getStatus());
+    }
+
+    @Test
+    void leasedRowsAreSkippedByOtherRelays() {
+        EventOutboxRelay other = newRelay(eventBus);
+        AtomicInteger nested = new AtomicInteger();
+        registerHandler(() -> {
+            //投递期间其它实例转发，已被领取的行不会被再次领取
+            if (nested.getAndIncrement() == 0) {
+                other.relay();
+            }
+            SyncDeliveryContext.ack();
+        });
+        List<OrderCreatedEvent> events = List.of(new OrderCreatedEvent("A"), new OrderCreatedEvent("B"));
+        storage.saveAll(events);
+
+        relay.relay();
+
+        assertEquals(events.stream().map(IntegrationEvent::getEventId).toList(), delivered);
+    }
+
+    @Test
+    void onlyOutboxEventsAreStored() {
+        registerHandler(() -> SyncDeliveryContext.ack());
+        OrderCreatedEvent direct = new OrderCreatedEvent("A");
+        OrderCreatedEvent outbox = new OrderCreatedEvent("B");
+        outbox.setOutbox(true);
+
+        eventBus.publish(direct);
+        eventBus.publish(outbox);
+
+        assertEquals(List.of(direct.getEventId()), delivered);
+        assertNull(mapper.selectById(direct.getEventId()));
+        assertEquals(EventOutbox.STATUS_PENDING, mapper.selectById(outbox.getEventId()).getStatus());
+    }
+
+    private EventOutboxRelay newRelay(IEventBus bus) {
+        return new EventOutboxRelay(mapper, properties, () -> bus);
+    }
+
+    private void registerHandler(Runnable onEvent) {
+        eventBus.register(SUBSCRIBER, (OrderCreatedEvent event) -> {
+            delivered.add(event.getEventId());
+            onEvent.run();
+        });
+    }
+
+    public static class OrderCreatedEvent extends IntegrationEvent {
+
+        private static final AtomicLong EVENT_ID = new AtomicLong();
+
+        private String orderNo;
+
+        private transient boolean outbox;
+
+        public OrderCreatedEvent() {
+        }
+
+        public OrderCreatedEvent(String orderNo) {
+            this.orderNo = orderNo;
+            //测试中没有Spring容器提供雪花ID生成器，直接指定事件ID
+            setEventId(EVENT_ID.incrementAndGet());
+        }
+
+        public String getOrderNo() {
+            return orderNo;
+        }
+
+        public void setOrderNo(String orderNo) {
+            this.orderNo = orderNo;
+        }
+
+        @Override
+        public String tag() {
+            return TAG;
+        }
+
+        @Override
+        public boolean isOutbox() {
+            return outbox;
+        }
+
+        public void setOutbox(boolean outbox) {
+            this.outbox = outbox;
+        }
+    }
+}
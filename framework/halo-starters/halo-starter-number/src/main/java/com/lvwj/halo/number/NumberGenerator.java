@@ -3,11 +3,18 @@ package com.lvwj.halo.number;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.extra.spring.SpringUtil;
 import com.lvwj.halo.number.manager.NumberManager;
+import com.lvwj.halo.number.model.NumberRange;
 import com.lvwj.halo.number.model.RuleParseData;
 import com.lvwj.halo.number.util.RuleParseUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.CollectionUtils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.stream.LongStream;
 
 /**
  * 分布式业务编号生成器
@@ -38,6 +45,101 @@ public class NumberGenerator {
     return process(ruleId, parses, params);
   }
 
+  /**
+   * 批量生成编号：顺序号通过 {@link NumberManager#nextNums} 一次获取，规则中的文本/日期/参数部分只计算一次
+   */
+  public static List<String> genBatch(String ruleId, String rule, int count) {
+    return genBatch(ruleId, rule, count, null);
+  }
+
+  public static List<String> genBatch(String ruleId, String rule, int count, List<Object> params) {
+    if (count <= 0) {
+      return Collections.emptyList();
+    }
+    List<RuleParseData> parses = RuleParseUtil.parse(ruleId, rule);
+    if (CollectionUtils.isEmpty(parses)) {
+      return Collections.nCopies(count, "");
+    }
+    //静态部分预先计算，动态部分(顺序号/随机数)记录为占位
+    List<Object> parts = new ArrayList<>(parses.size());
+    int staticLength = 0;
+    for (RuleParseData parseData : parses) {
+      String text = null;
+      switch (parseData.getType()) {
+        case TEXT:
+          text = parseData.getValue();
+          break;
+        case DATE:
+          text = RuleParseUtil.dateFmt(parseData.getKey(), parseData.getValue());
+          break;
+        case PARAMS:
+          int idx = Integer.parseInt(parseData.getValue());
+          text = idx >= 0 && null != params && idx < params.size() ? String.valueOf(params.get(idx)) : "";
+          break;
+        case FUNC:
+          if ("N".equals(parseData.getKey()) || "R".equals(parseData.getKey())) {
+            int length = Integer.parseInt(parseData.getValue());
+            if (length > 0) {
+              parts.add(parseData);
+              staticLength += length;
+            }
+          } else {
+            text = RuleParseUtil.dateFmt(parseData.getKey(), parseData.getValue());
+          }
+          break;
+      }
+      if (null != text) {
+        parts.add(text);
+        staticLength += text.length();
+      }
+    }
+    //每个顺序号占位一次批量取号
+    Map<RuleParseData, PrimitiveIterator.OfLong> sequences = new IdentityHashMap<>();
+    for (Object part : parts) {
+      if (part instanceof RuleParseData parseData && "N".equals(parseData.getKey())) {
+        sequences.put(parseData, iterate(getNumberManager().nextNums(ruleId, count)));
+      }
+    }
+    List<String> numbers = new ArrayList<>(count);
+    StringBuilder sb = new StringBuilder(staticLength + 8);
+    for (int i = 0; i < count; i++) {
+      sb.setLength(0);
+      for (Object part : parts) {
+        if (part instanceof String text) {
+          sb.append(text);
+        } else {
+          RuleParseData parseData = (RuleParseData) part;
+          int length = Integer.parseInt(parseData.getValue());
+          if ("N".equals(parseData.getKey())) {
+            appendPadded(sb, sequences.get(parseData).nextLong(), length);
+          } else {
+            sb.append(RandomUtil.randomNumbers(length));
+          }
+        }
+      }
+      numbers.add(sb.toString());
+    }
+    return numbers;
+  }
+
+  private static PrimitiveIterator.OfLong iterate(List<NumberRange> ranges) {
+    return ranges.stream().flatMapToLong(r -> LongStream.rangeClosed(r.getStart(), r.getEnd())).iterator();
+  }
+
+  /**
+   * 左补0到指定长度，超出长度时保留完整数字
+   */
+  private static void appendPadded(StringBuilder sb, long val, int length) {
+    int digits = 1;
+    for (long v = val / 10; v != 0; v /= 10) {
+      digits++;
+    }
+    for (int i = digits; i < length; i++) {
+      sb.append('0');
+    }
+    sb.append(val);
+  }
+
   private static String process(String ruleId, List<RuleParseData> parses, List<Object> params) {
     StringBuilder sb = new StringBuilder();
     if (!CollectionUtils.isEmpty(parses)) {
@@ -62,8 +164,7 @@ public class NumberGenerator {
                 // 获取下一个序列号
                 Long val = getNumberManager().nextNum(ruleId);
                 if (null != val) {
-                  String number = String.format("%0" + length + "d", val);
-                  sb.append(number);
+                  appendPadded(sb, val, length);
                 }
               }
             } else if ("R".equals(parseData.getKey())) { //随机数字
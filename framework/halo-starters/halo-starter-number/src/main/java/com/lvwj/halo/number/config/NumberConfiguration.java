@@ -4,6 +4,7 @@ import com.lvwj.halo.number.config.prop.NumberProperties;
 import com.lvwj.halo.number.constant.NumberConstant;
 import com.lvwj.halo.number.manager.NumberManager;
 import com.lvwj.halo.number.manager.NumberSegmentManager;
+import com.lvwj.halo.number.util.RuleParseUtil;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
@@ -33,6 +34,7 @@ public class NumberConfiguration {
       if (null != numberProperties.getLoadFactor()) {
         NumberConstant.LOAD_FACTOR = numberProperties.getLoadFactor();
       }
+      RuleParseUtil.clearMeta();
     }
   }
 
@@ -36,6 +36,15 @@ public class NumberConstant {
    */
   public static Double LOAD_FACTOR = DEFAULT_LOAD_FACTOR;
 
+  /**
+   * 自适应步长上限：按消耗速率放大号段时的最大数量
+   */
+  public static Integer ADAPTIVE_STEP_MAX = 10000;
+  /**
+   * 自适应步长目标：一个号段预计可使用的时长(毫秒)
+   */
+  public static Long SEGMENT_TARGET_MILLIS = 10_000L;
+
 
   private static final ThreadFactory ASYNC_THREAD_FACTORY = new ThreadFactory() {
     final AtomicLong count = new AtomicLong(0);
@@ -3,13 +3,20 @@ package com.lvwj.halo.number.manager;
 
 import cn.hutool.core.date.DateUnit;
 import cn.hutool.core.date.DateUtil;
+import com.lvwj.halo.common.utils.Exceptions;
 import com.lvwj.halo.number.constant.RuleModeEnum;
+import com.lvwj.halo.number.model.NumberRange;
 import com.lvwj.halo.number.util.RuleParseUtil;
 import com.lvwj.halo.redis.RedisTemplatePlus;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
@@ -19,7 +26,10 @@ import java.util.concurrent.TimeUnit;
  */
 public abstract class AbstractNumberManager implements NumberManager {
 
-  private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
+  /**
+   * 同步加载中的规则：同一规则只有一个线程访问redis，其余线程等待加载完成后重新从缓冲区获取
+   */
+  private static final Map<String, CompletableFuture<Long>> LOADING = new ConcurrentHashMap<>();
 
   @Autowired
   private RedisTemplatePlus redisTemplatePlus;
@@ -31,19 +41,9 @@ public abstract class AbstractNumberManager implements NumberManager {
       if (null != next) {
         break;
       }
-      synchronized (LOCKS.computeIfAbsent(ruleId, s -> new Object())) {
-        try {
-          next = getFromBuffer(ruleId);
-          if (null != next) {
-            break;
-          }
-          next = load(ruleId, true);
-          if (null != next) {
-            break;
-          }
-        } finally {
-          LOCKS.remove(ruleId);
-        }
+      next = syncLoad(ruleId);
+      if (null != next) {
+        break;
       }
     }
     if (enableAsyncLoad(ruleId)) {
@@ -52,34 +52,69 @@ public abstract class AbstractNumberManager implements NumberManager {
     return next;
   }
 
+  /**
+   * 批量获取号码：数量不小于步长时直接通过一次INCRBY count预留连续区间，否则从号段缓冲区按区间批量取出
+   */
+  @Override
+  public List<NumberRange> nextNums(String ruleId, int count) {
+    if (count <= 0) {
+      return Collections.emptyList();
+    }
+    if (count >= loadStep(ruleId)) {
+      long max = reserve(ruleId, RuleParseUtil.getMode(ruleId), count);
+      return Collections.singletonList(new NumberRange(max - count + 1, max));
+    }
+    List<NumberRange> ranges = new ArrayList<>(2);
+    int remain = count;
+    while (remain > 0) {
+      NumberRange range = getRangeFromBuffer(ruleId, remain);
+      if (null == range) {
+        Long next = syncLoad(ruleId);
+        if (null == next) {
+          continue;
+        }
+        range = new NumberRange(next, next);
+      }
+      ranges.add(range);
+      remain -= range.size();
+    }
+    if (enableAsyncLoad(ruleId)) {
+      asyncLoad(ruleId);
+    }
+    return ranges;
+  }
+
+  private Long syncLoad(String ruleId) {
+    CompletableFuture<Long> future = new CompletableFuture<>();
+    CompletableFuture<Long> loading = LOADING.putIfAbsent(ruleId, future);
+    if (null != loading) {
+      try {
+        loading.join();
+      } catch (CompletionException e) {
+        throw Exceptions.unchecked(e.getCause());
+      }
+      return null;
+    }
+    try {
+      Long next = getFromBuffer(ruleId);
+      if (null == next) {
+        next = load(ruleId, true);
+      }
+      future.complete(next);
+      return next;
+    } catch (Throwable e) {
+      future.completeExceptionally(e);
+      throw e;
+    } finally {
+      LOADING.remove(ruleId, future);
+    }
+  }
+
   protected Long load(String ruleId, boolean sync) {
     Long firstNum = null;
     try {
-      RuleModeEnum mode = RuleParseUtil.getMode(ruleId);
-      String cacheKey = cacheKey(ruleId, mode);
-      Integer step = RuleParseUtil.getStep(ruleId);
-      //redis累加计数，反回累加后的数字
-      Long max = redisTemplatePlus.incrBy(cacheKey, step);
-      if (null == max) {
-        throw new RuntimeException("redis increment return value is null");
-      }
-      //日期模式并且是首次初始化时
-      if (max.intValue() == step) {
-        Date now = new Date();
-        long minute = 0; //计算剩余分钟，作为redis key的过期时间
-        if (mode == RuleModeEnum.D) {
-          minute = DateUtil.between(now, DateUtil.endOfDay(now), DateUnit.MINUTE);
-        }
-        if (mode == RuleModeEnum.M) {
-          minute = DateUtil.between(now, DateUtil.endOfMonth(now), DateUnit.MINUTE);
-        }
-        if (mode == RuleModeEnum.Y) {
-          minute = DateUtil.between(now, DateUtil.endOfYear(now), DateUnit.MINUTE);
-        }
-        if (minute > 0) {
-          redisTemplatePlus.expire(cacheKey, minute + 1, TimeUnit.MINUTES);
-        }
-      }
+      int step = loadStep(ruleId);
+      long max = reserve(ruleId, RuleParseUtil.getMode(ruleId), step);
       long current = max - step;
       if (sync) {
         firstNum = current + 1;
@@ -94,8 +129,55 @@ public abstract class AbstractNumberManager implements NumberManager {
     return firstNum;
   }
 
+  /**
+   * redis一次预留count个号码
+   *
+   * @return 预留区间的最大号码，区间为(max - count, max]
+   */
+  protected long reserve(String ruleId, RuleModeEnum mode, long count) {
+    String cacheKey = cacheKey(ruleId, mode);
+    //redis累加计数，反回累加后的数字
+    Long max = redisTemplatePlus.incrBy(cacheKey, count);
+    if (null == max) {
+      throw new RuntimeException("redis increment return value is null");
+    }
+    //日期模式并且是首次初始化时
+    if (max == count) {
+      Date now = new Date();
+      long minute = 0; //计算剩余分钟，作为redis key的过期时间
+      if (mode == RuleModeEnum.D) {
+        minute = DateUtil.between(now, DateUtil.endOfDay(now), DateUnit.MINUTE);
+      }
+      if (mode == RuleModeEnum.M) {
+        minute = DateUtil.between(now, DateUtil.endOfMonth(now), DateUnit.MINUTE);
+      }
+      if (mode == RuleModeEnum.Y) {
+        minute = DateUtil.between(now, DateUtil.endOfYear(now), DateUnit.MINUTE);
+      }
+      if (minute > 0) {
+        redisTemplatePlus.expire(cacheKey, minute + 1, TimeUnit.MINUTES);
+      }
+    }
+    return max;
+  }
+
+  /**
+   * 本次从redis加载的号码数量，默认为规则配置的步长
+   */
+  protected int loadStep(String ruleId) {
+    return RuleParseUtil.getStep(ruleId);
+  }
+
   protected abstract Long getFromBuffer(String ruleId);
 
+  /**
+   * 从缓冲区取出最多count个连续号码，默认逐个获取
+   */
+  protected NumberRange getRangeFromBuffer(String ruleId, int count) {
+    Long next = getFromBuffer(ruleId);
+    return null == next ? null : new NumberRange(next, next);
+  }
+
   protected abstract void addToBuffer(String ruleId, Long current, Long max);
 
   protected abstract void asyncLoad(String ruleId);
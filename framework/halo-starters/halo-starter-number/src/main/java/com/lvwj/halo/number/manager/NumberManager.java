@@ -4,8 +4,11 @@ import com.lvwj.halo.common.constants.DateTimeConstant;
 import com.lvwj.halo.common.utils.DateTimeUtil;
 import com.lvwj.halo.number.constant.NumberConstant;
 import com.lvwj.halo.number.constant.RuleModeEnum;
+import com.lvwj.halo.number.model.NumberRange;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @author lvwj
@@ -15,6 +18,18 @@ public interface NumberManager {
 
   Long nextNum(String ruleId);
 
+  /**
+   * 批量获取号码，返回的多个区间段按顺序拼接后共count个号码
+   */
+  default List<NumberRange> nextNums(String ruleId, int count) {
+    List<NumberRange> ranges = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      Long num = nextNum(ruleId);
+      ranges.add(new NumberRange(num, num));
+    }
+    return ranges;
+  }
+
   default Boolean enableAsyncLoad(String ruleId) {
     return Boolean.TRUE;
   }
@@ -1,11 +1,13 @@
 package com.lvwj.halo.number.manager;
 
 import com.lvwj.halo.number.constant.NumberConstant;
+import com.lvwj.halo.number.model.NumberRange;
 import com.lvwj.halo.number.model.NumberSegmentBuffer;
 import com.lvwj.halo.number.util.RuleParseUtil;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * 号码区间段管理
@@ -29,16 +31,37 @@ public class NumberSegmentManager extends AbstractNumberManager {
     return BUFFER.get(ruleId);
   }
 
+  @Override
+  protected NumberRange getRangeFromBuffer(String ruleId, int count) {
+    return BUFFER.getRange(ruleId, count);
+  }
+
   @Override
   protected void addToBuffer(String ruleId, Long current, Long max) {
     BUFFER.put(ruleId, current, max);
   }
 
+  @Override
+  protected int loadStep(String ruleId) {
+    //按消耗速率自适应号段大小
+    return BUFFER.nextStep(ruleId, super.loadStep(ruleId));
+  }
+
   @Override
   protected void asyncLoad(String ruleId) {
-    if (!BUFFER.needLoad(ruleId)) {
+    if (!BUFFER.tryStartLoad(ruleId)) {
       return;
     }
-    CompletableFuture.runAsync(() -> load(ruleId, false), NumberConstant.LOAD_POOL);
+    try {
+      CompletableFuture.runAsync(() -> load(ruleId, false), NumberConstant.LOAD_POOL).whenComplete((v, e) -> {
+        if (null != e) {
+          BUFFER.loadFailed(ruleId);
+          log.error("async load number segment failed! ruleId:" + ruleId, e);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      BUFFER.loadFailed(ruleId);
+      log.error("async load number segment rejected! ruleId:" + ruleId, e);
+    }
   }
 }
@@ -0,0 +1,23 @@
+package com.lvwj.halo.number.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 连续号码区间[start, end]
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 19:40
+ */
+@Getter
+@AllArgsConstructor
+public class NumberRange {
+
+  private final long start;
+
+  private final long end;
+
+  public int size() {
+    return (int) (end - start + 1);
+  }
+}
@@ -1,172 +1,216 @@
 package com.lvwj.halo.number.model;
 
-import com.lvwj.halo.number.constant.RuleModeEnum;
+import com.lvwj.halo.number.constant.NumberConstant;
+import com.lvwj.halo.number.util.NumberClock;
 import com.lvwj.halo.number.util.RuleParseUtil;
-import lombok.Data;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.util.Assert;
 
 import java.io.Serializable;
-import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.atomic.AtomicReferenceArray;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 号码区间段
+ * <p>
+ * 当前号段和预加载号段放在同一个不可变对象中，取号只对当前号段做原子自增，切换号段只需一次CAS；
+ * 号段按天/月/年过期通过比较缓存的周期序号判断；预加载号段的大小按当前号段的消耗速率自适应
  *
  * @author lvwj
  * @date 2022-08-26 13:52
  */
-@Data
 @Slf4j
 public class NumberSegment implements Serializable {
 
+  @Getter
   private final String ruleId;
 
-  //号码区间段数组
-  private AtomicReferenceArray<Section> sections;
+  private final RuleMeta meta;
 
-  //sections的下标
-  private volatile int currentIndex = 0;
-
-  private final ReadWriteLock rwl = new ReentrantReadWriteLock();
+  //当前号段和预加载号段
+  private final AtomicReference<Sections> sections = new AtomicReference<>(Sections.EMPTY);
 
   //异步加载标识
-  private AtomicBoolean asyncLoaded = new AtomicBoolean(false);
+  private final AtomicBoolean asyncLoaded = new AtomicBoolean(false);
 
   public NumberSegment(String ruleId) {
     Assert.notNull(ruleId, "编号规则不能为空！");
     this.ruleId = ruleId;
-    this.sections = new AtomicReferenceArray<>(2);
+    this.meta = RuleParseUtil.getMeta(ruleId);
   }
 
   /**
    * 当前区间段的号码已用完 或 按天/月/年模式但是号段生成时间不是当天/月/年(说明号段已过期)
-   *
-   * @author lvwj
-   * @date 2022-08-28 18:47
    */
   public Boolean isCurrentOver() {
-    Section section = sections.get(currentIndex);
-    RuleModeEnum mode = RuleParseUtil.getMode(ruleId);
-    //号段用完 或 按天/月/年模式但是号段生成时间不是当天/月/年(说明号段已过期)
-    return null == section
-            || section.isOver()
-            || mode.isDayMode() && !section.isCurrentDay()
-            || mode.isMonthMode() && !section.isCurrentMonth()
-            || mode.isYearMode() && !section.isCurrentYear()
-            ;
+    return isOver(sections.get().current);
   }
 
   /**
    * 下个区间段的号码已用完 或 按天/月/年模式但是号段生成时间不是当天/月/年(说明号段已过期)
-   *
-   * @author lvwj
-   * @date 2022-08-28 18:47
    */
   public Boolean isNextOver() {
-    int nextIndex = currentIndex == 0 ? 1 : 0;
-    Section section = sections.get(nextIndex);
-    RuleModeEnum mode = RuleParseUtil.getMode(ruleId);
-    //号段用完 或 按天/月/年模式但是号段生成时间不是当天/月/年(说明号段已过期)
-    return null == section
-            || section.isOver()
-            || mode.isDayMode() && !section.isCurrentDay()
-            || mode.isMonthMode() && !section.isCurrentMonth()
-            || mode.isYearMode() && !section.isCurrentYear()
-            ;
+    return isOver(sections.get().next);
   }
 
   /**
    * true 表示俩个区间段的号码都用完了 或 都过期了
-   *
-   * @author lvwj
-   * @date 2022-08-28 18:47
    */
   public Boolean isAllOver() {
-    return isCurrentOver() && isNextOver();
+    Sections s = sections.get();
+    return isOver(s.current) && isOver(s.next);
   }
 
   /**
-   * 剩余号码数量小于等于阈值(步长*加载因子) 且 没有异步加载过 ，则需要加载
-   *
-   * @author lvwj
-   * @date 2022-08-28 18:47
+   * 剩余号码数量小于等于阈值(当前号段大小*加载因子) 且 没有预加载号段 且 没有异步加载过，则需要加载
    */
   public Boolean needLoad() {
-    return sections.get(currentIndex).remain() <= RuleParseUtil.getStep(ruleId) * RuleParseUtil.getLoadFactor(ruleId)
-            && !asyncLoaded.get();
+    Sections s = sections.get();
+    Section current = s.current;
+    return null != current
+        && null == s.next
+        && current.remain() <= current.size * meta.getLoadFactor()
+        && !asyncLoaded.get();
   }
 
-  public Long incrAndGet() {
-    return sections.get(currentIndex).incrAndGet();
+  /**
+   * 需要加载时抢占异步加载标识，只有一个线程会发起异步加载
+   */
+  public Boolean tryStartLoad() {
+    return needLoad() && asyncLoaded.compareAndSet(false, true);
   }
 
   /**
-   * 获取下一个ID
-   *
-   * @author lvwj
-   * @date 2022-08-26 17:14
+   * 异步加载失败时重置标识，允许下次重试
+   */
+  public void loadFailed() {
+    asyncLoaded.set(false);
+  }
+
+  /**
+   * 下次加载的号码数量：按当前号段的消耗速率估算 SEGMENT_TARGET_MILLIS 内的用量，不小于规则步长，不大于 ADAPTIVE_STEP_MAX
+   */
+  public int nextStep() {
+    int step = meta.getStep();
+    Section current = sections.get().current;
+    if (step <= NumberConstant.STEP_MIN || null == current) {
+      return step;
+    }
+    long elapsedNanos = System.nanoTime() - current.activatedNanos;
+    long used = current.used();
+    if (elapsedNanos <= 0 || used <= 0) {
+      return step;
+    }
+    long target = TimeUnit.MILLISECONDS.toNanos(NumberConstant.SEGMENT_TARGET_MILLIS);
+    long estimate = (long) ((double) used / elapsedNanos * target);
+    int max = Math.max(step, NumberConstant.ADAPTIVE_STEP_MAX);
+    return (int) Math.max(step, Math.min(estimate, max));
+  }
+
+  /**
+   * 获取下一个ID，当前号段用完或过期时CAS切换到预加载号段，都不可用时返回null
    */
   public Long nextId() {
-    if (isAllOver()) {
-      return null;
+    while (true) {
+      Sections s = sections.get();
+      Section current = s.current;
+      if (null != current && current.period == period()) {
+        long id = current.incrAndGet();
+        if (id <= current.max) {
+          return id;
+        }
+      }
+      Section next = s.next;
+      if (isOver(next)) {
+        return null;
+      }
+      if (sections.compareAndSet(s, new Sections(next, null))) {
+        next.activatedNanos = System.nanoTime();
+        //切换区间段 并重置异步加载标识为false
+        asyncLoaded.set(false);
+      }
     }
-    rwl.readLock().lock();
-    try {
-      if (isCurrentOver()) {
-        rwl.readLock().unlock();
-        rwl.writeLock().lock();
-        try {
-          if (isCurrentOver()) {
-            //切换区间段下标 并重置异步加载标识为false
-            currentIndex = currentIndex == 0 ? 1 : 0;
-            asyncLoaded.set(false);
-            if (isCurrentOver()) {
-              return null;
-            }
-          }
-        } finally {
-          rwl.writeLock().unlock();
+  }
+
+  /**
+   * 一次从当前号段取出最多count个连续号码，当前号段不足时只返回剩余部分；都不可用时返回null
+   */
+  public NumberRange nextRange(int count) {
+    while (true) {
+      Sections s = sections.get();
+      Section current = s.current;
+      if (null != current && current.period == period()) {
+        long start = current.addAndGet(count) - count + 1;
+        if (start <= current.max) {
+          return new NumberRange(start, Math.min(start + count - 1, current.max));
         }
-        rwl.readLock().lock();
       }
-      return incrAndGet();
-    } finally {
-      rwl.readLock().unlock();
+      Section next = s.next;
+      if (isOver(next)) {
+        return null;
+      }
+      if (sections.compareAndSet(s, new Sections(next, null))) {
+        next.activatedNanos = System.nanoTime();
+        asyncLoaded.set(false);
+      }
     }
   }
 
   /**
-   * 初始化下标为0的区间段号码
-   *
-   * @author lvwj
-   * @date 2022-08-28 18:45
+   * 初始化当前区间段号码
    */
   public void initId(Long current, Long max) {
-    sections.set(0, new Section(max, current));
-    //sections.set(1, new Section());
+    sections.set(new Sections(new Section(max, current, period()), null));
   }
 
   /**
-   * 加载另一个区间段的号码
-   *
-   * @author lvwj
-   * @date 2022-08-28 18:46
+   * 加载号码区间段：当前号段不可用时作为当前号段，否则作为预加载号段；两者都可用时丢弃
    */
   public void loadId(Long current, Long max) {
-    if (!needLoad()) {
-      return;
-    }
-    if (asyncLoaded.compareAndSet(false, true)) {
-      int nextIndex = currentIndex == 0 ? 1 : 0;
-      sections.set(nextIndex, new Section(max, current));
+    Section section = new Section(max, current, period());
+    while (true) {
+      Sections s = sections.get();
+      Sections updated;
+      if (isOver(s.current)) {
+        updated = new Sections(section, isOver(s.next) ? null : s.next);
+      } else if (isOver(s.next)) {
+        updated = new Sections(s.current, section);
+      } else {
+        log.warn("编号规则：" + ruleId + "已存在可用号段，丢弃号段[" + current + "," + max + "]");
+        return;
+      }
+      if (sections.compareAndSet(s, updated)) {
+        return;
+      }
     }
   }
 
+  private long period() {
+    return NumberClock.period(meta.getMode());
+  }
+
+  private boolean isOver(Section section) {
+    return null == section || section.isOver() || section.period != period();
+  }
+
+  /**
+   * 当前号段与预加载号段
+   */
+  private static final class Sections {
+
+    private static final Sections EMPTY = new Sections(null, null);
+
+    private final Section current;
+    private final Section next;
+
+    private Sections(Section current, Section next) {
+      this.current = current;
+      this.next = next;
+    }
+  }
 
   /**
    * 号码区间段
@@ -176,42 +220,46 @@ public class NumberSegment implements Serializable {
    */
   static final class Section {
 
-    private final Long max;
+    private final long max;
+    private final long start;
+    private final long size;
     private final AtomicLong current;
-    private final LocalDate createDay;
-
-    public Section() {
-      this(0L, 0L);
-    }
+    /**
+     * 号段所属周期(天/月/年序号)
+     */
+    private final long period;
+    /**
+     * 开始使用的时间，用于估算消耗速率
+     */
+    private volatile long activatedNanos;
 
-    public Section(Long max, Long current) {
+    public Section(Long max, Long current, long period) {
       this.max = max;
+      this.start = current;
+      this.size = Math.max(max - current, 1);
       this.current = new AtomicLong(current);
-      this.createDay = LocalDate.now();
+      this.period = period;
+      this.activatedNanos = System.nanoTime();
     }
 
-    public Long remain() {
+    public long remain() {
       return max - current.get();
     }
 
-    public Boolean isOver() {
-      return max <= current.get();
-    }
-
-    public Boolean isCurrentDay() {
-      return createDay.equals(LocalDate.now());
+    public long used() {
+      return Math.min(current.get(), max) - start;
     }
 
-    public Boolean isCurrentMonth() {
-      return createDay.getMonthValue() == (LocalDate.now().getMonthValue());
+    public boolean isOver() {
+      return max <= current.get();
     }
 
-    public Boolean isCurrentYear() {
-      return createDay.getYear() == LocalDate.now().getYear();
+    public long incrAndGet() {
+      return current.incrementAndGet();
     }
 
-    public Long incrAndGet() {
-      return current.incrementAndGet();
+    public long addAndGet(long delta) {
+      return current.addAndGet(delta);
     }
   }
 }
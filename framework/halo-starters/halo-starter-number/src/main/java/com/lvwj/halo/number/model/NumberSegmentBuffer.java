@@ -11,38 +11,26 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class NumberSegmentBuffer {
 
-  private static final Map<String, Object> LOCKS = new ConcurrentHashMap<>();
-
   private final Map<String, NumberSegment> BUFFER = new ConcurrentHashMap<>();
 
   public void put(String ruleId, Long current, Long max) {
+    BUFFER.computeIfAbsent(ruleId, NumberSegment::new).loadId(current, max);
+  }
+
+  public Long get(String ruleId) {
     NumberSegment segment = BUFFER.get(ruleId);
     if (null == segment) {
-      synchronized (LOCKS.computeIfAbsent(ruleId, s -> new Object())) {
-        try {
-          segment = BUFFER.get(ruleId);
-          if (null == segment) {
-            segment = new NumberSegment(ruleId);
-            segment.initId(current, max);
-            BUFFER.put(ruleId, segment);
-          } else {
-            segment.loadId(current, max);
-          }
-        } finally {
-          LOCKS.remove(ruleId);
-        }
-      }
-    } else {
-      segment.loadId(current, max);
+      return null;
     }
+    return segment.nextId();
   }
 
-  public Long get(String ruleId) {
+  public NumberRange getRange(String ruleId, int count) {
     NumberSegment segment = BUFFER.get(ruleId);
     if (null == segment) {
       return null;
     }
-    return segment.nextId();
+    return segment.nextRange(count);
   }
 
   public Boolean needLoad(String ruleId) {
@@ -52,4 +40,33 @@ public class NumberSegmentBuffer {
     }
     return segment.needLoad();
   }
+
+  /**
+   * 需要加载时抢占异步加载标识，只有一个线程返回true
+   */
+  public Boolean tryStartLoad(String ruleId) {
+    NumberSegment segment = BUFFER.get(ruleId);
+    if (null == segment) {
+      return Boolean.FALSE;
+    }
+    return segment.tryStartLoad();
+  }
+
+  public void loadFailed(String ruleId) {
+    NumberSegment segment = BUFFER.get(ruleId);
+    if (null != segment) {
+      segment.loadFailed();
+    }
+  }
+
+  /**
+   * 下次加载的号码数量
+   */
+  public Integer nextStep(String ruleId, Integer defaultStep) {
+    NumberSegment segment = BUFFER.get(ruleId);
+    if (null == segment) {
+      return defaultStep;
+    }
+    return segment.nextStep();
+  }
 }
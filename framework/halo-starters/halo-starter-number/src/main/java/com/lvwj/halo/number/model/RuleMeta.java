@@ -0,0 +1,29 @@
+package com.lvwj.halo.number.model;
+
+import com.lvwj.halo.number.constant.RuleModeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 编号规则元数据(模式/步长/加载因子)，每个规则只解析一次
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 19:00
+ */
+@Getter
+@AllArgsConstructor
+public class RuleMeta {
+
+  /**
+   * 规则模式
+   */
+  private final RuleModeEnum mode;
+  /**
+   * 步长
+   */
+  private final int step;
+  /**
+   * 加载因子
+   */
+  private final double loadFactor;
+}
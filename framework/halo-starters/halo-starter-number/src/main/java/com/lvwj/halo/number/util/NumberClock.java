@@ -0,0 +1,66 @@
+package com.lvwj.halo.number.util;
+
+import com.lvwj.halo.number.constant.RuleModeEnum;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+/**
+ * 号段周期时钟：缓存当前的天/月/年序号，只在跨天时刷新
+ * <p>
+ * 每次判断只需比较 System.currentTimeMillis() 与缓存的下一个零点，不再每次调用 LocalDate.now()
+ *
+ * @author lvweijie
+ * @date 2026年10月18日 19:00
+ */
+public class NumberClock {
+
+  private static volatile Tick tick = new Tick(LocalDate.now());
+
+  private NumberClock() {
+  }
+
+  /**
+   * 当前周期序号：全局模式固定为0，按天为epochDay，按月为 年*12+月，按年为年
+   */
+  public static long period(RuleModeEnum mode) {
+    Tick t = tick;
+    if (System.currentTimeMillis() >= t.nextDayMillis) {
+      t = refresh();
+    }
+    switch (mode) {
+      case D:
+        return t.epochDay;
+      case M:
+        return t.epochMonth;
+      case Y:
+        return t.year;
+      default:
+        return 0L;
+    }
+  }
+
+  private static synchronized Tick refresh() {
+    Tick t = tick;
+    if (System.currentTimeMillis() >= t.nextDayMillis) {
+      t = new Tick(LocalDate.now());
+      tick = t;
+    }
+    return t;
+  }
+
+  private static final class Tick {
+
+    private final long epochDay;
+    private final long epochMonth;
+    private final long year;
+    private final long nextDayMillis;
+
+    private Tick(LocalDate today) {
+      this.epochDay = today.toEpochDay();
+      this.epochMonth = today.getYear() * 12L + today.getMonthValue() - 1;
+      this.year = today.getYear();
+      this.nextDayMillis = today.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+  }
+}
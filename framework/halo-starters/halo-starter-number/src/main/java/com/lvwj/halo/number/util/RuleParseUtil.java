@@ -5,6 +5,7 @@ import com.lvwj.halo.common.utils.DateTimeUtil;
 import com.lvwj.halo.number.constant.NumberConstant;
 import com.lvwj.halo.number.constant.RuleModeEnum;
 import com.lvwj.halo.number.constant.RuleTypeEnum;
+import com.lvwj.halo.number.model.RuleMeta;
 import com.lvwj.halo.number.model.RuleParseData;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -30,6 +31,9 @@ public class RuleParseUtil {
   //缓存规则解析结果
   private static final Map<String, List<RuleParseData>> RULE_CACHE = new ConcurrentHashMap<>();
 
+  //缓存规则元数据
+  private static final Map<String, RuleMeta> META_CACHE = new ConcurrentHashMap<>();
+
   public static List<RuleParseData> parse(String ruleId, String rule) {
     String key = ruleId + ":" + rule;
     List<RuleParseData> parses = RULE_CACHE.get(key);
@@ -103,7 +107,37 @@ public class RuleParseUtil {
     return list;
   }
 
+  /**
+   * 规则元数据，同一个ruleId只解析一次
+   */
+  public static RuleMeta getMeta(String ruleId) {
+    RuleMeta meta = META_CACHE.get(ruleId);
+    if (null == meta) {
+      meta = META_CACHE.computeIfAbsent(ruleId, k -> new RuleMeta(parseMode(k), parseStep(k), parseLoadFactor(k)));
+    }
+    return meta;
+  }
+
+  /**
+   * 清除规则元数据缓存，修改步长/加载因子配置后调用
+   */
+  public static void clearMeta() {
+    META_CACHE.clear();
+  }
+
   public static Integer getStep(String ruleId) {
+    return getMeta(ruleId).getStep();
+  }
+
+  public static Double getLoadFactor(String ruleId) {
+    return getMeta(ruleId).getLoadFactor();
+  }
+
+  public static RuleModeEnum getMode(String ruleId) {
+    return getMeta(ruleId).getMode();
+  }
+
+  private static Integer parseStep(String ruleId) {
     Integer step = null;
     String[] split = ruleId.split("#");
     if (split.length > 2) {
@@ -125,7 +159,7 @@ public class RuleParseUtil {
     return step;
   }
 
-  public static Double getLoadFactor(String ruleId) {
+  private static Double parseLoadFactor(String ruleId) {
     Double loadFactor = null;
     String[] split = ruleId.split("#");
     if (split.length > 3) {
@@ -144,7 +178,7 @@ public class RuleParseUtil {
     return loadFactor;
   }
 
-  public static RuleModeEnum getMode(String ruleId) {
+  private static RuleModeEnum parseMode(String ruleId) {
     RuleModeEnum mode = RuleModeEnum.G;
     String[] split = ruleId.split("#");
     if (split.length > 1) {
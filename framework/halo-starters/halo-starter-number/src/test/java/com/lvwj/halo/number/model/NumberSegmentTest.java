@@ -0,0 +1,148 @@
+package com.lvwj.halo.number.model;
+
+import com.lvwj.halo.number.constant.NumberConstant;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 号码区间段测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 10:40
+ */
+class NumberSegmentTest {
+
+  private static final AtomicInteger RULE_SEQ = new AtomicInteger();
+
+  @Test
+  void switchesToPreloadedSection() {
+    NumberSegment segment = new NumberSegment(ruleId(10, 0.3));
+    segment.loadId(0L, 10L);
+    segment.loadId(100L, 105L);
+
+    List<Long> ids = new ArrayList<>();
+    Long id;
+    while (null != (id = segment.nextId())) {
+      ids.add(id);
+    }
+
+    List<Long> expected = new ArrayList<>(LongStream.rangeClosed(1, 10).boxed().toList());
+    expected.addAll(LongStream.rangeClosed(101, 105).boxed().toList());
+    assertEquals(expected, ids);
+    assertTrue(segment.isAllOver());
+  }
+
+  @Test
+  void discardsSectionWhenBothAvailable() {
+    NumberSegment segment = new NumberSegment(ruleId(10, 0.3));
+    segment.loadId(0L, 10L);
+    segment.loadId(100L, 110L);
+    segment.loadId(200L, 210L);
+
+    for (int i = 0; i < 20; i++) {
+      segment.nextId();
+    }
+    assertNull(segment.nextId());
+  }
+
+  @Test
+  void onlyOneThreadStartsLoad() {
+    NumberSegment segment = new NumberSegment(ruleId(10, 0.3));
+    segment.loadId(0L, 10L);
+    assertFalse(segment.needLoad());
+
+    for (int i = 0; i < 7; i++) {
+      segment.nextId();
+    }
+    //剩余3个，达到加载阈值 10*0.3
+    assertTrue(segment.needLoad());
+    assertTrue(segment.tryStartLoad());
+    assertFalse(segment.tryStartLoad());
+
+    segment.loadFailed();
+    assertTrue(segment.tryStartLoad());
+
+    segment.loadId(10L, 20L);
+    assertFalse(segment.needLoad());
+  }
+
+  @Test
+  void nextRangeReturnsRemainderOfCurrentSection() {
+    NumberSegment segment = new NumberSegment(ruleId(10, 0.3));
+    segment.loadId(0L, 10L);
+
+    NumberRange first = segment.nextRange(4);
+    assertEquals(1, first.getStart());
+    assertEquals(4, first.getEnd());
+
+    NumberRange rest = segment.nextRange(10);
+    assertEquals(5, rest.getStart());
+    assertEquals(10, rest.getEnd());
+    assertEquals(6, rest.size());
+
+    assertNull(segment.nextRange(1));
+  }
+
+  @Test
+  void nextStepGrowsWithConsumptionRate() {
+    NumberSegment segment = new NumberSegment(ruleId(10, 0.3));
+    assertEquals(10, segment.nextStep());
+
+    segment.loadId(0L, 2000L);
+    for (int i = 0; i < 1000; i++) {
+      segment.nextId();
+    }
+    //1000个号码在远小于目标时长内用完，按速率估算的步长达到上限
+    assertEquals(NumberConstant.ADAPTIVE_STEP_MAX, segment.nextStep());
+  }
+
+  @Test
+  void concurrentNextIdIsUnique() throws Exception {
+    NumberSegment segment = new NumberSegment(ruleId(1000, 0.3));
+    segment.loadId(0L, 50_000L);
+    segment.loadId(100_000L, 150_000L);
+
+    int threads = 8;
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    List<Callable<Integer>> tasks = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      tasks.add(() -> {
+        int count = 0;
+        Long id;
+        while (null != (id = segment.nextId())) {
+          assertTrue(ids.add(id), "duplicate " + id);
+          count++;
+        }
+        return count;
+      });
+    }
+    int total = 0;
+    for (Future<Integer> future : executor.invokeAll(tasks)) {
+      total += future.get();
+    }
+    executor.shutdown();
+
+    assertEquals(100_000, total);
+    assertEquals(100_000, ids.size());
+  }
+
+  private static String ruleId(int step, double loadFactor) {
+    return "NumberSegmentTest" + RULE_SEQ.incrementAndGet() + "#G#" + step + "#" + loadFactor;
+  }
+}
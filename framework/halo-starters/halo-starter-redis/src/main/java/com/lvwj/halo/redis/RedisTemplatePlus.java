@@ -55,8 +55,11 @@ public class RedisTemplatePlus {
   private final ZSetOperations<String, Object> zSetOps;
 
   private final DefaultRedisScript<Long> rateLimiterScript;
+  private final DefaultRedisScript<Long> tokenBucketLeaseScript;
+  private final DefaultRedisScript<Long> compareAndDeleteScript;
 
   private static final String RATE_LIMIT_KEY_PREFIX = "RATE_LIMIT:";
+  private static final String RATE_LIMIT_BUCKET_KEY_PREFIX = "RATE_LIMIT_BUCKET:";
   private static final String IDEMPOTENT_KEY_PREFIX = "IDEMPOTENT:";
 
   public RedisTemplatePlus(RedisTemplate<String, Object> redisTemplate) {
@@ -70,6 +73,14 @@ public class RedisTemplatePlus {
     this.rateLimiterScript = new DefaultRedisScript<>();
     this.rateLimiterScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("META-INF/scripts/rate_limiter.lua")));
     this.rateLimiterScript.setResultType(Long.class);
+
+    this.tokenBucketLeaseScript = new DefaultRedisScript<>();
+    this.tokenBucketLeaseScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("META-INF/scripts/token_bucket_lease.lua")));
+    this.tokenBucketLeaseScript.setResultType(Long.class);
+
+    this.compareAndDeleteScript = new DefaultRedisScript<>();
+    this.compareAndDeleteScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("META-INF/scripts/compare_and_delete.lua")));
+    this.compareAndDeleteScript.setResultType(Long.class);
   }
 
   /**
@@ -239,6 +250,16 @@ public class RedisTemplatePlus {
     return redisTemplate.delete(RedisKeyGenerator.gen(key));
   }
 
+  /**
+   * 仅当 key 的值等于 expected 时删除，用于释放自己持有的锁/租约
+   *
+   * @return 是否删除
+   */
+  public boolean compareAndDel(String key, Object expected) {
+    Long deleted = execute(this.compareAndDeleteScript, Collections.singletonList(key), expected);
+    return null != deleted && deleted > 0;
+  }
+
   /**
    * 删除给定的多个 key 不存在的 key 会被忽略。
    */
@@ -1300,6 +1321,22 @@ public class RedisTemplatePlus {
     }
   }
 
+  /**
+   * 从令牌桶租借令牌：桶容量为max，每个周期匀速补满
+   *
+   * @param key      key 最好加前缀来区分
+   * @param max      最大请求次数
+   * @param period   时间周期
+   * @param timeUnit 时间周期单位
+   * @param requested 申请的令牌数
+   * @return 实际租到的令牌数，0 表示已达到限流大小
+   */
+  public long leaseRateLimitTokens(String key, long max, long period, TimeUnit timeUnit, long requested) {
+    List<String> keys = Collections.singletonList(RATE_LIMIT_BUCKET_KEY_PREFIX + key);
+    Long granted = execute(this.tokenBucketLeaseScript, keys, max, timeUnit.toMillis(period), System.currentTimeMillis(), requested);
+    return null == granted ? 0 : granted;
+  }
+
   private boolean isAllowed(String key, long max, long period, TimeUnit timeUnit) {
     String redisKey = RATE_LIMIT_KEY_PREFIX + key;
     List<String> keys = Collections.singletonList(redisKey);
@@ -1,8 +1,11 @@
 package com.lvwj.halo.redis.config;
 
 
+import com.lvwj.halo.redis.RedisTemplatePlus;
+import com.lvwj.halo.redis.ratelimiter.LeasedRateLimiter;
 import com.lvwj.halo.redis.ratelimiter.RedisRateLimiterAspect;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,7 +16,13 @@ import org.springframework.context.annotation.Configuration;
  * @date 2022-12-14 16:18
  */
 @AutoConfiguration
+@EnableConfigurationProperties(RedisRateLimiterProperties.class)
 public class RedisRateLimiterConfiguration {
+  @Bean
+  public LeasedRateLimiter leasedRateLimiter(RedisTemplatePlus redisTemplatePlus, RedisRateLimiterProperties properties) {
+    return new LeasedRateLimiter(redisTemplatePlus, properties.getBucket());
+  }
+
   @Bean
   public RedisRateLimiterAspect redisRateLimiterAspect() {
     return new RedisRateLimiterAspect();
@@ -0,0 +1,62 @@
+package com.lvwj.halo.redis.config;
+
+import com.lvwj.halo.redis.ratelimiter.RateLimiterMode;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 限流配置
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 02:32
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = RedisRateLimiterProperties.PREFIX)
+public class RedisRateLimiterProperties {
+
+  public static final String PREFIX = "halo.redis.rate-limiter";
+
+  /**
+   * 默认限流模式，@RateLimiter 未指定 mode 时使用
+   */
+  private RateLimiterMode mode = RateLimiterMode.SLIDING_WINDOW;
+
+  /**
+   * 本地令牌桶配置
+   */
+  private Bucket bucket = new Bucket();
+
+  @Getter
+  @Setter
+  public static class Bucket {
+
+    /**
+     * 每次租借的令牌数占 max 的比例：越大 redis 往返越少，但节点间分配越不均、限流越不精确
+     */
+    private double leaseRatio = 0.1;
+
+    /**
+     * 单次租借的令牌数上限
+     */
+    private long maxLease = 500;
+
+    /**
+     * 本地剩余令牌低于 单次租借数*refillThreshold 时异步补充，0 表示只在耗尽时同步租借
+     */
+    private double refillThreshold = 0.2;
+
+    /**
+     * 租到的令牌在本地的有效期(不超过限流周期)，过期未用完的令牌丢弃，越短越精确
+     */
+    private Duration leaseTtl = Duration.ofSeconds(1);
+
+    /**
+     * 本地最多保留的限流 key 数
+     */
+    private long maxKeys = 10000;
+  }
+}
@@ -1,14 +1,24 @@
 package com.lvwj.halo.redis.idempotent;
 
 import cn.hutool.extra.spring.SpringUtil;
+import com.lvwj.halo.core.spel.MethodMetadataCache;
+import com.lvwj.halo.core.spel.MyCachedExpressionEvaluator;
 import com.lvwj.halo.redis.RedisTemplatePlus;
+import com.lvwj.halo.redis.idempotent.key.ExpressionIdempotentKey;
 import com.lvwj.halo.redis.idempotent.key.IdempotentKey;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.expression.Expression;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
 
 
 /**
@@ -24,13 +34,33 @@ public class IdempotentAspect {
   @Resource
   private RedisTemplatePlus redisTemplatePlus;
 
+  /**
+   * 方法 - Key 解析器及预先解析的 spEl
+   */
+  private final MethodMetadataCache<KeyResolver> keyResolverCache = new MethodMetadataCache<>(this::resolveKeyResolver);
+
   @Around("@annotation(idempotent)")
   public Object aroundIdempotent(ProceedingJoinPoint joinPoint, Idempotent idempotent) {
-    IdempotentKey keyResolver = SpringUtil.getBean(idempotent.keyResolver());
-    Assert.notNull(keyResolver, "找不到对应的IdempotentKey");
+    MethodSignature ms = (MethodSignature) joinPoint.getSignature();
+    KeyResolver keyResolver = keyResolverCache.get(ms.getMethod(), joinPoint.getTarget().getClass());
     // 解析 Key
-    String key = keyResolver.resolver(joinPoint, idempotent);
+    String key = null != keyResolver.expression() && keyResolver.resolver() instanceof ExpressionIdempotentKey expressionKey
+        ? expressionKey.resolver(joinPoint, keyResolver.targetMethod(), keyResolver.expression())
+        : keyResolver.resolver().resolver(joinPoint, idempotent);
     Assert.hasText(key, "IdempotentKey resolver result is blank!");
     return redisTemplatePlus.idempotent(key, idempotent.timeout(), idempotent.timeUnit(), () -> joinPoint.proceed());
   }
+
+  private KeyResolver resolveKeyResolver(Method method, Class<?> targetClass) {
+    Method targetMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+    Idempotent idempotent = AnnotationUtils.findAnnotation(targetMethod, Idempotent.class);
+    Assert.notNull(idempotent, "找不到对应的@Idempotent");
+    IdempotentKey keyResolver = SpringUtil.getBean(idempotent.keyResolver());
+    Assert.notNull(keyResolver, "找不到对应的IdempotentKey");
+    Expression expression = StringUtils.hasText(idempotent.spEl()) ? MyCachedExpressionEvaluator.INSTANCE.parseExpression(idempotent.spEl()) : null;
+    return new KeyResolver(keyResolver, expression, targetMethod);
+  }
+
+  private record KeyResolver(IdempotentKey resolver, Expression expression, Method targetMethod) {
+  }
 }
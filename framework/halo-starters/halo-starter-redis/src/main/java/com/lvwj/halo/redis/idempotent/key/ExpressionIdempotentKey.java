@@ -9,6 +9,7 @@ import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.expression.AnnotatedElementKey;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
 
 import java.lang.reflect.Method;
 
@@ -22,6 +23,19 @@ public class ExpressionIdempotentKey implements IdempotentKey, ApplicationContex
     return eval(joinPoint, idempotent.spEl());
   }
 
+  /**
+   * 使用预先解析好的表达式求值
+   *
+   * @param targetMethod 目标类上的方法
+   * @param expression   预先解析的 spEl
+   */
+  public String resolver(JoinPoint point, Method targetMethod, Expression expression) {
+    MethodSignature ms = (MethodSignature) point.getSignature();
+    Object target = point.getTarget();
+    EvaluationContext context = MyCachedExpressionEvaluator.INSTANCE.createContext(ms.getMethod(), targetMethod, point.getArgs(), target, target.getClass(), applicationContext);
+    return expression.getValue(context, String.class);
+  }
+
   private String eval(JoinPoint point, String el) {
     MethodSignature ms = (MethodSignature) point.getSignature();
     Method method = ms.getMethod();
@@ -0,0 +1,161 @@
+package com.lvwj.halo.redis.ratelimiter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.lvwj.halo.common.enums.BaseErrorEnum;
+import com.lvwj.halo.common.utils.Assert;
+import com.lvwj.halo.core.threadpool.ThreadPoolCache;
+import com.lvwj.halo.redis.RedisTemplatePlus;
+import com.lvwj.halo.redis.config.RedisRateLimiterProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 本地令牌桶限流：从 redis 令牌桶按块租借令牌，请求在进程内无锁扣减
+ * <p>
+ * 本地令牌低于水位时异步补充，耗尽时同步租借一次，两者共用租借标记，同一 key 同一时刻只有一次租借；
+ * redis 桶也耗尽时，在补充一个令牌所需的时间内直接本地拒绝，租到的令牌超过有效期未用完则丢弃，避免空闲节点囤积令牌造成突发。
+ * 异步补充的线程池在首次使用本地令牌桶时才创建
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 02:35
+ */
+@Slf4j
+public class LeasedRateLimiter {
+
+  private final RedisTemplatePlus redisTemplatePlus;
+  private final RedisRateLimiterProperties.Bucket properties;
+  private final Cache<String, LocalBucket> buckets;
+  private volatile Executor executor;
+
+  public LeasedRateLimiter(RedisTemplatePlus redisTemplatePlus, RedisRateLimiterProperties.Bucket properties) {
+    this.redisTemplatePlus = redisTemplatePlus;
+    this.properties = properties;
+    this.buckets = Caffeine.newBuilder()
+        .maximumSize(properties.getMaxKeys())
+        .expireAfterAccess(properties.getLeaseTtl().multipliedBy(10))
+        .build();
+  }
+
+  /**
+   * 限流，不通过时抛出限流异常
+   */
+  public void rateLimit(String key, long max, long period, TimeUnit timeUnit) {
+    boolean allowed = tryAcquire(key, max, period, timeUnit);
+    Assert.isTrue(allowed, BaseErrorEnum.RATE_LIMIT_ERROR, max, timeUnit.toSeconds(period));
+  }
+
+  /**
+   * @param key      限流 key
+   * @param max      周期内最大请求数
+   * @param period   周期
+   * @param timeUnit 周期单位
+   * @return 是否放行
+   */
+  public boolean tryAcquire(String key, long max, long period, TimeUnit timeUnit) {
+    LocalBucket bucket = buckets.get(key, k -> new LocalBucket());
+    long periodMillis = timeUnit.toMillis(period);
+    long lease = leaseSize(max);
+    if (bucket.tryTake()) {
+      if (properties.getRefillThreshold() > 0 && bucket.tokens.get() <= lease * properties.getRefillThreshold()
+          && bucket.leasing.compareAndSet(false, true)) {
+        executor().execute(() -> {
+          try {
+            lease(key, bucket, max, periodMillis, lease);
+          } catch (Exception e) {
+            log.warn("[{}] async lease rate limit tokens failed", key, e);
+          } finally {
+            bucket.leasing.set(false);
+          }
+        });
+      }
+      return true;
+    }
+    //redis 桶已耗尽，补充一个令牌之前无需再访问 redis
+    if (System.currentTimeMillis() < bucket.emptyUntil) {
+      return false;
+    }
+    synchronized (bucket) {
+      while (!bucket.leasing.compareAndSet(false, true)) {
+        //异步补充进行中，等待其完成
+        if (bucket.tryTake()) {
+          return true;
+        }
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+      }
+      try {
+        if (bucket.tryTake()) {
+          return true;
+        }
+        if (System.currentTimeMillis() < bucket.emptyUntil) {
+          return false;
+        }
+        lease(key, bucket, max, periodMillis, lease);
+      } finally {
+        bucket.leasing.set(false);
+      }
+      return bucket.tryTake();
+    }
+  }
+
+  private Executor executor() {
+    Executor e = executor;
+    if (null == e) {
+      //ThreadPoolCache按名称缓存，并发首次调用得到同一个线程池
+      e = ThreadPoolCache.getCustomizeThreadPool("halo-rate-limiter-lease", 1, Runtime.getRuntime().availableProcessors(), 1000);
+      executor = e;
+    }
+    return e;
+  }
+
+  private void lease(String key, LocalBucket bucket, long max, long periodMillis, long lease) {
+    long granted = redisTemplatePlus.leaseRateLimitTokens(key, max, periodMillis, TimeUnit.MILLISECONDS, lease);
+    long now = System.currentTimeMillis();
+    if (granted <= 0) {
+      bucket.emptyUntil = now + Math.max(1, periodMillis / max);
+      return;
+    }
+    bucket.expireAt = now + Math.min(periodMillis, properties.getLeaseTtl().toMillis());
+    bucket.tokens.addAndGet(granted);
+  }
+
+  private long leaseSize(long max) {
+    long lease = (long) Math.ceil(max * properties.getLeaseRatio());
+    return Math.max(1, Math.min(lease, Math.min(max, properties.getMaxLease())));
+  }
+
+  private static final class LocalBucket {
+    private final AtomicLong tokens = new AtomicLong();
+    private final AtomicBoolean leasing = new AtomicBoolean();
+    /**
+     * 租到的令牌失效时间
+     */
+    private volatile long expireAt;
+    /**
+     * redis 桶耗尽后的本地拒绝截止时间
+     */
+    private volatile long emptyUntil;
+
+    private boolean tryTake() {
+      if (System.currentTimeMillis() >= expireAt) {
+        //过期令牌丢弃
+        if (tokens.get() > 0) {
+          tokens.set(0);
+        }
+        return false;
+      }
+      long t;
+      while ((t = tokens.get()) > 0) {
+        if (tokens.compareAndSet(t, t - 1)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -44,4 +44,11 @@ public @interface RateLimiter {
    * 时间单位,支持${}
    */
   String timeUnit() default "";
+
+  /**
+   * 限流模式，为空时使用 halo.redis.rate-limiter.mode，支持${}
+   *
+   * @see RateLimiterMode
+   */
+  String mode() default "";
 }
@@ -0,0 +1,20 @@
+package com.lvwj.halo.redis.ratelimiter;
+
+/**
+ * 限流模式
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 02:30
+ */
+public enum RateLimiterMode {
+
+  /**
+   * 滑动窗口：每次请求执行一次 redis 脚本，精确但每次都有一次往返
+   */
+  SLIDING_WINDOW,
+
+  /**
+   * 本地令牌桶：节点从 redis 令牌桶按块租借令牌，在进程内无锁消费，低水位时异步补充
+   */
+  LOCAL_BUCKET
+}
@@ -2,28 +2,32 @@ package com.lvwj.halo.redis.ratelimiter;
 
 import com.lvwj.halo.common.utils.Func;
 import com.lvwj.halo.common.utils.StringPool;
+import com.lvwj.halo.core.spel.MethodMetadataCache;
 import com.lvwj.halo.core.spel.MyCachedExpressionEvaluator;
 import com.lvwj.halo.redis.RedisTemplatePlus;
+import com.lvwj.halo.redis.config.RedisRateLimiterProperties;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
-import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 import org.springframework.context.EnvironmentAware;
-import org.springframework.context.expression.AnnotatedElementKey;
+import org.springframework.core.BridgeMethodResolver;
 import org.springframework.core.env.Environment;
 import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
 import org.springframework.lang.NonNull;
 import org.springframework.util.Assert;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -39,68 +43,97 @@ public class RedisRateLimiterAspect implements ApplicationContextAware, Environm
   @Resource
   private RedisTemplatePlus redisTemplatePlus;
 
+  @Resource
+  private LeasedRateLimiter leasedRateLimiter;
+
+  @Resource
+  private RedisRateLimiterProperties redisRateLimiterProperties;
+
   private ApplicationContext applicationContext;
 
   private Environment environment;
 
+  /**
+   * 方法 - 解析好的限流配置
+   */
+  private final MethodMetadataCache<Limit[]> limitCache = new MethodMetadataCache<>(this::resolveLimits);
+
   /**
    * AOP 环切 注解 @RateLimiter
    */
   @Around("@annotation(com.lvwj.halo.redis.ratelimiter.RateLimiter) || @annotation(com.lvwj.halo.redis.ratelimiter.RateLimiters)")
   public Object aroundRateLimiter(ProceedingJoinPoint point) throws Throwable {
-    RateLimiter[] limiters;
-    try {
-      Method method = getMethod(point);
-      limiters = method.getAnnotationsByType(RateLimiter.class);
-    } catch (Throwable throwable) {
-      return point.proceed();
-    }
-
-    for (RateLimiter limiter : limiters) {
-      if (Func.toBoolean(resolve(limiter.enable()), Boolean.TRUE)) {
-        checkRateLimit(point, limiter);
-      }
+    MethodSignature ms = (MethodSignature) point.getSignature();
+    Limit[] limits = limitCache.get(ms.getMethod(), point.getTarget().getClass());
+    for (Limit limit : limits) {
+      checkRateLimit(point, limit);
     }
 
     return point.proceed();
   }
 
-  private void checkRateLimit(ProceedingJoinPoint point, RateLimiter limiter) {
-    String limitKey = limiter.value();
-    Long max = Func.toLong(resolve(limiter.max()), 1L);
-    Long ttl = Func.toLong(resolve(limiter.ttl()), 1L);
-    TimeUnit timeUnit = TimeUnit.valueOf(Func.toStr(resolve(limiter.timeUnit()), "MINUTES"));
-    Assert.hasText(limitKey, "@RateLimiter value must not be null or empty");
-    Assert.isTrue(max > 0, "@RateLimiter[" + limitKey + "] max is invalid");
-    Assert.isTrue(ttl > 0, "@RateLimiter[" + limitKey + "] ttl is invalid");
-    Assert.notNull(timeUnit, "@RateLimiter[" + limitKey + "] timeUnit is invalid");
-
-    String rateKey = limitKey;
-    if (StringUtils.isNotBlank(limiter.param())) {
-      String evalAsText = evalLimitParam(point, limiter.param());
+  private void checkRateLimit(ProceedingJoinPoint point, Limit limit) {
+    String rateKey = limit.key();
+    if (null != limit.param()) {
+      String evalAsText = evalLimitParam(point, limit);
       if (StringUtils.isNotBlank(evalAsText)) {
-        rateKey = limitKey + StringPool.COLON + evalAsText;
+        rateKey = limit.key() + StringPool.COLON + evalAsText;
       }
     }
-    redisTemplatePlus.rateLimit(rateKey, max, ttl, timeUnit);
+    RateLimiterMode limiterMode = null == limit.mode() ? redisRateLimiterProperties.getMode() : limit.mode();
+    if (limiterMode == RateLimiterMode.LOCAL_BUCKET) {
+      leasedRateLimiter.rateLimit(rateKey, limit.max(), limit.ttl(), limit.timeUnit());
+      return;
+    }
+    redisTemplatePlus.rateLimit(rateKey, limit.max(), limit.ttl(), limit.timeUnit());
   }
 
   /**
    * 计算参数表达式
    *
-   * @param point      ProceedingJoinPoint
-   * @param limitParam limitParam
+   * @param point ProceedingJoinPoint
+   * @param limit 限流配置
    * @return 结果
    */
-  private String evalLimitParam(ProceedingJoinPoint point, String limitParam) {
+  private String evalLimitParam(ProceedingJoinPoint point, Limit limit) {
     MethodSignature ms = (MethodSignature) point.getSignature();
-    Method method = ms.getMethod();
-    Object[] args = point.getArgs();
     Object target = point.getTarget();
-    Class<?> targetClass = target.getClass();
-    EvaluationContext context = MyCachedExpressionEvaluator.INSTANCE.createContext(method, args, target, targetClass, applicationContext);
-    AnnotatedElementKey elementKey = new AnnotatedElementKey(method, targetClass);
-    return MyCachedExpressionEvaluator.INSTANCE.evalAsText(limitParam, elementKey, context);
+    EvaluationContext context = MyCachedExpressionEvaluator.INSTANCE.createContext(ms.getMethod(), limit.targetMethod(), point.getArgs(), target, target.getClass(), applicationContext);
+    return limit.param().getValue(context, String.class);
+  }
+
+  /**
+   * 解析方法上开启的限流注解：占位符、数值、时间单位及参数表达式只解析一次
+   * <p>
+   * 按目标类上最具体的方法(含非public方法、泛型桥接方法)取注解，目标方法上没有时取接口方法上的
+   */
+  private Limit[] resolveLimits(Method method, Class<?> targetClass) {
+    Method targetMethod = BridgeMethodResolver.findBridgedMethod(AopUtils.getMostSpecificMethod(method, targetClass));
+    RateLimiter[] limiters = targetMethod.getAnnotationsByType(RateLimiter.class);
+    if (limiters.length == 0) {
+      limiters = method.getAnnotationsByType(RateLimiter.class);
+    }
+    List<Limit> limits = new ArrayList<>(limiters.length);
+    for (RateLimiter limiter : limiters) {
+      if (Func.toBoolean(resolve(limiter.enable()), Boolean.TRUE)) {
+        limits.add(resolveLimit(limiter, targetMethod));
+      }
+    }
+    return limits.toArray(new Limit[0]);
+  }
+
+  private Limit resolveLimit(RateLimiter limiter, Method targetMethod) {
+    String limitKey = limiter.value();
+    Long max = Func.toLong(resolve(limiter.max()), 1L);
+    Long ttl = Func.toLong(resolve(limiter.ttl()), 1L);
+    TimeUnit timeUnit = TimeUnit.valueOf(Func.toStr(resolve(limiter.timeUnit()), "MINUTES"));
+    Assert.hasText(limitKey, "@RateLimiter value must not be null or empty");
+    Assert.isTrue(max > 0, "@RateLimiter[" + limitKey + "] max is invalid");
+    Assert.isTrue(ttl > 0, "@RateLimiter[" + limitKey + "] ttl is invalid");
+    Assert.notNull(timeUnit, "@RateLimiter[" + limitKey + "] timeUnit is invalid");
+    String mode = resolve(limiter.mode());
+    Expression param = StringUtils.isNotBlank(limiter.param()) ? MyCachedExpressionEvaluator.INSTANCE.parseExpression(limiter.param()) : null;
+    return new Limit(limitKey, max, ttl, timeUnit, StringUtils.isBlank(mode) ? null : RateLimiterMode.valueOf(mode), param, targetMethod);
   }
 
   private String resolve(String value) {
@@ -110,19 +143,6 @@ public class RedisRateLimiterAspect implements ApplicationContextAware, Environm
     return value;
   }
 
-  private Method getMethod(JoinPoint joinPoint) {
-    Method method = null;
-    try {
-      Signature signature = joinPoint.getSignature();
-      MethodSignature ms = (MethodSignature) signature;
-      Object target = joinPoint.getTarget();
-      method = target.getClass().getMethod(ms.getName(), ms.getParameterTypes());
-    } catch (NoSuchMethodException e) {
-      log.error("RedisRateLimiterAspect getMethod error", e);
-    }
-    return method;
-  }
-
   @Override
   public void setApplicationContext(@NonNull ApplicationContext applicationContext) throws BeansException {
     this.applicationContext = applicationContext;
@@ -132,4 +152,10 @@ public class RedisRateLimiterAspect implements ApplicationContextAware, Environm
   public void setEnvironment(Environment environment) {
     this.environment = environment;
   }
+
+  /**
+   * @param mode 为空时使用 halo.redis.rate-limiter.mode
+   */
+  private record Limit(String key, long max, long ttl, TimeUnit timeUnit, RateLimiterMode mode, Expression param, Method targetMethod) {
+  }
 }
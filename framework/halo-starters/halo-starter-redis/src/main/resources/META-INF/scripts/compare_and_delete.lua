@@ -0,0 +1,9 @@
+-- 值与期望值相等时才删除，用于释放自己持有的锁/租约，避免误删其它节点的
+local key = KEYS[1]
+-- 期望值，与写入时经过相同的序列化
+local expected = ARGV[1]
+
+if redis.call('get', key) == expected then
+    return redis.call('del', key)
+end
+return 0
@@ -0,0 +1,31 @@
+-- 令牌桶按块租借：节点一次租借多个令牌，在进程内消费
+-- 限流 key
+local key = KEYS[1]
+-- 桶容量(周期内最大请求数)
+local capacity = tonumber(ARGV[1])
+-- 周期(毫秒)
+local period = tonumber(ARGV[2])
+-- 考虑主从策略和脚本回放机制，这个time由客户端获取传入
+local now = tonumber(ARGV[3])
+-- 本次申请的令牌数
+local requested = tonumber(ARGV[4])
+
+local bucket = redis.call('hmget', key, 'tokens', 'ts')
+local tokens = tonumber(bucket[1])
+local ts = tonumber(bucket[2])
+if tokens == nil or ts == nil then
+    tokens = capacity
+    ts = now
+end
+-- 按流逝时间匀速补充令牌，客户端时钟回拨时不补充
+if now > ts then
+    tokens = math.min(capacity, tokens + (now - ts) * capacity / period)
+    ts = now
+end
+
+local granted = math.min(requested, math.floor(tokens))
+tokens = tokens - granted
+redis.call('hmset', key, 'tokens', tostring(tokens), 'ts', tostring(ts))
+redis.call('pexpire', key, period)
+-- 返回实际租到的令牌数，0 表示已达到限流大小
+return granted
@@ -0,0 +1,114 @@
+package com.lvwj.halo.redis.ratelimiter;
+
+import com.lvwj.halo.redis.RedisTemplatePlus;
+import com.lvwj.halo.redis.config.RedisRateLimiterProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 本地令牌桶限流测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 15:10
+ */
+class LeasedRateLimiterTest {
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final AtomicInteger maxInFlight = new AtomicInteger();
+  private final AtomicLong granted = new AtomicLong();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @Test
+  void leasePoolIsCreatedOnFirstRefill() {
+    LeasedRateLimiter limiter = new LeasedRateLimiter(redis(Long.MAX_VALUE), new RedisRateLimiterProperties.Bucket());
+    //只用滑动窗口时不会调用本地令牌桶，不创建线程池
+    assertNull(ReflectionTestUtils.getField(limiter, "executor"));
+
+    for (int i = 0; i < 100; i++) {
+      assertTrue(limiter.tryAcquire("order", 1000, 1, TimeUnit.SECONDS));
+    }
+    assertNotNull(ReflectionTestUtils.getField(limiter, "executor"));
+  }
+
+  @Test
+  void syncAndAsyncLeasesNeverOverlap() throws Exception {
+    LeasedRateLimiter limiter = new LeasedRateLimiter(redis(Long.MAX_VALUE), new RedisRateLimiterProperties.Bucket());
+    int threads = 8;
+    AtomicLong acquired = new AtomicLong();
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      tasks.add(() -> {
+        for (int i = 0; i < 2000; i++) {
+          if (limiter.tryAcquire("order", 1000, 1, TimeUnit.SECONDS)) {
+            acquired.incrementAndGet();
+          }
+        }
+        return null;
+      });
+    }
+    for (Future<Void> future : pool.invokeAll(tasks)) {
+      future.get();
+    }
+    pool.shutdown();
+
+    //同一 key 同一时刻只有一次租借，放行数不超过租到的令牌数
+    assertEquals(1, maxInFlight.get());
+    assertTrue(acquired.get() > 0);
+    assertFalse(acquired.get() > granted.get(), "acquired:" + acquired + ", granted:" + granted);
+  }
+
+  @Test
+  void exhaustedBucketRejectsLocally() {
+    LeasedRateLimiter limiter = new LeasedRateLimiter(redis(0), new RedisRateLimiterProperties.Bucket());
+
+    assertFalse(limiter.tryAcquire("order", 10, 1, TimeUnit.SECONDS));
+    //补充一个令牌之前不再访问 redis
+    assertFalse(limiter.tryAcquire("order", 10, 1, TimeUnit.SECONDS));
+    assertEquals(1, calls.get());
+  }
+
+  /**
+   * @param capacity redis 桶中可租借的令牌总数
+   */
+  private RedisTemplatePlus redis(long capacity) {
+    AtomicLong remaining = new AtomicLong(capacity);
+    RedisTemplatePlus redis = mock(RedisTemplatePlus.class);
+    when(redis.leaseRateLimitTokens(anyString(), anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS), anyLong())).thenAnswer(invocation -> {
+      calls.incrementAndGet();
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(2);
+        long requested = invocation.getArgument(4);
+        long lease = Math.min(requested, remaining.get());
+        remaining.addAndGet(-lease);
+        granted.addAndGet(lease);
+        return lease;
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    });
+    return redis;
+  }
+}
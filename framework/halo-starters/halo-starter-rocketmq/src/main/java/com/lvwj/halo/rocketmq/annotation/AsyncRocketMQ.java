@@ -24,6 +24,7 @@ public @interface AsyncRocketMQ {
     String DelayLevelWhenNextConsume_PLACEHOLDER = "${halo.async.rocketmq.consumer.delayLevelWhenNextConsume:1}";
     String SuspendCurrentQueueTimeMillis_PLACEHOLDER = "${halo.async.rocketmq.consumer.suspendCurrentQueueTimeMillis:10000}";
     String SkipWhenException_PLACEHOLDER = "${halo.async.rocketmq.consumer.skipWhenException:false}";
+    String BATCH_PLACEHOLDER = "${halo.rocketmq.producer.batch.enabled:false}";
 
     /**
      * 是否可用
@@ -67,6 +68,11 @@ public @interface AsyncRocketMQ {
      */
     MessageMode messageMode() default MessageMode.NORMAL;
 
+    /**
+     * 是否攒批发送(延迟消息除外)，见 halo.rocketmq.producer.batch.*
+     */
+    String batch() default BATCH_PLACEHOLDER;
+
     /**
      * 消费者组
      */
@@ -43,6 +43,11 @@ public @interface RocketMQConsumer {
      */
     String pullBatchSize() default "20";
 
+    /**
+     * 单次交给消费方法的最大消息条数，大于1时 @TagHandler(batch = true) 的方法才会批量消费
+     */
+    String consumeMessageBatchMaxSize() default "1";
+
     /**
      * 消费模式: CONCURRENTLY  or  ORDERLY
      */
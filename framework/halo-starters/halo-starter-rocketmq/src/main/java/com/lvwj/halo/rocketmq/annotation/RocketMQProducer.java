@@ -62,5 +62,10 @@ public @interface RocketMQProducer {
      * 消息体包装消息头
      */
     boolean bodyWithHeader() default false;
+
+    /**
+     * 是否攒批发送(延迟消息除外)，见 halo.rocketmq.producer.batch.*
+     */
+    String batch() default "${halo.rocketmq.producer.batch.enabled:false}";
 }
 
@@ -25,4 +25,11 @@ public @interface TagHandler {
      * 并发模式适用
      */
     int delayLevelWhenNextConsume() default -1;
+
+    /**
+     * 批量消费：方法参数为 List&lt;T&gt;，一次拉取的同 tag 消息反序列化后一次性传入；
+     * 方法可返回 Collection&lt;Integer&gt; 表示消费失败的下标(对应传入的List)，失败的消息按单条重试。
+     * 需配合 @RocketMQConsumer 的 consumeMessageBatchMaxSize 使用
+     */
+    boolean batch() default false;
 }
@@ -6,6 +6,8 @@ import com.lvwj.halo.common.utils.Func;
 import com.lvwj.halo.common.utils.JsonUtil;
 import com.lvwj.halo.rocketmq.annotation.AsyncRocketMQ;
 import com.lvwj.halo.rocketmq.annotation.MessageMode;
+import com.lvwj.halo.rocketmq.batch.MessageBodyCodec;
+import com.lvwj.halo.rocketmq.log.RocketMQLogger;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.ThreadContext;
@@ -20,9 +22,9 @@ import org.springframework.core.env.Environment;
 import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Method;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class AsyncRocketMQConsumerContainer implements InitializingBean, SmartLifecycle {
@@ -35,15 +37,18 @@ public class AsyncRocketMQConsumerContainer implements InitializingBean, SmartLi
     protected final Method method;
     @Getter
     protected final AsyncRocketMQ asyncRocketMQ;
+    @Getter
+    protected final RocketMQLogger rocketMQLogger;
 
     private volatile boolean running;
     private DefaultMQPushConsumer consumer;
 
-    public AsyncRocketMQConsumerContainer(Environment environment, Object bean, Method method, AsyncRocketMQ asyncRocketMQ) {
+    public AsyncRocketMQConsumerContainer(Environment environment, Object bean, Method method, AsyncRocketMQ asyncRocketMQ, RocketMQLogger rocketMQLogger) {
         this.environment = environment;
         this.bean = bean;
         this.method = method;
         this.asyncRocketMQ = asyncRocketMQ;
+        this.rocketMQLogger = rocketMQLogger;
     }
 
     protected String resolve(String value) {
@@ -126,10 +131,11 @@ public class AsyncRocketMQConsumerContainer implements InitializingBean, SmartLi
                 String tag = messageExt.getTags();
                 String msgId = messageExt.getMsgId();
                 String msgKey = messageExt.getKeys();
-                String msgBody = new String(messageExt.getBody(), StandardCharsets.UTF_8);
+                byte[] msgBody = MessageBodyCodec.decode(messageExt);
                 String traceId = messageExt.getUserProperty("tid");
                 int reconsumeTimes = messageExt.getReconsumeTimes();
                 String methodName = getMethod().getDeclaringClass().getSimpleName() + "." + getMethod().getName();
+                long now = System.nanoTime();
                 try {
                     if (StringUtils.hasLength(traceId)) {
                         ThreadContext.put("traceId", traceId);
@@ -138,14 +144,17 @@ public class AsyncRocketMQConsumerContainer implements InitializingBean, SmartLi
 
                     Object[] methodParameters = getMethodParameters(msgBody);
 
-                    long now = System.currentTimeMillis();
                     getMethod().invoke(getBean(), methodParameters);
-                    long costTime = System.currentTimeMillis() - now;
+                    long costNanos = System.nanoTime() - now;
+                    rocketMQLogger.recordConsume(topic, tag, true, costNanos);
 
-                    log.info("MQ消费成功:[Method:{}], [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [消息体:{}], [耗时:{}毫秒]{}", methodName, topic, tag, msgId, msgKey, msgBody, costTime, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "");
+                    if (rocketMQLogger.isInfoSampled(log, topic)) {
+                        log.info("MQ消费成功:[Method:{}], [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [消息体:{}], [耗时:{}毫秒]{}", methodName, topic, tag, msgId, msgKey, RocketMQLogger.body(msgBody), TimeUnit.NANOSECONDS.toMillis(costNanos), StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "");
+                    }
                 } catch (Exception e) {
                     Throwable t = Exceptions.unwrap(e);
-                    log.error("MQ消费失败:[Method:{}], [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [消息体:{}], [异常:{}], [重试:{}次]{}", methodName, topic, tag, msgId, msgKey, msgBody, t.getMessage(), reconsumeTimes, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "", t);
+                    rocketMQLogger.recordConsume(topic, tag, false, System.nanoTime() - now);
+                    log.error("MQ消费失败:[Method:{}], [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [消息体:{}], [异常:{}], [重试:{}次]{}", methodName, topic, tag, msgId, msgKey, RocketMQLogger.body(msgBody), t.getMessage(), reconsumeTimes, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "", t);
 
                     ConsumeOrderlyStatus consumeOrderlyStatus;
                     if (skipWhenException || reconsumeTimes >= maxReconsumeTimes) {
@@ -188,10 +197,11 @@ public class AsyncRocketMQConsumerContainer implements InitializingBean, SmartLi
                 String tag = messageExt.getTags();
                 String msgId = messageExt.getMsgId();
                 String msgKey = messageExt.getKeys();
-                String msgBody = new String(messageExt.getBody(), StandardCharsets.UTF_8);
+                byte[] msgBody = MessageBodyCodec.decode(messageExt);
                 String traceId = messageExt.getUserProperty("tid");
                 int reconsumeTimes = messageExt.getReconsumeTimes();
                 String methodName = getMethod().getDeclaringClass().getSimpleName() + "." + getMethod().getName();
+                long now = System.nanoTime();
                 try {
                     if (StringUtils.hasLength(traceId)) {
                         ThreadContext.put("traceId", traceId);
@@ -200,14 +210,17 @@ public class AsyncRocketMQConsumerContainer implements InitializingBean, SmartLi
 
                     Object[] methodParameters = getMethodParameters(msgBody);
 
-                    long now = System.currentTimeMillis();
                     getMethod().invoke(getBean(), methodParameters);
-                    long costTime = System.currentTimeMillis() - now;
+                    long costNanos = System.nanoTime() - now;
+                    rocketMQLogger.recordConsume(topic, tag, true, costNanos);
 
-                    log.info("MQ消费成功:[Method:{}], [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [消息体:{}], [耗时:{}毫秒]{}", methodName, topic, tag, msgId, msgKey, msgBody, costTime, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "");
+                    if (rocketMQLogger.isInfoSampled(log, topic)) {
+                        log.info("MQ消费成功:[Method:{}], [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [消息体:{}], [耗时:{}毫秒]{}", methodName, topic, tag, msgId, msgKey, RocketMQLogger.body(msgBody), TimeUnit.NANOSECONDS.toMillis(costNanos), StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "");
+                    }
                 } catch (Exception e) {
                     Throwable t = Exceptions.unwrap(e);
-                    log.error("MQ消费失败:[Method:{}], [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [消息体:{}], [异常:{}], [重试:{}次]{}", methodName, topic, tag, msgId, msgKey, msgBody, t.getMessage(), reconsumeTimes, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "", t);
+                    rocketMQLogger.recordConsume(topic, tag, false, System.nanoTime() - now);
+                    log.error("MQ消费失败:[Method:{}], [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [消息体:{}], [异常:{}], [重试:{}次]{}", methodName, topic, tag, msgId, msgKey, RocketMQLogger.body(msgBody), t.getMessage(), reconsumeTimes, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "", t);
 
                     if (skipWhenException) {
                         return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
@@ -227,7 +240,7 @@ public class AsyncRocketMQConsumerContainer implements InitializingBean, SmartLi
         }
     }
 
-    private Object[] getMethodParameters(String body) {
+    private Object[] getMethodParameters(byte[] body) {
         Map<String, String> deserialize = JsonUtil.parse(body, new TypeReference<>() {
         });
         Object[] params = new Object[getMethod().getParameterCount()];
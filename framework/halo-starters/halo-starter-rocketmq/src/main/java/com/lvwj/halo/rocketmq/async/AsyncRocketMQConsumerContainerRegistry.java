@@ -2,6 +2,7 @@ package com.lvwj.halo.rocketmq.async;
 
 import com.google.common.collect.Lists;
 import com.lvwj.halo.rocketmq.annotation.AsyncRocketMQ;
+import com.lvwj.halo.rocketmq.log.RocketMQLogger;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -30,6 +31,8 @@ public class AsyncRocketMQConsumerContainerRegistry implements BeanPostProcessor
 
     private final Environment environment;
 
+    private final RocketMQLogger rocketMQLogger;
+
     private volatile boolean running;
 
     @SneakyThrows
@@ -58,7 +61,7 @@ public class AsyncRocketMQConsumerContainerRegistry implements BeanPostProcessor
             }
 
             Object bean = AopProxyUtils.getSingletonTarget(proxy);
-            AsyncRocketMQConsumerContainer asyncConsumerContainer = new AsyncRocketMQConsumerContainer(this.environment, bean, method, annotation);
+            AsyncRocketMQConsumerContainer asyncConsumerContainer = new AsyncRocketMQConsumerContainer(this.environment, bean, method, annotation, this.rocketMQLogger);
             asyncConsumerContainer.afterPropertiesSet();
 
             this.getConsumerContainers().add(asyncConsumerContainer);
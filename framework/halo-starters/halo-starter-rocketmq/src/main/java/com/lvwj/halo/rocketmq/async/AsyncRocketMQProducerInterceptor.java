@@ -8,6 +8,8 @@ import com.lvwj.halo.common.utils.JsonUtil;
 import com.lvwj.halo.common.utils.StringPool;
 import com.lvwj.halo.rocketmq.annotation.AsyncRocketMQ;
 import com.lvwj.halo.rocketmq.annotation.MessageMode;
+import com.lvwj.halo.rocketmq.batch.RocketMQSendAccumulator;
+import com.lvwj.halo.rocketmq.log.RocketMQLogger;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
@@ -50,6 +52,10 @@ public class AsyncRocketMQProducerInterceptor implements MethodInterceptor {
 
     private final Executor asyncRocketMQThreadPool;
 
+    private final RocketMQLogger rocketMQLogger;
+
+    private final RocketMQSendAccumulator sendAccumulator;
+
     private final Map<Method, InvokeCacheItem> invokeCache = Maps.newConcurrentMap();
 
     private final ExpressionParser expressionParser = new SpelExpressionParser();
@@ -62,7 +68,8 @@ public class AsyncRocketMQProducerInterceptor implements MethodInterceptor {
         Method method = invocation.getMethod();
         InvokeCacheItem invokeCacheItem = invokeCache.computeIfAbsent(method, this::parseMethod);
         if (invokeCacheItem.isEnable()) {
-            if (invokeCacheItem.messageMode.equals(MessageMode.ORDER)) {
+            //顺序模式，或攒批模式(只是入队)，直接在调用线程执行
+            if (invokeCacheItem.messageMode.equals(MessageMode.ORDER) || invokeCacheItem.isBatchable(invocation.getArguments())) {
                 sendMessage(invocation, invokeCacheItem);
             } else {
                 asyncRocketMQThreadPool.execute(() -> sendMessage(invocation, invokeCacheItem));
@@ -94,27 +101,40 @@ public class AsyncRocketMQProducerInterceptor implements MethodInterceptor {
         String body = getBody(arguments);
         // 获取Message
         Message<String> message = getMessage(null, body, key, tag, delayLevel);
+        if (invokeCacheItem.isBatch() && delayLevel <= 0) {
+            sendAccumulator.append(topic, tag, messageMode == MessageMode.ORDER && StringUtils.hasText(key) ? key : null, message, timeout);
+            return;
+        }
         switch (communicationMode) {
             case SYNC:
+                long now = System.nanoTime();
                 SendResult sendResult;
                 if (messageMode == MessageMode.ORDER && StringUtils.hasText(key)) {
                     sendResult = this.rocketMQTemplate.syncSendOrderly(destination, message, key, timeout, delayLevel);
                 } else {
                     sendResult = this.rocketMQTemplate.syncSend(destination, message, timeout, delayLevel);
                 }
-                String result = sendResult.getSendStatus().equals(SendStatus.SEND_OK) ? "成功" : "失败";
-                log.info("[SYNC]MQ发送{}: [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [Msg:{}], [Result:{}]", result, topic, tag, sendResult.getMsgId(), key, JsonUtil.toJson(message.getPayload()), sendResult);
+                boolean sendOk = sendResult.getSendStatus().equals(SendStatus.SEND_OK);
+                rocketMQLogger.recordProduce(topic, tag, sendOk, System.nanoTime() - now);
+                if (!sendOk || rocketMQLogger.isInfoSampled(log, topic)) {
+                    log.info("[SYNC]MQ发送{}: [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [Msg:{}], [Result:{}]", sendOk ? "成功" : "失败", topic, tag, sendResult.getMsgId(), key, message.getPayload(), sendResult);
+                }
                 break;
             case ASYNC:
+                long asyncStart = System.nanoTime();
                 SendCallback sendCallback = new SendCallback() {
                     @Override
                     public void onSuccess(SendResult sendResult) {
-                        log.info("[ASYNC]MQ发送成功: [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [Msg:{}], [Result:{}]", topic, tag, sendResult.getMsgId(), key, JsonUtil.toJson(message.getPayload()), sendResult);
+                        rocketMQLogger.recordProduce(topic, tag, true, System.nanoTime() - asyncStart);
+                        if (rocketMQLogger.isInfoSampled(log, topic)) {
+                            log.info("[ASYNC]MQ发送成功: [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [Msg:{}], [Result:{}]", topic, tag, sendResult.getMsgId(), key, message.getPayload(), sendResult);
+                        }
                     }
 
                     @Override
                     public void onException(Throwable e) {
-                        log.error("[ASYNC]MQ发送失败: [Topic:{}], [Tag:{}], [Key:{}], [Msg:{}]", topic, tag, key, JsonUtil.toJson(message.getPayload()), e);
+                        rocketMQLogger.recordProduce(topic, tag, false, System.nanoTime() - asyncStart);
+                        log.error("[ASYNC]MQ发送失败: [Topic:{}], [Tag:{}], [Key:{}], [Msg:{}]", topic, tag, key, message.getPayload(), e);
                     }
                 };
                 if (messageMode == MessageMode.ORDER && StringUtils.hasText(key)) {
@@ -124,12 +144,16 @@ public class AsyncRocketMQProducerInterceptor implements MethodInterceptor {
                 }
                 break;
             case ONEWAY:
+                long onewayStart = System.nanoTime();
                 if (messageMode == MessageMode.ORDER && StringUtils.hasText(key)) {
                     this.rocketMQTemplate.sendOneWayOrderly(destination, message, key);
                 } else {
                     this.rocketMQTemplate.sendOneWay(destination, message);
                 }
-                log.info("[ONEWAY]MQ发送成功: [Topic:{}], [Tag:{}], [Key:{}], [Msg:{}]", topic, tag, key, JsonUtil.toJson(message.getPayload()));
+                rocketMQLogger.recordProduce(topic, tag, true, System.nanoTime() - onewayStart);
+                if (rocketMQLogger.isInfoSampled(log, topic)) {
+                    log.info("[ONEWAY]MQ发送成功: [Topic:{}], [Tag:{}], [Key:{}], [Msg:{}]", topic, tag, key, message.getPayload());
+                }
                 break;
         }
     }
@@ -205,8 +229,9 @@ public class AsyncRocketMQProducerInterceptor implements MethodInterceptor {
         MessageMode messageMode = asyncRocketMQ.messageMode();
 
         String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
+        boolean batch = Func.toBoolean(this.resolve(asyncRocketMQ.batch()));
 
-        return new InvokeCacheItem(enable, topic, tag, keyExp, delayLevelExp, parameterNames, communicationMode, messageMode);
+        return new InvokeCacheItem(enable, topic, tag, keyExp, delayLevelExp, parameterNames, communicationMode, messageMode, batch);
     }
 
     private String resolve(String value) {
@@ -226,6 +251,14 @@ public class AsyncRocketMQProducerInterceptor implements MethodInterceptor {
         private final String[] parameterNames;
         private final CommunicationMode communicationMode;
         private final MessageMode messageMode;
+        private final boolean batch;
+
+        /**
+         * 是否走攒批发送：延迟消息不支持批量
+         */
+        public boolean isBatchable(Object[] arguments) {
+            return batch && getDelayLevel(arguments) <= 0;
+        }
 
         public String getKey(Object[] arguments) {
             if (keyExp == null) return null;
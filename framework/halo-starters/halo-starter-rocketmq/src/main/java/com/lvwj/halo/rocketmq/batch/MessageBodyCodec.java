@@ -0,0 +1,53 @@
+package com.lvwj.halo.rocketmq.batch;
+
+import com.lvwj.halo.common.utils.Exceptions;
+import org.apache.rocketmq.common.message.MessageExt;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 消息体压缩/解压
+ * <p>
+ * RocketMQ 批量消息不会按 compressMsgBodyOverHowmuch 自动压缩，由发送端自行 gzip 并在消息头标记，消费端据此解压
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 05:15
+ */
+public final class MessageBodyCodec {
+
+    public static final String COMPRESS_HEADER = "msgCompress";
+
+    public static final String GZIP = "gzip";
+
+    private MessageBodyCodec() {
+    }
+
+    public static byte[] compress(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw Exceptions.unchecked(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 消息体，发送端压缩过的先解压
+     */
+    public static byte[] decode(MessageExt messageExt) {
+        byte[] body = messageExt.getBody();
+        if (null == body || !GZIP.equals(messageExt.getUserProperty(COMPRESS_HEADER))) {
+            return body;
+        }
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw Exceptions.unchecked(e);
+        }
+    }
+}
@@ -0,0 +1,471 @@
+package com.lvwj.halo.rocketmq.batch;
+
+import com.lvwj.halo.common.utils.StringPool;
+import com.lvwj.halo.core.threadpool.ThreadPoolCache;
+import com.lvwj.halo.rocketmq.config.RocketMQBatchProperties;
+import com.lvwj.halo.rocketmq.log.RocketMQLogger;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.common.message.MessageConst;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.apache.rocketmq.spring.support.RocketMQUtil;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * MQ 发送累加器：按 topic、tag 及顺序消息的目标队列攒批，条数/字节数先到或等待超过 linger 后用批量发送接口一次发出
+ * <p>
+ * 同一批次同一时刻只有一个发送任务且按入队顺序取数；顺序消息用模板的队列选择器按分片键选出队列，同一队列的消息一起攒批并发往该队列，
+ * 保证同一 key 有序且与单条发送路由一致；topic 路由获取失败时退回按分片键攒批。
+ * 延迟消息不支持批量发送，不会进入累加器。批量发送异常时逐条重发，仍失败的逐条记录日志和指标
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 05:20
+ */
+@Slf4j
+public class RocketMQSendAccumulator {
+
+    /**
+     * 单条消息除消息体外的估算字节数(topic、消息头等)
+     */
+    private static final int MESSAGE_OVERHEAD = 128;
+
+    /**
+     * 空闲批次的回收时长
+     */
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+    /**
+     * 顺序消息 topic 队列列表的刷新间隔，与客户端从 nameserver 拉取路由的默认间隔一致
+     */
+    private static final long ROUTE_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final RocketMQTemplate rocketMQTemplate;
+
+    private final RocketMQLogger rocketMQLogger;
+
+    private final RocketMQBatchProperties properties;
+
+    private final long lingerNanos;
+
+    private final Executor sender;
+
+    private final Map<BatchKey, Batch> batches = new ConcurrentHashMap<>();
+
+    /**
+     * 顺序消息 topic - 队列列表，由 linger 线程定时刷新
+     */
+    private final Map<String, TopicRoute> routes = new ConcurrentHashMap<>();
+
+    /**
+     * topic|tag - 批次指标
+     */
+    private final Map<String, BatchMeters> meters = new ConcurrentHashMap<>();
+
+    private final Thread lingerer;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private volatile boolean running = true;
+
+    public RocketMQSendAccumulator(RocketMQTemplate rocketMQTemplate, RocketMQLogger rocketMQLogger, RocketMQBatchProperties properties) {
+        this.rocketMQTemplate = rocketMQTemplate;
+        this.rocketMQLogger = rocketMQLogger;
+        this.properties = properties;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, properties.getLingerMs()));
+        this.sender = ThreadPoolCache.getCustomizeThreadPool("RocketMQBatchSendThreadPool", properties.getSendThreads(), properties.getSendThreads(), properties.getQueueCapacity());
+        this.lingerer = new Thread(this::linger, "halo-rocketmq-accumulator");
+        this.lingerer.setDaemon(true);
+    }
+
+    /**
+     * 消息入队，攒满时提交发送
+     *
+     * @param orderKey 顺序消息的分片键，普通消息为 null
+     */
+    public void append(String topic, String tag, String orderKey, Message<String> message, long timeout) {
+        Pending pending = encode(message);
+        BatchKey key = batchKey(topic, tag, orderKey);
+        if (!started.get() && started.compareAndSet(false, true)) {
+            lingerer.start();
+        }
+        while (running) {
+            Batch batch = batches.computeIfAbsent(key, k -> new Batch(k, timeout));
+            if (batch.offer(pending)) {
+                if (!running) {
+                    //入队时 close 可能已遍历完批次，自行发出
+                    flush(batch);
+                } else if (batch.isFull()) {
+                    schedule(batch);
+                }
+                return;
+            }
+            //批次刚被回收，重新创建
+            batches.remove(key, batch);
+        }
+        //已关闭，直接发送
+        send(key, List.of(pending), timeout);
+    }
+
+    /**
+     * 停止攒批并发出剩余消息
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(lingerer);
+        for (Batch batch : batches.values()) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * 关闭批次并发出剩余消息：等待在途的发送任务结束，保证同一批次串行；发送线程卡住时超时放弃等待
+     */
+    private void flush(Batch batch) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getCloseTimeoutMs());
+        boolean acquired;
+        while (!(acquired = batch.scheduled.compareAndSet(false, true))) {
+            if (System.nanoTime() - deadline >= 0) {
+                log.warn("[BATCH]MQ关闭时等待在途发送超时: [Topic:{}], [Tag:{}], [Key:{}]", batch.key.topic(), batch.key.tag(), batch.key.shard());
+                break;
+            }
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        try {
+            batch.close();
+            List<Pending> pendings;
+            while (!(pendings = batch.poll()).isEmpty()) {
+                send(batch.key, pendings, batch.timeout);
+            }
+        } finally {
+            if (acquired) {
+                batch.scheduled.set(false);
+            }
+        }
+        batches.remove(batch.key, batch);
+    }
+
+    private void linger() {
+        long tick = Math.max(TimeUnit.MILLISECONDS.toNanos(1), lingerNanos / 2);
+        while (running) {
+            long now = System.nanoTime();
+            for (Batch batch : batches.values()) {
+                if (batch.isDue(now)) {
+                    schedule(batch);
+                } else if (batch.closeIfIdle(now)) {
+                    batches.remove(batch.key, batch);
+                }
+            }
+            for (TopicRoute route : routes.values()) {
+                if (now - route.fetchNanos() >= ROUTE_REFRESH_NANOS) {
+                    routes.put(route.topic(), fetchRoute(route.topic()));
+                }
+            }
+            LockSupport.parkNanos(this, tick);
+        }
+    }
+
+    /**
+     * 顺序消息按选择器选出的队列攒批，同一队列的不同 key 合并为一批；路由不可用时按分片键攒批
+     */
+    private BatchKey batchKey(String topic, String tag, String orderKey) {
+        if (null == orderKey) {
+            return new BatchKey(topic, tag, null, null);
+        }
+        List<MessageQueue> queues = routes.computeIfAbsent(topic, this::fetchRoute).queues();
+        if (queues.isEmpty()) {
+            return new BatchKey(topic, tag, null, orderKey);
+        }
+        return new BatchKey(topic, tag, rocketMQTemplate.getMessageQueueSelector().select(queues, null, orderKey), null);
+    }
+
+    private TopicRoute fetchRoute(String topic) {
+        List<MessageQueue> queues;
+        try {
+            queues = rocketMQTemplate.getProducer().fetchPublishMessageQueues(topic);
+        } catch (Exception e) {
+            log.warn("[BATCH]MQ获取topic队列失败，顺序消息按分片键攒批: [Topic:{}], [异常:{}]", topic, e.getMessage());
+            queues = List.of();
+        }
+        return new TopicRoute(topic, null == queues ? List.of() : queues, System.nanoTime());
+    }
+
+    private void schedule(Batch batch) {
+        if (batch.scheduled.compareAndSet(false, true)) {
+            sender.execute(() -> drain(batch));
+        }
+    }
+
+    private void drain(Batch batch) {
+        try {
+            List<Pending> pendings;
+            while (!(pendings = batch.poll()).isEmpty()) {
+                send(batch.key, pendings, batch.timeout);
+                //剩余未攒满的交给 linger 线程按时发出
+                if (!batch.isFull()) {
+                    break;
+                }
+            }
+        } finally {
+            batch.scheduled.set(false);
+        }
+        if (batch.isFull()) {
+            schedule(batch);
+        }
+    }
+
+    private void send(BatchKey key, List<Pending> pendings, long timeout) {
+        String destination = StringUtils.hasText(key.tag()) ? key.topic() + StringPool.COLON + key.tag() : key.topic();
+        List<Message<?>> messages = new ArrayList<>(pendings.size());
+        long bytes = 0;
+        for (Pending pending : pendings) {
+            messages.add(pending.message());
+            bytes += pending.bytes();
+        }
+        BatchMeters batchMeters = meters.computeIfAbsent(key.topic() + "|" + key.tag(), k -> new BatchMeters(key.topic(), key.tag()));
+        batchMeters.batchSize.record(pendings.size());
+        SendResult sendResult;
+        long start = System.nanoTime();
+        try {
+            if (null != key.queue()) {
+                List<org.apache.rocketmq.common.message.Message> rocketMessages = new ArrayList<>(messages.size());
+                for (Message<?> message : messages) {
+                    rocketMessages.add(toRocketMessage(destination, message));
+                }
+                sendResult = rocketMQTemplate.getProducer().send(rocketMessages, key.queue(), timeout);
+            } else if (null != key.orderKey()) {
+                sendResult = rocketMQTemplate.syncSendOrderly(destination, messages, key.orderKey(), timeout);
+            } else {
+                sendResult = rocketMQTemplate.syncSend(destination, messages, timeout);
+            }
+        } catch (Exception e) {
+            rocketMQLogger.recordProduce(key.topic(), key.tag(), false, System.nanoTime() - start);
+            //批量发送异常时消息未写入broker，逐条重发，仍失败的逐条记录
+            log.warn("[BATCH]MQ批量发送失败，逐条重发: [Topic:{}], [Tag:{}], [Key:{}], [条数:{}], [异常:{}]", key.topic(), key.tag(), key.shard(), pendings.size(), e.getMessage(), e);
+            batchMeters.fallback.increment(pendings.size());
+            for (Pending pending : pendings) {
+                sendOne(key, destination, pending, timeout, batchMeters);
+            }
+            return;
+        }
+        long end = System.nanoTime();
+        //非SEND_OK(刷盘、同步从节点超时)时消息已写入broker，重发会重复，只记录失败
+        boolean sendOk = SendStatus.SEND_OK.equals(sendResult.getSendStatus());
+        rocketMQLogger.recordProduce(key.topic(), key.tag(), sendOk, end - start);
+        if (!sendOk) {
+            log.error("[BATCH]MQ发送失败: [Topic:{}], [Tag:{}], [Key:{}], [条数:{}], [字节:{}], [Keys:{}], [Result:{}]", key.topic(), key.tag(), key.shard(), pendings.size(), bytes, msgKeys(pendings), sendResult);
+        } else if (rocketMQLogger.isInfoSampled(log, key.topic())) {
+            log.info("[BATCH]MQ发送成功: [Topic:{}], [Tag:{}], [Key:{}], [条数:{}], [字节:{}], [Result:{}]", key.topic(), key.tag(), key.shard(), pendings.size(), bytes, sendResult);
+        }
+        Timer latency = sendOk ? batchMeters.success : batchMeters.failure;
+        for (Pending pending : pendings) {
+            latency.record(end - pending.enqueueNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void sendOne(BatchKey key, String destination, Pending pending, long timeout, BatchMeters batchMeters) {
+        boolean sendOk = false;
+        long start = System.nanoTime();
+        try {
+            SendResult sendResult;
+            if (null != key.queue()) {
+                sendResult = rocketMQTemplate.getProducer().send(toRocketMessage(destination, pending.message()), key.queue(), timeout);
+            } else if (null != key.orderKey()) {
+                sendResult = rocketMQTemplate.syncSendOrderly(destination, pending.message(), key.orderKey(), timeout);
+            } else {
+                sendResult = rocketMQTemplate.syncSend(destination, pending.message(), timeout);
+            }
+            sendOk = SendStatus.SEND_OK.equals(sendResult.getSendStatus());
+            if (!sendOk) {
+                log.error("[BATCH]MQ逐条重发失败: [Topic:{}], [Tag:{}], [Key:{}], [MsgKey:{}], [Result:{}]", key.topic(), key.tag(), key.shard(), msgKey(pending), sendResult);
+            }
+        } catch (Exception e) {
+            log.error("[BATCH]MQ逐条重发失败: [Topic:{}], [Tag:{}], [Key:{}], [MsgKey:{}]", key.topic(), key.tag(), key.shard(), msgKey(pending), e);
+        } finally {
+            long end = System.nanoTime();
+            rocketMQLogger.recordProduce(key.topic(), key.tag(), sendOk, end - start);
+            (sendOk ? batchMeters.success : batchMeters.failure).record(end - pending.enqueueNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 转换为 rocketmq 消息，与模板发送时的转换一致
+     */
+    private org.apache.rocketmq.common.message.Message toRocketMessage(String destination, Message<?> message) {
+        return RocketMQUtil.convertToRocketMessage(rocketMQTemplate.getMessageConverter(), rocketMQTemplate.getCharset(), destination, message);
+    }
+
+    private static Object msgKey(Pending pending) {
+        return pending.message().getHeaders().get(MessageConst.PROPERTY_KEYS);
+    }
+
+    private static List<Object> msgKeys(List<Pending> pendings) {
+        List<Object> msgKeys = new ArrayList<>(pendings.size());
+        for (Pending pending : pendings) {
+            msgKeys.add(msgKey(pending));
+        }
+        return msgKeys;
+    }
+
+    private Pending encode(Message<String> message) {
+        byte[] body = message.getPayload().getBytes(StandardCharsets.UTF_8);
+        int threshold = properties.getCompressThreshold();
+        if (threshold > 0 && body.length >= threshold) {
+            byte[] compressed = MessageBodyCodec.compress(body);
+            if (compressed.length < body.length) {
+                Message<byte[]> compressedMessage = MessageBuilder.withPayload(compressed)
+                        .copyHeaders(message.getHeaders())
+                        .setHeader(MessageBodyCodec.COMPRESS_HEADER, MessageBodyCodec.GZIP)
+                        .build();
+                return new Pending(compressedMessage, compressed.length + MESSAGE_OVERHEAD, System.nanoTime());
+            }
+        }
+        return new Pending(message, body.length + MESSAGE_OVERHEAD, System.nanoTime());
+    }
+
+    /**
+     * @param queue    顺序消息的目标队列
+     * @param orderKey 路由不可用时顺序消息的分片键
+     */
+    private record BatchKey(String topic, String tag, MessageQueue queue, String orderKey) {
+
+        private Object shard() {
+            return null != queue ? queue : orderKey;
+        }
+    }
+
+    private record TopicRoute(String topic, List<MessageQueue> queues, long fetchNanos) {
+    }
+
+    private record Pending(Message<?> message, long bytes, long enqueueNanos) {
+    }
+
+    private final class Batch {
+
+        private final BatchKey key;
+
+        private final long timeout;
+
+        private final ArrayDeque<Pending> queue = new ArrayDeque<>();
+
+        /**
+         * 是否已有发送任务，保证同一批次串行发送
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private long bytes;
+
+        private long lastActive = System.nanoTime();
+
+        private boolean closed;
+
+        private Batch(BatchKey key, long timeout) {
+            this.key = key;
+            this.timeout = timeout;
+        }
+
+        private synchronized boolean offer(Pending pending) {
+            if (closed) {
+                return false;
+            }
+            queue.add(pending);
+            bytes += pending.bytes();
+            lastActive = pending.enqueueNanos();
+            return true;
+        }
+
+        private synchronized boolean isFull() {
+            return queue.size() >= properties.getMaxMessages() || bytes >= properties.getMaxBytes();
+        }
+
+        private synchronized boolean isDue(long now) {
+            return !queue.isEmpty() && (isFull() || now - queue.peek().enqueueNanos() >= lingerNanos);
+        }
+
+        /**
+         * 按入队顺序取出一批，至少一条
+         */
+        private synchronized List<Pending> poll() {
+            if (queue.isEmpty()) {
+                return List.of();
+            }
+            List<Pending> pendings = new ArrayList<>(Math.min(queue.size(), properties.getMaxMessages()));
+            long taken = 0;
+            while (!queue.isEmpty() && pendings.size() < properties.getMaxMessages()) {
+                Pending pending = queue.peek();
+                if (!pendings.isEmpty() && taken + pending.bytes() > properties.getMaxBytes()) {
+                    break;
+                }
+                pendings.add(queue.poll());
+                taken += pending.bytes();
+            }
+            bytes -= taken;
+            lastActive = System.nanoTime();
+            return pendings;
+        }
+
+        private synchronized void close() {
+            closed = true;
+        }
+
+        private synchronized boolean closeIfIdle(long now) {
+            if (queue.isEmpty() && !scheduled.get() && now - lastActive >= IDLE_NANOS) {
+                closed = true;
+            }
+            return closed;
+        }
+    }
+
+    private static final class BatchMeters {
+
+        private final DistributionSummary batchSize;
+
+        private final Timer success;
+
+        private final Timer failure;
+
+        private final Counter fallback;
+
+        private BatchMeters(String topic, String tag) {
+            Tags tags = Tags.of("topic", topic, "tag", StringUtils.hasText(tag) ? tag : "none");
+            this.batchSize = DistributionSummary.builder("halo.rocketmq.produce.batch.size")
+                    .description("MQ批量发送单批条数")
+                    .tags(tags)
+                    .publishPercentileHistogram()
+                    .register(Metrics.globalRegistry);
+            this.success = latency(tags, "success");
+            this.failure = latency(tags, "failure");
+            this.fallback = Counter.builder("halo.rocketmq.produce.batch.fallback")
+                    .description("MQ批量发送失败后逐条重发的条数")
+                    .tags(tags)
+                    .register(Metrics.globalRegistry);
+        }
+
+        private static Timer latency(Tags tags, String result) {
+            return Timer.builder("halo.rocketmq.produce.batch.latency")
+                    .description("MQ批量发送端到端耗时(入队到发送完成)")
+                    .tags(tags.and("result", result))
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(Metrics.globalRegistry);
+        }
+    }
+}
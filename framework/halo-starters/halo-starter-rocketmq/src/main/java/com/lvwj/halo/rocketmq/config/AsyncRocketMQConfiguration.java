@@ -4,6 +4,8 @@ import com.lvwj.halo.core.threadpool.ThreadPoolCache;
 import com.lvwj.halo.rocketmq.annotation.AsyncRocketMQ;
 import com.lvwj.halo.rocketmq.async.AsyncRocketMQConsumerContainerRegistry;
 import com.lvwj.halo.rocketmq.async.AsyncRocketMQProducerInterceptor;
+import com.lvwj.halo.rocketmq.batch.RocketMQSendAccumulator;
+import com.lvwj.halo.rocketmq.log.RocketMQLogger;
 import jakarta.annotation.Resource;
 import org.apache.rocketmq.spring.autoconfigure.RocketMQAutoConfiguration;
 import org.apache.rocketmq.spring.core.RocketMQTemplate;
@@ -34,6 +36,12 @@ public class AsyncRocketMQConfiguration {
     @Resource
     private Environment environment;
 
+    @Resource
+    private RocketMQLogger rocketMQLogger;
+
+    @Resource
+    private RocketMQSendAccumulator rocketMQSendAccumulator;
+
     @Value("${halo.async.rocketmq.threadPool.corePoolSize:5}")
     private Integer corePoolSize;
 
@@ -50,12 +58,12 @@ public class AsyncRocketMQConfiguration {
 
     @Bean
     public AsyncRocketMQConsumerContainerRegistry asyncRocketMQConsumerContainerRegistry() {
-        return new AsyncRocketMQConsumerContainerRegistry(environment, false);
+        return new AsyncRocketMQConsumerContainerRegistry(environment, rocketMQLogger, false);
     }
 
     @Bean
     public AsyncRocketMQProducerInterceptor asyncRocketMQProducerInterceptor() {
-        return new AsyncRocketMQProducerInterceptor(rocketMQTemplate, environment, asyncRocketMQThreadPool());
+        return new AsyncRocketMQProducerInterceptor(rocketMQTemplate, environment, asyncRocketMQThreadPool(), rocketMQLogger, rocketMQSendAccumulator);
     }
 
     @Bean
@@ -0,0 +1,59 @@
+package com.lvwj.halo.rocketmq.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * MQ 批量发送配置
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 05:10
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = RocketMQBatchProperties.PREFIX)
+public class RocketMQBatchProperties {
+
+    public static final String PREFIX = "halo.rocketmq.producer.batch";
+
+    /**
+     * 是否默认开启批量发送，作为 @RocketMQProducer/@AsyncRocketMQ batch 属性的默认值
+     */
+    private boolean enabled = false;
+
+    /**
+     * 批次首条消息入队后最长等待时长(毫秒)
+     */
+    private long lingerMs = 5;
+
+    /**
+     * 单批最大条数
+     */
+    private int maxMessages = 256;
+
+    /**
+     * 单批最大字节数，不能超过 broker 的 maxMessageSize(默认 4M)
+     */
+    private long maxBytes = 256 * 1024;
+
+    /**
+     * 消息体超过该字节数时 gzip 压缩，<=0 表示不压缩；消费端需为本框架的消费者
+     */
+    private int compressThreshold = 0;
+
+    /**
+     * 批量发送线程数
+     */
+    private int sendThreads = 4;
+
+    /**
+     * 批量发送线程池队列大小
+     */
+    private int queueCapacity = 6000;
+
+    /**
+     * 关闭时等待单个批次在途发送完成的最长时长(毫秒)，超时后不再等待，直接发出剩余消息
+     */
+    private long closeTimeoutMs = 5000;
+}
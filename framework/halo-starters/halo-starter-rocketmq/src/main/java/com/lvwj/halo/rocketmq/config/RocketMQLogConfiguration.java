@@ -0,0 +1,26 @@
+package com.lvwj.halo.rocketmq.config;
+
+import com.lvwj.halo.rocketmq.log.RocketMQLogger;
+import org.apache.rocketmq.spring.autoconfigure.RocketMQAutoConfiguration;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * RocketMQLogConfiguration
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 04:20
+ */
+@ConditionalOnBean(RocketMQTemplate.class)
+@AutoConfigureAfter(RocketMQAutoConfiguration.class)
+@EnableConfigurationProperties(RocketMQLogProperties.class)
+public class RocketMQLogConfiguration {
+
+    @Bean
+    public RocketMQLogger rocketMQLogger(RocketMQLogProperties rocketMQLogProperties) {
+        return new RocketMQLogger(rocketMQLogProperties);
+    }
+}
@@ -0,0 +1,37 @@
+package com.lvwj.halo.rocketmq.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MQ 收发日志配置
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 04:10
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = RocketMQLogProperties.PREFIX)
+public class RocketMQLogProperties {
+
+    public static final String PREFIX = "halo.rocketmq.log";
+
+    /**
+     * 成功日志的默认采样率 [0, 1]，1 表示全部打印，0 表示不打印；失败日志不采样
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * 按 topic 指定采样率，未指定的 topic 使用 sampleRate
+     */
+    private Map<String, Double> topicSampleRates = new HashMap<>();
+
+    /**
+     * 是否按 topic、tag 统计收发耗时及 TPS
+     */
+    private boolean metricsEnabled = true;
+}
@@ -2,6 +2,8 @@ package com.lvwj.halo.rocketmq.config;
 
 import com.lvwj.halo.core.threadpool.ThreadPoolCache;
 import com.lvwj.halo.rocketmq.annotation.RocketMQProducer;
+import com.lvwj.halo.rocketmq.batch.RocketMQSendAccumulator;
+import com.lvwj.halo.rocketmq.log.RocketMQLogger;
 import com.lvwj.halo.rocketmq.producer.RocketMQProducerHelper;
 import com.lvwj.halo.rocketmq.producer.RocketMQProducerInterceptor;
 import com.lvwj.halo.rocketmq.producer.RocketMQProducerRegistry;
@@ -14,6 +16,7 @@ import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.env.Environment;
 
@@ -27,6 +30,7 @@ import java.util.concurrent.Executor;
  */
 @ConditionalOnBean(RocketMQTemplate.class)
 @AutoConfigureAfter(RocketMQAutoConfiguration.class)
+@EnableConfigurationProperties(RocketMQBatchProperties.class)
 public class RocketMQProducerConfiguration {
 
     @Resource
@@ -35,6 +39,12 @@ public class RocketMQProducerConfiguration {
     @Resource
     private Environment environment;
 
+    @Resource
+    private RocketMQLogger rocketMQLogger;
+
+    @Resource
+    private RocketMQBatchProperties rocketMQBatchProperties;
+
     @Value("${halo.rocketmq.producer.threadPool.corePoolSize:3}")
     private Integer corePoolSize;
 
@@ -50,18 +60,26 @@ public class RocketMQProducerConfiguration {
     }
 
     @Bean
-    public RocketMQProducerHelper rocketMQProducerHelper() {
-        return new RocketMQProducerHelper(rocketMQTemplate);
+    public RocketMQSendAccumulator rocketMQSendAccumulator() {
+        return new RocketMQSendAccumulator(rocketMQTemplate, rocketMQLogger, rocketMQBatchProperties);
+    }
+
+    /**
+     * 依赖通过方法参数注入：本配置类不是@Configuration，直接调用@Bean方法会创建容器外的新实例
+     */
+    @Bean
+    public RocketMQProducerHelper rocketMQProducerHelper(RocketMQSendAccumulator rocketMQSendAccumulator) {
+        return new RocketMQProducerHelper(rocketMQTemplate, rocketMQLogger, rocketMQSendAccumulator);
     }
 
     @Bean
-    public RocketMQProducerInterceptor rocketMQProducerInterceptor() {
-        return new RocketMQProducerInterceptor(environment, rocketMQProducerHelper(), rocketMQProducerThreadPool());
+    public RocketMQProducerInterceptor rocketMQProducerInterceptor(RocketMQProducerHelper rocketMQProducerHelper) {
+        return new RocketMQProducerInterceptor(environment, rocketMQProducerHelper, rocketMQProducerThreadPool());
     }
 
     @Bean
-    public PointcutAdvisor rocketMQPointcutAdvisor() {
-        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, RocketMQProducer.class), rocketMQProducerInterceptor());
+    public PointcutAdvisor rocketMQPointcutAdvisor(RocketMQProducerInterceptor rocketMQProducerInterceptor) {
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(null, RocketMQProducer.class), rocketMQProducerInterceptor);
     }
 
     @Bean
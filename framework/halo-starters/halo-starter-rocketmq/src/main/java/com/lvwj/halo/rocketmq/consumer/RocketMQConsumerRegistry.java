@@ -6,13 +6,15 @@ import com.google.common.collect.Maps;
 import com.lvwj.halo.common.constants.SystemConstant;
 import com.lvwj.halo.common.utils.Exceptions;
 import com.lvwj.halo.common.utils.Func;
-import com.lvwj.halo.common.utils.JsonUtil;
 import com.lvwj.halo.common.utils.ThreadLocalUtil;
 import com.lvwj.halo.rocketmq.annotation.RocketMQConsumer;
 import com.lvwj.halo.rocketmq.annotation.TagHandler;
+import com.lvwj.halo.rocketmq.batch.MessageBodyCodec;
+import com.lvwj.halo.rocketmq.log.RocketMQLogger;
 import jakarta.annotation.Resource;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.BooleanUtils;
@@ -42,11 +44,19 @@ import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import static org.apache.rocketmq.remoting.protocol.heartbeat.MessageModel.CLUSTERING;
 
@@ -73,6 +83,9 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
     @Resource
     private RocketMQProperties rocketMQProperties;
 
+    @Resource
+    private RocketMQLogger rocketMQLogger;
+
 
     @Override
     public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
@@ -116,7 +129,7 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
                     String msg = String.format("Bean[%s] Method[%s] Tag[%s] is duplicate", beanName, method, s);
                     throw new RuntimeException(msg);
                 }
-                tagMethods.put(s, new MethodInvoker(bean, method));
+                tagMethods.put(s, new MethodInvoker(bean, method, tagHandler.batch()));
                 tagAnnoItems.put(s, new TagAnnoItem(tagHandler.skipWhenException(), tagHandler.reconsumeTimes(), tagHandler.delayLevelWhenNextConsume()));
             }
         });
@@ -141,6 +154,7 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
         boolean enableMsgTrace = BooleanUtils.toBoolean(resolve(annotation.enableMsgTrace()));
         String customizedTraceTopic = resolve(annotation.customizedTraceTopic());
         int pullBatchSize = Integer.parseInt(resolve(annotation.pullBatchSize()));
+        int consumeMessageBatchMaxSize = Integer.parseInt(resolve(annotation.consumeMessageBatchMaxSize()));
         int consumeThreadNumber = Integer.parseInt(resolve(annotation.consumeThreadNumber()));
         int maxReconsumeTimes = Integer.parseInt(resolve(annotation.maxReconsumeTimes()));
         long consumeTimeout = Long.parseLong(resolve(annotation.consumeTimeout()));
@@ -156,6 +170,7 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
         }
         consumer.setInstanceName(annotation.instanceName());
         consumer.setPullBatchSize(pullBatchSize);
+        consumer.setConsumeMessageBatchMaxSize(consumeMessageBatchMaxSize);
         consumer.setConsumeThreadMax(consumeThreadNumber);
         consumer.setConsumeThreadMin(consumeThreadNumber);
         consumer.setConsumeTimeout(consumeTimeout);
@@ -257,6 +272,18 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
 
         @Override
         public ConsumeOrderlyStatus consumeMessage(List<MessageExt> msgs, ConsumeOrderlyContext context) {
+            if (msgs.size() > 1 && hasBatchHandler(beanName)) {
+                //顺序消费无法部分确认，有需要重试的消息时整批挂起重试
+                for (Integer index : consumeInBatches(beanName, msgs)) {
+                    MessageExt messageExt = msgs.get(index);
+                    String tag = messageExt.getTags();
+                    if (!getSkipWhenException(tag) && messageExt.getReconsumeTimes() < getEnableReconsumeTimes(tag)) {
+                        context.setSuspendCurrentQueueTimeMillis(this.suspendCurrentQueueTimeMillis);
+                        return ConsumeOrderlyStatus.SUSPEND_CURRENT_QUEUE_A_MOMENT;
+                    }
+                }
+                return ConsumeOrderlyStatus.SUCCESS;
+            }
             for (MessageExt messageExt : msgs) {
                 String topic = messageExt.getTopic();
                 String tag = messageExt.getTags();
@@ -269,7 +296,7 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
                 String methodName = "";
                 int reconsumeTimes = messageExt.getReconsumeTimes();
                 int enableReconsumeTimes = getEnableReconsumeTimes(tag);
-                Object payload = null;
+                long now = System.nanoTime();
                 try {
                     if (StringUtils.hasLength(traceId)) {
                         ThreadContext.put("traceId", traceId);
@@ -288,11 +315,10 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
                     }
                     methodName = methodInvoker.methodName();
 
-                    long now = System.currentTimeMillis();
                     //幂等判断：如该消息已被指定消费者组消费成功，需要过滤掉
 
                     //反序列化获取payload
-                    payload = methodInvoker.deserialize(messageExt.getBody());
+                    Object payload = methodInvoker.deserialize(MessageBodyCodec.decode(messageExt));
                     setEventIdIfNecessary(payload, Func.toLong(msgPK));
                     //取出消息体的操作人信息，放到上下文
 
@@ -300,12 +326,16 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
                     methodInvoker.invoke(payload);
                     //保存消息消费成功记录
 
-                    long costTime = System.currentTimeMillis() - now;
+                    long costNanos = System.nanoTime() - now;
+                    rocketMQLogger.recordConsume(topic, tag, true, costNanos);
 
-                    log.info("MQ消费成功:[Method:{}], [Topic:{}], [Tag:{}], {}[Id:{}], [Key:{}], [消息体:{}], [耗时:{}毫秒]{}", methodName, topic, tag, StringUtils.hasText(msgPK) ? "[PK:" + msgPK + "], " : "", msgId, msgKey, JsonUtil.toJson(payload), costTime, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "");
+                    if (rocketMQLogger.isInfoSampled(log, topic)) {
+                        log.info("MQ消费成功:[Method:{}], [Topic:{}], [Tag:{}], {}[Id:{}], [Key:{}], [消息体:{}], [耗时:{}毫秒]{}", methodName, topic, tag, StringUtils.hasText(msgPK) ? "[PK:" + msgPK + "], " : "", msgId, msgKey, RocketMQLogger.body(messageExt), TimeUnit.NANOSECONDS.toMillis(costNanos), StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "");
+                    }
                 } catch (Exception e) {
                     Throwable t = Exceptions.unwrap(e);
-                    log.error("MQ消费失败:[Method:{}], [Topic:{}], [Tag:{}],{} [Id:{}], [Key:{}], [消息体:{}], [异常:{}], [重试:{}次]{}", methodName, topic, tag, StringUtils.hasText(msgPK) ? "[PK:" + msgPK + "], " : "", msgId, msgKey, JsonUtil.toJson(payload), t.getMessage(), reconsumeTimes, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "", t);
+                    rocketMQLogger.recordConsume(topic, tag, false, System.nanoTime() - now);
+                    log.error("MQ消费失败:[Method:{}], [Topic:{}], [Tag:{}],{} [Id:{}], [Key:{}], [消息体:{}], [异常:{}], [重试:{}次]{}", methodName, topic, tag, StringUtils.hasText(msgPK) ? "[PK:" + msgPK + "], " : "", msgId, msgKey, RocketMQLogger.body(messageExt), t.getMessage(), reconsumeTimes, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "", t);
 
                     ConsumeOrderlyStatus consumeOrderlyStatus;
                     if (getSkipWhenException(tag) || reconsumeTimes >= enableReconsumeTimes) {
@@ -403,6 +433,19 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
 
         @Override
         public ConsumeConcurrentlyStatus consumeMessage(List<MessageExt> msgs, ConsumeConcurrentlyContext context) {
+            if (msgs.size() > 1 && hasBatchHandler(beanName)) {
+                //ackIndex之后的消息会被逐条发回重试：以第一条需要重试的消息为界
+                for (Integer index : consumeInBatches(beanName, msgs)) {
+                    MessageExt messageExt = msgs.get(index);
+                    String tag = messageExt.getTags();
+                    if (!getSkipWhenException(tag) && messageExt.getReconsumeTimes() < getEnableReconsumeTimes(tag)) {
+                        context.setAckIndex(index - 1);
+                        context.setDelayLevelWhenNextConsume(getDelayLevelWhenNextConsume(tag));
+                        return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+                    }
+                }
+                return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+            }
             for (MessageExt messageExt : msgs) {
                 String topic = messageExt.getTopic();
                 String tag = messageExt.getTags();
@@ -416,7 +459,7 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
                 int reconsumeTimes = messageExt.getReconsumeTimes();
                 int enableReconsumeTimes = getEnableReconsumeTimes(tag);
                 int delayLevelWhenNextConsume1 = getDelayLevelWhenNextConsume(tag);
-                Object payload = null;
+                long now = System.nanoTime();
                 try {
                     if (StringUtils.hasLength(traceId)) {
                         ThreadContext.put("traceId", traceId);
@@ -435,11 +478,10 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
                     }
                     methodName = methodInvoker.methodName();
 
-                    long now = System.currentTimeMillis();
                     //幂等判断：如该消息已被指定消费者组消费成功，需要过滤掉
 
                     //反序列化获取payload
-                    payload = methodInvoker.deserialize(messageExt.getBody());
+                    Object payload = methodInvoker.deserialize(MessageBodyCodec.decode(messageExt));
                     setEventIdIfNecessary(payload, Func.toLong(msgPK));
                     //取出消息体的操作人信息，放到上下文
 
@@ -447,12 +489,16 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
                     methodInvoker.invoke(payload);
                     //保存消息消费成功记录
 
-                    long costTime = System.currentTimeMillis() - now;
+                    long costNanos = System.nanoTime() - now;
+                    rocketMQLogger.recordConsume(topic, tag, true, costNanos);
 
-                    log.info("MQ消费成功:[Method:{}], [Topic:{}], [Tag:{}], {}[Id:{}], [Key:{}], [消息体:{}], [耗时:{}毫秒]{}", methodName, topic, tag, StringUtils.hasText(msgPK) ? "[PK:" + msgPK + "], " : "", msgId, msgKey, JsonUtil.toJson(payload), costTime, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "");
+                    if (rocketMQLogger.isInfoSampled(log, topic)) {
+                        log.info("MQ消费成功:[Method:{}], [Topic:{}], [Tag:{}], {}[Id:{}], [Key:{}], [消息体:{}], [耗时:{}毫秒]{}", methodName, topic, tag, StringUtils.hasText(msgPK) ? "[PK:" + msgPK + "], " : "", msgId, msgKey, RocketMQLogger.body(messageExt), TimeUnit.NANOSECONDS.toMillis(costNanos), StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "");
+                    }
                 } catch (Exception e) {
                     Throwable t = Exceptions.unwrap(e);
-                    log.error("MQ消费失败:[Method:{}], [Topic:{}], [Tag:{}],{} [Id:{}], [Key:{}], [消息体:{}], [异常:{}], [重试:{}次]{}", methodName, topic, tag, StringUtils.hasText(msgPK) ? "[PK:" + msgPK + "], " : "", msgId, msgKey, JsonUtil.toJson(payload), t.getMessage(), reconsumeTimes, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "", t);
+                    rocketMQLogger.recordConsume(topic, tag, false, System.nanoTime() - now);
+                    log.error("MQ消费失败:[Method:{}], [Topic:{}], [Tag:{}],{} [Id:{}], [Key:{}], [消息体:{}], [异常:{}], [重试:{}次]{}", methodName, topic, tag, StringUtils.hasText(msgPK) ? "[PK:" + msgPK + "], " : "", msgId, msgKey, RocketMQLogger.body(messageExt), t.getMessage(), reconsumeTimes, StringUtils.hasText(traceId) ? "[TraceId:" + traceId + "]" : "", t);
 
                     ConsumeConcurrentlyStatus consumeConcurrentlyStatus;
                     if (getSkipWhenException(tag) || reconsumeTimes >= enableReconsumeTimes) {
@@ -476,6 +522,139 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
         }
     }
 
+    private boolean hasBatchHandler(String beanName) {
+        return tagMethodMap.get(beanName).values().stream().anyMatch(MethodInvoker::isBatch);
+    }
+
+    /**
+     * 批量消费：按tag分组，批量方法一次消费同tag的所有消息，非批量方法逐条消费
+     *
+     * @return 消费失败的消息下标(对应msgs)，升序
+     */
+    private List<Integer> consumeInBatches(String beanName, List<MessageExt> msgs) {
+        Map<String, List<Integer>> tagIndexes = new LinkedHashMap<>();
+        for (int i = 0; i < msgs.size(); i++) {
+            String tag = msgs.get(i).getTags();
+            tagIndexes.computeIfAbsent(StringUtils.hasText(tag) ? tag : "*", k -> new ArrayList<>()).add(i);
+        }
+        List<Integer> failed = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> entry : tagIndexes.entrySet()) {
+            Map<String, MethodInvoker> tagMethods = tagMethodMap.get(beanName);
+            MethodInvoker methodInvoker = Optional.ofNullable(tagMethods.get(entry.getKey())).orElse(tagMethods.get("*"));
+            if (methodInvoker == null) {
+                log.warn("Failed to find MethodInvoker for Tag {}", entry.getKey());
+                continue;
+            }
+            //同一批消息的链路信息不同，取第一条放到上下文
+            MessageExt first = msgs.get(entry.getValue().get(0));
+            String traceId = first.getUserProperty("tid");
+            try {
+                if (StringUtils.hasLength(traceId)) {
+                    ThreadContext.put("traceId", traceId);
+                    MDC.put("traceId", traceId);
+                    ThreadLocalUtil.putTraceId(traceId);
+                }
+                ThreadLocalUtil.putCurrentUserId(Func.toLong(first.getUserProperty(SystemConstant.USER_ID)));
+                ThreadLocalUtil.putCurrentUserName(first.getUserProperty(SystemConstant.USER_NAME));
+                if (methodInvoker.isBatch()) {
+                    failed.addAll(consumeBatch(methodInvoker, entry.getKey(), msgs, entry.getValue()));
+                } else {
+                    for (Integer index : entry.getValue()) {
+                        if (!consumeOne(methodInvoker, msgs.get(index))) {
+                            failed.add(index);
+                        }
+                    }
+                }
+            } finally {
+                if (StringUtils.hasLength(traceId)) {
+                    ThreadContext.clearAll();
+                    MDC.clear();
+                }
+                ThreadLocalUtil.clear();
+            }
+        }
+        failed.sort(null);
+        return failed;
+    }
+
+    private List<Integer> consumeBatch(MethodInvoker methodInvoker, String tag, List<MessageExt> msgs, List<Integer> indexes) {
+        String methodName = methodInvoker.methodName();
+        List<Integer> failed = new ArrayList<>();
+        List<Object> payloads = new ArrayList<>(indexes.size());
+        List<Integer> payloadIndexes = new ArrayList<>(indexes.size());
+        for (Integer index : indexes) {
+            MessageExt messageExt = msgs.get(index);
+            try {
+                Object payload = methodInvoker.deserialize(MessageBodyCodec.decode(messageExt));
+                if (null != payload) {
+                    setEventIdIfNecessary(payload, Func.toLong(messageExt.getUserProperty("msgPK")));
+                    payloads.add(payload);
+                    payloadIndexes.add(index);
+                }
+            } catch (Exception e) {
+                log.error("MQ消息反序列化失败:[Method:{}], [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [重试:{}次]", methodName, messageExt.getTopic(), tag, messageExt.getMsgId(), messageExt.getKeys(), messageExt.getReconsumeTimes(), e);
+                rocketMQLogger.recordConsume(messageExt.getTopic(), tag, false, 0);
+                failed.add(index);
+            }
+        }
+        if (payloads.isEmpty()) {
+            return failed;
+        }
+        String topic = msgs.get(payloadIndexes.get(0)).getTopic();
+        long now = System.nanoTime();
+        try {
+            Collection<Integer> failedIndexes = methodInvoker.invokeBatch(payloads);
+            Set<Integer> failedPayloads = new HashSet<>();
+            for (Integer failedIndex : failedIndexes) {
+                if (null != failedIndex && failedIndex >= 0 && failedIndex < payloadIndexes.size() && failedPayloads.add(failedIndex)) {
+                    failed.add(payloadIndexes.get(failedIndex));
+                }
+            }
+            long costNanos = System.nanoTime() - now;
+            //按条记录，耗时按条数分摊，与逐条消费的指标口径一致
+            long perMessageNanos = costNanos / payloads.size();
+            for (int i = 0; i < payloads.size(); i++) {
+                rocketMQLogger.recordConsume(topic, tag, !failedPayloads.contains(i), perMessageNanos);
+            }
+            if (!failedIndexes.isEmpty() || rocketMQLogger.isInfoSampled(log, topic)) {
+                log.info("MQ批量消费完成:[Method:{}], [Topic:{}], [Tag:{}], [条数:{}], [失败:{}条], [耗时:{}毫秒]", methodName, topic, tag, payloads.size(), failedIndexes.size(), TimeUnit.NANOSECONDS.toMillis(costNanos));
+            }
+        } catch (Exception e) {
+            Throwable t = Exceptions.unwrap(e);
+            long perMessageNanos = (System.nanoTime() - now) / payloads.size();
+            for (int i = 0; i < payloads.size(); i++) {
+                rocketMQLogger.recordConsume(topic, tag, false, perMessageNanos);
+            }
+            log.error("MQ批量消费失败:[Method:{}], [Topic:{}], [Tag:{}], [条数:{}], [异常:{}]", methodName, topic, tag, payloads.size(), t.getMessage(), t);
+            failed.addAll(payloadIndexes);
+        }
+        return failed;
+    }
+
+    private boolean consumeOne(MethodInvoker methodInvoker, MessageExt messageExt) {
+        String methodName = methodInvoker.methodName();
+        String msgPK = messageExt.getUserProperty("msgPK");
+        String topic = messageExt.getTopic();
+        String tag = messageExt.getTags();
+        long now = System.nanoTime();
+        try {
+            Object payload = methodInvoker.deserialize(MessageBodyCodec.decode(messageExt));
+            setEventIdIfNecessary(payload, Func.toLong(msgPK));
+            methodInvoker.invoke(payload);
+            long costNanos = System.nanoTime() - now;
+            rocketMQLogger.recordConsume(topic, tag, true, costNanos);
+            if (rocketMQLogger.isInfoSampled(log, topic)) {
+                log.info("MQ消费成功:[Method:{}], [Topic:{}], [Tag:{}], {}[Id:{}], [Key:{}], [消息体:{}], [耗时:{}毫秒]", methodName, topic, tag, StringUtils.hasText(msgPK) ? "[PK:" + msgPK + "], " : "", messageExt.getMsgId(), messageExt.getKeys(), RocketMQLogger.body(messageExt), TimeUnit.NANOSECONDS.toMillis(costNanos));
+            }
+            return true;
+        } catch (Exception e) {
+            Throwable t = Exceptions.unwrap(e);
+            rocketMQLogger.recordConsume(topic, tag, false, System.nanoTime() - now);
+            log.error("MQ消费失败:[Method:{}], [Topic:{}], [Tag:{}],{} [Id:{}], [Key:{}], [消息体:{}], [异常:{}], [重试:{}次]", methodName, topic, tag, StringUtils.hasText(msgPK) ? "[PK:" + msgPK + "], " : "", messageExt.getMsgId(), messageExt.getKeys(), RocketMQLogger.body(messageExt), t.getMessage(), messageExt.getReconsumeTimes(), t);
+            return false;
+        }
+    }
+
     private static void setEventIdIfNecessary(Object payload, Long eventId) {
         Field field = ReflectionUtils.findField(payload.getClass(), "eventId");
         if (null != field && null != eventId) {
@@ -537,26 +716,84 @@ public class RocketMQConsumerRegistry implements BeanPostProcessor, SmartLifecyc
 
         private final Class<?> declaringClass;
         private final Type paramType; //消息体类型
+        @Getter
+        private final boolean batch; //批量消费，paramType为List的元素类型
 
 
         MethodInvoker(Object bean, Method method) {
+            this(bean, method, false);
+        }
+
+        MethodInvoker(Object bean, Method method, boolean batch) {
             this.bean = bean;
             this.method = method;
             this.declaringClass = method.getDeclaringClass();
-            this.paramType = method.getGenericParameterTypes()[0];
+            this.batch = batch;
+            if (batch) {
+                if (!List.class.isAssignableFrom(method.getParameterTypes()[0])) {
+                    throw new IllegalArgumentException(String.format("Method[%s] @TagHandler(batch = true) param must be List", method));
+                }
+                if (!isBatchReturnType(method)) {
+                    throw new IllegalArgumentException(String.format("Method[%s] @TagHandler(batch = true) return type must be void or Collection<Integer>", method));
+                }
+                Type type = method.getGenericParameterTypes()[0];
+                this.paramType = type instanceof ParameterizedType pt ? pt.getActualTypeArguments()[0] : Object.class;
+            } else {
+                this.paramType = method.getGenericParameterTypes()[0];
+            }
         }
 
         public String methodName() {
             return this.declaringClass.getName() + "." + this.method.getName();
         }
 
+        /**
+         * 批量方法的返回值为消费失败的下标：void或Collection&lt;Integer&gt;
+         */
+        private static boolean isBatchReturnType(Method method) {
+            Class<?> returnType = method.getReturnType();
+            if (returnType == void.class) {
+                return true;
+            }
+            if (!Collection.class.isAssignableFrom(returnType)) {
+                return false;
+            }
+            return method.getGenericReturnType() instanceof ParameterizedType pt && pt.getActualTypeArguments()[0] == Integer.class;
+        }
+
+        /**
+         * 单条消费，批量方法按一条消息的列表调用，返回失败下标时抛出异常以便重试
+         */
         public void invoke(Object param) {
-            if (null != param) {
-                try {
-                    this.method.invoke(bean, param);
-                } catch (IllegalAccessException | InvocationTargetException e) {
-                    throw Exceptions.unchecked(e);
+            if (null == param) {
+                return;
+            }
+            if (batch) {
+                if (!invokeBatch(List.of(param)).isEmpty()) {
+                    throw new IllegalStateException(String.format("Method[%s] returned failed index", methodName()));
                 }
+                return;
+            }
+            try {
+                this.method.invoke(bean, param);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw Exceptions.unchecked(e);
+            }
+        }
+
+        /**
+         * 批量消费
+         *
+         * @return 消费失败的下标，方法无返回值时为空
+         */
+        @SuppressWarnings("unchecked")
+        public Collection<Integer> invokeBatch(List<Object> params) {
+            try {
+                //返回类型在注册时已校验为void或Collection<Integer>
+                Object result = this.method.invoke(bean, params);
+                return null == result ? Collections.emptyList() : (Collection<Integer>) result;
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw Exceptions.unchecked(e);
             }
         }
 
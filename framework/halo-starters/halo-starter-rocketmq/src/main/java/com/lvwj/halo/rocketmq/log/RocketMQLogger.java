@@ -0,0 +1,108 @@
+package com.lvwj.halo.rocketmq.log;
+
+import com.lvwj.halo.rocketmq.batch.MessageBodyCodec;
+import com.lvwj.halo.rocketmq.config.RocketMQLogProperties;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.slf4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MQ 收发日志及指标
+ * <p>
+ * 成功日志按 topic 采样，消息体只在真正输出日志时才解码；收发耗时及 TPS 通过 Timer 按 topic、tag 统计
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 04:15
+ */
+public class RocketMQLogger {
+
+    private static final String NONE = "none";
+
+    private final RocketMQLogProperties properties;
+
+    /**
+     * topic|tag|result - Timer，避免每条消息都构建 Timer
+     */
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public RocketMQLogger(RocketMQLogProperties properties) {
+        this.properties = properties;
+    }
+
+    /**
+     * 是否打印该 topic 的成功日志：日志级别开启且命中采样
+     */
+    public boolean isInfoSampled(Logger log, String topic) {
+        if (!log.isInfoEnabled()) {
+            return false;
+        }
+        double rate = properties.getTopicSampleRates().getOrDefault(topic, properties.getSampleRate());
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * 消息体原始字节，打印时才按 UTF-8 解码
+     */
+    public static Object body(byte[] body) {
+        return new LazyBody(body);
+    }
+
+    /**
+     * 消费到的消息体，打印时才解压、解码
+     */
+    public static Object body(MessageExt messageExt) {
+        return new LazyMessageBody(messageExt);
+    }
+
+    /**
+     * 记录消费耗时：halo.rocketmq.consume{topic, tag, result}
+     */
+    public void recordConsume(String topic, String tag, boolean success, long costNanos) {
+        record("halo.rocketmq.consume", "MQ消费耗时", topic, tag, success, costNanos);
+    }
+
+    /**
+     * 记录发送耗时：halo.rocketmq.produce{topic, tag, result}
+     */
+    public void recordProduce(String topic, String tag, boolean success, long costNanos) {
+        record("halo.rocketmq.produce", "MQ发送耗时", topic, tag, success, costNanos);
+    }
+
+    private void record(String name, String description, String topic, String tag, boolean success, long costNanos) {
+        if (!properties.isMetricsEnabled()) {
+            return;
+        }
+        String t = null == topic ? NONE : topic;
+        String g = null == tag || tag.isEmpty() ? NONE : tag;
+        String result = success ? "success" : "failure";
+        timers.computeIfAbsent(name + "|" + t + "|" + g + "|" + result, k -> Timer.builder(name)
+                        .description(description)
+                        .tags("topic", t, "tag", g, "result", result)
+                        .register(Metrics.globalRegistry))
+                .record(costNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private record LazyBody(byte[] body) {
+
+        @Override
+        public String toString() {
+            return null == body ? "null" : new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private record LazyMessageBody(MessageExt messageExt) {
+
+        @Override
+        public String toString() {
+            byte[] body = MessageBodyCodec.decode(messageExt);
+            return null == body ? "null" : new String(body, StandardCharsets.UTF_8);
+        }
+    }
+}
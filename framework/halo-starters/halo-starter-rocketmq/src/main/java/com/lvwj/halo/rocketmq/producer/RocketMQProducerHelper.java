@@ -1,12 +1,14 @@
 package com.lvwj.halo.rocketmq.producer;
 
 import com.alibaba.fastjson.JSONObject;
+import com.lvwj.halo.common.constants.NumberConstant;
 import com.lvwj.halo.common.constants.SystemConstant;
 import com.lvwj.halo.common.utils.Func;
-import com.lvwj.halo.common.utils.JsonUtil;
 import com.lvwj.halo.common.utils.StringPool;
 import com.lvwj.halo.common.utils.ThreadLocalUtil;
 import com.lvwj.halo.rocketmq.annotation.MessageMode;
+import com.lvwj.halo.rocketmq.batch.RocketMQSendAccumulator;
+import com.lvwj.halo.rocketmq.log.RocketMQLogger;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.logging.log4j.ThreadContext;
@@ -34,6 +36,10 @@ public class RocketMQProducerHelper {
 
     private final RocketMQTemplate rocketMQTemplate;
 
+    private final RocketMQLogger rocketMQLogger;
+
+    private final RocketMQSendAccumulator sendAccumulator;
+
     public void apply(Long msgPK, String msgKey, String topic, String tag, String body, Integer delayLevel,
                       MessageMode msgMode, CommunicationMode communicationMode, Long timeout, boolean bodyWithHeader, boolean isStoreMsg) {
         // 获取Destination
@@ -42,25 +48,23 @@ public class RocketMQProducerHelper {
         Message<String> message = getMsg(msgPK, body, msgKey, tag, delayLevel, bodyWithHeader);
         switch (communicationMode) {
             case SYNC:
-                SendResult sendResult;
-                if (msgMode == MessageMode.ORDER && StringUtils.hasText(msgKey)) {
-                    sendResult = this.rocketMQTemplate.syncSendOrderly(destination, message, msgKey, timeout, delayLevel);
-                } else {
-                    sendResult = this.rocketMQTemplate.syncSend(destination, message, timeout, delayLevel);
-                }
-                String result = sendResult.getSendStatus().equals(SendStatus.SEND_OK) ? "成功" : "失败";
-                log.info("[SYNC]MQ发送{}: [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [Msg:{}], [Result:{}]", result, topic, tag, sendResult.getMsgId(), msgKey, JsonUtil.toJson(message.getPayload()), sendResult);
+                syncSend(destination, message, msgKey, topic, tag, delayLevel, msgMode, timeout);
                 break;
             case ASYNC:
+                long asyncStart = System.nanoTime();
                 SendCallback sendCallback = new SendCallback() {
                     @Override
                     public void onSuccess(SendResult sendResult) {
-                        log.info("[ASYNC]MQ发送成功: [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [Msg:{}], [Result:{}]", topic, tag, sendResult.getMsgId(), msgKey, JsonUtil.toJson(message.getPayload()), sendResult);
+                        rocketMQLogger.recordProduce(topic, tag, true, System.nanoTime() - asyncStart);
+                        if (rocketMQLogger.isInfoSampled(log, topic)) {
+                            log.info("[ASYNC]MQ发送成功: [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [Msg:{}], [Result:{}]", topic, tag, sendResult.getMsgId(), msgKey, message.getPayload(), sendResult);
+                        }
                     }
 
                     @Override
                     public void onException(Throwable e) {
-                        log.error("[ASYNC]MQ发送失败: [Topic:{}], [Tag:{}], [Key:{}], [Msg:{}]", topic, tag, msgKey, JsonUtil.toJson(message.getPayload()), e);
+                        rocketMQLogger.recordProduce(topic, tag, false, System.nanoTime() - asyncStart);
+                        log.error("[ASYNC]MQ发送失败: [Topic:{}], [Tag:{}], [Key:{}], [Msg:{}]", topic, tag, msgKey, message.getPayload(), e);
                     }
                 };
                 if (msgMode == MessageMode.ORDER && StringUtils.hasText(msgKey)) {
@@ -70,16 +74,60 @@ public class RocketMQProducerHelper {
                 }
                 break;
             case ONEWAY:
+                long onewayStart = System.nanoTime();
                 if (msgMode == MessageMode.ORDER && StringUtils.hasText(msgKey)) {
                     this.rocketMQTemplate.sendOneWayOrderly(destination, message, msgKey);
                 } else {
                     this.rocketMQTemplate.sendOneWay(destination, message);
                 }
-                log.info("[ONEWAY]MQ发送成功: [Topic:{}], [Tag:{}], [Key:{}], [Msg:{}]", topic, tag, msgKey, JsonUtil.toJson(message.getPayload()));
+                rocketMQLogger.recordProduce(topic, tag, true, System.nanoTime() - onewayStart);
+                if (rocketMQLogger.isInfoSampled(log, topic)) {
+                    log.info("[ONEWAY]MQ发送成功: [Topic:{}], [Tag:{}], [Key:{}], [Msg:{}]", topic, tag, msgKey, message.getPayload());
+                }
                 break;
         }
     }
 
+    /**
+     * 在当前线程同步发送，未收到SEND_OK时抛出异常，用于发件箱转发等需要确认送达的场景
+     */
+    public SendResult applySync(Long msgPK, String msgKey, String topic, String tag, String body, Integer delayLevel,
+                                MessageMode msgMode, Long timeout, boolean bodyWithHeader) {
+        String destination = getDestination(topic, tag);
+        Message<String> message = getMsg(msgPK, body, msgKey, tag, delayLevel, bodyWithHeader);
+        SendResult sendResult = syncSend(destination, message, msgKey, topic, tag, delayLevel, msgMode, timeout);
+        if (!SendStatus.SEND_OK.equals(sendResult.getSendStatus())) {
+            throw new IllegalStateException(String.format("MQ发送失败: [Topic:%s], [Tag:%s], [Key:%s], [Status:%s]", topic, tag, msgKey, sendResult.getSendStatus()));
+        }
+        return sendResult;
+    }
+
+    private SendResult syncSend(String destination, Message<String> message, String msgKey, String topic, String tag, Integer delayLevel,
+                                MessageMode msgMode, Long timeout) {
+        long now = System.nanoTime();
+        SendResult sendResult;
+        if (msgMode == MessageMode.ORDER && StringUtils.hasText(msgKey)) {
+            sendResult = this.rocketMQTemplate.syncSendOrderly(destination, message, msgKey, timeout, delayLevel);
+        } else {
+            sendResult = this.rocketMQTemplate.syncSend(destination, message, timeout, delayLevel);
+        }
+        boolean sendOk = sendResult.getSendStatus().equals(SendStatus.SEND_OK);
+        rocketMQLogger.recordProduce(topic, tag, sendOk, System.nanoTime() - now);
+        if (!sendOk || rocketMQLogger.isInfoSampled(log, topic)) {
+            log.info("[SYNC]MQ发送{}: [Topic:{}], [Tag:{}], [Id:{}], [Key:{}], [Msg:{}], [Result:{}]", sendOk ? "成功" : "失败", topic, tag, sendResult.getMsgId(), msgKey, message.getPayload(), sendResult);
+        }
+        return sendResult;
+    }
+
+    /**
+     * 交给累加器攒批发送，不支持延迟消息
+     */
+    public void applyBatch(Long msgPK, String msgKey, String topic, String tag, String body, MessageMode msgMode, Long timeout, boolean bodyWithHeader) {
+        Message<String> message = getMsg(msgPK, body, msgKey, tag, NumberConstant.INT_NEG_ONE, bodyWithHeader);
+        String orderKey = msgMode == MessageMode.ORDER && StringUtils.hasText(msgKey) ? msgKey : null;
+        sendAccumulator.append(topic, tag, orderKey, message, timeout);
+    }
+
     private String getDestination(String topic, String tag) {
         if (StringUtils.hasText(tag)) {
             return topic + StringPool.COLON + tag;
@@ -6,6 +6,7 @@ import com.lvwj.halo.common.utils.Func;
 import com.lvwj.halo.common.utils.JsonUtil;
 import com.lvwj.halo.common.utils.TransactionUtil;
 import com.lvwj.halo.core.domain.event.IntegrationEvent;
+import com.lvwj.halo.core.domain.event.SyncDeliveryContext;
 import com.lvwj.halo.rocketmq.annotation.MessageMode;
 import com.lvwj.halo.rocketmq.annotation.RocketMQProducer;
 import lombok.AllArgsConstructor;
@@ -64,17 +65,34 @@ public class RocketMQProducerInterceptor implements MethodInterceptor {
         InvokeCacheItem invokeItem = this.invokeCache.computeIfAbsent(method, this::parseMethod);
         if (invokeItem.isEnable()) {
             ThreadContext.putIfNull("traceId", TraceContext.traceId());
-            TransactionUtil.afterCommit(() -> sendMQ(invokeItem, arguments, result));
+            if (SyncDeliveryContext.isActive()) {
+                //发件箱转发：当前线程同步发送，broker确认后回执，失败抛出异常由转发器重试
+                sendMQSync(invokeItem, arguments, result);
+                SyncDeliveryContext.ack();
+            } else {
+                TransactionUtil.afterCommit(() -> sendMQ(invokeItem, arguments, result));
+            }
         }
         return result;
     }
 
+    private void sendMQSync(InvokeCacheItem invokeItem, Object[] arguments, Object result) {
+        IntegrationEvent event = (IntegrationEvent) arguments[0];
+        producerHelper.applySync(event.getEventId(), invokeItem.getKey(arguments, result), invokeItem.getTopic(), invokeItem.getTag(), JsonUtil.toJson(event),
+                invokeItem.getDelayLevel(arguments), invokeItem.getMessageMode(), invokeItem.getTimeout(), invokeItem.bodyWithHeader);
+    }
+
     private void sendMQ(InvokeCacheItem invokeItem, Object[] arguments, Object result) {
         IntegrationEvent event = (IntegrationEvent) arguments[0];
         Long msgPK = event.getEventId();
         String msgKey = invokeItem.getKey(arguments, result);
         String msgBody = JsonUtil.toJson(event);
         Integer delayLevel = invokeItem.getDelayLevel(arguments);
+        //攒批模式只是入队，由累加器批量发送
+        if (invokeItem.isBatch() && delayLevel <= 0) {
+            producerHelper.applyBatch(msgPK, msgKey, invokeItem.getTopic(), invokeItem.getTag(), msgBody, invokeItem.getMessageMode(), invokeItem.getTimeout(), invokeItem.bodyWithHeader);
+            return;
+        }
         //顺序模式，同步发MQ; 普通模式，异步发MQ
         if (invokeItem.getMessageMode().equals(MessageMode.ORDER)) {
             producerHelper.apply(msgPK, msgKey, invokeItem.getTopic(), invokeItem.getTag(), msgBody, delayLevel,
@@ -91,6 +109,7 @@ public class RocketMQProducerInterceptor implements MethodInterceptor {
         boolean enable = BooleanUtils.toBoolean(this.resolve(producer.enable()));
         String topic = this.resolve(producer.topic());
         String tag = this.resolve(producer.tag());
+        boolean batch = BooleanUtils.toBoolean(this.resolve(producer.batch()));
 
         String[] parameterNames = parameterNameDiscoverer.getParameterNames(method);
         Expression keyExp = null;
@@ -104,7 +123,7 @@ public class RocketMQProducerInterceptor implements MethodInterceptor {
 
         return new InvokeCacheItem(enable, topic, tag, producer.key(), delayLevelExp, producer.msg(),
                 producer.communicationMode(), producer.messageMode(),
-                parameterNames, keyExp, producer.timeout(), producer.bodyWithHeader());
+                parameterNames, keyExp, producer.timeout(), producer.bodyWithHeader(), batch);
     }
 
     /**
@@ -131,6 +150,7 @@ public class RocketMQProducerInterceptor implements MethodInterceptor {
         private final Expression keyExp;
         private final long timeout;
         private final boolean bodyWithHeader;
+        private final boolean batch;
 
         public String getKey(Object[] arguments, Object result) {
             if (!StringUtils.hasLength(this.key)) return null;
@@ -0,0 +1,127 @@
+package com.lvwj.halo.rocketmq.batch;
+
+import com.lvwj.halo.rocketmq.config.RocketMQBatchProperties;
+import com.lvwj.halo.rocketmq.config.RocketMQLogProperties;
+import com.lvwj.halo.rocketmq.log.RocketMQLogger;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.spring.core.RocketMQTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * MQ 发送累加器测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 14:10
+ */
+class RocketMQSendAccumulatorTest {
+
+    private static final String TOPIC = "order-topic";
+
+    private final List<MessageQueue> queues = List.of(queue(0), queue(1), queue(2), queue(3));
+
+    /**
+     * 队列 - 发往该队列的每一批消息体
+     */
+    private final Map<MessageQueue, List<List<String>>> sent = new ConcurrentHashMap<>();
+
+    private RocketMQSendAccumulator accumulator;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws Exception {
+        DefaultMQProducer producer = mock(DefaultMQProducer.class);
+        when(producer.fetchPublishMessageQueues(TOPIC)).thenReturn(queues);
+        when(producer.send(anyCollection(), any(MessageQueue.class), anyLong())).thenAnswer(invocation -> {
+            List<String> bodies = new ArrayList<>();
+            for (org.apache.rocketmq.common.message.Message message : (Collection<org.apache.rocketmq.common.message.Message>) invocation.getArgument(0)) {
+                bodies.add(new String(message.getBody(), StandardCharsets.UTF_8));
+            }
+            sent.computeIfAbsent(invocation.getArgument(1), k -> new ArrayList<>()).add(bodies);
+            return sendOk();
+        });
+        when(producer.send(any(org.apache.rocketmq.common.message.Message.class), any(MessageQueue.class), anyLong())).thenAnswer(invocation -> {
+            org.apache.rocketmq.common.message.Message message = invocation.getArgument(0);
+            sent.computeIfAbsent(invocation.getArgument(1), k -> new ArrayList<>()).add(List.of(new String(message.getBody(), StandardCharsets.UTF_8)));
+            return sendOk();
+        });
+        RocketMQTemplate template = new RocketMQTemplate();
+        template.setProducer(producer);
+
+        RocketMQBatchProperties properties = new RocketMQBatchProperties();
+        //足够长的 linger，消息只在 close 时发出
+        properties.setLingerMs(60_000);
+        accumulator = new RocketMQSendAccumulator(template, new RocketMQLogger(new RocketMQLogProperties()), properties);
+    }
+
+    @Test
+    void orderMessagesAreBatchedPerSelectedQueue() {
+        for (int i = 0; i < 40; i++) {
+            String key = "order" + i;
+            accumulator.append(TOPIC, "paid", key, MessageBuilder.withPayload(key + ":1").build(), 3000);
+            accumulator.append(TOPIC, "paid", key, MessageBuilder.withPayload(key + ":2").build(), 3000);
+        }
+        accumulator.close();
+
+        //40 个 key 按队列合并为最多 4 批，每个 key 都发往按 hash 选出的队列且保持顺序
+        int messages = 0;
+        for (Map.Entry<MessageQueue, List<List<String>>> entry : sent.entrySet()) {
+            assertEquals(1, entry.getValue().size());
+            List<String> bodies = entry.getValue().get(0);
+            messages += bodies.size();
+            for (String body : bodies) {
+                String key = body.substring(0, body.indexOf(':'));
+                assertEquals(queues.get(Math.abs(key.hashCode() % queues.size())), entry.getKey());
+                if (body.endsWith(":2")) {
+                    assertTrue(bodies.indexOf(key + ":1") < bodies.indexOf(body));
+                }
+            }
+        }
+        assertEquals(80, messages);
+        assertTrue(sent.size() <= queues.size());
+    }
+
+    @Test
+    void appendAfterCloseIsSentDirectly() {
+        accumulator.append(TOPIC, "paid", "order1", MessageBuilder.withPayload("order1:1").build(), 3000);
+        accumulator.close();
+        accumulator.append(TOPIC, "paid", "order1", MessageBuilder.withPayload("order1:2").build(), 3000);
+
+        List<List<String>> batches = sent.get(queues.get(Math.abs("order1".hashCode() % queues.size())));
+        assertEquals(List.of(List.of("order1:1"), List.of("order1:2")), batches);
+        Set<String> bodies = new HashSet<>();
+        sent.values().forEach(list -> list.forEach(bodies::addAll));
+        assertEquals(Set.of("order1:1", "order1:2"), bodies);
+    }
+
+    private static MessageQueue queue(int queueId) {
+        return new MessageQueue(TOPIC, "broker-a", queueId);
+    }
+
+    private static SendResult sendOk() {
+        SendResult result = new SendResult();
+        result.setSendStatus(SendStatus.SEND_OK);
+        return result;
+    }
+}
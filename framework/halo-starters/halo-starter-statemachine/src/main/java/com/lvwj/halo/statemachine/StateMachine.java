@@ -30,6 +30,16 @@ public interface StateMachine<S, E, C> extends Visitable{
      */
      S fireEvent(S sourceState, E event, C ctx);
 
+    /**
+     * Route the transition for an event {@code E} without executing its action.
+     *
+     * @param sourceState the source state
+     * @param event the event to route
+     * @param ctx the user defined context
+     * @return the transition whose condition is satisfied, or null if there is none
+     */
+    Transition<S, E, C> routeTransition(S sourceState, E event, C ctx);
+
     /**
      * MachineId is the identifier for a State Machine
      * @return
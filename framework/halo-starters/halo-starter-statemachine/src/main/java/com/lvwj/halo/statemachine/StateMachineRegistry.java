@@ -1,7 +1,6 @@
 package com.lvwj.halo.statemachine;
 
 import cn.hutool.extra.spring.SpringUtil;
-import com.lvwj.halo.common.models.BusinessScenario;
 import com.lvwj.halo.common.models.IContext;
 import com.lvwj.halo.statemachine.builder.AlertFailCallback;
 import com.lvwj.halo.statemachine.builder.StateMachineBuilder;
@@ -46,10 +45,8 @@ public class StateMachineRegistry {
                                 if (!(ctx instanceof IContext)) {
                                     throw new TransitionFailException("C should implements IContext");
                                 }
+                                //业务场景已由状态机路由按场景预先分组，这里只需判断处理器条件
                                 IContext sc = (IContext) ctx;
-                                if (!isSatisfiedByScenario(transition.scenario(), sc.scenario(), sc.failover())) {
-                                    return false;
-                                }
                                 return processor.isSatisfied(sc);
                             })
                             .perform(((from, to, event, ctx) -> {
@@ -70,30 +67,4 @@ public class StateMachineRegistry {
             stateMachine.showStateMachine();
         }
     }
-
-    /**
-     * @param scenario1 StateTransition's scenario
-     * @param scenario2 IContext's scenario
-     * @return boolean
-     * @author lvweijie
-     * @date 2023/11/18 11:00
-     */
-    private boolean isSatisfiedByScenario(BusinessScenario scenario1, BusinessScenario scenario2, boolean failover) {
-        boolean result = false;
-        if (scenario1.equals(scenario2)) {
-            result = true;
-        } else {
-            //failover=true,允许降级判断场景是否满足
-            if (failover) {
-                if (scenario1.equals(BusinessScenario.of(scenario2.getBusiness(), scenario2.getUseCase()))) {
-                    result = true;
-                } else if (scenario1.equals(BusinessScenario.of(scenario2.getBusiness()))) {
-                    result = true;
-                } else if (scenario1.equals(BusinessScenario.of())) {
-                    result = true;
-                }
-            }
-        }
-        return result;
-    }
 }
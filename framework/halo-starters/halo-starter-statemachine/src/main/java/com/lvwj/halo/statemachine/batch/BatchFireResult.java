@@ -0,0 +1,95 @@
+package com.lvwj.halo.statemachine.batch;
+
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 批量触发结果：按转换统计成功、失败、未变更条数及耗时，并记录失败的实体
+ *
+ * @param <ID> 实体ID类型
+ * @author lvweijie
+ * @date 2026年10月19日 01:45
+ */
+public class BatchFireResult<ID> {
+
+    /**
+     * 转换(from-[event]->to) - 统计
+     */
+    private final Map<String, TransitionStat> stats = new LinkedHashMap<>();
+
+    /**
+     * 失败的实体ID - 失败原因，同一实体多次失败时保留最后一次
+     */
+    private final Map<ID, String> failures = new LinkedHashMap<>();
+
+    public Map<String, TransitionStat> getStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    public Map<ID, String> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    public long getSuccess() {
+        return stats.values().stream().mapToLong(TransitionStat::getSuccess).sum();
+    }
+
+    public long getFailure() {
+        return stats.values().stream().mapToLong(TransitionStat::getFailure).sum();
+    }
+
+    TransitionStat stat(String transition) {
+        return stats.computeIfAbsent(transition, TransitionStat::new);
+    }
+
+    void fail(String transition, ID id, String reason) {
+        stat(transition).failure++;
+        failures.put(id, reason);
+    }
+
+    @Override
+    public String toString() {
+        return "success=" + getSuccess() + ", failure=" + getFailure() + ", stats=" + stats.values();
+    }
+
+    @Getter
+    public static class TransitionStat {
+
+        private final String transition;
+
+        private long success;
+
+        private long failure;
+
+        /**
+         * 转换后状态未变化(如内部转换)，无需持久化
+         */
+        private long unchanged;
+
+        private long costNanos;
+
+        TransitionStat(String transition) {
+            this.transition = transition;
+        }
+
+        void success(long count) {
+            this.success += count;
+        }
+
+        void unchanged() {
+            this.unchanged++;
+        }
+
+        void cost(long nanos) {
+            this.costNanos += nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s[success=%d, failure=%d, unchanged=%d, cost=%dms]", transition, success, failure, unchanged, costNanos / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.lvwj.halo.statemachine.batch;
+
+import com.lvwj.halo.statemachine.StateMachine;
+import com.lvwj.halo.statemachine.StateMachineFactory;
+import com.lvwj.halo.statemachine.Transition;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 批量状态机：在无状态的StateMachine之上批量查询、迁移并持久化实体状态
+ * <p>
+ * 事件按chunkSize分片处理，每片：批量查询当前状态 → 按(源状态, 事件)分组，每组只校验一次转换是否存在 →
+ * 逐条路由转换(只求值条件) → 按(源状态, 目标状态)分组、以源状态为条件批量持久化 → 只对本次持久化成功的实体执行动作，
+ * 动作失败的实体以目标状态为条件改回源状态。
+ * 同一实体在一片内出现多次时提前切片，保证同一实体的事件按顺序生效
+ *
+ * @param <ID> 实体ID类型
+ * @param <S>  状态类型
+ * @param <E>  事件类型
+ * @param <C>  上下文类型
+ * @author lvweijie
+ * @date 2026年10月19日 01:50
+ */
+@Slf4j
+public class BatchStateMachine<ID, S, E, C> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final StateMachine<S, E, C> stateMachine;
+
+    private final BatchStateStore<ID, S> store;
+
+    private final int chunkSize;
+
+    public BatchStateMachine(String machineId, BatchStateStore<ID, S> store) {
+        this(StateMachineFactory.get(machineId), store, DEFAULT_CHUNK_SIZE);
+    }
+
+    public BatchStateMachine(StateMachine<S, E, C> stateMachine, BatchStateStore<ID, S> store, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.stateMachine = stateMachine;
+        this.store = store;
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchFireResult<ID> fireEvents(Collection<StateEvent<ID, E, C>> events) {
+        return fireEvents(events.stream());
+    }
+
+    public BatchFireResult<ID> fireEvents(Stream<StateEvent<ID, E, C>> events) {
+        BatchFireResult<ID> result = new BatchFireResult<>();
+        List<StateEvent<ID, E, C>> chunk = new ArrayList<>(chunkSize);
+        Set<ID> chunkIds = new HashSet<>();
+        Iterator<StateEvent<ID, E, C>> iterator = events.iterator();
+        while (iterator.hasNext()) {
+            StateEvent<ID, E, C> event = iterator.next();
+            if (chunk.size() >= chunkSize || chunkIds.contains(event.id())) {
+                fireChunk(chunk, result);
+                chunk.clear();
+                chunkIds.clear();
+            }
+            chunk.add(event);
+            chunkIds.add(event.id());
+        }
+        if (!chunk.isEmpty()) {
+            fireChunk(chunk, result);
+        }
+        log.info("[{}] batch fire events finished, {}", stateMachine.getMachineId(), result);
+        return result;
+    }
+
+    private void fireChunk(List<StateEvent<ID, E, C>> chunk, BatchFireResult<ID> result) {
+        List<ID> ids = new ArrayList<>(chunk.size());
+        for (StateEvent<ID, E, C> event : chunk) {
+            ids.add(event.id());
+        }
+        Map<ID, S> states = store.loadStates(ids);
+        //源状态 - 事件 - 事件列表
+        Map<S, Map<E, List<StateEvent<ID, E, C>>>> groups = new LinkedHashMap<>();
+        for (StateEvent<ID, E, C> event : chunk) {
+            S source = states.get(event.id());
+            if (null == source) {
+                fail(result, "?-[" + event.event() + "]", event.id(), "state not found");
+                continue;
+            }
+            groups.computeIfAbsent(source, k -> new LinkedHashMap<>()).computeIfAbsent(event.event(), k -> new ArrayList<>()).add(event);
+        }
+        for (Map.Entry<S, Map<E, List<StateEvent<ID, E, C>>>> entry : groups.entrySet()) {
+            for (Map.Entry<E, List<StateEvent<ID, E, C>>> group : entry.getValue().entrySet()) {
+                fireGroup(entry.getKey(), group.getKey(), group.getValue(), result);
+            }
+        }
+    }
+
+    private void fireGroup(S source, E event, List<StateEvent<ID, E, C>> group, BatchFireResult<ID> result) {
+        String groupKey = source + "-[" + event + "]";
+        if (!stateMachine.verify(source, event)) {
+            for (StateEvent<ID, E, C> stateEvent : group) {
+                fail(result, groupKey, stateEvent.id(), "no transition");
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        //目标状态 - 待执行动作的转换
+        Map<S, List<Routed<ID, S, E, C>>> targets = new LinkedHashMap<>();
+        for (StateEvent<ID, E, C> stateEvent : group) {
+            try {
+                Transition<S, E, C> transition = stateMachine.routeTransition(source, event, stateEvent.context());
+                if (null == transition) {
+                    //没有满足条件的转换，交给状态机回调失败处理，状态不变
+                    S target = stateMachine.fireEvent(source, event, stateEvent.context());
+                    unchanged(result, groupKey + "->" + target);
+                    continue;
+                }
+                S target = transition.getTarget().getId();
+                if (Objects.equals(source, target)) {
+                    //内部转换无需持久化，直接执行动作
+                    transition.transit(stateEvent.context(), false);
+                    unchanged(result, groupKey + "->" + target);
+                } else {
+                    targets.computeIfAbsent(target, k -> new ArrayList<>()).add(new Routed<>(stateEvent, transition));
+                }
+            } catch (Exception e) {
+                log.warn("[{}] fire event failed: {}", stateMachine.getMachineId(), stateEvent, e);
+                fail(result, groupKey, stateEvent.id(), e.getMessage());
+            }
+        }
+        long routeNanos = System.nanoTime() - start;
+        for (Map.Entry<S, List<Routed<ID, S, E, C>>> entry : targets.entrySet()) {
+            String transition = groupKey + "->" + entry.getKey();
+            long persistStart = System.nanoTime();
+            persist(source, entry.getKey(), entry.getValue(), transition, result);
+            //路由耗时按条数分摊到各目标状态
+            long nanos = routeNanos * entry.getValue().size() / group.size() + System.nanoTime() - persistStart;
+            result.stat(transition).cost(nanos);
+            Timer.builder("halo.statemachine.batch.transition")
+                    .description("批量状态迁移耗时")
+                    .tags("machine", stateMachine.getMachineId(), "transition", transition)
+                    .register(Metrics.globalRegistry)
+                    .record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 先以源状态为条件持久化，只对本次更新成功的实体执行动作；动作失败时再以目标状态为条件把状态改回源状态
+     */
+    private void persist(S source, S target, List<Routed<ID, S, E, C>> routed, String transition, BatchFireResult<ID> result) {
+        List<ID> ids = new ArrayList<>(routed.size());
+        for (Routed<ID, S, E, C> r : routed) {
+            ids.add(r.event().id());
+        }
+        Collection<ID> saved;
+        try {
+            saved = store.saveStates(source, target, ids);
+        } catch (Exception e) {
+            log.error("[{}] save states failed: {}", stateMachine.getMachineId(), transition, e);
+            for (ID id : ids) {
+                fail(result, transition, id, e.getMessage());
+            }
+            return;
+        }
+        Set<ID> savedIds = saved instanceof Set ? (Set<ID>) saved : new HashSet<>(saved);
+        List<ID> reverts = new ArrayList<>();
+        long success = 0;
+        for (Routed<ID, S, E, C> r : routed) {
+            ID id = r.event().id();
+            if (!savedIds.contains(id)) {
+                //保存时状态已被并发修改，不执行动作
+                fail(result, transition, id, "state changed concurrently");
+                continue;
+            }
+            try {
+                r.transition().transit(r.event().context(), false);
+                success++;
+            } catch (Exception e) {
+                log.warn("[{}] execute action failed: {}", stateMachine.getMachineId(), r.event(), e);
+                fail(result, transition, id, e.getMessage());
+                reverts.add(id);
+            }
+        }
+        result.stat(transition).success(success);
+        increment(transition, "success", success);
+        revert(source, target, reverts, transition);
+    }
+
+    private void revert(S source, S target, List<ID> ids, String transition) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            Collection<ID> reverted = store.saveStates(target, source, ids);
+            if (reverted.size() < ids.size()) {
+                log.error("[{}] revert states partially failed: {}, ids:{}, reverted:{}", stateMachine.getMachineId(), transition, ids, reverted);
+            }
+        } catch (Exception e) {
+            log.error("[{}] revert states failed: {}, ids:{}", stateMachine.getMachineId(), transition, ids, e);
+        }
+    }
+
+    private void unchanged(BatchFireResult<ID> result, String transition) {
+        result.stat(transition).unchanged();
+        increment(transition, "unchanged", 1);
+    }
+
+    private void fail(BatchFireResult<ID> result, String transition, ID id, String reason) {
+        result.fail(transition, id, reason);
+        increment(transition, "failure", 1);
+    }
+
+    private void increment(String transition, String status, long count) {
+        Counter.builder("halo.statemachine.batch.events")
+                .description("批量状态迁移条数")
+                .tags("machine", stateMachine.getMachineId(), "transition", transition, "status", status)
+                .register(Metrics.globalRegistry)
+                .increment(count);
+    }
+
+    private record Routed<ID, S, E, C>(StateEvent<ID, E, C> event, Transition<S, E, C> transition) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.lvwj.halo.statemachine.batch;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 批量状态存储
+ *
+ * @param <ID> 实体ID类型
+ * @param <S>  状态类型
+ * @author lvweijie
+ * @date 2026年10月19日 01:42
+ */
+public interface BatchStateStore<ID, S> {
+
+    /**
+     * 批量查询当前状态
+     *
+     * @param ids 实体ID
+     * @return 实体ID - 当前状态，不存在的实体不返回
+     */
+    Map<ID, S> loadStates(Collection<ID> ids);
+
+    /**
+     * 批量把状态从from迁移到to，只有当前状态仍为from的实体才会被更新
+     *
+     * @param from 源状态
+     * @param to   目标状态
+     * @param ids  实体ID
+     * @return 本次更新成功的实体ID，不包含已被并发改为目标状态的实体
+     */
+    Collection<ID> saveStates(S from, S to, Collection<ID> ids);
+}
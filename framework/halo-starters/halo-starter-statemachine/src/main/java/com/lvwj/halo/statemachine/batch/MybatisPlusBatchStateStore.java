@@ -0,0 +1,193 @@
+package com.lvwj.halo.statemachine.batch;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.core.toolkit.StringPool;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.mybatis.spring.SqlSessionHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * 基于MyBatis-Plus的批量状态存储
+ * <p>
+ * 每个实体一条 update ... set state=to where id=? and state=from，以源状态作为乐观锁条件，实体有@Version字段时同时递增版本号；
+ * 同一批实体通过JDBC批量执行一次发出，按每条语句的影响行数确定本次更新成功的实体，不把被并发改为目标状态的实体算作成功；
+ * 驱动批量执行不返回影响行数时，事务中先 select ... for update 锁定仍为源状态的实体再只更新它们，不在事务中则逐条更新
+ *
+ * @param <T>  实体类型
+ * @param <ID> 实体ID类型
+ * @param <S>  状态类型
+ * @author lvweijie
+ * @date 2026年10月19日 02:05
+ */
+public class MybatisPlusBatchStateStore<T, ID, S> implements BatchStateStore<ID, S> {
+
+    private final BaseMapper<T> mapper;
+
+    private final Class<T> entityClass;
+
+    private final SFunction<T, ID> idGetter;
+
+    private final SFunction<T, S> stateGetter;
+
+    private final String versionColumn;
+
+    private final String updateStatement;
+
+    private final String keyColumn;
+
+    private volatile Boolean batchRowCounts;
+
+    public MybatisPlusBatchStateStore(BaseMapper<T> mapper, Class<T> entityClass, SFunction<T, ID> idGetter, SFunction<T, S> stateGetter) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        Assert.notNull(tableInfo, "can not find table info of " + entityClass.getName());
+        this.mapper = mapper;
+        this.entityClass = entityClass;
+        this.idGetter = idGetter;
+        this.stateGetter = stateGetter;
+        this.versionColumn = tableInfo.isWithVersion() ? tableInfo.getVersionFieldInfo().getColumn() : null;
+        this.updateStatement = tableInfo.getCurrentNamespace() + StringPool.DOT + SqlMethod.UPDATE.getMethod();
+        this.keyColumn = tableInfo.getKeyColumn();
+    }
+
+    @Override
+    public Map<ID, S> loadStates(Collection<ID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<T> list = mapper.selectList(Wrappers.lambdaQuery(entityClass).select(idGetter, stateGetter).in(idGetter, ids));
+        Map<ID, S> states = new HashMap<>(list.size());
+        for (T t : list) {
+            states.put(idGetter.apply(t), stateGetter.apply(t));
+        }
+        return states;
+    }
+
+    @Override
+    public Collection<ID> saveStates(S from, S to, Collection<ID> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<ID> idList = new ArrayList<>(ids);
+        if (batchRowCounts()) {
+            int[] updateCounts = executeBatch(idList.size(), i -> casWrapper(from, to, idList.get(i)));
+            Set<ID> saved = new HashSet<>(idList.size());
+            for (int i = 0; i < updateCounts.length; i++) {
+                if (updateCounts[i] > 0) {
+                    saved.add(idList.get(i));
+                }
+            }
+            return saved;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            //驱动不返回影响行数：事务中先锁定仍为源状态的实体并只更新这些实体，提交前它们的状态不会被并发修改
+            List<ID> locked = new ArrayList<>(idList.size());
+            for (T t : mapper.selectList(Wrappers.lambdaQuery(entityClass).select(idGetter).in(idGetter, idList).eq(stateGetter, from).last("for update"))) {
+                locked.add(idGetter.apply(t));
+            }
+            if (!locked.isEmpty()) {
+                executeBatch(locked.size(), i -> casWrapper(from, to, locked.get(i)));
+            }
+            return locked;
+        }
+        //不在事务中无法锁定，逐条更新，以每条语句的影响行数为准
+        Set<ID> saved = new HashSet<>(idList.size());
+        for (ID id : idList) {
+            if (mapper.update(null, casWrapper(from, to, id)) > 0) {
+                saved.add(id);
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * 驱动批量执行时是否返回每条语句的影响行数(部分驱动只返回SUCCESS_NO_INFO)，首次保存时用两条不匹配任何行的语句探测
+     */
+    private boolean batchRowCounts() {
+        Boolean supported = batchRowCounts;
+        if (null == supported) {
+            if (null == keyColumn) {
+                supported = false;
+            } else {
+                int[] updateCounts = executeBatch(2, i -> Wrappers.lambdaUpdate(entityClass).setSql(keyColumn + " = " + keyColumn).apply("1 = 0"));
+                supported = Arrays.stream(updateCounts).noneMatch(count -> count == Statement.SUCCESS_NO_INFO);
+            }
+            batchRowCounts = supported;
+        }
+        return supported;
+    }
+
+    /**
+     * 通过JDBC批量执行一次发出count条update语句，返回与语句顺序一致的影响行数
+     */
+    private int[] executeBatch(int count, IntFunction<LambdaUpdateWrapper<T>> wrapper) {
+        SqlSessionFactory sqlSessionFactory = SqlHelper.sqlSessionFactory(entityClass);
+        //与SqlHelper.executeBatch一致：先提交当前会话中缓存的语句，批量会话复用事务中的连接
+        SqlSessionHolder sqlSessionHolder = (SqlSessionHolder) TransactionSynchronizationManager.getResource(sqlSessionFactory);
+        boolean transaction = TransactionSynchronizationManager.isSynchronizationActive();
+        if (null != sqlSessionHolder) {
+            sqlSessionHolder.getSqlSession().commit(!transaction);
+        }
+        Map<Object, Integer> paramIndexes = new IdentityHashMap<>(count);
+        List<BatchResult> results;
+        try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            for (int i = 0; i < count; i++) {
+                MapperMethod.ParamMap<Object> param = new MapperMethod.ParamMap<>();
+                param.put(Constants.ENTITY, null);
+                param.put(Constants.WRAPPER, wrapper.apply(i));
+                paramIndexes.put(param, i);
+                sqlSession.update(updateStatement, param);
+            }
+            results = sqlSession.flushStatements();
+            sqlSession.commit(!transaction);
+        }
+        int[] updateCounts = new int[count];
+        for (BatchResult batchResult : results) {
+            List<Object> params = batchResult.getParameterObjects();
+            int[] counts = batchResult.getUpdateCounts();
+            for (int i = 0; i < counts.length; i++) {
+                updateCounts[paramIndexes.get(params.get(i))] = counts[i];
+            }
+        }
+        return updateCounts;
+    }
+
+    /**
+     * update ... set state=to where id=? and state=from
+     */
+    private LambdaUpdateWrapper<T> casWrapper(S from, S to, ID id) {
+        LambdaUpdateWrapper<T> wrapper = Wrappers.lambdaUpdate(entityClass)
+                .set(stateGetter, to)
+                .eq(idGetter, id)
+                .eq(stateGetter, from);
+        if (null != versionColumn) {
+            wrapper.setSql(versionColumn + " = " + versionColumn + " + 1");
+        }
+        return wrapper;
+    }
+}
@@ -0,0 +1,39 @@
+package com.lvwj.halo.statemachine.batch;
+
+import lombok.AllArgsConstructor;
+
+/**
+ * 批量触发的单条事件
+ *
+ * @param <ID> 实体ID类型
+ * @param <E>  事件类型
+ * @param <C>  上下文类型
+ * @author lvweijie
+ * @date 2026年10月19日 01:40
+ */
+@AllArgsConstructor(staticName = "of")
+public class StateEvent<ID, E, C> {
+
+    private ID id;
+
+    private E event;
+
+    private C context;
+
+    public ID id() {
+        return this.id;
+    }
+
+    public E event() {
+        return this.event;
+    }
+
+    public C context() {
+        return this.context;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Id[%s] Event[%s]", id, event);
+    }
+}
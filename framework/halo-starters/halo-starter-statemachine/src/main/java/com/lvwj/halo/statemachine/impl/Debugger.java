@@ -16,6 +16,10 @@ public class Debugger {
         }
     }
 
+    public static boolean isDebugOn(){
+        return isDebugOn;
+    }
+
     public static void enableDebug(){
         isDebugOn = true;
     }
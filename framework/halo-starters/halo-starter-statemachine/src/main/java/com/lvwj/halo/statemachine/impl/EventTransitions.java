@@ -34,8 +34,8 @@ public class EventTransitions<S,E,C> {
             verify(transitions, transition);
             transitions.add(transition);
         }
-        //按业务场景排序
-        transitions.sort(Comparator.comparing(s -> s.getScenario().order()));
+        //按业务场景排序，未设置业务场景的转换排在最后
+        transitions.sort(Comparator.comparing(s -> null == s.getScenario() ? Integer.MAX_VALUE : s.getScenario().order()));
     }
 
     /**
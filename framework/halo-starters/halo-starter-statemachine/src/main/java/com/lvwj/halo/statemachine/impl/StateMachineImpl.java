@@ -6,7 +6,6 @@ import com.lvwj.halo.statemachine.Transition;
 import com.lvwj.halo.statemachine.Visitor;
 import com.lvwj.halo.statemachine.builder.FailCallback;
 
-import java.util.List;
 import java.util.Map;
 
 /**
@@ -27,6 +26,11 @@ public class StateMachineImpl<S, E, C> implements StateMachine<S, E, C> {
 
     private boolean ready;
 
+    /**
+     * build时冻结的路由表
+     */
+    private TransitionTable<S, E, C> transitionTable;
+
     private FailCallback<S, E, C> failCallback;
 
     public StateMachineImpl(Map<S, State<S, E, C>> stateMap) {
@@ -37,11 +41,7 @@ public class StateMachineImpl<S, E, C> implements StateMachine<S, E, C> {
     public boolean verify(S sourceStateId, E event) {
         isReady();
 
-        State sourceState = getState(sourceStateId);
-
-        List<Transition<S, E, C>> transitions = sourceState.getEventTransitions(event);
-
-        return transitions != null && transitions.size() != 0;
+        return transitionTable.contains(sourceStateId, event);
     }
 
     @Override
@@ -58,35 +58,10 @@ public class StateMachineImpl<S, E, C> implements StateMachine<S, E, C> {
         return transition.transit(ctx, false).getId();
     }
 
-    private Transition<S, E, C> routeTransition(S sourceStateId, E event, C ctx) {
-        State sourceState = getState(sourceStateId);
-
-        List<Transition<S, E, C>> transitions = sourceState.getEventTransitions(event);
-
-        if (transitions == null || transitions.size() == 0) {
-            return null;
-        }
-
-        Transition<S, E, C> transit = null;
-        for (Transition<S, E, C> transition : transitions) {
-            if (transition.getCondition() == null) {
-                transit = transition;
-            } else if (transition.getCondition().isSatisfied(ctx)) {
-                transit = transition;
-                break;
-            }
-        }
-
-        return transit;
-    }
-
-    private State getState(S currentStateId) {
-        State state = StateHelper.getState(stateMap, currentStateId);
-        if (state == null) {
-            showStateMachine();
-            throw new StateMachineException(currentStateId + " is not found, please check state machine");
-        }
-        return state;
+    @Override
+    public Transition<S, E, C> routeTransition(S sourceStateId, E event, C ctx) {
+        isReady();
+        return transitionTable.route(sourceStateId, event, ctx);
     }
 
     private void isReady() {
@@ -128,6 +103,9 @@ public class StateMachineImpl<S, E, C> implements StateMachine<S, E, C> {
     }
 
     public void setReady(boolean ready) {
+        if (ready) {
+            this.transitionTable = TransitionTable.compile(stateMap.values());
+        }
         this.ready = ready;
     }
 
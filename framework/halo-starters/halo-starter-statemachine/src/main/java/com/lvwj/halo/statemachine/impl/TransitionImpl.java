@@ -99,7 +99,9 @@ public class TransitionImpl<S,E,C> implements Transition<S,E,C> {
 
     @Override
     public State<S, E, C> transit(C ctx, boolean checkCondition) {
-        Debugger.debug("Do transition: " + this);
+        if (Debugger.isDebugOn()) {
+            Debugger.debug("Do transition: " + this);
+        }
         this.verify();
         if (!checkCondition || condition == null || condition.isSatisfied(ctx)) {
             if (action != null) {
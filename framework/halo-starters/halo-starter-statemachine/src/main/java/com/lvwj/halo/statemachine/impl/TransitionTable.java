@@ -0,0 +1,244 @@
+package com.lvwj.halo.statemachine.impl;
+
+import com.lvwj.halo.common.models.BusinessScenario;
+import com.lvwj.halo.common.models.IContext;
+import com.lvwj.halo.statemachine.State;
+import com.lvwj.halo.statemachine.Transition;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 状态机构建完成后冻结的转换路由表
+ * <p>
+ * 状态、事件为同一枚举类型时按ordinal建数组索引，否则退回HashMap；
+ * 每个(状态, 事件)下的转换按业务场景预先分组，触发事件时只对匹配场景的候选转换求值，路由过程不创建对象
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 01:10
+ */
+final class TransitionTable<S, E, C> {
+
+    /**
+     * 未预先分组的上下文场景按需补充，超过上限后不再缓存
+     */
+    private static final int MAX_SCENARIO_CACHE = 1024;
+
+    private static final Transition[] EMPTY = new Transition[0];
+
+    private final Class<?> stateEnum;
+    private final Class<?> eventEnum;
+    /**
+     * 枚举状态：state.ordinal - event.ordinal - Route
+     */
+    private final Route[][] routeArray;
+    /**
+     * 非枚举状态或事件：state - event - Route
+     */
+    private final Map<S, Map<E, Route>> routeMap;
+
+    private TransitionTable(Class<?> stateEnum, Class<?> eventEnum, Route[][] routeArray, Map<S, Map<E, Route>> routeMap) {
+        this.stateEnum = stateEnum;
+        this.eventEnum = eventEnum;
+        this.routeArray = routeArray;
+        this.routeMap = routeMap;
+    }
+
+    static <S, E, C> TransitionTable<S, E, C> compile(Collection<State<S, E, C>> states) {
+        Set<Object> stateIds = new HashSet<>();
+        Set<Object> events = new HashSet<>();
+        for (State<S, E, C> state : states) {
+            stateIds.add(state.getId());
+            for (Transition<S, E, C> transition : state.getAllTransitions()) {
+                events.add(transition.getEvent());
+            }
+        }
+        Class<?> stateEnum = enumType(stateIds);
+        Class<?> eventEnum = enumType(events);
+        if (null != stateEnum && null != eventEnum) {
+            int eventCount = eventEnum.getEnumConstants().length;
+            Route[][] routeArray = new Route[stateEnum.getEnumConstants().length][];
+            for (State<S, E, C> state : states) {
+                Route[] eventRoutes = new Route[eventCount];
+                for (Map.Entry<E, List<Transition<S, E, C>>> entry : groupByEvent(state).entrySet()) {
+                    eventRoutes[((Enum<?>) entry.getKey()).ordinal()] = new Route(entry.getValue());
+                }
+                routeArray[((Enum<?>) state.getId()).ordinal()] = eventRoutes;
+            }
+            return new TransitionTable<>(stateEnum, eventEnum, routeArray, null);
+        }
+        Map<S, Map<E, Route>> routeMap = new HashMap<>();
+        for (State<S, E, C> state : states) {
+            Map<E, Route> eventRoutes = new HashMap<>();
+            for (Map.Entry<E, List<Transition<S, E, C>>> entry : groupByEvent(state).entrySet()) {
+                eventRoutes.put(entry.getKey(), new Route(entry.getValue()));
+            }
+            routeMap.put(state.getId(), eventRoutes);
+        }
+        return new TransitionTable<>(null, null, null, routeMap);
+    }
+
+    /**
+     * 是否存在(状态, 事件)的转换
+     */
+    boolean contains(S stateId, E event) {
+        return null != route(stateId, event);
+    }
+
+    /**
+     * 路由转换：依次对候选转换求值，第一个满足条件的胜出；无条件的转换作为兜底，候选已按场景由具体到通配排序，取第一个
+     */
+    @SuppressWarnings("unchecked")
+    Transition<S, E, C> route(S stateId, E event, C ctx) {
+        Route route = route(stateId, event);
+        if (null == route) {
+            return null;
+        }
+        Transition<S, E, C>[] candidates = route.candidates(ctx);
+        Transition<S, E, C> transit = null;
+        for (Transition<S, E, C> transition : candidates) {
+            if (transition.getCondition() == null) {
+                if (null == transit) {
+                    transit = transition;
+                }
+            } else if (transition.getCondition().isSatisfied(ctx)) {
+                return transition;
+            }
+        }
+        return transit;
+    }
+
+    private Route route(S stateId, E event) {
+        if (null == stateId || null == event) {
+            return null;
+        }
+        if (null == routeArray) {
+            Map<E, Route> eventRoutes = routeMap.get(stateId);
+            return null == eventRoutes ? null : eventRoutes.get(event);
+        }
+        if (!isEnumOf(stateId, stateEnum) || !isEnumOf(event, eventEnum)) {
+            return null;
+        }
+        Route[] eventRoutes = routeArray[((Enum<?>) stateId).ordinal()];
+        return null == eventRoutes ? null : eventRoutes[((Enum<?>) event).ordinal()];
+    }
+
+    /**
+     * @param transitionScenario 转换配置的业务场景
+     * @param contextScenario    上下文的业务场景
+     * @param failover           找不到对应的业务场景是否降级
+     */
+    static boolean isSatisfiedByScenario(BusinessScenario transitionScenario, BusinessScenario contextScenario, boolean failover) {
+        if (null == transitionScenario) {
+            transitionScenario = BusinessScenario.of();
+        }
+        if (transitionScenario.equals(contextScenario)) {
+            return true;
+        }
+        //failover=true,允许降级判断场景是否满足
+        if (failover && null != contextScenario) {
+            return transitionScenario.equals(BusinessScenario.of(contextScenario.getBusiness(), contextScenario.getUseCase()))
+                    || transitionScenario.equals(BusinessScenario.of(contextScenario.getBusiness()))
+                    || transitionScenario.equals(BusinessScenario.of());
+        }
+        return false;
+    }
+
+    /**
+     * 未设置业务场景(null)的转换匹配任意场景；设置为默认场景的转换仍按场景及failover匹配
+     */
+    private static boolean isWildcard(BusinessScenario scenario) {
+        return null == scenario;
+    }
+
+    private static <S, E, C> Map<E, List<Transition<S, E, C>>> groupByEvent(State<S, E, C> state) {
+        //getAllTransitions按事件分组返回，且同一事件下已按业务场景排序
+        Map<E, List<Transition<S, E, C>>> map = new HashMap<>();
+        for (Transition<S, E, C> transition : state.getAllTransitions()) {
+            map.computeIfAbsent(transition.getEvent(), k -> new ArrayList<>()).add(transition);
+        }
+        return map;
+    }
+
+    private static Class<?> enumType(Set<Object> ids) {
+        Class<?> type = null;
+        for (Object id : ids) {
+            if (!(id instanceof Enum<?> e)) {
+                return null;
+            }
+            if (null == type) {
+                type = e.getDeclaringClass();
+            } else if (type != e.getDeclaringClass()) {
+                return null;
+            }
+        }
+        return type;
+    }
+
+    private static boolean isEnumOf(Object id, Class<?> enumType) {
+        return id instanceof Enum<?> e && e.getDeclaringClass() == enumType;
+    }
+
+    /**
+     * 同一(状态, 事件)下的转换，按业务场景预先分组
+     */
+    private static final class Route {
+        private final Transition[] all;
+        private final Transition[] wildcards;
+        private final Map<BusinessScenario, Transition[]> exact = new ConcurrentHashMap<>();
+        private final Map<BusinessScenario, Transition[]> failover = new ConcurrentHashMap<>();
+
+        Route(List<? extends Transition> transitions) {
+            this.all = transitions.toArray(EMPTY);
+            this.wildcards = transitions.stream().filter(t -> isWildcard(t.getScenario())).toArray(Transition[]::new);
+            for (Transition transition : all) {
+                BusinessScenario scenario = null == transition.getScenario() ? BusinessScenario.of() : transition.getScenario();
+                exact.computeIfAbsent(scenario, k -> partition(k, false));
+                failover.computeIfAbsent(scenario, k -> partition(k, true));
+            }
+        }
+
+        /**
+         * 上下文不是IContext时返回全部转换，由条件自行判断
+         */
+        Transition[] candidates(Object ctx) {
+            if (!(ctx instanceof IContext sc)) {
+                return all;
+            }
+            BusinessScenario scenario = sc.scenario();
+            if (null == scenario) {
+                return wildcards;
+            }
+            Map<BusinessScenario, Transition[]> cache = sc.failover() ? failover : exact;
+            Transition[] candidates = cache.get(scenario);
+            if (null == candidates) {
+                candidates = partition(scenario, sc.failover());
+                if (cache.size() < MAX_SCENARIO_CACHE) {
+                    cache.putIfAbsent(scenario, candidates);
+                }
+            }
+            return candidates;
+        }
+
+        /**
+         * 匹配场景的转换在前；未设置业务场景的转换(如internalTransition)视为通配，排在其后作为兜底
+         */
+        private Transition[] partition(BusinessScenario scenario, boolean failover) {
+            List<Transition> candidates = new ArrayList<>(all.length);
+            for (Transition transition : all) {
+                if (!isWildcard(transition.getScenario()) && isSatisfiedByScenario(transition.getScenario(), scenario, failover)) {
+                    candidates.add(transition);
+                }
+            }
+            candidates.addAll(List.of(wildcards));
+            return candidates.toArray(EMPTY);
+        }
+
+    }
+}
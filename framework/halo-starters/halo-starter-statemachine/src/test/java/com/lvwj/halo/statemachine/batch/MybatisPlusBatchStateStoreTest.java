@@ -0,0 +1,121 @@
+package com.lvwj.halo.statemachine.batch;
+
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.annotation.Version;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.mapping.Environment;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mybatis.spring.SqlSessionTemplate;
+import org.mybatis.spring.transaction.SpringManagedTransactionFactory;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 基于MyBatis-Plus的批量状态存储测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 14:40
+ */
+class MybatisPlusBatchStateStoreTest {
+
+    private JdbcDataSource dataSource;
+    private TaskMapper mapper;
+    private MybatisPlusBatchStateStore<TaskPO, Long, String> store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:batch_state_" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table t_task(id bigint primary key, state varchar(16), version int)");
+            //3已被并发改为目标状态
+            statement.execute("insert into t_task values (1, 'INIT', 0), (2, 'INIT', 0), (3, 'DONE', 1)");
+        }
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setEnvironment(new Environment("test", new SpringManagedTransactionFactory(), dataSource));
+        configuration.addMapper(TaskMapper.class);
+        mapper = new SqlSessionTemplate(new MybatisSqlSessionFactoryBuilder().build(configuration)).getMapper(TaskMapper.class);
+        store = new MybatisPlusBatchStateStore<>(mapper, TaskPO.class, TaskPO::getId, TaskPO::getState);
+    }
+
+    @Test
+    void batchUpdateCountsExcludeEntitiesAlreadyInTarget() {
+        assertEquals(Set.of(1L, 2L), new HashSet<>(store.saveStates("INIT", "DONE", List.of(1L, 2L, 3L, 4L))));
+        assertEquals(Boolean.TRUE, ReflectionTestUtils.getField(store, "batchRowCounts"));
+        assertDone();
+    }
+
+    @Test
+    void withoutRowCountsLocksSourceRowsInTransaction() {
+        ReflectionTestUtils.setField(store, "batchRowCounts", false);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        assertEquals(Set.of(1L, 2L), new HashSet<>(transactionTemplate.execute(status -> store.saveStates("INIT", "DONE", List.of(1L, 2L, 3L, 4L)))));
+        assertDone();
+    }
+
+    @Test
+    void withoutRowCountsUpdatesOneByOneOutsideTransaction() {
+        ReflectionTestUtils.setField(store, "batchRowCounts", false);
+
+        assertEquals(Set.of(1L, 2L), new HashSet<>(store.saveStates("INIT", "DONE", List.of(1L, 2L, 3L, 4L))));
+        assertDone();
+    }
+
+    private void assertDone() {
+        assertEquals(List.of("DONE", "DONE", "DONE"), mapper.selectList(null).stream().map(TaskPO::getState).toList());
+        //已是目标状态的3未被本次更新
+        assertEquals(List.of(1, 1, 1), mapper.selectList(null).stream().map(TaskPO::getVersion).toList());
+    }
+
+    @TableName("t_task")
+    public static class TaskPO {
+        @TableId
+        private Long id;
+        private String state;
+        @Version
+        private Integer version;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getState() {
+            return state;
+        }
+
+        public void setState(String state) {
+            this.state = state;
+        }
+
+        public Integer getVersion() {
+            return version;
+        }
+
+        public void setVersion(Integer version) {
+            this.version = version;
+        }
+    }
+
+    public interface TaskMapper extends BaseMapper<TaskPO> {
+    }
+}
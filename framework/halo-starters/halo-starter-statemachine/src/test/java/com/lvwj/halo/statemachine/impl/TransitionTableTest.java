@@ -0,0 +1,206 @@
+package com.lvwj.halo.statemachine.impl;
+
+import com.lvwj.halo.common.models.BusinessScenario;
+import com.lvwj.halo.common.models.IContext;
+import com.lvwj.halo.statemachine.StateMachine;
+import com.lvwj.halo.statemachine.builder.StateMachineBuilder;
+import com.lvwj.halo.statemachine.builder.StateMachineBuilderFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 状态机转换路由表测试
+ *
+ * @author lvweijie
+ * @date 2026年10月19日 12:20
+ */
+class TransitionTableTest {
+
+    private static final AtomicInteger MACHINE_SEQ = new AtomicInteger();
+    private static final BusinessScenario MALL = BusinessScenario.of("mall");
+
+    private final List<String> actions = new ArrayList<>();
+    private final List<String> fails = new ArrayList<>();
+
+    @Test
+    void routesEnumStatesAndEvents() {
+        StateMachineBuilder<OrderState, OrderEvent, Ctx> builder = newBuilder();
+        builder.externalTransition().scenario(BusinessScenario.of()).from(OrderState.INIT).to(OrderState.PAID).on(OrderEvent.PAY)
+                .perform((from, to, event, ctx) -> actions.add(from + "->" + to));
+        builder.externalTransition().scenario(BusinessScenario.of()).from(OrderState.PAID).to(OrderState.SHIPPED).on(OrderEvent.SHIP);
+        StateMachine<OrderState, OrderEvent, Ctx> machine = build(builder);
+
+        assertEquals(OrderState.PAID, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx()));
+        assertEquals(List.of("INIT->PAID"), actions);
+        assertEquals(OrderState.SHIPPED, machine.fireEvent(OrderState.PAID, OrderEvent.SHIP, new Ctx()));
+        assertTrue(machine.verify(OrderState.INIT, OrderEvent.PAY));
+        assertFalse(machine.verify(OrderState.INIT, OrderEvent.SHIP));
+        assertFalse(machine.verify(OrderState.DONE, OrderEvent.PAY));
+
+        //没有转换时触发失败回调，状态不变
+        assertEquals(OrderState.SHIPPED, machine.fireEvent(OrderState.SHIPPED, OrderEvent.PAY, new Ctx()));
+        assertNull(machine.routeTransition(OrderState.DONE, OrderEvent.SHIP, new Ctx()));
+        assertEquals(List.of("SHIPPED:PAY"), fails);
+    }
+
+    @Test
+    void routesNonEnumStates() {
+        StateMachineBuilder<String, String, Ctx> builder = StateMachineBuilderFactory.create();
+        builder.externalTransition().scenario(BusinessScenario.of()).from("A").to("B").on("go");
+        builder.externalTransition().scenario(BusinessScenario.of()).from("B").to("C").on("go");
+        StateMachine<String, String, Ctx> machine = builder.build(machineId());
+
+        assertEquals("B", machine.fireEvent("A", "go", new Ctx()));
+        assertEquals("C", machine.fireEvent("B", "go", new Ctx()));
+        assertNull(machine.routeTransition("C", "go", new Ctx()));
+        assertFalse(machine.verify("A", "back"));
+    }
+
+    @Test
+    void defaultScenarioRequiresMatchOrFailover() {
+        StateMachineBuilder<OrderState, OrderEvent, Ctx> builder = newBuilder();
+        builder.externalTransition().scenario(BusinessScenario.of()).from(OrderState.INIT).to(OrderState.PAID).on(OrderEvent.PAY);
+        StateMachine<OrderState, OrderEvent, Ctx> machine = build(builder);
+
+        //默认业务场景的转换不是通配，其他场景只有降级时才能匹配
+        assertEquals(OrderState.INIT, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(MALL, false)));
+        assertEquals(OrderState.INIT, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(BusinessScenario.of("mall", "vip", "new"), false)));
+        assertEquals(OrderState.INIT, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(null, true)));
+        assertEquals(List.of("INIT:PAY", "INIT:PAY", "INIT:PAY"), fails);
+
+        assertEquals(OrderState.PAID, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(MALL, true)));
+        assertEquals(OrderState.PAID, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(BusinessScenario.of("mall", "vip", "new"), true)));
+        assertEquals(OrderState.PAID, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx()));
+        assertEquals(3, fails.size());
+    }
+
+    @Test
+    void unsetScenarioTransitionIsWildcard() {
+        StateMachineBuilder<OrderState, OrderEvent, Ctx> builder = newBuilder();
+        builder.internalTransition().within(OrderState.INIT).on(OrderEvent.PAY)
+                .perform((from, to, event, ctx) -> actions.add("internal"));
+        builder.externalTransition().scenario(MALL).from(OrderState.INIT).to(OrderState.CANCELED).on(OrderEvent.PAY);
+        StateMachine<OrderState, OrderEvent, Ctx> machine = build(builder);
+
+        //未设置业务场景的转换匹配任意场景，包括上下文场景为空
+        assertEquals(OrderState.INIT, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(BusinessScenario.of("shop"), false)));
+        assertEquals(OrderState.INIT, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(null, false)));
+        assertEquals(List.of("internal", "internal"), actions);
+        //匹配场景的转换优先于通配
+        assertEquals(OrderState.CANCELED, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(MALL, false)));
+        assertEquals(2, actions.size());
+        assertTrue(fails.isEmpty());
+    }
+
+    @Test
+    void specificScenarioIsPreferredOverWildcard() {
+        StateMachineBuilder<OrderState, OrderEvent, Ctx> builder = newBuilder();
+        builder.externalTransition().scenario(BusinessScenario.of()).from(OrderState.INIT).to(OrderState.PAID).on(OrderEvent.PAY);
+        builder.externalTransition().scenario(MALL).from(OrderState.INIT).to(OrderState.CANCELED).on(OrderEvent.PAY);
+        StateMachine<OrderState, OrderEvent, Ctx> machine = build(builder);
+
+        assertEquals(OrderState.CANCELED, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(MALL, false)));
+        assertEquals(OrderState.PAID, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx()));
+        assertEquals(OrderState.INIT, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(BusinessScenario.of("shop"), false)));
+        assertEquals(OrderState.PAID, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(BusinessScenario.of("shop"), true)));
+        //降级时按 业务#用例 -> 业务 -> 默认 匹配，业务场景优先于默认
+        assertEquals(OrderState.CANCELED, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(BusinessScenario.of("mall", "vip"), true)));
+    }
+
+    @Test
+    void satisfiedConditionWinsOverUnconditionalFallback() {
+        StateMachineBuilder<OrderState, OrderEvent, Ctx> builder = newBuilder();
+        builder.externalTransition().scenario(BusinessScenario.of()).from(OrderState.PAID).to(OrderState.DONE).on(OrderEvent.SHIP);
+        builder.externalTransition().scenario(BusinessScenario.of()).from(OrderState.PAID).to(OrderState.SHIPPED).on(OrderEvent.SHIP)
+                .when(ctx -> ctx.amount > 100);
+        builder.externalTransition().scenario(BusinessScenario.of()).from(OrderState.INIT).to(OrderState.PAID).on(OrderEvent.PAY)
+                .when(ctx -> ctx.amount > 0);
+        StateMachine<OrderState, OrderEvent, Ctx> machine = build(builder);
+
+        assertEquals(OrderState.SHIPPED, machine.fireEvent(OrderState.PAID, OrderEvent.SHIP, new Ctx(200)));
+        assertEquals(OrderState.DONE, machine.fireEvent(OrderState.PAID, OrderEvent.SHIP, new Ctx(50)));
+        assertEquals(OrderState.INIT, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(0)));
+        assertEquals(List.of("INIT:PAY"), fails);
+    }
+
+    @Test
+    void routingIsStableAcrossRepeatedFires() {
+        StateMachineBuilder<OrderState, OrderEvent, Ctx> builder = newBuilder();
+        builder.externalTransition().scenario(MALL).from(OrderState.INIT).to(OrderState.CANCELED).on(OrderEvent.PAY);
+        builder.externalTransition().scenario(BusinessScenario.of()).from(OrderState.INIT).to(OrderState.PAID).on(OrderEvent.CANCEL);
+        StateMachine<OrderState, OrderEvent, Ctx> machine = build(builder);
+
+        //未预先分组的上下文场景按需补充，多次触发结果一致
+        for (int i = 0; i < 3; i++) {
+            assertEquals(OrderState.CANCELED, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(MALL, false)));
+            assertEquals(OrderState.INIT, machine.fireEvent(OrderState.INIT, OrderEvent.PAY, new Ctx(BusinessScenario.of("shop"), false)));
+            assertEquals(OrderState.INIT, machine.fireEvent(OrderState.INIT, OrderEvent.CANCEL, new Ctx(BusinessScenario.of("shop" + i), false)));
+            assertEquals(OrderState.PAID, machine.fireEvent(OrderState.INIT, OrderEvent.CANCEL, new Ctx(BusinessScenario.of("shop" + i), true)));
+        }
+        assertEquals(6, fails.size());
+    }
+
+    private StateMachineBuilder<OrderState, OrderEvent, Ctx> newBuilder() {
+        StateMachineBuilder<OrderState, OrderEvent, Ctx> builder = StateMachineBuilderFactory.create();
+        builder.setFailCallback((state, event, ctx) -> fails.add(state + ":" + event));
+        return builder;
+    }
+
+    private static StateMachine<OrderState, OrderEvent, Ctx> build(StateMachineBuilder<OrderState, OrderEvent, Ctx> builder) {
+        return builder.build(machineId());
+    }
+
+    private static String machineId() {
+        return "TransitionTableTest" + MACHINE_SEQ.incrementAndGet();
+    }
+
+    enum OrderState {
+        INIT, PAID, SHIPPED, CANCELED, DONE
+    }
+
+    enum OrderEvent {
+        PAY, SHIP, CANCEL
+    }
+
+    static class Ctx implements IContext {
+        private final BusinessScenario scenario;
+        private final boolean failover;
+        private final int amount;
+
+        Ctx() {
+            this(BusinessScenario.of(), false, 0);
+        }
+
+        Ctx(int amount) {
+            this(BusinessScenario.of(), false, amount);
+        }
+
+        Ctx(BusinessScenario scenario, boolean failover) {
+            this(scenario, failover, 0);
+        }
+
+        private Ctx(BusinessScenario scenario, boolean failover, int amount) {
+            this.scenario = scenario;
+            this.failover = failover;
+            this.amount = amount;
+        }
+
+        @Override
+        public BusinessScenario scenario() {
+            return scenario;
+        }
+
+        @Override
+        public boolean failover() {
+            return failover;
+        }
+    }
+}